@@ -1,8 +1,14 @@
 package com.bitbreeds.webrtc.example;
 
+import com.bitbreeds.webrtc.common.ConnectionExecutors;
+import com.bitbreeds.webrtc.dtls.CertificateGenerator;
+import com.bitbreeds.webrtc.dtls.CryptoBackend;
+import com.bitbreeds.webrtc.dtls.HandshakePool;
 import com.bitbreeds.webrtc.dtls.KeyStoreInfo;
 import com.bitbreeds.webrtc.peerconnection.*;
+import com.bitbreeds.webrtc.sctp.impl.buffer.StreamSchedulerType;
 import com.bitbreeds.webrtc.signaling.Answer;
+import com.bitbreeds.webrtc.transport.UdpReactor;
 import org.apache.camel.CamelContext;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.component.websocket.WebsocketComponent;
@@ -18,9 +24,13 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 /*
  * Copyright (c) 16/04/16, Jonas Waage
@@ -89,7 +99,51 @@ public class DatachannelServer {
 
         context.bind("sslContextParameters",sslParameters());
 
-        SimplePeerServer peerConnectionServer = new SimplePeerServer(keyStoreInfo);
+        String sharedPorts = System.getProperty(ServerProperties.SHARED_PORTS);
+        String reactorThreads = System.getProperty(ServerProperties.REACTOR_THREADS);
+        List<Integer> ports = sharedPorts == null ? Collections.emptyList() :
+                Arrays.stream(sharedPorts.split(","))
+                        .map(String::trim)
+                        .map(Integer::valueOf)
+                        .collect(Collectors.toList());
+
+        UdpReactor reactor = reactorThreads != null ? new UdpReactor(Integer.parseInt(reactorThreads)) : null;
+        SimplePeerServer peerConnectionServer;
+        if(Boolean.getBoolean(ServerProperties.GENERATE_CERTIFICATE)) {
+            peerConnectionServer = new SimplePeerServer(CertificateGenerator.ecdsa(), reactor, ports);
+        } else if(reactor != null) {
+            peerConnectionServer = new SimplePeerServer(keyStoreInfo, reactor, ports);
+        } else {
+            peerConnectionServer = new SimplePeerServer(keyStoreInfo, ports);
+        }
+
+        if(Boolean.getBoolean(ServerProperties.VIRTUAL_THREADS)) {
+            peerConnectionServer.setConnectionExecutor(ConnectionExecutors.virtualThreads());
+        }
+
+        peerConnectionServer.setCryptoBackend(CryptoBackend.valueOf(
+                System.getProperty(ServerProperties.CRYPTO_BACKEND, CryptoBackend.BC.name()).toUpperCase()));
+
+        peerConnectionServer.setZeroChecksum(Boolean.parseBoolean(
+                System.getProperty(ServerProperties.ZERO_CHECKSUM, "true")));
+
+        peerConnectionServer.setPathMtuDiscovery(Boolean.parseBoolean(
+                System.getProperty(ServerProperties.PATH_MTU_DISCOVERY, "true")));
+
+        peerConnectionServer.setMessageInterleaving(Boolean.parseBoolean(
+                System.getProperty(ServerProperties.MESSAGE_INTERLEAVING, "true")));
+
+        peerConnectionServer.setStreamScheduler(StreamSchedulerType.valueOf(
+                System.getProperty(ServerProperties.STREAM_SCHEDULER, StreamSchedulerType.WFQ.name()).toUpperCase()));
+
+        String handshakeThreads = System.getProperty(ServerProperties.HANDSHAKE_THREADS);
+        if(handshakeThreads != null) {
+            int threads = Integer.parseInt(handshakeThreads);
+            peerConnectionServer.setHandshakePool(new HandshakePool(
+                    threads,
+                    Integer.getInteger(ServerProperties.HANDSHAKE_QUEUE, threads * 32),
+                    Long.getLong(ServerProperties.HANDSHAKE_MAX_WAIT, 5000L)));
+        }
 
         setupPeerConnection(peerConnectionServer);
 
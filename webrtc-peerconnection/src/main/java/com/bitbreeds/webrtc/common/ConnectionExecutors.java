@@ -0,0 +1,78 @@
+package com.bitbreeds.webrtc.common;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Executors for the blocking work of a connection, its receive loop and DTLS handshake.
+ *
+ * Each task gets its own thread, either a platform thread like before, or a virtual thread
+ * when the JVM has them (21+). Virtual threads are looked up reflectively so the library
+ * still builds and runs on 1.8.
+ */
+public class ConnectionExecutors {
+
+    private static final ThreadFactory VIRTUAL_FACTORY = findVirtualThreadFactory();
+
+    private ConnectionExecutors() {
+    }
+
+    /**
+     * @return executor starting a new platform thread per task
+     */
+    public static Executor platformThreads() {
+        return task -> new Thread(task).start();
+    }
+
+    /**
+     * @return executor starting a new virtual thread per task
+     * @throws UnsupportedOperationException when the JVM does not have virtual threads
+     */
+    public static Executor virtualThreads() {
+        if (VIRTUAL_FACTORY == null) {
+            throw new UnsupportedOperationException("Virtual threads need java 21 or later, running "
+                    + System.getProperty("java.version"));
+        }
+        return task -> VIRTUAL_FACTORY.newThread(task).start();
+    }
+
+    /**
+     * @return whether {@link #virtualThreads()} can be used
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return VIRTUAL_FACTORY != null;
+    }
+
+    /**
+     * Thread.ofVirtual().name("connection-", 0).factory()
+     */
+    private static ThreadFactory findVirtualThreadFactory() {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method name = builderClass.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, "connection-", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.bitbreeds.webrtc.common;
 
+import com.bitbreeds.webrtc.sctp.model.CRC32c;
+
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.ByteBuffer;
@@ -180,10 +182,7 @@ public class SignalUtil {
      * @return computed CRC32c
      */
     public static long computeCRC32c(byte[] bytes) {
-        CRC32c crc = new CRC32c();
-        crc.reset();
-        crc.update(bytes,0,bytes.length);
-        return crc.getValue();
+        return CRC32c.compute(bytes,0,bytes.length);
     }
 
     /**
@@ -1,11 +1,9 @@
 package com.bitbreeds.webrtc.dtls;
 
 import org.apache.commons.codec.binary.Hex;
-import org.bouncycastle.asn1.x509.Certificate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.security.MessageDigest;
 
 /*
  * Copyright (c) 02/03/2017, Jonas Waage
@@ -34,21 +32,11 @@ public class CertUtil {
      * @param alias alias
      * @param pass password
      * @param storePath path to keystore
-     * @return sha-256 string based on cert in keystore
+     * @return sha-256 string based on cert in keystore, cached in {@link CredentialCache}
      */
     public static String getCertFingerPrint(String storePath, String alias,String pass) {
         try {
-            Certificate cert = DTLSUtils.loadCert(storePath,
-                    alias,
-                    pass);
-
-            byte[] der = cert.getEncoded();
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] dat = md.digest(der);
-
-            String fingerprint = createFingerprintString(dat);
-            logger.info("Local cert signature is {} ",fingerprint);
-            return fingerprint;
+            return CredentialCache.get(new KeyStoreInfo(storePath,alias,pass)).getFingerprint();
         } catch (Exception e) {
             logger.error("Failed to create cert fingerprint from {}",storePath ,e);
             throw new IllegalStateException("Loading certificate failed");
@@ -0,0 +1,117 @@
+package com.bitbreeds.webrtc.dtls;
+
+import org.bouncycastle.asn1.ASN1EncodableVector;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.DERBitString;
+import org.bouncycastle.asn1.DERNull;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.Certificate;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.asn1.x509.TBSCertificate;
+import org.bouncycastle.asn1.x509.Time;
+import org.bouncycastle.asn1.x509.V3TBSCertificateGenerator;
+import org.bouncycastle.asn1.x9.X9ObjectIdentifiers;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.Signature;
+import java.security.spec.AlgorithmParameterSpec;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.RSAKeyGenParameterSpec;
+import java.time.Duration;
+import java.util.Date;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Generates self signed certificates in memory, the way browsers do for their own side,
+ * so the server does not need a keystore. Only the fingerprint in the SDP is checked by peers.
+ */
+public class CertificateGenerator {
+
+    private static final String COMMON_NAME = "bitbreeds-webrtc";
+    private static final Duration VALIDITY = Duration.ofDays(30);
+
+    private static final SecureRandom random = new SecureRandom();
+
+    private CertificateGenerator() {
+    }
+
+    /**
+     * @return ECDSA P-256 credentials with a certificate valid for 30 days
+     */
+    public static DtlsCredentials ecdsa() {
+        return generate("EC", new ECGenParameterSpec("secp256r1"), "SHA256withECDSA",
+                new AlgorithmIdentifier(X9ObjectIdentifiers.ecdsa_with_SHA256), VALIDITY);
+    }
+
+    /**
+     * @param bits modulus size
+     * @return RSA credentials with a certificate valid for 30 days
+     */
+    public static DtlsCredentials rsa(int bits) {
+        return generate("RSA", new RSAKeyGenParameterSpec(bits, RSAKeyGenParameterSpec.F4), "SHA256withRSA",
+                new AlgorithmIdentifier(PKCSObjectIdentifiers.sha256WithRSAEncryption, DERNull.INSTANCE), VALIDITY);
+    }
+
+    private static DtlsCredentials generate(
+            String keyAlgorithm,
+            AlgorithmParameterSpec keySpec,
+            String signatureAlgorithm,
+            AlgorithmIdentifier signatureId,
+            Duration validity) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(keyAlgorithm);
+            generator.initialize(keySpec, random);
+            KeyPair keyPair = generator.generateKeyPair();
+
+            X500Name name = new X500Name("CN=" + COMMON_NAME);
+            long now = System.currentTimeMillis();
+            V3TBSCertificateGenerator tbsGenerator = new V3TBSCertificateGenerator();
+            tbsGenerator.setSerialNumber(new ASN1Integer(new BigInteger(63, random)));
+            tbsGenerator.setIssuer(name);
+            tbsGenerator.setSubject(name);
+            //Back date a day for peers with skewed clocks
+            tbsGenerator.setStartDate(new Time(new Date(now - Duration.ofDays(1).toMillis())));
+            tbsGenerator.setEndDate(new Time(new Date(now + validity.toMillis())));
+            tbsGenerator.setSignature(signatureId);
+            tbsGenerator.setSubjectPublicKeyInfo(SubjectPublicKeyInfo.getInstance(keyPair.getPublic().getEncoded()));
+            TBSCertificate tbs = tbsGenerator.generateTBSCertificate();
+
+            Signature signature = Signature.getInstance(signatureAlgorithm);
+            signature.initSign(keyPair.getPrivate(), random);
+            signature.update(tbs.getEncoded(ASN1Encoding.DER));
+
+            ASN1EncodableVector certificate = new ASN1EncodableVector();
+            certificate.add(tbs);
+            certificate.add(signatureId);
+            certificate.add(new DERBitString(signature.sign()));
+            Certificate cert = Certificate.getInstance(new DERSequence(certificate));
+
+            return new DtlsCredentials(cert, keyPair.getPrivate());
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to generate " + keyAlgorithm + " certificate", e);
+        }
+    }
+
+}
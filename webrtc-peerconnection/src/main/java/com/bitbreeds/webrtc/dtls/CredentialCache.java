@@ -0,0 +1,72 @@
+package com.bitbreeds.webrtc.dtls;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Credentials per keystore, loaded on first use and kept until reloaded,
+ * so offers and handshakes do not read the keystore.
+ */
+public class CredentialCache {
+
+    private final static Logger logger = LoggerFactory.getLogger(CredentialCache.class);
+
+    private static final ConcurrentHashMap<KeyStoreInfo,DtlsCredentials> credentials = new ConcurrentHashMap<>();
+
+    private CredentialCache() {
+    }
+
+    /**
+     * @param keyStoreInfo keystore
+     * @return cached credentials, loaded if this is the first use
+     */
+    public static DtlsCredentials get(KeyStoreInfo keyStoreInfo) {
+        return credentials.computeIfAbsent(keyStoreInfo, CredentialCache::loadLogged);
+    }
+
+    /**
+     * Read the keystore again, new handshakes use the new credentials,
+     * handshakes in progress keep the ones they started with.
+     *
+     * @param keyStoreInfo keystore
+     * @return the new credentials
+     */
+    public static DtlsCredentials reload(KeyStoreInfo keyStoreInfo) {
+        DtlsCredentials loaded = loadLogged(keyStoreInfo);
+        credentials.put(keyStoreInfo, loaded);
+        return loaded;
+    }
+
+    /**
+     * Forget all credentials, they are loaded again on next use
+     */
+    public static void clear() {
+        credentials.clear();
+    }
+
+    private static DtlsCredentials loadLogged(KeyStoreInfo keyStoreInfo) {
+        DtlsCredentials loaded = DtlsCredentials.load(keyStoreInfo);
+        logger.info("Loaded credentials from {} with alias {}, fingerprint {}",
+                keyStoreInfo.getFilePath(), keyStoreInfo.getAlias(), loaded.getFingerprint());
+        return loaded;
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.bitbreeds.webrtc.dtls;
+
+import org.bouncycastle.tls.EncryptionAlgorithm;
+import org.bouncycastle.tls.KeyExchangeAlgorithm;
+import org.bouncycastle.tls.TlsUtils;
+import org.bouncycastle.tls.crypto.TlsCrypto;
+import org.bouncycastle.tls.crypto.impl.bc.BcTlsCrypto;
+import org.bouncycastle.tls.crypto.impl.jcajce.JcaTlsCryptoProvider;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Crypto used by the DTLS server for the handshake and the record layer,
+ * with the record ciphers that are fastest for it first.
+ */
+public enum CryptoBackend {
+
+    /**
+     * BouncyCastle in pure java, ChaCha20 is faster than AES-GCM without hardware support
+     */
+    BC(EncryptionAlgorithm.CHACHA20_POLY1305, EncryptionAlgorithm.AES_128_GCM, EncryptionAlgorithm.AES_256_GCM) {
+        @Override
+        public TlsCrypto createCrypto() {
+            return new BcTlsCrypto(new SecureRandom());
+        }
+    },
+
+    /**
+     * The JVMs own providers, where AES-GCM uses the AES-NI and carry-less multiply intrinsics
+     */
+    JCA(EncryptionAlgorithm.AES_128_GCM, EncryptionAlgorithm.AES_256_GCM, EncryptionAlgorithm.CHACHA20_POLY1305) {
+        @Override
+        public TlsCrypto createCrypto() {
+            return new JcaTlsCryptoProvider().create(new SecureRandom());
+        }
+    };
+
+    private final int[] preferredEncryption;
+
+    CryptoBackend(int... preferredEncryption) {
+        this.preferredEncryption = preferredEncryption;
+    }
+
+    /**
+     * @return new crypto for one connection
+     */
+    public abstract TlsCrypto createCrypto();
+
+    /**
+     * Order cipher suites with ephemeral ECDH first, and within those the record ciphers of this backend first.
+     *
+     * @param cipherSuites suites to order
+     * @return ordered copy
+     */
+    public int[] order(int[] cipherSuites) {
+        return Arrays.stream(cipherSuites)
+                .boxed()
+                .sorted(Comparator.comparingInt(CryptoBackend::keyExchangeRank)
+                        .thenComparingInt(this::encryptionRank))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private static int keyExchangeRank(int cipherSuite) {
+        int keyExchange = TlsUtils.getKeyExchangeAlgorithm(cipherSuite);
+        return keyExchange == KeyExchangeAlgorithm.ECDHE_ECDSA || keyExchange == KeyExchangeAlgorithm.ECDHE_RSA ? 0 : 1;
+    }
+
+    private int encryptionRank(int cipherSuite) {
+        int encryption = TlsUtils.getEncryptionAlgorithm(cipherSuite);
+        for (int i = 0; i < preferredEncryption.length; i++) {
+            if (preferredEncryption[i] == encryption) {
+                return i;
+            }
+        }
+        return preferredEncryption.length;
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.bitbreeds.webrtc.dtls;
+
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.x509.Certificate;
+import org.bouncycastle.crypto.params.AsymmetricKeyParameter;
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.bouncycastle.crypto.params.RSAKeyParameters;
+import org.bouncycastle.crypto.util.PrivateKeyFactory;
+import org.bouncycastle.tls.crypto.TlsCertificate;
+import org.bouncycastle.tls.crypto.TlsCrypto;
+import org.bouncycastle.tls.crypto.impl.bc.BcTlsCertificate;
+import org.bouncycastle.tls.crypto.impl.bc.BcTlsCrypto;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.util.Objects;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Server certificate and private key parsed once, shared by all handshakes using the same keystore.
+ *
+ * @see CredentialCache
+ */
+public class DtlsCredentials {
+
+    private final Certificate certificate;
+    private final byte[] encoded;
+    private final PrivateKey jcaPrivateKey;
+    private final AsymmetricKeyParameter privateKey;
+    private final String fingerprint;
+
+    DtlsCredentials(Certificate certificate, PrivateKey jcaPrivateKey) throws Exception {
+        this.certificate = Objects.requireNonNull(certificate);
+        this.encoded = certificate.getEncoded(ASN1Encoding.DER);
+        this.jcaPrivateKey = Objects.requireNonNull(jcaPrivateKey);
+        this.privateKey = toKeyParameter(jcaPrivateKey);
+        this.fingerprint = fingerprint(certificate);
+    }
+
+    /**
+     * Reads the keystore, this does file I/O, use {@link CredentialCache#get(KeyStoreInfo)}
+     *
+     * @param keyStoreInfo keystore to read
+     * @return credentials from the keystore
+     */
+    public static DtlsCredentials load(KeyStoreInfo keyStoreInfo) {
+        CertKeyPair pair = DTLSUtils.getCert(keyStoreInfo.getFilePath(),
+                keyStoreInfo.getAlias(),
+                keyStoreInfo.getPassword());
+        try {
+            Certificate certificate = BcTlsCertificate.parseCertificate(pair.getCert().getEncoded());
+            return new DtlsCredentials(certificate, pair.getKeyPair().getPrivate());
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to load credentials from " + keyStoreInfo.getFilePath(), e);
+        }
+    }
+
+    private static AsymmetricKeyParameter toKeyParameter(PrivateKey key) throws IOException {
+        AsymmetricKeyParameter parameter = PrivateKeyFactory.createKey(key.getEncoded());
+        if (parameter instanceof RSAKeyParameters || parameter instanceof ECPrivateKeyParameters) {
+            return parameter;
+        }
+        throw new IllegalArgumentException("Unsupported private key " + key.getAlgorithm());
+    }
+
+    static String fingerprint(Certificate certificate) throws Exception {
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        return CertUtil.createFingerprintString(md.digest(certificate.getEncoded()));
+    }
+
+    /**
+     * @param crypto crypto of the handshake
+     * @return certificate chain for the handshake
+     */
+    public org.bouncycastle.tls.Certificate createChain(TlsCrypto crypto) throws IOException {
+        TlsCertificate cert = crypto instanceof BcTlsCrypto ?
+                new BcTlsCertificate((BcTlsCrypto) crypto, certificate) :
+                crypto.createCertificate(encoded);
+        return new org.bouncycastle.tls.Certificate(new TlsCertificate[]{cert});
+    }
+
+    public Certificate getCertificate() {
+        return certificate;
+    }
+
+    /**
+     * @return private key for the BouncyCastle crypto
+     */
+    public AsymmetricKeyParameter getPrivateKey() {
+        return privateKey;
+    }
+
+    /**
+     * @return private key for the JCA crypto
+     */
+    public PrivateKey getJcaPrivateKey() {
+        return jcaPrivateKey;
+    }
+
+    /**
+     * @return true for an ECDSA key, false for RSA
+     */
+    public boolean isEcdsa() {
+        return privateKey instanceof ECPrivateKeyParameters;
+    }
+
+    /**
+     * @return SDP fingerprint, formatted 'sha-256 AB:CD...'
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+}
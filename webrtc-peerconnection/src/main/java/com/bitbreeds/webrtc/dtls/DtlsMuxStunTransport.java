@@ -1,9 +1,11 @@
 package com.bitbreeds.webrtc.dtls;
 
-import com.bitbreeds.webrtc.common.ByteRange;
 import com.bitbreeds.webrtc.common.SignalUtil;
 import com.bitbreeds.webrtc.peerconnection.UserData;
 import com.bitbreeds.webrtc.stun.BindingService;
+import com.bitbreeds.webrtc.stun.StunError;
+import com.bitbreeds.webrtc.transport.DedicatedUdpEndpoint;
+import com.bitbreeds.webrtc.transport.UdpEndpoint;
 import org.apache.commons.codec.binary.Hex;
 import org.bouncycastle.tls.AlertDescription;
 import org.bouncycastle.tls.DatagramTransport;
@@ -47,53 +49,71 @@ public class DtlsMuxStunTransport implements DatagramTransport {
     private final static int IP_MAX_BYTES = IP_BYTES + 64;
     private final static int UDP_BYTES = 8;
 
-    private final DatagramSocket socket;
+    private final UdpEndpoint socket;
     private final int receiveLimit, sendLimit;
 
     private final UserData local;
 
     private final BindingService bindingService = new BindingService();
 
+    /**
+     * Only the thread driving DTLS receives, so one packet is enough
+     */
+    private final DatagramPacket receivePacket = new DatagramPacket(new byte[0], 0);
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
     public DtlsMuxStunTransport(UserData local, DatagramSocket socket, int mtu) throws IOException {
+        this(local, new DedicatedUdpEndpoint(socket), mtu);
+    }
+
+    public DtlsMuxStunTransport(UserData local, UdpEndpoint socket, int mtu) throws IOException {
         this.local = local;
         this.socket = socket;
         this.receiveLimit = mtu - IP_BYTES - UDP_BYTES;
         this.sendLimit = mtu - IP_MAX_BYTES - UDP_BYTES;
-        if (!socket.isBound() || !socket.isConnected())
+        if (socket.isClosed() || !socket.isConnected())
         {
             throw new IllegalArgumentException("Unbound socket");
         }
     }
 
 
+    /**
+     * Receive into the given buffer, answering STUN and passing DTLS on.
+     * The packet is reused, and nothing is copied unless the datagram is STUN.
+     */
     public int receive(byte[] buf, int off, int len, int waitMillis)
             throws IOException
     {
-        socket.setSoTimeout(waitMillis);
-        DatagramPacket packet = new DatagramPacket(buf, off, len);
-        socket.receive(packet);
-        logger.debug("Socket read msg: {}", Hex.encodeHexString(SignalUtil.copyRange(packet.getData(), new ByteRange(0,packet.getLength()))));
-        if(buf.length >= 2 && buf[0] == 0 && buf[1] == 1) {
-            SocketAddress currentSender = packet.getSocketAddress();
-
-            byte[] data = Arrays.copyOf(packet.getData(), packet.getLength());
-
-            byte[] out = bindingService.processBindingRequest(
-                    data,
-                    local.getUserName(),
-                    local.getPassword(),
-                    (InetSocketAddress) currentSender
-            );
+        receivePacket.setData(buf, off, len);
+        socket.receive(receivePacket, waitMillis);
+        int length = receivePacket.getLength();
+        if(length >= 2 && buf[off] == 0 && buf[off+1] == 1) {
+            SocketAddress currentSender = receivePacket.getSocketAddress();
+
+            byte[] data = Arrays.copyOfRange(buf, off, off + length);
+
+            byte[] out;
+            try {
+                out = bindingService.processBindingRequest(
+                        data,
+                        local.getUserName(),
+                        local.getPassword(),
+                        (InetSocketAddress) currentSender
+                );
+            } catch (StunError e) {
+                logger.warn("Dropping binding request from {}: {}", currentSender, e.getMessage());
+                return 0;
+            }
 
             logger.debug("Stun packet received, responding with {}",Hex.encodeHexString(out));
             this.send(out,0,out.length);
             return 0; //We do not want DTLS to process (not that it will anyway), so we return 0 here.
         }
-        else if(buf.length >= 1 && SignalUtil.unsign(buf[0]) >= 19 && SignalUtil.unsign(buf[0]) <= 63) {
-            logger.debug("DTLS " + SignalUtil.unsign(buf[0]) + " returning length");
-            return packet.getLength();
+        else if(length >= 1 && SignalUtil.unsign(buf[off]) >= 19 && SignalUtil.unsign(buf[off]) <= 63) {
+            logger.trace("DTLS {} returning length", buf[off]);
+            return length;
         }
         else {
             logger.debug("Non stun/dtls packet received, returning 0 length");
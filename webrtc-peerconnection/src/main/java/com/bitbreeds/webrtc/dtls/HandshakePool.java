@@ -0,0 +1,223 @@
+package com.bitbreeds.webrtc.dtls;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Fixed set of workers running DTLS handshakes, so a burst of reconnecting clients
+ * does not run all handshakes at once and time out together.
+ *
+ * Handshakes wait in a bounded queue. A full queue rejects the handshake right away,
+ * and a handshake that waited longer than the max wait is rejected instead of run,
+ * since the client has most likely given up on it.
+ *
+ * The BouncyCastle handshake blocks on the network between flights, so a worker is
+ * busy for at least a few round trips. Size the pool above the core count for high latency clients.
+ */
+public class HandshakePool {
+
+    private static final Logger logger = LoggerFactory.getLogger(HandshakePool.class);
+
+    private static final int QUEUED_PER_THREAD = 32;
+    private static final long DEFAULT_MAX_WAIT_MILLIS = 5000;
+
+    private final ThreadPoolExecutor workers;
+    private final int threads;
+    private final long maxWaitMillis;
+
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong handshakeNanos = new AtomicLong();
+    private final AtomicLong maxHandshakeNanos = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+
+    /**
+     * @param threads workers running handshakes
+     * @param queueCapacity handshakes that can wait for a worker
+     * @param maxWaitMillis max time a handshake waits for a worker before it is rejected
+     */
+    public HandshakePool(int threads, int queueCapacity, long maxWaitMillis) {
+        if (threads < 1 || queueCapacity < 1 || maxWaitMillis < 0) {
+            throw new IllegalArgumentException("Invalid handshake pool, threads: " + threads
+                    + " queue: " + queueCapacity + " max wait: " + maxWaitMillis);
+        }
+        this.threads = threads;
+        this.maxWaitMillis = maxWaitMillis;
+        AtomicInteger count = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "dtls-handshake-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.workers.prestartAllCoreThreads();
+    }
+
+    /**
+     * @return pool with one worker per core
+     */
+    public static HandshakePool cpuSized() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        return new HandshakePool(threads, threads * QUEUED_PER_THREAD, DEFAULT_MAX_WAIT_MILLIS);
+    }
+
+    /**
+     * Queue a handshake for a worker.
+     *
+     * @param handshake runs the handshake
+     * @param onRejected run instead of the handshake if it waited longer than the max wait
+     * @return false if the queue is full, neither is run then
+     */
+    public boolean submit(Runnable handshake, Runnable onRejected) {
+        long queuedAt = System.nanoTime();
+        try {
+            workers.execute(() -> run(handshake, onRejected, queuedAt));
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            return false;
+        }
+    }
+
+    private void run(Runnable handshake, Runnable onRejected, long queuedAt) {
+        long start = System.nanoTime();
+        long waited = start - queuedAt;
+        waitNanos.addAndGet(waited);
+        if (TimeUnit.NANOSECONDS.toMillis(waited) > maxWaitMillis) {
+            expired.incrementAndGet();
+            logger.warn("DTLS handshake waited {} ms for a worker, rejecting", TimeUnit.NANOSECONDS.toMillis(waited));
+            onRejected.run();
+            return;
+        }
+        try {
+            handshake.run();
+        } finally {
+            long duration = System.nanoTime() - start;
+            completed.incrementAndGet();
+            handshakeNanos.addAndGet(duration);
+            maxHandshakeNanos.accumulateAndGet(duration, Math::max);
+        }
+    }
+
+    /**
+     * Used to reject offers before setting up a connection whose handshake would be rejected anyway.
+     *
+     * @return whether a new handshake would be queued and likely start within the max wait
+     */
+    public boolean hasCapacity() {
+        return !workers.isShutdown()
+                && workers.getQueue().remainingCapacity() > 0
+                && getEstimatedWaitMillis() <= maxWaitMillis;
+    }
+
+    /**
+     * @return expected wait for a handshake queued now, from queue depth and average handshake time
+     */
+    public long getEstimatedWaitMillis() {
+        return (long) (getQueueDepth() * getAverageHandshakeMillis() / threads);
+    }
+
+    /**
+     * @return handshakes waiting for a worker
+     */
+    public int getQueueDepth() {
+        return workers.getQueue().size();
+    }
+
+    /**
+     * @return handshakes running now
+     */
+    public int getActiveCount() {
+        return workers.getActiveCount();
+    }
+
+    /**
+     * @return handshakes rejected because the queue was full
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * @return handshakes rejected after waiting longer than the max wait
+     */
+    public long getExpiredCount() {
+        return expired.get();
+    }
+
+    /**
+     * @return handshakes run to the end, successful or not
+     */
+    public long getCompletedCount() {
+        return completed.get();
+    }
+
+    public double getAverageHandshakeMillis() {
+        long count = completed.get();
+        return count == 0 ? 0 : handshakeNanos.get() / 1e6 / count;
+    }
+
+    public double getMaxHandshakeMillis() {
+        return maxHandshakeNanos.get() / 1e6;
+    }
+
+    /**
+     * @return average time handshakes waited for a worker, including rejected ones
+     */
+    public double getAverageWaitMillis() {
+        long count = completed.get() + expired.get();
+        return count == 0 ? 0 : waitNanos.get() / 1e6 / count;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "HandshakePool{" +
+                "threads=" + threads +
+                ", active=" + getActiveCount() +
+                ", queued=" + getQueueDepth() +
+                ", completed=" + getCompletedCount() +
+                ", rejected=" + getRejectedCount() +
+                ", expired=" + getExpiredCount() +
+                String.format(", avgWaitMs=%.1f, avgHandshakeMs=%.1f, maxHandshakeMs=%.1f",
+                        getAverageWaitMillis(), getAverageHandshakeMillis(), getMaxHandshakeMillis()) +
+                '}';
+    }
+
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.bitbreeds.webrtc.dtls;
 
+import java.util.Objects;
+
 /**
  * Copyright (c) 03/03/2017, Jonas Waage
  * <p>
@@ -38,4 +40,27 @@ public class KeyStoreInfo {
     public String getPassword() {
         return password;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        KeyStoreInfo that = (KeyStoreInfo) o;
+        return Objects.equals(filePath, that.filePath) &&
+                Objects.equals(alias, that.alias) &&
+                Objects.equals(password, that.password);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(filePath, alias, password);
+    }
+
+    @Override
+    public String toString() {
+        return "KeyStoreInfo{" +
+                "filePath='" + filePath + '\'' +
+                ", alias='" + alias + '\'' +
+                '}';
+    }
 }
@@ -0,0 +1,181 @@
+package com.bitbreeds.webrtc.dtls;
+
+import com.bitbreeds.webrtc.transport.DatagramBufferPool;
+import com.bitbreeds.webrtc.transport.PooledDatagram;
+import com.bitbreeds.webrtc.transport.UdpEndpoint;
+import org.bouncycastle.tls.AlertDescription;
+import org.bouncycastle.tls.DatagramTransport;
+import org.bouncycastle.tls.TlsFatalAlert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.DatagramPacket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * DTLS transport reading datagrams someone else received and queued, used with event driven endpoints.
+ *
+ * STUN is answered before datagrams are queued, so only DTLS ends up here.
+ * Datagrams are copied into pooled buffers, which are reused once DTLS has read them.
+ *
+ * While blocking, receive waits on the queue like a socket would. This is used by the
+ * handshake, since {@link org.bouncycastle.tls.DTLSServerProtocol#accept} reads until done.
+ *
+ * When not blocking, receive throws {@link NoDatagramQueuedException} on an empty queue,
+ * so the event loop can decrypt everything queued and then return.
+ */
+public class QueuedDatagramTransport implements DatagramTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueuedDatagramTransport.class);
+
+    private final static int IP_BYTES = 20;
+    private final static int IP_MAX_BYTES = IP_BYTES + 64;
+    private final static int UDP_BYTES = 8;
+
+    private final static int QUEUE_SIZE = 1000;
+    private final static int POOLED_BUFFERS = 64;
+
+    private final static PooledDatagram CLOSED_MARKER = PooledDatagram.empty();
+
+    private final UdpEndpoint socket;
+    private final int receiveLimit, sendLimit;
+
+    private final BlockingQueue<PooledDatagram> inbound = new ArrayBlockingQueue<>(QUEUE_SIZE);
+
+    private final DatagramBufferPool pool;
+
+    private final AtomicLong dropped = new AtomicLong(0);
+
+    private volatile boolean blocking = true;
+
+    private volatile boolean closed = false;
+
+    public QueuedDatagramTransport(UdpEndpoint socket, int mtu) {
+        this.socket = socket;
+        this.receiveLimit = mtu - IP_BYTES - UDP_BYTES;
+        this.sendLimit = mtu - IP_MAX_BYTES - UDP_BYTES;
+        this.pool = new DatagramBufferPool(receiveLimit, POOLED_BUFFERS);
+        if (socket.isClosed() || !socket.isConnected()) {
+            throw new IllegalArgumentException("Unbound socket");
+        }
+    }
+
+    /**
+     * Datagrams longer than the receive limit are truncated, like receive into a smaller buffer would.
+     *
+     * @param data datagram, copied so it may be reused after this returns
+     * @param length length of datagram
+     * @return false if the queue was full and the datagram dropped
+     */
+    public boolean offer(byte[] data, int length) {
+        if (closed) {
+            return false;
+        }
+        PooledDatagram datagram = pool.copyOf(data, 0, Math.min(length, receiveLimit), null);
+        boolean queued = inbound.offer(datagram);
+        if (!queued) {
+            datagram.release();
+            long count = dropped.incrementAndGet();
+            logger.debug("DTLS receive queue full, dropped {} datagrams", count);
+        }
+        return queued;
+    }
+
+    /**
+     * @param blocking whether receive should wait for datagrams
+     */
+    public void setBlocking(boolean blocking) {
+        this.blocking = blocking;
+    }
+
+    public boolean hasQueued() {
+        return !inbound.isEmpty();
+    }
+
+    @Override
+    public int receive(byte[] buf, int off, int len, int waitMillis) throws IOException {
+        PooledDatagram next = blocking ? take(waitMillis) : inbound.poll();
+        if (closed || next == CLOSED_MARKER) {
+            throw new SocketException("Transport closed");
+        }
+        if (next == null) {
+            if (blocking) {
+                throw new SocketTimeoutException("Receive timed out");
+            }
+            throw new NoDatagramQueuedException();
+        }
+        int length = Math.min(len, next.getLength());
+        System.arraycopy(next.getData(), 0, buf, off, length);
+        next.release();
+        return length;
+    }
+
+    private PooledDatagram take(int waitMillis) throws InterruptedIOException {
+        try {
+            return waitMillis == 0 ? inbound.take() : inbound.poll(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while receiving");
+        }
+    }
+
+    @Override
+    public void send(byte[] buf, int off, int len) throws IOException {
+        if (len > getSendLimit()) {
+            throw new TlsFatalAlert(AlertDescription.record_overflow);
+        }
+        socket.send(new DatagramPacket(buf, off, len));
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            logger.info("Transport closed by internal code");
+            closed = true;
+            inbound.clear();
+            inbound.offer(CLOSED_MARKER);
+            socket.close();
+        }
+    }
+
+    @Override
+    public int getReceiveLimit() {
+        return receiveLimit;
+    }
+
+    @Override
+    public int getSendLimit() {
+        return sendLimit;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    DatagramBufferPool getPool() {
+        return pool;
+    }
+}
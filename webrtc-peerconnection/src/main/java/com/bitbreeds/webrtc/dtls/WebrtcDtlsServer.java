@@ -19,15 +19,13 @@ package com.bitbreeds.webrtc.dtls;
 import com.bitbreeds.webrtc.model.webrtc.ConnectionInternalApi;
 import com.bitbreeds.webrtc.peerconnection.PeerDescription;
 import org.bouncycastle.asn1.x500.X500Name;
-import org.bouncycastle.crypto.params.AsymmetricKeyParameter;
-import org.bouncycastle.crypto.params.RSAPrivateCrtKeyParameters;
 import org.bouncycastle.tls.*;
 import org.bouncycastle.tls.crypto.TlsCertificate;
 import org.bouncycastle.tls.crypto.TlsCryptoParameters;
-import org.bouncycastle.tls.crypto.impl.bc.BcDefaultTlsCredentialedDecryptor;
 import org.bouncycastle.tls.crypto.impl.bc.BcDefaultTlsCredentialedSigner;
-import org.bouncycastle.tls.crypto.impl.bc.BcTlsCertificate;
 import org.bouncycastle.tls.crypto.impl.bc.BcTlsCrypto;
+import org.bouncycastle.tls.crypto.impl.jcajce.JcaDefaultTlsCredentialedSigner;
+import org.bouncycastle.tls.crypto.impl.jcajce.JcaTlsCrypto;
 import org.bouncycastle.util.Arrays;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,8 +33,6 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
-import java.security.interfaces.RSAPrivateCrtKey;
 import java.util.Vector;
 
 import static com.bitbreeds.webrtc.dtls.CertUtil.createFingerprintString;
@@ -48,9 +44,22 @@ import static com.bitbreeds.webrtc.dtls.CertUtil.createFingerprintString;
 public class WebrtcDtlsServer
         extends DefaultTlsServer {
 
-    private org.bouncycastle.asn1.x509.Certificate certLoaded;
+    /**
+     * Offered when the server has an ECDSA certificate, strongest first
+     */
+    private final static int[] ECDSA_CIPHER_SUITES = new int[] {
+            CipherSuite.TLS_ECDHE_ECDSA_WITH_CHACHA20_POLY1305_SHA256,
+            CipherSuite.TLS_ECDHE_ECDSA_WITH_AES_256_GCM_SHA384,
+            CipherSuite.TLS_ECDHE_ECDSA_WITH_AES_128_GCM_SHA256,
+            CipherSuite.TLS_ECDHE_ECDSA_WITH_AES_256_CBC_SHA384,
+            CipherSuite.TLS_ECDHE_ECDSA_WITH_AES_128_CBC_SHA256,
+            CipherSuite.TLS_ECDHE_ECDSA_WITH_AES_256_CBC_SHA,
+            CipherSuite.TLS_ECDHE_ECDSA_WITH_AES_128_CBC_SHA
+    };
 
-    private CertKeyPair pair;
+    private final DtlsCredentials credentials;
+
+    private final CryptoBackend backend;
 
     private final Logger logger = LoggerFactory.getLogger(WebrtcDtlsServer.class);
 
@@ -58,18 +67,24 @@ public class WebrtcDtlsServer
     private final ConnectionInternalApi peerConnection;
 
     public WebrtcDtlsServer(ConnectionInternalApi peerConnection, KeyStoreInfo keyStoreInfo, PeerDescription remote) throws IOException {
-        super(new BcTlsCrypto(new SecureRandom()));
+        this(peerConnection,CredentialCache.get(keyStoreInfo),remote);
+    }
 
-        this.peerConnection = peerConnection;
-        this.remote = remote;
+    public WebrtcDtlsServer(ConnectionInternalApi peerConnection, DtlsCredentials credentials, PeerDescription remote) {
+        this(peerConnection,credentials,remote,CryptoBackend.BC);
+    }
 
-        certLoaded = DTLSUtils.loadCert(keyStoreInfo.getFilePath(),
-                keyStoreInfo.getAlias(),
-                keyStoreInfo.getPassword());
+    public WebrtcDtlsServer(
+            ConnectionInternalApi peerConnection,
+            DtlsCredentials credentials,
+            PeerDescription remote,
+            CryptoBackend backend) {
+        super(backend.createCrypto());
 
-        pair = DTLSUtils.getCert(keyStoreInfo.getFilePath(),
-                keyStoreInfo.getAlias(),
-                keyStoreInfo.getPassword());
+        this.peerConnection = peerConnection;
+        this.remote = remote;
+        this.credentials = credentials;
+        this.backend = backend;
 
     }
 
@@ -108,11 +123,27 @@ public class WebrtcDtlsServer
 
     @Override
     public int[] getCipherSuites() {
-        return Arrays.concatenate(super.getCipherSuites(),
+        if (credentials.isEcdsa()) {
+            return backend.order(TlsUtils.getSupportedCipherSuites(getCrypto(), ECDSA_CIPHER_SUITES));
+        }
+        int[] suites = Arrays.concatenate(super.getCipherSuites(),
                 new int[]
                         {
                                 CipherSuite.TLS_ECDHE_RSA_WITH_CHACHA20_POLY1305_SHA256
                         });
+        //RSA key transport has no forward secrecy, and the JCA backend has no decryptor for it
+        return backend.order(java.util.Arrays.stream(TlsUtils.getSupportedCipherSuites(getCrypto(), suites))
+                .distinct()
+                .filter(suite -> TlsUtils.getKeyExchangeAlgorithm(suite) != KeyExchangeAlgorithm.RSA)
+                .toArray());
+    }
+
+    /**
+     * Pick from our own preference order, which puts the fastest record cipher of the backend first
+     */
+    @Override
+    protected boolean preferLocalCipherSuites() {
+        return true;
     }
 
     @Override
@@ -127,7 +158,7 @@ public class WebrtcDtlsServer
 
         Vector<X500Name> certificateAuthorities = new Vector<>();
         certificateAuthorities.addElement(
-                certLoaded.getSubject()
+                credentials.getCertificate().getSubject()
         );
 
         return new CertificateRequest(certificateTypes, serverSigAlgs, certificateAuthorities);
@@ -167,34 +198,32 @@ public class WebrtcDtlsServer
     }
 
     @Override
-    protected TlsCredentialedDecryptor getRSAEncryptionCredentials() throws IOException {
-
-        BcTlsCertificate cnv = new BcTlsCertificate((BcTlsCrypto) this.context.getCrypto(),certLoaded.getEncoded());
-        Certificate cert = new Certificate(new BcTlsCertificate[]{cnv});
-
-        return new BcDefaultTlsCredentialedDecryptor(
-                (BcTlsCrypto)this.context.getCrypto(),
-                cert,
-                new AsymmetricKeyParameter(true));
+    protected TlsCredentialedSigner getRSASignerCredentials() throws IOException {
+        return createSigner(SignatureAlgorithm.rsa);
     }
 
     @Override
-    protected TlsCredentialedSigner getRSASignerCredentials() throws IOException {
-
-        BcTlsCertificate cnv = new BcTlsCertificate((BcTlsCrypto) this.context.getCrypto(),certLoaded.getEncoded());
-        Certificate cert = new Certificate(new BcTlsCertificate[]{cnv});
-
-        RSAPrivateCrtKey rsa = (RSAPrivateCrtKey) pair.getKeyPair().getPrivate();
-        AsymmetricKeyParameter keyParam = new RSAPrivateCrtKeyParameters(rsa.getModulus(), rsa.getPublicExponent(),
-                rsa.getPrivateExponent(), rsa.getPrimeP(), rsa.getPrimeQ(), rsa.getPrimeExponentP(),
-                rsa.getPrimeExponentQ(), rsa.getCrtCoefficient());
+    protected TlsCredentialedSigner getECDSASignerCredentials() throws IOException {
+        return createSigner(SignatureAlgorithm.ecdsa);
+    }
 
+    private TlsCredentialedSigner createSigner(short signatureAlgorithm) throws IOException {
+        SignatureAndHashAlgorithm algorithm = new SignatureAndHashAlgorithm(HashAlgorithm.sha256,signatureAlgorithm);
+        Certificate chain = credentials.createChain(context.getCrypto());
+        if (context.getCrypto() instanceof JcaTlsCrypto) {
+            return new JcaDefaultTlsCredentialedSigner(
+                    new TlsCryptoParameters(context),
+                    (JcaTlsCrypto)context.getCrypto(),
+                    credentials.getJcaPrivateKey(),
+                    chain,
+                    algorithm);
+        }
         return new BcDefaultTlsCredentialedSigner(
                 new TlsCryptoParameters(context),
                 (BcTlsCrypto)context.getCrypto(),
-                keyParam,
-                cert,
-                new SignatureAndHashAlgorithm(HashAlgorithm.sha256,SignatureAlgorithm.rsa));
+                credentials.getPrivateKey(),
+                chain,
+                algorithm);
     }
 
 }
\ No newline at end of file
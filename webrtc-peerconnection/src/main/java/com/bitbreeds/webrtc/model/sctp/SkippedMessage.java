@@ -0,0 +1,79 @@
+package com.bitbreeds.webrtc.model.sctp;
+
+import java.util.Objects;
+
+/**
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+
+/**
+ * A message the sender abandoned, listed in FORWARD TSN and I-FORWARD-TSN
+ * so the receiver can move an ordered stream past it and drop its fragments.
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc3758#section-3.2">FORWARD TSN</a>
+ * @see <a href="https://tools.ietf.org/html/rfc8260#section-2.3.1">I-FORWARD-TSN</a>
+ */
+public class SkippedMessage {
+
+    private final int streamId;
+
+    /**
+     * Stream sequence number with DATA, message identifier with I-DATA
+     */
+    private final int streamSequence;
+
+    private final boolean unordered;
+
+    public SkippedMessage(int streamId, int streamSequence, boolean unordered) {
+        this.streamId = streamId;
+        this.streamSequence = streamSequence;
+        this.unordered = unordered;
+    }
+
+    public int getStreamId() {
+        return streamId;
+    }
+
+    public int getStreamSequence() {
+        return streamSequence;
+    }
+
+    public boolean isUnordered() {
+        return unordered;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SkippedMessage that = (SkippedMessage) o;
+        return streamId == that.streamId &&
+                streamSequence == that.streamSequence &&
+                unordered == that.unordered;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(streamId, streamSequence, unordered);
+    }
+
+    @Override
+    public String toString() {
+        return "SkippedMessage{" +
+                "streamId=" + streamId +
+                ", streamSequence=" + streamSequence +
+                ", unordered=" + unordered +
+                '}';
+    }
+}
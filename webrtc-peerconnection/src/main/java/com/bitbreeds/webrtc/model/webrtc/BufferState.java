@@ -20,10 +20,21 @@ public class BufferState {
 
     private int totalCapacity;
     private int spaceLeftInBytes;
+    private long bufferedAmount;
 
     public BufferState(int totalCapacity, int spaceLeftInBytes) {
+        this(totalCapacity, spaceLeftInBytes, 0);
+    }
+
+    /**
+     * @param totalCapacity send buffer size of the connection
+     * @param spaceLeftInBytes free space in the send buffer of the connection
+     * @param bufferedAmount bytes buffered on the channel and not yet sent
+     */
+    public BufferState(int totalCapacity, int spaceLeftInBytes, long bufferedAmount) {
         this.totalCapacity = totalCapacity;
         this.spaceLeftInBytes = spaceLeftInBytes;
+        this.bufferedAmount = bufferedAmount;
     }
 
     public double ratio() {
@@ -37,4 +48,8 @@ public class BufferState {
     public int getSpaceLeftInBytes() {
         return spaceLeftInBytes;
     }
+
+    public long getBufferedAmount() {
+        return bufferedAmount;
+    }
 }
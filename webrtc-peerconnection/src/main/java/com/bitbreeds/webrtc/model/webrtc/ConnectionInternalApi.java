@@ -22,6 +22,8 @@ import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
 import com.bitbreeds.webrtc.peerconnection.PeerConnection;
 import com.bitbreeds.webrtc.sctp.impl.SCTPReliability;
 
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
 import java.util.Optional;
 
 /**
@@ -46,10 +48,55 @@ public interface ConnectionInternalApi {
 
     /**
      *
-     * @param data send data over UDP in same thread
+     * @param source channel with the message, read as it is sent and closed after
+     * @param length bytes to send
+     * @param id protocol id
+     * @param streamId sctp stream
+     * @param partialReliability reliability parameters
+     * @throws IOException when the source is empty or fails before the first fragment
+     */
+    void send(ReadableByteChannel source, long length, SCTPPayloadProtocolId id, int streamId, SCTPReliability partialReliability) throws IOException;
+
+    /**
+     *
+     * @param streamId sctp stream
+     * @param streaming whether fragmented messages on the stream are delivered as they arrive
+     */
+    void setStreamingReceive(int streamId, boolean streaming);
+
+    /**
+     * @param streamId sctp stream
+     * @return bytes sent on the stream and not yet put on the wire
+     */
+    long getBufferedAmount(int streamId);
+
+    /**
+     * @param streamId sctp stream
+     * @param threshold buffered amount the stream is reported low at
+     */
+    void setBufferedAmountLowThreshold(int streamId, long threshold);
+
+    /**
+     *
+     * @param data send data over UDP, queued if another thread is writing
      */
     void putDataOnWire(byte[] data);
 
+    /**
+     * Called by SCTP once the association is established
+     */
+    default void associationEstablished() {
+    }
+
+    /**
+     * Lets the send buffer hold back DATA when the wire is backed up.
+     *
+     * @return bytes that can be put on the wire before it is backed up
+     */
+    default int getWireCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
     /**
      *
      * @return port used by connection
@@ -60,7 +107,17 @@ public interface ConnectionInternalApi {
      *
      * @param data received sctp message
      */
-    void processReceivedMessage(byte[] data);
+    default void processReceivedMessage(byte[] data) {
+        processReceivedMessage(data, 0, data.length);
+    }
+
+    /**
+     *
+     * @param data buffer holding a received sctp message, reused for the next message after this returns
+     * @param offset start of message
+     * @param length length of message
+     */
+    void processReceivedMessage(byte[] data, int offset, int length);
 
     /**
      * Perform controlled shutdown
@@ -92,9 +149,11 @@ public interface ConnectionInternalApi {
     Optional<ReliabilityParameters> getStreamInfo(int stream);
 
     /**
+     * Buffered amount of the stream fell to its threshold
      *
+     * @param streamId sctp stream
      * @param state of buffer
      */
-    void notifyDatachannelsBufferedAmountLow(BufferState state);
+    void notifyBufferedAmountLow(int streamId, BufferState state);
 
 }
@@ -3,6 +3,10 @@ package com.bitbreeds.webrtc.model.webrtc;
 import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
 import com.bitbreeds.webrtc.peerconnection.PeerConnection;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.util.UUID;
 import java.util.function.Consumer;
 
@@ -49,20 +53,100 @@ public class DataChannel {
 
     public Consumer<OpenEvent> onOpen = (i)->{};
 
+    /**
+     * Runs when sending brings {@link #getBufferedAmount()} from above to at most
+     * {@link #getBufferedAmountLowThreshold()}, only for this channel.
+     * Refill from here, the state carries the buffered amount and the space left in the connections send buffer.
+     */
     public Consumer<BufferState> onBufferedAmountLow = (i)->{};
 
+    private volatile long bufferedAmountLowThreshold = 0;
+
+    /**
+     * Gets each large message as it starts arriving when streaming receive is on.
+     * Read it from another thread, the rest of the message arrives on this one.
+     * Unread streams hold their data, the default closes them.
+     */
+    public Consumer<MessageStream> onMessageStream = MessageStream::close;
+
+    /**
+     * @return free space in the send buffer shared by all channels of the connection
+     */
     public int getBufferCapacity() {
         return connection.getBufferCapacity();
     };
 
+    /**
+     * Messages sent from a channel or stream are read as they are sent, they are not counted.
+     *
+     * @return bytes sent on this channel and not yet put on the wire
+     */
+    public long getBufferedAmount() {
+        return connection.getBufferedAmount(streamId);
+    }
+
+    public long getBufferedAmountLowThreshold() {
+        return bufferedAmountLowThreshold;
+    }
+
+    /**
+     * @param threshold buffered amount at which {@link #onBufferedAmountLow} runs, 0 by default
+     */
+    public void setBufferedAmountLowThreshold(long threshold) {
+        connection.setBufferedAmountLowThreshold(streamId, threshold);
+        this.bufferedAmountLowThreshold = threshold;
+    }
+
     public void send(String data) {
         connection.send(data.getBytes(), SCTPPayloadProtocolId.WEBRTC_STRING,streamId,reliabilityParameters.getSctpReliability());
     }
 
+    /**
+     * The array is sent without copying, do not change it after sending.
+     *
+     * @param data binary message
+     */
     public void send(byte[] data) {
         connection.send(data, SCTPPayloadProtocolId.WEBRTC_BINARY,streamId,reliabilityParameters.getSctpReliability());
     }
 
+    /**
+     * Send a message too large to hold in memory. It is read in fragments as the
+     * congestion window opens, so memory use follows the window and not the message size.
+     * The first fragment is read before this returns, the rest on the connection executor,
+     * so a slow source only holds back its own message.
+     * If the source ends early the message is shorter, later read failures go to {@link #onError}.
+     *
+     * @param source channel with the message, closed when it is sent
+     * @param length bytes to send
+     * @throws IOException when the source is empty or fails before the first fragment, nothing is sent
+     */
+    public void send(ReadableByteChannel source, long length) throws IOException {
+        connection.send(source, length, SCTPPayloadProtocolId.WEBRTC_BINARY,streamId,reliabilityParameters.getSctpReliability());
+    }
+
+    /**
+     * @see #send(ReadableByteChannel, long)
+     *
+     * @param source stream with the message, closed when it is sent
+     * @param length bytes to send
+     * @throws IOException when the source is empty or fails before the first fragment, nothing is sent
+     */
+    public void send(InputStream source, long length) throws IOException {
+        send(Channels.newChannel(source), length);
+    }
+
+    /**
+     * Messages fragmented by the sender go to {@link #onMessageStream} instead of {@link #onMessage},
+     * and are released from the receive buffer fragment by fragment as they arrive.
+     * Only ordered messages are streamed.
+     *
+     * @param streaming whether to stream large incoming messages
+     */
+    public void setStreamingReceive(boolean streaming) {
+        connection.setStreamingReceive(streamId, streaming);
+    }
+
     public PeerConnection getConnection() {
         return connection.getPeerConnection();
     }
@@ -34,6 +34,17 @@ public enum DataChannelPriority {
         return priority;
     }
 
+    /**
+     * The priority values are in the ratio 1:2:4:8, they are used as is for the share of the link.
+     * A channel that did not set a priority counts as normal.
+     *
+     * @return weight of the channel in outbound stream scheduling
+     * @see <a href="https://tools.ietf.org/html/rfc8831#section-6.4">RFC 8831 priority</a>
+     */
+    public int getWeight() {
+        return this == NOT_SET ? NORMAL.priority : priority;
+    }
+
     public static DataChannelPriority fromInt(int bt) {
         return Arrays.stream(values())
                 .filter(i -> i.priority == bt)
@@ -21,16 +21,34 @@ import java.util.Objects;
  * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
  */
 public class Deliverable {
+
+    /**
+     * Which part of a message this is, streamed messages are delivered a fragment at a time.
+     */
+    public enum Part {
+        WHOLE, FIRST, MIDDLE, LAST, ABANDONED
+    }
+
     private final byte[] data;
     private final int originalFragmentNumber;
     private final int streamId;
     private SCTPPayloadProtocolId protocolId;
+    private final Part part;
 
     public Deliverable(byte[] data, int originalFragmentNumber, int streamId, SCTPPayloadProtocolId protocolId) {
+        this(data, originalFragmentNumber, streamId, protocolId, Part.WHOLE);
+    }
+
+    public Deliverable(byte[] data, int originalFragmentNumber, int streamId, SCTPPayloadProtocolId protocolId, Part part) {
         this.data = data;
         this.originalFragmentNumber = originalFragmentNumber;
         this.streamId = streamId;
         this.protocolId = protocolId;
+        this.part = part;
+    }
+
+    public Part getPart() {
+        return part;
     }
 
     public byte[] getData() {
@@ -57,12 +75,13 @@ public class Deliverable {
         return originalFragmentNumber == that.originalFragmentNumber &&
                 streamId == that.streamId &&
                 Arrays.equals(data, that.data) &&
-                protocolId == that.protocolId;
+                protocolId == that.protocolId &&
+                part == that.part;
     }
 
     @Override
     public int hashCode() {
-        int result = Objects.hash(originalFragmentNumber, streamId, protocolId);
+        int result = Objects.hash(originalFragmentNumber, streamId, protocolId, part);
         result = 31 * result + Arrays.hashCode(data);
         return result;
     }
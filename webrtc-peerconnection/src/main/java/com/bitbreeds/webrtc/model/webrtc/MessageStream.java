@@ -0,0 +1,177 @@
+package com.bitbreeds.webrtc.model.webrtc;
+
+import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayDeque;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+/**
+ * An incoming message read as its fragments arrive, used by data channels with streaming receive.
+ *
+ * Fragments are handed over as soon as they are in order, so the receive window is
+ * opened again without waiting for the whole message. What is not read yet is held here.
+ */
+public class MessageStream implements ReadableByteChannel {
+
+    private final Object lock = new Object();
+
+    private final ArrayDeque<ByteBuffer> fragments = new ArrayDeque<>();
+
+    private final SCTPPayloadProtocolId protocolId;
+
+    private long bufferedAmount = 0;
+
+    private boolean finished = false;
+
+    private boolean abandoned = false;
+
+    private boolean open = true;
+
+    public MessageStream(SCTPPayloadProtocolId protocolId) {
+        this.protocolId = protocolId;
+    }
+
+    public SCTPPayloadProtocolId getProtocolId() {
+        return protocolId;
+    }
+
+    /**
+     * @return bytes received that have not been read yet
+     */
+    public long getBufferedAmount() {
+        synchronized (lock) {
+            return bufferedAmount;
+        }
+    }
+
+    /**
+     * Dropped if the stream is closed.
+     *
+     * @param fragment next part of the message
+     */
+    public void append(byte[] fragment) {
+        synchronized (lock) {
+            if (open && !finished && !abandoned) {
+                fragments.add(ByteBuffer.wrap(fragment));
+                bufferedAmount += fragment.length;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * The whole message has been appended, reads return -1 once it is read.
+     */
+    public void finish() {
+        synchronized (lock) {
+            finished = true;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * The sender gave up on the rest of the message, reads fail once what was received is read.
+     */
+    public void abandon() {
+        synchronized (lock) {
+            abandoned = true;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Blocks until part of the message is available.
+     * The fragments arrive on the receiving thread, so do not read from the thread that got the stream.
+     *
+     * @param dst buffer to read into
+     * @return bytes read, -1 at the end of the message
+     * @throws IOException if the stream is closed or the message was abandoned
+     */
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        synchronized (lock) {
+            while (open && fragments.isEmpty() && !finished && !abandoned) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for message data");
+                }
+            }
+            if (!open) {
+                throw new ClosedChannelException();
+            }
+            if (fragments.isEmpty()) {
+                if (abandoned) {
+                    throw new IOException("Message abandoned by sender");
+                }
+                return -1;
+            }
+
+            int read = 0;
+            while (dst.hasRemaining() && !fragments.isEmpty()) {
+                ByteBuffer head = fragments.peek();
+                int n = Math.min(head.remaining(), dst.remaining());
+                ByteBuffer part = head.duplicate();
+                part.limit(part.position() + n);
+                dst.put(part);
+                head.position(head.position() + n);
+                if (!head.hasRemaining()) {
+                    fragments.poll();
+                }
+                read += n;
+            }
+            bufferedAmount -= read;
+            return read;
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        synchronized (lock) {
+            return open;
+        }
+    }
+
+    /**
+     * Drops what has not been read and the rest of the message.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            open = false;
+            fragments.clear();
+            bufferedAmount = 0;
+            lock.notifyAll();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MessageStream{" +
+                "protocolId=" + protocolId +
+                ", bufferedAmount=" + bufferedAmount +
+                ", finished=" + finished +
+                ", abandoned=" + abandoned +
+                '}';
+    }
+}
@@ -1,15 +1,28 @@
 package com.bitbreeds.webrtc.peerconnection;
 
 import com.bitbreeds.webrtc.common.ByteRange;
+import com.bitbreeds.webrtc.common.ConnectionExecutors;
 import com.bitbreeds.webrtc.common.SignalUtil;
+import com.bitbreeds.webrtc.dtls.CertificateGenerator;
+import com.bitbreeds.webrtc.dtls.CredentialCache;
+import com.bitbreeds.webrtc.dtls.CryptoBackend;
+import com.bitbreeds.webrtc.dtls.DtlsCredentials;
 import com.bitbreeds.webrtc.dtls.DtlsMuxStunTransport;
+import com.bitbreeds.webrtc.dtls.HandshakePool;
 import com.bitbreeds.webrtc.dtls.KeyStoreInfo;
+import com.bitbreeds.webrtc.dtls.NoDatagramQueuedException;
+import com.bitbreeds.webrtc.dtls.QueuedDatagramTransport;
 import com.bitbreeds.webrtc.dtls.WebrtcDtlsServer;
 import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
 import com.bitbreeds.webrtc.model.webrtc.*;
 import com.bitbreeds.webrtc.sctp.impl.*;
+import com.bitbreeds.webrtc.sctp.impl.buffer.StreamSchedulerType;
 import com.bitbreeds.webrtc.sctp.impl.buffer.WireRepresentation;
 import com.bitbreeds.webrtc.stun.BindingService;
+import com.bitbreeds.webrtc.stun.StunError;
+import com.bitbreeds.webrtc.transport.DedicatedUdpEndpoint;
+import com.bitbreeds.webrtc.transport.OutboundQueue;
+import com.bitbreeds.webrtc.transport.UdpEndpoint;
 import org.apache.commons.codec.binary.Hex;
 import org.bouncycastle.tls.DTLSServerProtocol;
 import org.bouncycastle.tls.DatagramTransport;
@@ -21,6 +34,7 @@ import java.io.IOException;
 import java.math.BigInteger;
 import java.net.*;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
@@ -28,7 +42,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 
 import static com.bitbreeds.webrtc.common.SignalUtil.*;
 
@@ -56,7 +70,8 @@ import static com.bitbreeds.webrtc.common.SignalUtil.*;
  *
  * An implementation of a webrtc peer connection.
  *
- * This is implemented using a UDP socket.
+ * This is implemented using a UDP socket, either owned by the connection or
+ * shared with other connections through a {@link com.bitbreeds.webrtc.transport.SharedUdpPort}.
  * On this UDP socket DTLS and and STUN is multiplexed to allow encrypted SCTP messages, and
  * STUN to handle connectivity.
  *
@@ -67,6 +82,11 @@ import static com.bitbreeds.webrtc.common.SignalUtil.*;
  *
  * This peerconnection supports creation of ordered/unordered webrtc datachannels.
  *
+ * With a blocking endpoint the connection is driven by its own thread through {@link #run()},
+ * a platform thread by default, or a virtual thread given {@link ConnectionExecutors#virtualThreads()}.
+ * With an event driven endpoint datagrams arrive in {@link #onDatagram(byte[], int, SocketAddress)}
+ * on an event loop, and only the DTLS handshake runs on a separate thread.
+ *
  */
 public class ConnectionImplementation implements Runnable,ConnectionInternalApi {
 
@@ -76,8 +96,6 @@ public class ConnectionImplementation implements Runnable,ConnectionInternalApi
 
     enum ConnectionMode {STUN_BINDING, DTLS_HANDSHAKE, SCTP};
 
-    private final ReentrantLock lock = new ReentrantLock(true);
-
     private final static Logger logger = LoggerFactory.getLogger(ConnectionImplementation.class);
 
     private SCTP sctp = new SCTPNoopImpl();
@@ -85,25 +103,82 @@ public class ConnectionImplementation implements Runnable,ConnectionInternalApi
     private final static int DEFAULT_WAIT_MILLIS = 60000;
     private final static int DEFAULT_MTU = 1500;
     private final static int DEFAULT_BUFFER_SIZE = 4000;
+    private final static int OUTBOUND_CAPACITY = 256 * 1024;
+    private final static int DEFAULT_SETUP_TIMEOUT_MILLIS = 30000;
+
+    /**
+     * Closes connections whose setup stalls, shared by all connections
+     */
+    private final static ScheduledExecutorService SETUP_TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "connection-setup-timer");
+        t.setDaemon(true);
+        return t;
+    });
 
     private final DTLSServerProtocol serverProtocol;
-    private final DatagramSocket socket;
+    private final UdpEndpoint socket;
 
     private final int port;
 
-    private boolean running = true;
-    private ConnectionMode mode;
+    private volatile boolean running = true;
+    private volatile ConnectionMode mode;
+
+    private final DtlsCredentials credentials;
 
-    private final TlsServer dtlsServer;
+    /**
+     * Crypto of the DTLS server, created when the handshake starts
+     */
+    private CryptoBackend cryptoBackend = CryptoBackend.BC;
+
+    /**
+     * Zero checksum, path MTU discovery and I-DATA on, channels share the link by priority.
+     * The path MTU itself is filled in once DTLS is up.
+     */
+    private final SCTPOptions sctpOptions = new SCTPOptions()
+            .setZeroChecksumAcceptable(true)
+            .setDiscoverPathMtu(true)
+            .setMessageInterleavingAcceptable(true)
+            .setStreamScheduler(StreamSchedulerType.WFQ);
     private volatile DatagramTransport transport;
 
+    /**
+     * Datagrams waiting for DTLS when event driven
+     */
+    private volatile QueuedDatagramTransport queuedTransport;
+
+    /**
+     * Decrypted messages are read into this, only the receiving thread or event loop touches it
+     */
+    private byte[] receiveBuffer;
+
+    /**
+     * Packets waiting for DTLS and the socket, written by one thread at a time
+     */
+    private volatile OutboundQueue outbound;
+
+    /**
+     * Runs the blocking receive loop, or the DTLS handshake when event driven
+     */
+    private Executor executor = ConnectionExecutors.platformThreads();
+
+    /**
+     * Runs the DTLS handshake when set, instead of the receive thread or executor
+     */
+    private HandshakePool handshakePool;
+
+    private final AtomicBoolean isRunningPeriodicTasks = new AtomicBoolean(false);
+
+    private final ConnectionSetup setup = new ConnectionSetup();
+
+    private int setupTimeoutMillis = DEFAULT_SETUP_TIMEOUT_MILLIS;
+
     private final BindingService bindingService = new BindingService();
 
     private SocketAddress sender;
 
     private final ConcurrentHashMap<Integer,DataChannel> dataChannels = new ConcurrentHashMap<>();
 
-    private final AtomicBoolean isRunningOnBufferedAmount = new AtomicBoolean(false);
+    private final ConcurrentHashMap<Integer,MessageStream> messageStreams = new ConcurrentHashMap<>();
 
     private final IceCandidate iceCandidate;
 
@@ -125,22 +200,44 @@ public class ConnectionImplementation implements Runnable,ConnectionInternalApi
             KeyStoreInfo keyStoreInfo,
             PeerDescription remoteDescription,
             String address) {
+        this(keyStoreInfo,remoteDescription,address,user -> DedicatedUdpEndpoint.open());
+    }
+
+    /**
+     * @param endpointFactory creates the UDP endpoint given the local ICE credentials
+     */
+    public ConnectionImplementation(
+            KeyStoreInfo keyStoreInfo,
+            PeerDescription remoteDescription,
+            String address,
+            Function<UserData,UdpEndpoint> endpointFactory) {
+        this(CredentialCache.get(keyStoreInfo),remoteDescription,address,endpointFactory);
+    }
+
+    /**
+     * @param credentials server certificate and key, see {@link CredentialCache} and {@link CertificateGenerator}
+     * @param endpointFactory creates the UDP endpoint given the local ICE credentials
+     */
+    public ConnectionImplementation(
+            DtlsCredentials credentials,
+            PeerDescription remoteDescription,
+            String address,
+            Function<UserData,UdpEndpoint> endpointFactory) {
         logger.info("Initializing {}",this.getClass().getName());
         Objects.requireNonNull(address);
         this.remoteDescription = remoteDescription;
+        this.socket = endpointFactory.apply(localUser);
         try {
-            this.socket = new DatagramSocket();
-            this.socket.setReceiveBufferSize(200000);
-            this.socket.setSendBufferSize(200000);
             this.port = socket.getLocalPort();
             this.serverProtocol = new DTLSServerProtocol();
             this.mode = ConnectionMode.STUN_BINDING;
             this.peerConnection = new PeerConnection(this);
-            this.dtlsServer = new WebrtcDtlsServer(this,keyStoreInfo,remoteDescription);
+            this.credentials = credentials;
 
             this.iceCandidate = new IceCandidate(BigInteger.valueOf(0),BigInteger.valueOf(1), this.port, address, 2122252543L,"host","UDP");
 
-        } catch (IOException e) {
+        } catch (RuntimeException e) {
+            socket.close();
             throw new IllegalStateException("Failed to start connection:", e);
         }
     }
@@ -149,7 +246,7 @@ public class ConnectionImplementation implements Runnable,ConnectionInternalApi
      *
      */
     public void sendSCTPHeartBeat() {
-        if (running && socket.isBound()) {
+        if (running && !socket.isClosed()) {
             sctp.createHeartBeat().ifPresent(beat -> {
                         logger.debug("Sending heartbeat: " + Hex.encodeHexString(beat.getPayload()));
                         putDataOnWire(beat.getPayload());
@@ -163,32 +260,37 @@ public class ConnectionImplementation implements Runnable,ConnectionInternalApi
     public void run() {
 
         logger.info("Started listening to port: " + port);
-        while(running && socket.isBound()) {
-            byte[] bt = new byte[DEFAULT_BUFFER_SIZE];
+        byte[] bt = new byte[DEFAULT_BUFFER_SIZE];
+        while(running && !socket.isClosed()) {
 
                 try {
                     if (mode == ConnectionMode.STUN_BINDING) {
-                        logger.info("Listening for binding on: " + socket.getLocalSocketAddress() + " - " + socket.getPort());
-                        Thread.sleep(5); //No reason to hammer on this
+                        logger.info("Listening for binding on: " + socket.getLocalSocketAddress());
 
                         DatagramPacket packet = new DatagramPacket(bt, 0, bt.length);
-                        socket.receive(packet);
+                        socket.receive(packet, 0);
                         SocketAddress currentSender = packet.getSocketAddress();
 
-                        sender = currentSender;
                         byte[] data = Arrays.copyOf(packet.getData(), packet.getLength());
-                        logger.info("Received data: " + Hex.encodeHexString(data) + " on " + socket.getLocalSocketAddress() + " - " + socket.getPort());
+                        logger.info("Received data: " + Hex.encodeHexString(data) + " on " + socket.getLocalSocketAddress() + " from " + currentSender);
 
                         if(this.remoteDescription == null) {
                             throw new IllegalArgumentException("No user data set for remote user");
                         }
 
-                        byte[] out = bindingService.processBindingRequest(
-                                data,
-                                localUser.getUserName(),
-                                localUser.getPassword(),
-                                (InetSocketAddress) currentSender
-                        );
+                        byte[] out;
+                        try {
+                            out = bindingService.processBindingRequest(
+                                    data,
+                                    localUser.getUserName(),
+                                    localUser.getPassword(),
+                                    (InetSocketAddress) currentSender
+                            );
+                        } catch (StunError e) {
+                            logger.warn("Dropping binding request from {}: {}", currentSender, e.getMessage());
+                            continue;
+                        }
+                        sender = currentSender;
 
                         ByteBuffer outData = ByteBuffer.wrap(out);
                         logger.info("Sending: " + Hex.encodeHexString(outData.array()) + " to " + currentSender);
@@ -198,11 +300,10 @@ public class ConnectionImplementation implements Runnable,ConnectionInternalApi
                         socket.send(pc);
 
                         this.mode = ConnectionMode.DTLS_HANDSHAKE; //Go to handshake mode
+                        setup.advance(ConnectionSetup.Phase.DTLS_HANDSHAKE);
                         logger.info("-> DTLS handshake");
                     }
                     else if(mode == ConnectionMode.DTLS_HANDSHAKE) {
-                        Thread.sleep(5);
-
                         if(transport == null) {
                             socket.connect(sender);
 
@@ -213,11 +314,13 @@ public class ConnectionImplementation implements Runnable,ConnectionInternalApi
                              */
                             //DatagramTransport udpTransport = new UDPTransport(socket, DEFAULT_MTU);
                             DtlsMuxStunTransport muxStunTransport = new DtlsMuxStunTransport(localUser, socket, DEFAULT_MTU);
-                            transport = serverProtocol.accept(dtlsServer,muxStunTransport);
+                            transport = accept(muxStunTransport);
                         }
 
-                        sctp  = new SCTPImpl(this);
+                        openOutbound();
+                        sctp  = new SCTPImpl(this,sctpOptions.setPathMtu(pathMtu()));
                         mode = ConnectionMode.SCTP;
+                        setup.advance(ConnectionSetup.Phase.SCTP_ASSOCIATION);
                         logger.info("-> SCTP mode");
 
                     }
@@ -228,12 +331,10 @@ public class ConnectionImplementation implements Runnable,ConnectionInternalApi
                          * If the output of handling the message is a message, then we send those
                          * using the same thread.
                          */
-                        byte[] buf = new byte[transport.getReceiveLimit()];
+                        byte[] buf = receiveBuffer();
                         int length = transport.receive(buf, 0, buf.length, DEFAULT_WAIT_MILLIS);
                         if (length >= 0) {
-                            logger.debug("Received on conn: {} at port: {} with length {}",peerConnection.getId(),port,length);
-                            byte[] handled = Arrays.copyOf(buf, length);
-                            processReceivedMessage(handled);
+                            processReceivedMessage(buf, 0, length);
                         }
                     }
 
@@ -248,6 +349,297 @@ public class ConnectionImplementation implements Runnable,ConnectionInternalApi
 
     }
 
+    /**
+     * Start receiving, on the endpoints event loop if it has one, otherwise on the executor.
+     * The connection is closed if the SCTP association is not up within the setup timeout.
+     */
+    public void start() {
+        SETUP_TIMER.schedule(this::checkSetup, setupTimeoutMillis, TimeUnit.MILLISECONDS);
+        if (socket.isEventDriven()) {
+            logger.info("Started listening to port: " + port + " on event loop");
+            socket.listen(this::onDatagram);
+        } else {
+            executor.execute(this);
+        }
+    }
+
+    /**
+     * Handle a datagram from an event driven endpoint, called on its event loop.
+     *
+     * STUN is answered directly, the first valid request selects the remote and starts the handshake.
+     * Requests failing the integrity check are dropped.
+     * Everything else is queued for DTLS, and decrypted right away once the handshake is done.
+     *
+     * @param data received datagram, only valid during the call
+     * @param length length of datagram
+     * @param from sender
+     */
+    public void onDatagram(byte[] data, int length, SocketAddress from) {
+        if (!running) {
+            return;
+        }
+        try {
+            if (length >= 2 && data[0] == 0 && data[1] == 1) {
+                try {
+                    respondToBinding(Arrays.copyOf(data, length), from);
+                } catch (StunError e) {
+                    logger.warn("Dropping binding request from {}: {}", from, e.getMessage());
+                    return;
+                }
+                if (mode == ConnectionMode.STUN_BINDING) {
+                    sender = from;
+                    socket.connect(from);
+                    queuedTransport = new QueuedDatagramTransport(socket, DEFAULT_MTU);
+                    mode = ConnectionMode.DTLS_HANDSHAKE;
+                    setup.advance(ConnectionSetup.Phase.DTLS_HANDSHAKE);
+                    logger.info("-> DTLS handshake");
+                    startHandshake();
+                }
+            } else if (mode == ConnectionMode.STUN_BINDING) {
+                logger.debug("Dropping non STUN datagram before binding from {}", from);
+            } else {
+                queuedTransport.offer(data, length);
+                if (mode == ConnectionMode.SCTP) {
+                    receiveQueued();
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Com error:",e);
+            logger.info("Shutting down, we cannot continue here");
+            closeConnection();
+        }
+    }
+
+    private void respondToBinding(byte[] data, SocketAddress from) throws IOException {
+        if(this.remoteDescription == null) {
+            throw new IllegalArgumentException("No user data set for remote user");
+        }
+        byte[] out = bindingService.processBindingRequest(
+                data,
+                localUser.getUserName(),
+                localUser.getPassword(),
+                (InetSocketAddress) from
+        );
+        DatagramPacket pc = new DatagramPacket(out, 0, out.length);
+        pc.setSocketAddress(from);
+        socket.send(pc);
+    }
+
+    /**
+     * Accept on the handshake pool if there is one and wait for it, otherwise on the calling thread
+     */
+    private DatagramTransport accept(DatagramTransport base) throws Exception {
+        if (handshakePool == null) {
+            return serverProtocol.accept(createDtlsServer(), base);
+        }
+        CompletableFuture<DatagramTransport> result = new CompletableFuture<>();
+        boolean queued = handshakePool.submit(
+                () -> {
+                    try {
+                        result.complete(serverProtocol.accept(createDtlsServer(), base));
+                    } catch (Exception e) {
+                        result.completeExceptionally(e);
+                    }
+                },
+                () -> result.completeExceptionally(new IOException("DTLS handshake waited too long for a worker")));
+        if (!queued) {
+            throw new IOException("DTLS handshake rejected, handshake queue is full");
+        }
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    /**
+     * The DTLS send limit is what is left of the MTU after IP, UDP and the
+     * record expansion of the negotiated cipher suite.
+     *
+     * @return path MTU for SCTP over the established DTLS transport
+     */
+    private PathMtu pathMtu() throws IOException {
+        return PathMtu.fromSendLimit(DEFAULT_MTU, transport.getSendLimit());
+    }
+
+    private TlsServer createDtlsServer() {
+        return new WebrtcDtlsServer(this,credentials,remoteDescription,cryptoBackend);
+    }
+
+    private void startHandshake() {
+        if (handshakePool == null) {
+            executor.execute(this::acceptHandshake);
+        } else if (!handshakePool.submit(this::acceptHandshake, this::rejectHandshake)) {
+            rejectHandshake();
+        }
+    }
+
+    private void rejectHandshake() {
+        logger.warn("Connection {} rejected, no capacity for DTLS handshake: {}", peerConnection.getId(), handshakePool);
+        setup.fail();
+        closeConnection();
+    }
+
+    /**
+     * Runs the blocking DTLS handshake on the executor or handshake pool, reading queued datagrams
+     */
+    private void acceptHandshake() {
+        try {
+            transport = serverProtocol.accept(createDtlsServer(), queuedTransport);
+            openOutbound();
+            sctp = new SCTPImpl(this,sctpOptions.setPathMtu(pathMtu()));
+            queuedTransport.setBlocking(false);
+            mode = ConnectionMode.SCTP;
+            setup.advance(ConnectionSetup.Phase.SCTP_ASSOCIATION);
+            logger.info("-> SCTP mode");
+            socket.execute(() -> {
+                try {
+                    receiveQueued();
+                } catch (Exception e) {
+                    logger.error("Com error:",e);
+                    closeConnection();
+                }
+            });
+        } catch (Exception e) {
+            logger.error("DTLS handshake failed:",e);
+            closeConnection();
+        }
+    }
+
+    /**
+     * Decrypt and handle everything queued, called on the event loop
+     */
+    private void receiveQueued() throws IOException {
+        byte[] buf = receiveBuffer();
+        try {
+            while (running) {
+                int length = transport.receive(buf, 0, buf.length, DEFAULT_WAIT_MILLIS);
+                if (length >= 0) {
+                    processReceivedMessage(buf, 0, length);
+                }
+            }
+        } catch (NoDatagramQueuedException e) {
+            //All queued datagrams handled
+        }
+    }
+
+    /**
+     * Writes go through the event loop when there is one, otherwise through whichever sending thread gets there first
+     */
+    private void openOutbound() {
+        DatagramTransport dtls = transport;
+        outbound = new OutboundQueue(
+                packet -> dtls.send(packet, 0, packet.length),
+                socket.isEventDriven() ? socket::execute : null,
+                OUTBOUND_CAPACITY,
+                e -> {
+                    logger.error("Sending failed, shutting down", e);
+                    closeConnection();
+                });
+    }
+
+    private byte[] receiveBuffer() throws IOException {
+        if (receiveBuffer == null) {
+            receiveBuffer = new byte[transport.getReceiveLimit()];
+        }
+        return receiveBuffer;
+    }
+
+    private void checkSetup() {
+        if (running && !setup.isAssociated() && setup.fail()) {
+            logger.warn("Connection {} not set up within {} ms, closing: {}",
+                    peerConnection.getId(), setupTimeoutMillis, setup);
+            closeConnection();
+        }
+    }
+
+    @Override
+    public void associationEstablished() {
+        if (setup.advance(ConnectionSetup.Phase.DATACHANNEL_OPEN)) {
+            logger.info("Connection {} associated after {} ms", peerConnection.getId(), setup.millisSinceStart());
+        }
+    }
+
+    /**
+     * @return whether the SCTP association has been established
+     */
+    public boolean isAssociated() {
+        return setup.isAssociated();
+    }
+
+    /**
+     * Must be set before {@link #start()}.
+     *
+     * @param setupTimeoutMillis max time from start until the SCTP association is established
+     */
+    public void setSetupTimeoutMillis(int setupTimeoutMillis) {
+        this.setupTimeoutMillis = setupTimeoutMillis;
+    }
+
+    /**
+     * Must be set before {@link #start()}.
+     *
+     * @param executor executor running the receive loop, or the DTLS handshake for event driven endpoints,
+     *                 see {@link ConnectionExecutors}
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Must be set before {@link #start()}.
+     *
+     * @param cryptoBackend crypto for the DTLS handshake and records
+     */
+    public void setCryptoBackend(CryptoBackend cryptoBackend) {
+        this.cryptoBackend = Objects.requireNonNull(cryptoBackend);
+    }
+
+    /**
+     * Must be set before {@link #start()}.
+     *
+     * @param zeroChecksum offer SCTP zero checksum (RFC 9653) to the peer
+     */
+    public void setZeroChecksum(boolean zeroChecksum) {
+        sctpOptions.setZeroChecksumAcceptable(zeroChecksum);
+    }
+
+    /**
+     * Must be set before {@link #start()}.
+     *
+     * @param pathMtuDiscovery probe for the path MTU (RFC 8899), starting from a small base MTU
+     */
+    public void setPathMtuDiscovery(boolean pathMtuDiscovery) {
+        sctpOptions.setDiscoverPathMtu(pathMtuDiscovery);
+    }
+
+    /**
+     * Must be set before {@link #start()}.
+     *
+     * @param messageInterleaving offer I-DATA message interleaving (RFC 8260) to the peer
+     */
+    public void setMessageInterleaving(boolean messageInterleaving) {
+        sctpOptions.setMessageInterleavingAcceptable(messageInterleaving);
+    }
+
+    /**
+     * Must be set before {@link #start()}.
+     *
+     * @param streamScheduler how outbound channels share the link
+     */
+    public void setStreamScheduler(StreamSchedulerType streamScheduler) {
+        sctpOptions.setStreamScheduler(streamScheduler);
+    }
+
+    /**
+     * Must be set before {@link #start()}.
+     *
+     * @param handshakePool pool running the DTLS handshake, null to run it like before
+     */
+    public void setHandshakePool(HandshakePool handshakePool) {
+        this.handshakePool = handshakePool;
+    }
+
     private void getPayloadsAndSend() {
         try {
             List<WireRepresentation> toSend = sctp.runPeriodicSCTPTasks();
@@ -258,11 +650,15 @@ public class ConnectionImplementation implements Runnable,ConnectionInternalApi
         }
     }
 
+    /**
+     * Handle a decrypted SCTP packet, the buffer is reused once this returns
+     */
     @Override
-    public void processReceivedMessage(byte[] buf) {
-        List<WireRepresentation> data = sctp.handleRequest(buf);
-        data.forEach(i -> putDataOnWire(i.getPayload()));
-        logger.debug("Input: " + Hex.encodeHexString(buf));
+    public void processReceivedMessage(byte[] buf, int offset, int length) {
+        List<WireRepresentation> data = sctp.handleRequest(buf, offset, length);
+        for (WireRepresentation i : data) {
+            putDataOnWire(i.getPayload());
+        }
     }
 
     /**
@@ -281,11 +677,23 @@ public class ConnectionImplementation implements Runnable,ConnectionInternalApi
                 }
             });
             sctp.abort();
-            socket.close();
+            boolean flushed = outbound == null || outbound.close();
+            if (flushed || !socket.isEventDriven()) {
+                closeSocket();
+            } else {
+                socket.execute(this::closeSocket); //After the drain already scheduled on the loop
+            }
         }
     }
 
 
+    private void closeSocket() {
+        socket.close();
+        if (queuedTransport != null) {
+            queuedTransport.close();
+        }
+    }
+
     /**
      * Perform controlled shutdown of the SCTP association
      */
@@ -311,12 +719,47 @@ public class ConnectionImplementation implements Runnable,ConnectionInternalApi
     }
 
 
+    @Override
+    public void send(ReadableByteChannel source, long length, SCTPPayloadProtocolId ppid, int streamId, SCTPReliability partialReliability) throws IOException {
+        if (mode == ConnectionMode.SCTP && running) {
+            sctp.bufferForSending(source, length, ppid, streamId, partialReliability,
+                    executor, this::getPayloadsAndSend, e -> notifyError(streamId, e));
+            getPayloadsAndSend();
+        } else {
+            logger.error("Stream of {} bytes not sent, connection not open", length);
+            throw new IllegalStateException("Connection not open");
+        }
+    }
+
+    /**
+     * @param streamId stream of the data channel
+     * @param error failure to give to the data channel
+     */
+    private void notifyError(int streamId, Exception error) {
+        DataChannel channel = dataChannels.get(streamId);
+        if (channel == null) {
+            logger.warn("No data channel on stream {} for error", streamId, error);
+            return;
+        }
+        try {
+            channel.onError.accept(new ErrorEvent(error));
+        } catch (RuntimeException e) {
+            logger.error("Error in onError", e);
+        }
+    }
+
     /**
      * Perform periodic tasks (like resend packets missing in a SACK)
      * This has to be maintained from the outside.
      */
     public void runPeriodicSctpTasks() {
-        sctp.runPeriodicSCTPTasks();
+        if (isRunningPeriodicTasks.compareAndSet(false, true)) {
+            try {
+                getPayloadsAndSend();
+            } finally {
+                isRunningPeriodicTasks.set(false);
+            }
+        }
     }
 
     public boolean isSocketClosed() {
@@ -339,24 +782,24 @@ public class ConnectionImplementation implements Runnable,ConnectionInternalApi
 
     /**
      * The method to call to send data.
-     * Uses a fair lock to ensure thread safety and avoid starvation
+     * Queues the packet for the single writer of this connection, so senders never wait on each other.
      *
      * @param out data to send
      */
     @Override
     public void putDataOnWire(byte[] out) {
-        lock.lock();
-        try {
-            logger.debug("Sending on conn: {} data: {}",peerConnection.getId(),  Hex.encodeHexString(out));
-            transport.send(out, 0, out.length);
-        } catch (IOException e) {
-            logger.error("Sending message {} failed", Hex.encodeHex(out), e);
-            throw new RuntimeException("Sending failed",e);
-        } finally {
-            lock.unlock();
+        OutboundQueue queue = outbound;
+        if (queue == null) {
+            throw new IllegalStateException("Connection not open");
         }
+        queue.offer(out);
     }
 
+    @Override
+    public int getWireCapacity() {
+        OutboundQueue queue = outbound;
+        return queue != null ? queue.remainingCapacity() : 0;
+    }
 
     /**
      *
@@ -385,6 +828,8 @@ public class ConnectionImplementation implements Runnable,ConnectionInternalApi
                 byte[] protocol = SignalUtil.copyRange(msgData,
                         new ByteRange(12 + labelLength, 12 + labelLength + protocolLength));
 
+                sctp.setStreamPriority(deliverable.getStreamId(), priority);
+
                 ReliabilityParameters parameters = new ReliabilityParameters(
                         relParam,
                         type,
@@ -411,6 +856,10 @@ public class ConnectionImplementation implements Runnable,ConnectionInternalApi
 
                 logger.info("Opening datachannel with is {} and params {}", nuDef.getStreamId(), nuDef.getReliabilityParameters());
 
+                if (setup.advance(ConnectionSetup.Phase.OPEN)) {
+                    logger.info("Connection {} set up: {}", peerConnection.getId(), setup);
+                }
+
 
 
                 /*
@@ -422,7 +871,10 @@ public class ConnectionImplementation implements Runnable,ConnectionInternalApi
                 throw new IllegalArgumentException("PPID " +SCTPPayloadProtocolId.WEBRTC_DCEP + " should be sent with " + DataChannelMessageType.OPEN);
             }
         } else {
-            if(definition != null) {
+            if(definition != null && !Deliverable.Part.WHOLE.equals(deliverable.getPart())) {
+                presentStreamed(definition, deliverable);
+            }
+            else if(definition != null) {
                 try {
                 definition.onMessage.accept(new MessageEvent(deliverable.getData(),sender));
                 } catch (RuntimeException e) {
@@ -435,6 +887,65 @@ public class ConnectionImplementation implements Runnable,ConnectionInternalApi
         }
     }
 
+    /**
+     * Feed a fragment of a streamed message to the stream the data channel got for it.
+     *
+     * @param definition data channel of the message
+     * @param deliverable fragment of the message
+     */
+    private void presentStreamed(DataChannel definition, Deliverable deliverable) {
+        int streamId = deliverable.getStreamId();
+        MessageStream stream;
+        switch (deliverable.getPart()) {
+            case FIRST:
+                stream = new MessageStream(deliverable.getProtocolId());
+                stream.append(deliverable.getData());
+                messageStreams.put(streamId, stream);
+                try {
+                    definition.onMessageStream.accept(stream);
+                } catch (RuntimeException e) {
+                    logger.error("OnMessageStream failed",e);
+                }
+                break;
+            case MIDDLE:
+                stream = messageStreams.get(streamId);
+                if (stream != null) {
+                    stream.append(deliverable.getData());
+                }
+                break;
+            case LAST:
+                stream = messageStreams.remove(streamId);
+                if (stream != null) {
+                    stream.append(deliverable.getData());
+                    stream.finish();
+                }
+                break;
+            case ABANDONED:
+                stream = messageStreams.remove(streamId);
+                if (stream != null) {
+                    stream.abandon();
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Not a streamed part " + deliverable.getPart());
+        }
+    }
+
+    @Override
+    public void setStreamingReceive(int streamId, boolean streaming) {
+        sctp.setStreamingReceive(streamId, streaming);
+    }
+
+    @Override
+    public long getBufferedAmount(int streamId) {
+        return sctp.getBufferedAmount(streamId);
+    }
+
+    @Override
+    public void setBufferedAmountLowThreshold(int streamId, long threshold) {
+        sctp.setBufferedAmountLowThreshold(streamId, threshold);
+    }
+
     public void setRunning(boolean running) {
         this.running = running;
     }
@@ -444,19 +955,14 @@ public class ConnectionImplementation implements Runnable,ConnectionInternalApi
     }
 
     @Override
-    public void notifyDatachannelsBufferedAmountLow(BufferState state) {
-        if (isRunningOnBufferedAmount.compareAndSet(false, true)) {
-
-            dataChannels.values().forEach(
-                    i -> {
-                        try {
-                            i.onBufferedAmountLow.accept(state);
-                        } catch (RuntimeException e) {
-                            logger.error("Error in onBufferedAmountLow", e);
-                        }
-                    });
-
-            isRunningOnBufferedAmount.set(false);
+    public void notifyBufferedAmountLow(int streamId, BufferState state) {
+        DataChannel channel = dataChannels.get(streamId);
+        if (channel != null) {
+            try {
+                channel.onBufferedAmountLow.accept(state);
+            } catch (RuntimeException e) {
+                logger.error("Error in onBufferedAmountLow", e);
+            }
         }
     }
 
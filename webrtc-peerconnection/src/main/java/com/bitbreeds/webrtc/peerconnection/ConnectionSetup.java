@@ -0,0 +1,121 @@
+package com.bitbreeds.webrtc.peerconnection;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Progress of setting up a connection, from the first STUN binding to the first open datachannel.
+ *
+ * Every step is entered when the datagram finishing the previous one has been handled,
+ * so nothing polls, and setup takes as long as the round trips it needs.
+ * Phases only move forward, and the time each was entered is kept for logging.
+ */
+class ConnectionSetup {
+
+    enum Phase {
+        /** Waiting for a STUN binding request */
+        STUN_BINDING,
+        /** Binding answered, waiting for the DTLS handshake to finish */
+        DTLS_HANDSHAKE,
+        /** DTLS done, waiting for SCTP INIT and COOKIE ECHO */
+        SCTP_ASSOCIATION,
+        /** Association established, waiting for a DCEP OPEN */
+        DATACHANNEL_OPEN,
+        /** A datachannel is open */
+        OPEN,
+        /** Setup failed or timed out */
+        FAILED
+    }
+
+    private final Map<Phase,Long> entered = new EnumMap<>(Phase.class);
+
+    private volatile Phase phase = Phase.STUN_BINDING;
+
+    ConnectionSetup() {
+        entered.put(Phase.STUN_BINDING, System.nanoTime());
+    }
+
+    /**
+     * @param next phase to enter
+     * @return true if entered, false if already there, past it or failed
+     */
+    synchronized boolean advance(Phase next) {
+        if (phase == Phase.FAILED || next.ordinal() <= phase.ordinal()) {
+            return false;
+        }
+        entered.put(next, System.nanoTime());
+        phase = next;
+        return true;
+    }
+
+    /**
+     * @return true if setup was still in progress
+     */
+    synchronized boolean fail() {
+        if (phase == Phase.OPEN || phase == Phase.FAILED) {
+            return false;
+        }
+        return advance(Phase.FAILED);
+    }
+
+    Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return whether the SCTP association is up
+     */
+    boolean isAssociated() {
+        Phase current = phase;
+        return current == Phase.DATACHANNEL_OPEN || current == Phase.OPEN;
+    }
+
+    /**
+     * @return millis from entering the phase to entering the next one, or -1 if not both were entered
+     */
+    synchronized long millisIn(Phase p) {
+        Long start = entered.get(p);
+        Long end = p.ordinal() + 1 < Phase.values().length ? entered.get(Phase.values()[p.ordinal() + 1]) : null;
+        if (start == null || end == null) {
+            return -1;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(end - start);
+    }
+
+    /**
+     * @return millis from creation until now, or until the current phase was entered
+     */
+    synchronized long millisSinceStart() {
+        long end = phase == Phase.OPEN || phase == Phase.FAILED ? entered.get(phase) : System.nanoTime();
+        return TimeUnit.NANOSECONDS.toMillis(end - entered.get(Phase.STUN_BINDING));
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ConnectionSetup{" +
+                "phase=" + phase +
+                ", binding=" + millisIn(Phase.STUN_BINDING) + "ms" +
+                ", dtls=" + millisIn(Phase.DTLS_HANDSHAKE) + "ms" +
+                ", sctp=" + millisIn(Phase.SCTP_ASSOCIATION) + "ms" +
+                ", dcep=" + millisIn(Phase.DATACHANNEL_OPEN) + "ms" +
+                ", total=" + millisSinceStart() + "ms" +
+                '}';
+    }
+}
@@ -16,9 +16,8 @@ package com.bitbreeds.webrtc.sctp.impl;/*
  *
  */
 
-import com.bitbreeds.webrtc.sctp.model.SCTPChunk;
-import com.bitbreeds.webrtc.sctp.model.SCTPHeader;
 import com.bitbreeds.webrtc.sctp.model.SCTPMessage;
+import com.bitbreeds.webrtc.sctp.model.SCTPPacketView;
 
 import java.util.Optional;
 
@@ -31,8 +30,9 @@ import java.util.Optional;
 public class AbortHandler implements MessageHandler {
 
     @Override
-    public Optional<SCTPMessage> handleMessage(SCTP handler, SCTPContext ctx, SCTPHeader header, SCTPChunk data) {
-        if(!data.getFlags().isTagBitSet() && header.getVerificationTag() != ctx.tagAsLong()) {
+    public Optional<SCTPMessage> handleMessage(SCTP handler, SCTPContext ctx, SCTPPacketView packet) {
+        boolean tagBitSet = (packet.getChunkFlags() & 0x01) != 0;
+        if(!tagBitSet && packet.getVerificationTag() != ctx.tagAsLong()) {
             return Optional.empty();
         }
 
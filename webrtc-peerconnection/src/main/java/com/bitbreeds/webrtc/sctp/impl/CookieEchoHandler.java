@@ -33,12 +33,11 @@ public class CookieEchoHandler implements MessageHandler {
     public Optional<SCTPMessage> handleMessage(
             SCTP handler,
             SCTPContext ctx,
-            SCTPHeader header,
-            SCTPChunk data) {
+            SCTPPacketView packet) {
 
         SCTPHeader hdr = new SCTPHeader(
-                header.getDestinationPort(),
-                header.getSourcePort(),
+                packet.getDestinationPort(),
+                packet.getSourcePort(),
                 SignalUtil.bytesToLong(ctx.getInitiateTag()),
                 0L);
 
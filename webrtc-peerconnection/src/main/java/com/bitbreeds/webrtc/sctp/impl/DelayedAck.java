@@ -0,0 +1,123 @@
+package com.bitbreeds.webrtc.sctp.impl;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Decides when received data is acknowledged.
+ *
+ * A SACK is due after every second packet with data, when data arrived out of
+ * order, or when the delayed ack time has passed since the first unacknowledged data.
+ * Before that it is held back, so it can ride on the next packet with DATA we send.
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc4960#section-6.2">delayed ack</a>
+ */
+public class DelayedAck {
+
+    /**
+     * Periodic tasks run every 100ms, so a SACK goes out at most about 200ms after data arrived
+     */
+    public final static long DEFAULT_DELAY_MILLIS = 100;
+
+    private final long delayMillis;
+
+    private boolean pending = false;
+    private boolean immediately = false;
+    private int packetsSinceSack = 0;
+    private long deadline = 0;
+
+    private long piggybacked = 0;
+    private long standalone = 0;
+
+    public DelayedAck() {
+        this(DEFAULT_DELAY_MILLIS);
+    }
+
+    /**
+     * @param delayMillis longest time a SACK is held back waiting for data to ride on
+     */
+    public DelayedAck(long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    /**
+     * A packet with DATA or FORWARD TSN arrived
+     */
+    public synchronized void packetReceived() {
+        packetsSinceSack++;
+    }
+
+    /**
+     * @param mustSackImmediately the data was out of order or a duplicate
+     * @param now current time in millis
+     */
+    public synchronized void dataReceived(boolean mustSackImmediately, long now) {
+        if (!pending) {
+            deadline = now + delayMillis;
+        }
+        pending = true;
+        immediately |= mustSackImmediately;
+    }
+
+    /**
+     * Acknowledge on the next packet sent, with or without data
+     */
+    public synchronized void sackImmediately() {
+        pending = true;
+        immediately = true;
+    }
+
+    /**
+     * Decide whether a SACK goes into the packet being built, a true return means it is sent.
+     *
+     * @param hasData the packet carries DATA
+     * @param now current time in millis
+     * @return whether to bundle a SACK
+     */
+    public synchronized boolean takeSack(boolean hasData, long now) {
+        if (!pending) {
+            return false;
+        }
+        boolean due = immediately || packetsSinceSack >= 2 || now >= deadline;
+        if (!due && !hasData) {
+            return false;
+        }
+        if (hasData) {
+            piggybacked++;
+        } else {
+            standalone++;
+        }
+        pending = false;
+        immediately = false;
+        packetsSinceSack = 0;
+        return true;
+    }
+
+    /**
+     * @return SACKs sent together with DATA
+     */
+    public synchronized long getPiggybacked() {
+        return piggybacked;
+    }
+
+    /**
+     * @return SACKs sent without DATA
+     */
+    public synchronized long getStandalone() {
+        return standalone;
+    }
+
+}
@@ -1,6 +1,5 @@
 package com.bitbreeds.webrtc.sctp.impl;
 
-import com.bitbreeds.webrtc.common.SignalUtil;
 import com.bitbreeds.webrtc.sctp.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,16 +37,13 @@ public class ForwardTsnHandler implements MessageHandler {
     public Optional<SCTPMessage> handleMessage(
             SCTP handler,
             SCTPContext ctx,
-            SCTPHeader header,
-            SCTPChunk data) {
+            SCTPPacketView packet) {
 
-        logger.info("Received fwd tsn message {} {}",header,data);
+        long ackpt = packet.getCumulativeTsnAck();
 
-        SCTPFixedAttribute cum_tsn = data.getFixed().get(SCTPFixedAttributeType.CUMULATIVE_TSN_ACK);
+        logger.info("Received fwd tsn message {} new ack point {}",packet,ackpt);
 
-        long ackpt = SignalUtil.bytesToLong(cum_tsn.getData());
-
-        handler.updateAckPoint(ackpt);
+        handler.updateAckPoint(ackpt, packet.getSkippedMessages());
 
         return Optional.empty();
     }
@@ -41,17 +41,19 @@ public class HeartBeatAckHandler implements MessageHandler {
     public Optional<SCTPMessage> handleMessage(
             SCTP handler,
             SCTPContext ctx,
-            SCTPHeader header,
-            SCTPChunk data) {
+            SCTPPacketView packet) {
 
-        logger.debug("Received heartbeat ack: " + data);
+        logger.debug("Received heartbeat ack: {}", packet);
 
-        SCTPAttribute info = data.getVariable().get(SCTPAttributeType.HERTBEAT_INFO);
+        byte[] info = packet.copyParameter(SCTPAttributeType.HERTBEAT_INFO);
+        if (info == null) {
+            return Optional.empty();
+        }
 
         /*
          * Should be related to a sent heartbeat so we can measure RTT.
          */
-        handler.receiveHeartBeatAck(info.getData());
+        handler.receiveHeartBeatAck(info);
 
         return Optional.empty();
     }
@@ -34,16 +34,19 @@ public class HeartBeatHandler implements MessageHandler {
     public Optional<SCTPMessage> handleMessage(
             SCTP handler,
             SCTPContext ctx,
-            SCTPHeader header,
-            SCTPChunk data) {
+            SCTPPacketView packet) {
 
         SCTPHeader hdr = new SCTPHeader(
-                header.getDestinationPort(),
-                header.getSourcePort(),
+                packet.getDestinationPort(),
+                packet.getSourcePort(),
                 SignalUtil.bytesToLong(ctx.getInitiateTag()),
                 0L);
 
-        SCTPAttribute attr = data.getVariable().get(SCTPAttributeType.HERTBEAT_INFO);
+        byte[] info = packet.copyParameter(SCTPAttributeType.HERTBEAT_INFO);
+        if (info == null) {
+            return Optional.empty();
+        }
+        SCTPAttribute attr = new SCTPAttribute(SCTPAttributeType.HERTBEAT_INFO, info);
 
         Map<SCTPAttributeType, SCTPAttribute> variableAttr = new HashMap<>();
         variableAttr.put(SCTPAttributeType.HERTBEAT_INFO, attr);
@@ -2,13 +2,13 @@ package com.bitbreeds.webrtc.sctp.impl;
 
 import com.bitbreeds.webrtc.common.ByteRange;
 import com.bitbreeds.webrtc.common.SignalUtil;
-import com.bitbreeds.webrtc.sctp.impl.util.SCTPUtil;
 import com.bitbreeds.webrtc.sctp.model.*;
 import org.pcollections.HashPMap;
 import org.pcollections.HashTreePMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -40,6 +40,11 @@ public class HeartBeatService {
 
     private final Object mutex = new Object();
 
+    /**
+     * Id and probed MTU, the rest of a probe is padding
+     */
+    private final static int PROBE_INFO_LENGTH = 20;
+
     /**
      * Calculates RTT value
      * Resets shutdown timers
@@ -85,37 +90,69 @@ public class HeartBeatService {
     }
 
     /**
-     * @param header header
-     * @return heartbeat message
+     * @return encoded heartbeat chunk, bundled into a packet when sent
      */
-    public SCTPMessage createHeartBeat(SCTPHeader header) {
+    public byte[] createHeartBeat() {
 
         UUID id = UUID.randomUUID();
         byte[] heartBeatInfo = SignalUtil.joinBytesArrays(
                 SignalUtil.longToBytes(id.getMostSignificantBits()),
                 SignalUtil.longToBytes(id.getLeastSignificantBits()));
 
-        Map<SCTPAttributeType, SCTPAttribute> variableAttr = new HashMap<>();
-        variableAttr.put(SCTPAttributeType.HERTBEAT_INFO,
-                new SCTPAttribute(SCTPAttributeType.HERTBEAT_INFO, heartBeatInfo));
+        byte[] out = new byte[SCTPPacketWriter.heartBeatLength(heartBeatInfo.length)];
+        new SCTPPacketWriter()
+                .wrapChunks(out,0)
+                .heartBeat(SCTPMessageType.HEARTBEAT,heartBeatInfo);
+
+        synchronized (mutex) {
+            rttMap = rttMap.plus(id, Instant.now());
+        }
+        return out;
+    }
+
+    /**
+     * A heartbeat padded so its packet is exactly the probed size, for path MTU discovery.
+     * The peer echoes the info, so the ack tells which MTU got through.
+     *
+     * @see <a href="https://tools.ietf.org/html/rfc8899#section-6.2.1.2">PMTU probe using HEARTBEAT</a>
+     *
+     * @param mtu path MTU being probed, carried after the id
+     * @param packetSize size of the SCTP packet the heartbeat is sent alone in, a multiple of 4
+     * @return encoded heartbeat chunk
+     */
+    public byte[] createProbe(int mtu, int packetSize) {
+        int infoLength = packetSize - SCTPPacketWriter.HEADER_LENGTH - SCTPPacketWriter.heartBeatLength(0);
+        if (infoLength < PROBE_INFO_LENGTH || infoLength % 4 != 0) {
+            throw new IllegalArgumentException("Can not probe with packet size " + packetSize);
+        }
 
-        int sum = variableAttr.values().stream()
-                .map(SCTPAttribute::getLength).reduce(0, Integer::sum);
+        UUID id = UUID.randomUUID();
+        byte[] heartBeatInfo = new byte[infoLength];
+        ByteBuffer.wrap(heartBeatInfo)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .putInt(mtu);
 
-        SCTPChunk heartBeat = new SCTPChunk(
-                SCTPMessageType.HEARTBEAT,
-                SCTPOrderFlag.fromValue((byte) 0),
-                4 + sum,
-                new HashMap<>(),
-                variableAttr,
-                new byte[]{});
-        SCTPMessage msg = new SCTPMessage(header, Collections.singletonList(heartBeat));
+        byte[] out = new byte[SCTPPacketWriter.heartBeatLength(heartBeatInfo.length)];
+        new SCTPPacketWriter()
+                .wrapChunks(out,0)
+                .heartBeat(SCTPMessageType.HEARTBEAT,heartBeatInfo);
 
-        SCTPMessage out = SCTPUtil.addChecksum(msg);
         synchronized (mutex) {
             rttMap = rttMap.plus(id, Instant.now());
         }
         return out;
     }
 
+    /**
+     * @param heartBeatInfo from ack
+     * @return the probed MTU, 0 if the ack is not for a probe
+     */
+    public static int probedMtu(byte[] heartBeatInfo) {
+        if (heartBeatInfo.length < PROBE_INFO_LENGTH) {
+            return 0;
+        }
+        return SignalUtil.intFromFourBytes(copyRange(heartBeatInfo, new ByteRange(16, PROBE_INFO_LENGTH)));
+    }
+
 }
@@ -0,0 +1,74 @@
+package com.bitbreeds.webrtc.sctp.impl;
+
+import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
+import com.bitbreeds.webrtc.model.webrtc.ReliabilityParameters;
+import com.bitbreeds.webrtc.sctp.impl.model.ReceivedData;
+import com.bitbreeds.webrtc.sctp.model.SCTPMessage;
+import com.bitbreeds.webrtc.sctp.model.SCTPOrderFlag;
+import com.bitbreeds.webrtc.sctp.model.SCTPPacketView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Optional;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Handle an I-DATA chunk, like {@link PayloadHandler} but reassembled by message identifier
+ * and fragment sequence number instead of TSN.
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc8260#section-2.1">I-DATA</a>
+ */
+public class IDataHandler implements MessageHandler {
+
+    private final static Logger logger = LoggerFactory.getLogger(IDataHandler.class);
+
+    @Override
+    public Optional<SCTPMessage> handleMessage(
+            SCTP handler,
+            SCTPContext ctx,
+            SCTPPacketView packet) {
+
+        long tsn = packet.getTsn();
+        int streamId = packet.getStreamId();
+        long mid = packet.getMessageIdentifier();
+        SCTPOrderFlag flag = packet.getOrderFlag();
+
+        /*
+         * The first fragment carries the protocol id, the rest their fragment sequence number
+         */
+        boolean first = flag.isStart() || flag.isUnFragmented();
+        long ppidOrFsn = packet.getProtocolIdOrFragmentSequence();
+        SCTPPayloadProtocolId ppid = first ? SCTPPayloadProtocolId.fromValue((int) ppidOrFsn) : null;
+        long fsn = first ? 0 : ppidOrFsn;
+
+        logger.debug("Received I-DATA tsn: {} stream: {} mid: {} fsn: {} length: {}",
+                tsn, streamId, mid, fsn, packet.getPayloadLength());
+
+        SCTPReliability parameters = handler.getConnection().getStreamInfo(streamId)
+                .map(ReliabilityParameters::getSctpReliability)
+                .orElse(SCTPReliability.createOrdered());
+
+        ReceivedData storage = new ReceivedData(
+                tsn,streamId,(int) mid,fsn,true,flag,ppid,parameters,packet.copyPayload());
+
+        handler.handleSctpPayload(storage);
+
+        return Optional.empty();
+    }
+
+}
@@ -40,28 +40,60 @@ public class InitiationHandler implements MessageHandler {
      */
     private final static int INIT_STREAMS = 65535;
 
+    /**
+     * @see <a href="https://tools.ietf.org/html/rfc9653#section-7">RFC 9653</a>
+     *
+     * Error detection method identifier for DTLS
+     */
+    final static int EDMID_DTLS = 1;
+
+    /**
+     * @see <a href="https://tools.ietf.org/html/rfc5061#section-4.2.7">RFC 5061</a>
+     * @see <a href="https://tools.ietf.org/html/rfc8260#section-2.2">RFC 8260</a>
+     *
+     * Chunk types listed as supported extensions when message interleaving is negotiated.
+     * The list tells the peer every extension chunk we accept, so stream reset and
+     * FORWARD TSN must be in it as well.
+     */
+    private final static byte[] INTERLEAVING_EXTENSIONS = new byte[] {
+            (byte) SCTPMessageType.RE_CONFIG.getNr(),
+            (byte) SCTPMessageType.FORWARD_TSN.getNr(),
+            (byte) SCTPMessageType.I_DATA.getNr(),
+            (byte) SCTPMessageType.I_FORWARD_TSN.getNr()};
+
     @Override
     public Optional<SCTPMessage> handleMessage(
             SCTP handler,
             SCTPContext ctx,
-            SCTPHeader header,
-            SCTPChunk data) {
+            SCTPPacketView packet) {
+
+        /*
+         * Zero checksum is used when both sides accept it with DTLS as the lower layer
+         */
+        boolean zeroChecksum = handler.isZeroChecksumAcceptable() && offersZeroChecksum(packet);
+
+        /*
+         * I-DATA is used when both sides list it as a supported extension
+         */
+        boolean messageInterleaving = handler.isMessageInterleavingAcceptable() && offersMessageInterleaving(packet);
 
         SCTPContext context = new SCTPContext(
-                data.getFixed().get(SCTPFixedAttributeType.INITIATE_TAG).getData(),
-                header.getSourcePort(),
-                header.getDestinationPort());
+                SignalUtil.longToFourBytes(packet.getInitiateTag()),
+                packet.getSourcePort(),
+                packet.getDestinationPort(),
+                zeroChecksum,
+                messageInterleaving);
 
         handler.setContext(context);
 
         /*
          * Set initial remote buffersize
          */
-        int remoteBufferSize = SignalUtil.intFromFourBytes(data.getFixed().get(SCTPFixedAttributeType.ARWC).getData());
+        int remoteBufferSize = packet.getAdvertisedWindow();
 
         SCTPHeader hdr = new SCTPHeader(
-                header.getDestinationPort(),
-                header.getSourcePort(),
+                packet.getDestinationPort(),
+                packet.getSourcePort(),
                 SignalUtil.bytesToLong(context.getInitiateTag()),
                 0L);
 
@@ -81,7 +113,7 @@ public class InitiationHandler implements MessageHandler {
 
         attr.put(INITIAL_TSN,new SCTPFixedAttribute(INITIAL_TSN,SignalUtil.longToFourBytes(initialTSN)));
 
-        long tsn = SignalUtil.bytesToLong(data.getFixed().get(INITIAL_TSN).getData());
+        long tsn = packet.getInitialTsn();
 
         /*
          * Initialize buffers
@@ -99,6 +131,14 @@ public class InitiationHandler implements MessageHandler {
         Map<SCTPAttributeType,SCTPAttribute> variableAttr  = new HashMap<>();
         variableAttr.put(SCTPAttributeType.STATE_COOKIE,cookie);
         variableAttr.put(SCTPAttributeType.FORWARD_TSN,new SCTPAttribute(SCTPAttributeType.FORWARD_TSN,new byte[]{}));
+        if(handler.isZeroChecksumAcceptable()) {
+            variableAttr.put(SCTPAttributeType.ZERO_CHECKSUM_ACCEPTABLE,
+                    new SCTPAttribute(SCTPAttributeType.ZERO_CHECKSUM_ACCEPTABLE,SignalUtil.fourBytesFromInt(EDMID_DTLS)));
+        }
+        if(messageInterleaving) {
+            variableAttr.put(SCTPAttributeType.SUPPORTED_EXTENSIONS,
+                    new SCTPAttribute(SCTPAttributeType.SUPPORTED_EXTENSIONS,INTERLEAVING_EXTENSIONS));
+        }
 
         int chunkSize = 4 +
                 attr.values().stream().
@@ -121,6 +161,34 @@ public class InitiationHandler implements MessageHandler {
         return Optional.of(out);
     }
 
+    /**
+     * @param packet positioned at the INIT chunk
+     * @return whether the INIT carries zero checksum acceptable with the DTLS method
+     */
+    private boolean offersZeroChecksum(SCTPPacketView packet) {
+        byte[] edmid = packet.copyParameter(SCTPAttributeType.ZERO_CHECKSUM_ACCEPTABLE);
+        return edmid != null
+                && edmid.length == 4
+                && SignalUtil.bytesToLong(edmid) == EDMID_DTLS;
+    }
+
+    /**
+     * @param packet positioned at the INIT chunk
+     * @return whether the INIT lists I-DATA as a supported extension
+     */
+    private boolean offersMessageInterleaving(SCTPPacketView packet) {
+        byte[] extensions = packet.copyParameter(SCTPAttributeType.SUPPORTED_EXTENSIONS);
+        if(extensions == null) {
+            return false;
+        }
+        for (byte type : extensions) {
+            if((type & 0xFF) == SCTPMessageType.I_DATA.getNr()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private byte[] createCookie( byte[] tag ) {
         long millis = System.currentTimeMillis();
         SecureRandom rd = new SecureRandom();
@@ -1,8 +1,7 @@
 package com.bitbreeds.webrtc.sctp.impl;
 
-import com.bitbreeds.webrtc.sctp.model.SCTPChunk;
-import com.bitbreeds.webrtc.sctp.model.SCTPHeader;
 import com.bitbreeds.webrtc.sctp.model.SCTPMessage;
+import com.bitbreeds.webrtc.sctp.model.SCTPPacketView;
 
 import java.util.Optional;
 
@@ -23,6 +22,12 @@ import java.util.Optional;
  */
 public interface MessageHandler {
 
-    Optional<SCTPMessage> handleMessage(SCTP handler, SCTPContext ctx, SCTPHeader header, SCTPChunk data);
+    /**
+     * @param handler sctp connection
+     * @param ctx association context
+     * @param packet received packet, positioned at the chunk to handle
+     * @return immediate response if needed
+     */
+    Optional<SCTPMessage> handleMessage(SCTP handler, SCTPContext ctx, SCTPPacketView packet);
 
 }
@@ -0,0 +1,119 @@
+package com.bitbreeds.webrtc.sctp.impl;
+
+import com.bitbreeds.webrtc.sctp.model.SCTPPacketWriter;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Path MTU of an association and the bytes each packet pays below SCTP.
+ *
+ * The overhead is IP, UDP and the DTLS record header and expansion of the
+ * negotiated cipher suite, so what is left for SCTP follows the cipher in use.
+ * The MTU changes as {@link PathMtuDiscovery} confirms or loses a size.
+ */
+public class PathMtu {
+
+    private volatile int mtu;
+    private final int overhead;
+
+    /**
+     * @param mtu path MTU in bytes, IP header included
+     * @param overhead bytes per packet below SCTP
+     */
+    public PathMtu(int mtu, int overhead) {
+        this.overhead = overhead;
+        setMtu(mtu);
+    }
+
+    /**
+     * @param mtu path MTU in bytes
+     * @param dtlsSendLimit largest plaintext the DTLS transport sends at this MTU
+     * @return path MTU with the overhead measured from the DTLS transport
+     */
+    public static PathMtu fromSendLimit(int mtu, int dtlsSendLimit) {
+        return new PathMtu(mtu, mtu - dtlsSendLimit);
+    }
+
+    /**
+     * @param maxPacketSize largest SCTP packet, when nothing is known about the path
+     * @return path MTU with packets of the given size
+     */
+    public static PathMtu withMaxPacketSize(int maxPacketSize) {
+        return new PathMtu(maxPacketSize, 0);
+    }
+
+    public int getMtu() {
+        return mtu;
+    }
+
+    /**
+     * @param mtu new path MTU in bytes, IP header included
+     */
+    public void setMtu(int mtu) {
+        if(mtu - overhead <= SCTPPacketWriter.HEADER_LENGTH + SCTPPacketWriter.DATA_HEADER_LENGTH) {
+            throw new IllegalArgumentException("MTU " + mtu + " leaves no room for data with overhead " + overhead);
+        }
+        this.mtu = mtu;
+    }
+
+    /**
+     * @param mtu path MTU in bytes
+     * @return largest SCTP packet at that MTU, chunks are padded to 4 bytes so a packet never uses the rest
+     */
+    public int packetSizeAt(int mtu) {
+        return (mtu - overhead) & ~3;
+    }
+
+    public int getOverhead() {
+        return overhead;
+    }
+
+    /**
+     * @return largest SCTP packet, common header included
+     */
+    public int getMaxPacketSize() {
+        return mtu - overhead;
+    }
+
+    /**
+     * @return most user data a DATA chunk can carry alone in a packet
+     */
+    public int getMaxDataPayload() {
+        return maxChunkLength() - SCTPPacketWriter.DATA_HEADER_LENGTH;
+    }
+
+    /**
+     * @return most user data an I-DATA chunk can carry alone in a packet
+     */
+    public int getMaxIDataPayload() {
+        return maxChunkLength() - SCTPPacketWriter.I_DATA_HEADER_LENGTH;
+    }
+
+    private int maxChunkLength() {
+        return (getMaxPacketSize() - SCTPPacketWriter.HEADER_LENGTH) & ~3;
+    }
+
+    @Override
+    public String toString() {
+        int mtu = this.mtu;
+        return "PathMtu{" +
+                "mtu=" + mtu +
+                ", overhead=" + overhead +
+                ", maxPacketSize=" + (mtu - overhead) +
+                '}';
+    }
+}
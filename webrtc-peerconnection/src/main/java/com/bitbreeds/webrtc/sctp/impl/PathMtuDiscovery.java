@@ -0,0 +1,300 @@
+package com.bitbreeds.webrtc.sctp.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Packetization layer path MTU discovery for one association.
+ *
+ * Starts at the base MTU, which every path is assumed to carry, and confirms it.
+ * It then searches upwards to the largest MTU the transport can send, first
+ * probing the maximum and then halving the interval between the confirmed and
+ * the failed size. A probe is a padded HEARTBEAT sent alone, confirmed by its
+ * HEARTBEAT ACK. A size fails after {@link #MAX_PROBES} unanswered probes.
+ *
+ * When the search completes the confirmed size is reprobed now and then.
+ * If that fails, or the base itself fails, packets of that size are lost
+ * on the path (a black hole), and the MTU falls back to the base.
+ *
+ * The confirmed MTU is written to the {@link PathMtu}, which sizes packets and
+ * the fragments cut from then on. A DATA chunk is not cut again once it is made,
+ * so after a black hole the chunks already cut for the larger MTU are sent alone
+ * at their own size until they are acked or abandoned.
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc8899#section-5.2">PLPMTUD state machine</a>
+ */
+public class PathMtuDiscovery {
+
+    private final static Logger logger = LoggerFactory.getLogger(PathMtuDiscovery.class);
+
+    /**
+     * BASE_PLPMTU, small enough for IPv6 and most tunnels
+     */
+    public final static int BASE_MTU = 1200;
+
+    /**
+     * MAX_PROBES
+     */
+    public final static int MAX_PROBES = 3;
+
+    /**
+     * Search stops when the confirmed and failed sizes are this close
+     */
+    private final static int SEARCH_GRANULARITY = 16;
+
+    public final static long DEFAULT_PROBE_TIMEOUT_MILLIS = 1000;
+
+    /**
+     * Time between reprobes of the confirmed size when the search is done
+     */
+    public final static long CONFIRMATION_MILLIS = 30_000;
+
+    /**
+     * PMTU_RAISE_TIMER, time before searching for a larger size again
+     */
+    public final static long RAISE_MILLIS = 600_000;
+
+    public enum State {
+        /**
+         * Confirming the base MTU
+         */
+        BASE,
+        /**
+         * Probing for a larger MTU
+         */
+        SEARCHING,
+        /**
+         * Largest MTU found, reprobing it now and then
+         */
+        SEARCH_COMPLETE,
+        /**
+         * Not even the base MTU got through, it is used anyway
+         */
+        ERROR
+    }
+
+    private final PathMtu pathMtu;
+    private final int baseMtu;
+    private final int maxMtu;
+    private final long probeTimeoutMillis;
+
+    private State state = State.BASE;
+
+    /**
+     * Smallest size known to fail, one above the largest that can be probed
+     */
+    private int failedMtu;
+
+    private int probeMtu = 0;
+    private int attempts = 0;
+    private long probeDeadline = 0;
+
+    /**
+     * Time of the next probe when none is in flight
+     */
+    private long nextProbeAt = 0;
+    private long raiseAt = 0;
+
+    private long probesSent = 0;
+    private long blackHoles = 0;
+
+    /**
+     * @param pathMtu path the association sends on, its MTU is the largest that can be sent
+     */
+    public PathMtuDiscovery(PathMtu pathMtu) {
+        this(pathMtu, BASE_MTU, DEFAULT_PROBE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param pathMtu path the association sends on, its MTU is the largest that can be sent
+     * @param baseMtu MTU assumed to work before anything is confirmed
+     * @param probeTimeoutMillis time to wait for the ack of a probe
+     */
+    public PathMtuDiscovery(PathMtu pathMtu, int baseMtu, long probeTimeoutMillis) {
+        this.pathMtu = pathMtu;
+        this.maxMtu = pathMtu.getMtu();
+        this.baseMtu = Math.min(baseMtu, maxMtu);
+        this.failedMtu = maxMtu + 1;
+        this.probeTimeoutMillis = probeTimeoutMillis;
+        pathMtu.setMtu(this.baseMtu);
+    }
+
+    /**
+     * Called periodically. Times out the probe in flight and decides what to probe next.
+     *
+     * @param now current time in millis
+     * @return MTU to send a probe for now, 0 for none
+     */
+    public synchronized int nextProbe(long now) {
+        if (probeMtu != 0) {
+            if (now < probeDeadline) {
+                return 0;
+            }
+            if (attempts < MAX_PROBES) {
+                return sendProbe(probeMtu, now);
+            }
+            probeFailed(now);
+        }
+
+        if (state == State.SEARCH_COMPLETE && now >= raiseAt && pathMtu.getMtu() < maxMtu) {
+            logger.debug("Searching again above {}", pathMtu.getMtu());
+            state = State.SEARCHING;
+            failedMtu = maxMtu + 1;
+            nextProbeAt = now;
+        }
+
+        if (now < nextProbeAt) {
+            return 0;
+        }
+
+        switch (state) {
+            case BASE:
+            case ERROR:
+                return sendProbe(baseMtu, now);
+            case SEARCHING:
+                int candidate = searchCandidate();
+                if (candidate == 0) {
+                    searchComplete(now);
+                    return 0;
+                }
+                return sendProbe(candidate, now);
+            default:
+                return sendProbe(pathMtu.getMtu(), now);
+        }
+    }
+
+    /**
+     * @param mtu MTU carried by the acked probe
+     * @param now current time in millis
+     */
+    public synchronized void probeAcked(int mtu, long now) {
+        if (mtu != probeMtu) {
+            logger.debug("Ack for probe {} not in flight", mtu);
+            return;
+        }
+        probeMtu = 0;
+        attempts = 0;
+        nextProbeAt = now;
+
+        switch (state) {
+            case BASE:
+            case ERROR:
+                logger.info("Base MTU {} confirmed", mtu);
+                state = State.SEARCHING;
+                break;
+            case SEARCHING:
+                logger.info("Path MTU {} confirmed", mtu);
+                pathMtu.setMtu(mtu);
+                break;
+            default:
+                nextProbeAt = now + CONFIRMATION_MILLIS;
+        }
+    }
+
+    /**
+     * Data was lost in a way that may mean full size packets no longer get through,
+     * so the confirmed size is reprobed at once instead of waiting for the next confirmation.
+     *
+     * @param now current time in millis
+     */
+    public synchronized void suspectBlackHole(long now) {
+        if (state == State.SEARCH_COMPLETE && probeMtu == 0 && pathMtu.getMtu() > baseMtu) {
+            nextProbeAt = now;
+        }
+    }
+
+    private int sendProbe(int mtu, long now) {
+        probeMtu = mtu;
+        attempts++;
+        probeDeadline = now + probeTimeoutMillis;
+        probesSent++;
+        return mtu;
+    }
+
+    private void probeFailed(long now) {
+        int failed = probeMtu;
+        probeMtu = 0;
+        attempts = 0;
+        nextProbeAt = now;
+
+        switch (state) {
+            case BASE:
+                logger.warn("Base MTU {} not confirmed, using it anyway", failed);
+                state = State.ERROR;
+                nextProbeAt = now + CONFIRMATION_MILLIS;
+                break;
+            case ERROR:
+                nextProbeAt = now + CONFIRMATION_MILLIS;
+                break;
+            case SEARCHING:
+                logger.debug("Probe for {} failed", failed);
+                failedMtu = failed;
+                break;
+            default:
+                logger.warn("Black hole detected, MTU {} no longer gets through, falling back to {}", failed, baseMtu);
+                blackHoles++;
+                pathMtu.setMtu(baseMtu);
+                failedMtu = failed;
+                state = State.BASE;
+        }
+    }
+
+    /**
+     * @return next size to search, 0 when the search is done
+     */
+    private int searchCandidate() {
+        int confirmed = pathMtu.getMtu();
+        if (failedMtu - confirmed <= SEARCH_GRANULARITY) {
+            return 0;
+        }
+        if (failedMtu > maxMtu) {
+            return maxMtu;
+        }
+        return confirmed + ((failedMtu - confirmed) / 2 & ~3);
+    }
+
+    private void searchComplete(long now) {
+        logger.info("Path MTU search complete at {}", pathMtu.getMtu());
+        state = State.SEARCH_COMPLETE;
+        nextProbeAt = now + CONFIRMATION_MILLIS;
+        raiseAt = now + RAISE_MILLIS;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized long getProbesSent() {
+        return probesSent;
+    }
+
+    public synchronized long getBlackHoles() {
+        return blackHoles;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PathMtuDiscovery{" +
+                "state=" + state +
+                ", mtu=" + pathMtu.getMtu() +
+                ", probesSent=" + probesSent +
+                ", blackHoles=" + blackHoles +
+                '}';
+    }
+}
@@ -1,19 +1,18 @@
 package com.bitbreeds.webrtc.sctp.impl;
 
-import com.bitbreeds.webrtc.common.*;
 import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
-import com.bitbreeds.webrtc.sctp.impl.model.SendData;
-import com.bitbreeds.webrtc.sctp.impl.util.SCTPUtil;
+import com.bitbreeds.webrtc.sctp.impl.model.PendingData;
+import com.bitbreeds.webrtc.sctp.impl.util.StreamSequenceTable;
 import com.bitbreeds.webrtc.sctp.model.*;
-import org.apache.commons.codec.binary.Hex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
 
-import static com.bitbreeds.webrtc.common.SignalUtil.sign;
-import static com.bitbreeds.webrtc.sctp.model.SCTPFixedAttributeType.*;
 
 /*
  * Copyright (c) 19/05/16, Jonas Waage
@@ -36,6 +35,15 @@ import static com.bitbreeds.webrtc.sctp.model.SCTPFixedAttributeType.*;
  *
  * This handles all operation related to creating payload sctp messages.
  *
+ * Messages are cut into fragments and given a stream sequence number here.
+ * Ordered messages are counted per stream from 0 and wrap at 16 bits, unordered messages get 0.
+ * TSNs are assigned by the send buffer when the fragments are sent.
+ *
+ * With message interleaving every message gets a message identifier, counted per stream
+ * and separately for ordered and unordered messages, and its fragments are numbered.
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc8260#section-2.1">I-DATA</a>
+ *
  * @see <a href="https://tools.ietf.org/html/rfc4960#section-3.3.4">SCTP congestion window</a>
  *
  */
@@ -43,176 +51,201 @@ public class PayloadCreator {
 
     private static final Logger logger = LoggerFactory.getLogger(PayloadCreator.class);
 
-    private final static int MAX_DATA_CHUNKSIZE = 1024;
-
-    private AtomicInteger streamSeq = new AtomicInteger(1);
+    private volatile boolean messageInterleaving = false;
 
-    private final Object tsnLock = new Object();
+    private final StreamSequenceTable streamSequences = new StreamSequenceTable(StreamSequenceTable.SSN_MASK);
 
-    private long localTSN = 1;
-
-    public long currentTSN() {
-        synchronized (tsnLock) {
-            return localTSN;
-        }
-    }
+    /**
+     * Next ordered and unordered message identifier of each stream
+     */
+    private final StreamSequenceTable orderedMessageIds = new StreamSequenceTable(StreamSequenceTable.MESSAGE_ID_MASK);
+    private final StreamSequenceTable unorderedMessageIds = new StreamSequenceTable(StreamSequenceTable.MESSAGE_ID_MASK);
 
     /**
-     * TODO only needs a range in return, fix later
-     *
-     * @param num number of tsns needed
-     * @return sequential list of tsns needed.
+     * @param stream stream of the message
+     * @param ordered the receiver ignores the SSN of unordered messages
+     * @return stream sequence number, wraps at 16 bits
      */
-    private List<Long> getTsnGroup(int num) {
-        synchronized (tsnLock) {
-            ArrayList<Long> ar = new ArrayList<>(num);
-            for (int i = 0; i < num; i++) {
-                ar.add(localTSN++);
-            }
-            return ar;
-        }
+    private synchronized int nextSSN(int stream, boolean ordered) {
+        return ordered ? streamSequences.getAndIncrement(stream) : 0;
     }
 
-    private Long getSingleTSN() {
-        synchronized (tsnLock) {
-            return localTSN++;
-        }
+    /**
+     * @param stream stream of the message
+     * @param ordered ordered and unordered messages are counted apart
+     * @return message identifier, wraps at 32 bits
+     */
+    private synchronized int nextMessageId(int stream, boolean ordered) {
+        return (ordered ? orderedMessageIds : unorderedMessageIds).getAndIncrement(stream);
     }
 
     /**
-     * @return first TSN
+     * Must be set before anything is sent, both sides must have agreed to it.
+     *
+     * @param messageInterleaving create I-DATA fragments
      */
-    public long getFirstTSN() {
-        synchronized (tsnLock) {
-            return localTSN;
-        }
+    public void setMessageInterleaving(boolean messageInterleaving) {
+        this.messageInterleaving = messageInterleaving;
     }
 
-
-    private int nextSSN() {
-        return streamSeq.getAndUpdate(i -> i >= Short.MAX_VALUE ? 1 : i + 1);
+    public boolean isMessageInterleaving() {
+        return messageInterleaving;
     }
 
 
     /**
+     * The fragments refer to data, it must not be changed until they are sent.
+     *
      * @param data payload to send
-     * @return create message with payload to send
+     * @param maxFragmentSize most user data in one DATA chunk, see {@link PathMtu#getMaxDataPayload()}
+     * @return fragments of the payload, encoded to DATA chunks when sent
      */
-    List<SendData> createPayloadMessage(
+    public List<PendingData> createPayloadMessage(
             byte[] data,
             SCTPPayloadProtocolId ppid,
-            SCTPHeader base,
             int stream,
-            SCTPReliability reliability) {
+            SCTPReliability reliability,
+            int maxFragmentSize) {
+
+        if (messageInterleaving) {
+            return createInterleavedMessage(data, ppid, stream, reliability, maxFragmentSize);
+        }
 
-        if (data.length <= MAX_DATA_CHUNKSIZE) {
+        if (data.length <= maxFragmentSize) {
 
-            SendData single = createPayloadMessage(
-                    data,
-                    ppid,
-                    base,
+            PendingData single = new PendingData(
+                    stream,
+                    nextSSN(stream, reliability.isOrdered()),
                     reliability.isOrdered() ? SCTPOrderFlag.ORDERED_UNFRAGMENTED : SCTPOrderFlag.UNORDERED_UNFRAGMENTED,
+                    ppid,
+                    reliability,
+                    data,
                     0,
-                    getSingleTSN(),
-                    stream,
-                    reliability);
+                    data.length);
 
             return Collections.singletonList(single);
         } else {
 
-            List<byte[]> dataSplit = SignalUtil.split(data, MAX_DATA_CHUNKSIZE);
-            List<SendData> outPut = new ArrayList<>();
-
-            List<Long> TSNs = getTsnGroup(dataSplit.size());
+            int fragments = (data.length + maxFragmentSize - 1) / maxFragmentSize;
+            List<PendingData> outPut = new ArrayList<>(fragments);
 
-            int ssn = nextSSN();
+            int ssn = nextSSN(stream, reliability.isOrdered());
 
-            SendData start = createPayloadMessage(
-                    dataSplit.get(0),
-                    ppid,
-                    base,
-                    reliability.isOrdered() ? SCTPOrderFlag.ORDERED_START_FRAGMENT : SCTPOrderFlag.UNORDERED_START_FRAGMENT,
-                    ssn,
-                    TSNs.get(0),
-                    stream,
-                    reliability);
-            outPut.add(start);
-
-            for (int i = 1; i < dataSplit.size() - 1; i++) {
-                SendData mid = createPayloadMessage(
-                        dataSplit.get(i),
-                        ppid,
-                        base,
-                        reliability.isOrdered() ? SCTPOrderFlag.ORDERED_MIDDLE_FRAGMENT : SCTPOrderFlag.UNORDERED_MIDDLE_FRAGMENT,
-                        ssn,
-                        TSNs.get(i),
+            for (int i = 0; i < fragments; i++) {
+                int offset = i * maxFragmentSize;
+                outPut.add(new PendingData(
                         stream,
-                        reliability);
-
-                outPut.add(mid);
+                        ssn,
+                        fragmentFlag(reliability.isOrdered(), i == 0, i == fragments - 1),
+                        ppid,
+                        reliability,
+                        data,
+                        offset,
+                        Math.min(maxFragmentSize, data.length - offset)));
             }
 
-            SendData end = createPayloadMessage(
-                    dataSplit.get(dataSplit.size() - 1),
-                    ppid,
-                    base,
-                    reliability.isOrdered() ? SCTPOrderFlag.ORDERED_END_FRAGMENT : SCTPOrderFlag.UNORDERED_END_FRAGMENT,
-                    ssn,
-                    TSNs.get(dataSplit.size() - 1),
-                    stream,
-                    reliability);
-
-            outPut.add(end);
-
             return outPut;
         }
     }
 
+    /**
+     * Lets the send buffer check that a message fits before it is created and numbered.
+     *
+     * @param length payload length
+     * @param maxFragmentSize most user data in one chunk, as given to {@link #createPayloadMessage}
+     * @return buffer capacity the fragments of the payload take
+     */
+    public int bufferedSize(int length, int maxFragmentSize) {
+        int fragments = Math.max(1, (length + maxFragmentSize - 1) / maxFragmentSize);
+        int last = length - (fragments - 1) * maxFragmentSize;
+        return messageInterleaving
+                ? (fragments - 1) * SCTPPacketWriter.iDataLength(maxFragmentSize) + SCTPPacketWriter.iDataLength(last)
+                : (fragments - 1) * SCTPPacketWriter.dataLength(maxFragmentSize) + SCTPPacketWriter.dataLength(last);
+    }
 
     /**
-     * @param data   the data to send
-     * @param ppid   protocol id
-     * @param header sctp header
-     * @return payload data
+     * @return I-DATA fragments of the payload, numbered from 0
      */
-    private SendData createPayloadMessage(
+    private List<PendingData> createInterleavedMessage(
             byte[] data,
             SCTPPayloadProtocolId ppid,
-            SCTPHeader header,
-            SCTPOrderFlag flag,
-            int ssn,
-            long myTSN,
-            Integer stream,
-            SCTPReliability partialReliability) {
-
-        int streamId = stream == null ? 0 : stream;
-
-        Map<SCTPFixedAttributeType, SCTPFixedAttribute> attr = new HashMap<>();
-        attr.put(TSN, new SCTPFixedAttribute(TSN, SignalUtil.longToFourBytes(myTSN)));
-        attr.put(STREAM_IDENTIFIER_S, new SCTPFixedAttribute(STREAM_IDENTIFIER_S, SignalUtil.twoBytesFromInt(streamId)));
-        attr.put(STREAM_SEQUENCE_NUMBER, new SCTPFixedAttribute(STREAM_SEQUENCE_NUMBER, SignalUtil.twoBytesFromInt(ssn)));
-        attr.put(PROTOCOL_IDENTIFIER, new SCTPFixedAttribute(PROTOCOL_IDENTIFIER, new byte[]{0, 0, 0, sign(ppid.getId())}));
-
-        int fixed = attr.values().stream()
-                .map(i -> i.getType().getLgt())
-                .reduce(0, Integer::sum);
-
-        int lgt = 4 + fixed + data.length;
+            int stream,
+            SCTPReliability reliability,
+            int maxFragmentSize) {
 
-        byte[] dataOut = SignalUtil.padToMultipleOfFour(data);
+        int fragments = Math.max(1, (data.length + maxFragmentSize - 1) / maxFragmentSize);
+        List<PendingData> outPut = new ArrayList<>(fragments);
 
-        SCTPChunk chunk = new SCTPChunk(
-                SCTPMessageType.DATA,
-                flag,
-                lgt,
-                attr,
-                new HashMap<>(),
-                dataOut);
+        int mid = nextMessageId(stream, reliability.isOrdered());
 
-        SCTPMessage msg = new SCTPMessage(header, Collections.singletonList(chunk));
+        for (int i = 0; i < fragments; i++) {
+            int offset = i * maxFragmentSize;
+            outPut.add(new PendingData(
+                    stream,
+                    mid,
+                    i,
+                    true,
+                    fragmentFlag(reliability.isOrdered(), i == 0, i == fragments - 1),
+                    ppid,
+                    reliability,
+                    data,
+                    offset,
+                    Math.min(maxFragmentSize, data.length - offset)));
+        }
+        return outPut;
+    }
 
-        byte[] finalOut = SCTPUtil.addChecksum(msg).toBytes();
+    /**
+     * Fragments are read from the source when the send buffer takes them,
+     * so the message never has to be in memory at once. The first fragment is read
+     * here, before the message takes a sequence number, so a source that fails at
+     * once leaves no gap in the stream.
+     *
+     * @param source channel with the payload, closed when the message is sent
+     * @param length bytes to send
+     * @param maxFragmentSize most user data in one DATA chunk, asked for every fragment
+     * @param onError gets read failures after the first fragment, the message ends early on failure
+     * @return message to start once it is buffered, see {@link StreamingMessage#start}
+     * @throws IOException when the source is empty or fails before the first fragment
+     */
+    public StreamingMessage createStreamingMessage(
+            ReadableByteChannel source,
+            long length,
+            SCTPPayloadProtocolId ppid,
+            int stream,
+            SCTPReliability reliability,
+            IntSupplier maxFragmentSize,
+            Consumer<IOException> onError) throws IOException {
+        byte[] first = StreamingMessage.readFirst(source, length, maxFragmentSize.getAsInt());
+        boolean interleaved = messageInterleaving;
+        return new StreamingMessage(
+                source,
+                first,
+                length - first.length,
+                stream,
+                interleaved ? nextMessageId(stream, reliability.isOrdered()) : nextSSN(stream, reliability.isOrdered()),
+                interleaved,
+                ppid,
+                reliability,
+                maxFragmentSize,
+                onError);
+    }
 
-        return new SendData(myTSN, streamId, ssn, flag, ppid, partialReliability ,finalOut);
+    /**
+     * @param ordered ordered delivery
+     * @param first first fragment of the message
+     * @param last last fragment of the message
+     * @return flags for the DATA chunk
+     */
+    static SCTPOrderFlag fragmentFlag(boolean ordered, boolean first, boolean last) {
+        if (first && last) {
+            return ordered ? SCTPOrderFlag.ORDERED_UNFRAGMENTED : SCTPOrderFlag.UNORDERED_UNFRAGMENTED;
+        } else if (first) {
+            return ordered ? SCTPOrderFlag.ORDERED_START_FRAGMENT : SCTPOrderFlag.UNORDERED_START_FRAGMENT;
+        } else if (last) {
+            return ordered ? SCTPOrderFlag.ORDERED_END_FRAGMENT : SCTPOrderFlag.UNORDERED_END_FRAGMENT;
+        } else {
+            return ordered ? SCTPOrderFlag.ORDERED_MIDDLE_FRAGMENT : SCTPOrderFlag.UNORDERED_MIDDLE_FRAGMENT;
+        }
     }
 }
@@ -1,19 +1,15 @@
 package com.bitbreeds.webrtc.sctp.impl;
 
-import com.bitbreeds.webrtc.common.SignalUtil;
 import com.bitbreeds.webrtc.model.webrtc.ReliabilityParameters;
 import com.bitbreeds.webrtc.sctp.impl.model.ReceivedData;
-import com.bitbreeds.webrtc.sctp.model.SCTPChunk;
-import com.bitbreeds.webrtc.sctp.model.SCTPHeader;
 import com.bitbreeds.webrtc.sctp.model.SCTPMessage;
+import com.bitbreeds.webrtc.sctp.model.SCTPPacketView;
 import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Optional;
 
-import static com.bitbreeds.webrtc.sctp.model.SCTPFixedAttributeType.*;
-
 /**
  * Copyright (c) 12/06/16, Jonas Waage
  * <p>
@@ -43,16 +39,15 @@ public class PayloadHandler implements MessageHandler {
     public Optional<SCTPMessage> handleMessage(
             SCTP handler,
             SCTPContext ctx,
-            SCTPHeader header,
-            SCTPChunk data) {
+            SCTPPacketView packet) {
 
-        logger.debug("Received payload:" + data);
+        long tsn = packet.getTsn();
+        int streamId = packet.getStreamId();
+        int sequence = packet.getStreamSequence();
+        SCTPPayloadProtocolId ppid = SCTPPayloadProtocolId.fromValue(packet.getProtocolId());
 
-        long tsn = SignalUtil.bytesToLong(data.getFixed().get(TSN).getData());
-        int streamId = SignalUtil.intFromTwoBytes(data.getFixed().get(STREAM_IDENTIFIER_S).getData());
-        int sequence = SignalUtil.intFromTwoBytes(data.getFixed().get(STREAM_SEQUENCE_NUMBER).getData());
-        int proto = SignalUtil.intFromFourBytes(data.getFixed().get(PROTOCOL_IDENTIFIER).getData());
-        SCTPPayloadProtocolId ppid = SCTPPayloadProtocolId.fromValue(proto);
+        logger.debug("Received payload tsn: {} stream: {} ssn: {} length: {}",
+                tsn, streamId, sequence, packet.getPayloadLength());
 
         /*
          * Get stream settings from datachannel
@@ -61,7 +56,11 @@ public class PayloadHandler implements MessageHandler {
                 .map(ReliabilityParameters::getSctpReliability)
                 .orElse(SCTPReliability.createOrdered());
 
-        ReceivedData storage = new ReceivedData(tsn,streamId,sequence,data.getFlags(),ppid,parameters,data.getRest());
+        /*
+         * Only the payload outlives the packet buffer
+         */
+        ReceivedData storage = new ReceivedData(
+                tsn,streamId,sequence,packet.getOrderFlag(),ppid,parameters,packet.copyPayload());
 
         handler.handleSctpPayload(storage);
 
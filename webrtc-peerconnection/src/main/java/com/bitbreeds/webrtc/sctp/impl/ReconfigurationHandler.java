@@ -30,9 +30,9 @@ public class ReconfigurationHandler implements MessageHandler {
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
     @Override
-    public Optional<SCTPMessage> handleMessage(SCTP handler, SCTPContext ctx, SCTPHeader header, SCTPChunk data) {
-        SCTPAttribute incoming = data.getVariable().get(SCTPAttributeType.INCOMING_SSN_RESET_REQUEST);
-        SCTPAttribute outgoing = data.getVariable().get(SCTPAttributeType.OUTGOING_SSN_RESET_REQUEST);
+    public Optional<SCTPMessage> handleMessage(SCTP handler, SCTPContext ctx, SCTPPacketView packet) {
+        int incoming = packet.findParameter(SCTPAttributeType.INCOMING_SSN_RESET_REQUEST);
+        int outgoing = packet.findParameter(SCTPAttributeType.OUTGOING_SSN_RESET_REQUEST);
         return Optional.empty();
     }
     
@@ -1,14 +1,20 @@
 package com.bitbreeds.webrtc.sctp.impl;
 
 import com.bitbreeds.webrtc.model.webrtc.ConnectionInternalApi;
+import com.bitbreeds.webrtc.model.webrtc.DataChannelPriority;
 import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
+import com.bitbreeds.webrtc.model.sctp.SkippedMessage;
 import com.bitbreeds.webrtc.sctp.impl.buffer.SackData;
 import com.bitbreeds.webrtc.sctp.impl.buffer.WireRepresentation;
 import com.bitbreeds.webrtc.sctp.impl.model.ReceivedData;
 
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 /**
  * Copyright (c) 29/06/16, Jonas Waage
@@ -43,7 +49,17 @@ public interface SCTP {
      * @param data the request
      * @return possible return message for handling
      */
-    List<WireRepresentation> handleRequest(byte[] data);
+    default List<WireRepresentation> handleRequest(byte[] data) {
+        return handleRequest(data, 0, data.length);
+    }
+
+    /**
+     * @param data buffer holding the request, may be reused by the caller after this returns
+     * @param offset start of the request in data
+     * @param length length of the request
+     * @return possible return message for handling
+     */
+    List<WireRepresentation> handleRequest(byte[] data, int offset, int length);
 
     /**
      * @param data the rawdata to create a message
@@ -54,6 +70,51 @@ public interface SCTP {
      */
      void bufferForSending(byte[] data, SCTPPayloadProtocolId id, Integer stream,SCTPReliability partialReliability);
 
+    /**
+     * @param source channel with the message, read as the window opens and closed when sent
+     * @param length bytes to send
+     * @param id protocol
+     * @param stream stream to send on
+     * @param partialReliability reliability parameters
+     * @param reader executor reading the source after the first fragment
+     * @param onReady run when a fragment is read and can be sent
+     * @param onError gets failures reading the source after the first fragment
+     * @throws IOException when the source is empty or fails before the first fragment
+     */
+    void bufferForSending(
+            ReadableByteChannel source,
+            long length,
+            SCTPPayloadProtocolId id,
+            Integer stream,
+            SCTPReliability partialReliability,
+            Executor reader,
+            Runnable onReady,
+            Consumer<IOException> onError) throws IOException;
+
+    /**
+     * @param stream stream to change
+     * @param streaming whether fragmented messages on the stream are delivered as they arrive
+     */
+    void setStreamingReceive(int stream, boolean streaming);
+
+    /**
+     * @param stream stream to change
+     * @param priority priority from the channel open, decides its share of the link
+     */
+    void setStreamPriority(int stream, DataChannelPriority priority);
+
+    /**
+     * @param stream stream to look at
+     * @return bytes of user data buffered on the stream and not yet sent
+     */
+    long getBufferedAmount(int stream);
+
+    /**
+     * @param stream stream to change
+     * @param threshold the connection is notified when sending brings the buffered amount from above to at most this
+     */
+    void setBufferedAmountLowThreshold(int stream, long threshold);
+
     /**
      * Log useful monitoring values.
      */
@@ -74,8 +135,9 @@ public interface SCTP {
     /**
      *
      * @param ackPoint the point to update to
+     * @param skipped last message the peer skipped on each stream
      */
-    void updateAckPoint(long ackPoint);
+    void updateAckPoint(long ackPoint, List<SkippedMessage> skipped);
 
     /**
      *
@@ -154,5 +216,39 @@ public interface SCTP {
 
     Instant timeOfLastSCTPPacket();
 
-    
+    /**
+     * @return received packets dropped because of a bad checksum
+     */
+    long getChecksumRejectedCount();
+
+    /**
+     * @return packets carrying data per message sent
+     */
+    double getPacketsPerMessage();
+
+    /**
+     * @return bytes sent that were not user data
+     */
+    long getOverheadBytes();
+
+    /**
+     * @return whether this side offers to receive packets without checksum
+     */
+    boolean isZeroChecksumAcceptable();
+
+    /**
+     * @return whether zero checksum was negotiated for the association
+     */
+    boolean isZeroChecksum();
+
+    /**
+     * @return whether this side offers I-DATA message interleaving
+     */
+    boolean isMessageInterleavingAcceptable();
+
+    /**
+     * @return whether message interleaving was negotiated for the association
+     */
+    boolean isMessageInterleaving();
+
 }
@@ -26,11 +26,32 @@ public class SCTPContext {
     private final byte[] initiateTag;
     private final int sourcePort;
     private final int destPort;
+    private final boolean zeroChecksum;
+    private final boolean messageInterleaving;
 
     public SCTPContext(byte[] initiateTag, int sourcePort, int destPort) {
+        this(initiateTag, sourcePort, destPort, false);
+    }
+
+    /**
+     * @param zeroChecksum both sides accept packets without checksum
+     * @see <a href="https://tools.ietf.org/html/rfc9653">RFC 9653</a>
+     */
+    public SCTPContext(byte[] initiateTag, int sourcePort, int destPort, boolean zeroChecksum) {
+        this(initiateTag, sourcePort, destPort, zeroChecksum, false);
+    }
+
+    /**
+     * @param zeroChecksum both sides accept packets without checksum
+     * @param messageInterleaving both sides support I-DATA, user data is sent with it
+     * @see <a href="https://tools.ietf.org/html/rfc8260">RFC 8260</a>
+     */
+    public SCTPContext(byte[] initiateTag, int sourcePort, int destPort, boolean zeroChecksum, boolean messageInterleaving) {
         this.initiateTag = initiateTag;
         this.sourcePort = sourcePort;
         this.destPort = destPort;
+        this.zeroChecksum = zeroChecksum;
+        this.messageInterleaving = messageInterleaving;
     }
 
     public long tagAsLong() {
@@ -48,4 +69,12 @@ public class SCTPContext {
     public int getDestPort() {
         return destPort;
     }
+
+    public boolean isZeroChecksum() {
+        return zeroChecksum;
+    }
+
+    public boolean isMessageInterleaving() {
+        return messageInterleaving;
+    }
 }
@@ -2,6 +2,7 @@ package com.bitbreeds.webrtc.sctp.impl;
 
 import com.bitbreeds.webrtc.model.webrtc.*;
 import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
+import com.bitbreeds.webrtc.model.sctp.SkippedMessage;
 import com.bitbreeds.webrtc.sctp.impl.buffer.*;
 import com.bitbreeds.webrtc.sctp.impl.model.*;
 import com.bitbreeds.webrtc.sctp.impl.util.SCTPUtil;
@@ -10,11 +11,15 @@ import org.apache.commons.codec.binary.Hex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /*
  * Copyright (c) 19/05/16, Jonas Waage
@@ -59,15 +64,32 @@ public class SCTPImpl implements SCTP  {
     private final AtomicReference<SCTPState> state = new AtomicReference<>(SCTPState.CLOSED);
 
     private AtomicReference<Instant> lastSctpMessage = new AtomicReference<>(Instant.now());
+
+    private final AtomicLong checksumRejected = new AtomicLong(0);
+
+    /**
+     * Offer zero checksum in the INIT ACK, DTLS already protects the packets
+     */
+    private final boolean zeroChecksumAcceptable;
+
+    /**
+     * Offer I-DATA in the INIT ACK, so small messages need not wait behind large ones
+     */
+    private final boolean messageInterleavingAcceptable;
+
+    /**
+     * How outbound streams share the link
+     */
+    private final StreamSchedulerType streamScheduler;
     private AtomicReference<Instant> lastHeartBeatAck = new AtomicReference<>(Instant.now());;
 
     private AtomicReference<Instant> lastFwdAckPtReport = new AtomicReference<>(Instant.now());
 
 
-    private final Object sackLock = new Object();
-    private int packetCountSinceSack = 0;
-    private boolean hasNonAcknowledgedData = false;
-    private boolean sackImmediately = false;
+    /**
+     * Holds back SACKs so they can ride on outgoing DATA
+     */
+    private final DelayedAck delayedAck = new DelayedAck();
 
     /**
      * The impl access to write data to the socket
@@ -75,8 +97,15 @@ public class SCTPImpl implements SCTP  {
     private final ConnectionInternalApi connection;
 
     private final ReceiveBuffer receiveBuffer =  new ReceiveBuffer(1000,localBufferSize);
-    private final SendBuffer sendBuffer = new SendBuffer(DEFAULT_SEND_BUFFER_SIZE);
+    private final SendBuffer sendBuffer;
     private final PayloadCreator payloadCreator = new PayloadCreator();
+    private final PathMtu pathMtu;
+
+    /**
+     * Null when the path MTU is assumed
+     */
+    private final PathMtuDiscovery pathMtuDiscovery;
+    private final SCTPPacketizer packetizer;
     private final HeartBeatService heartBeatService = new HeartBeatService();
     private final AtomicReference<RetransmissionTimer> retransmissionCalculator = new AtomicReference<>(RetransmissionTimer.initial(Instant.now()));
     private final SingleTimedAction shutdownAction = new SingleTimedAction(this::shutDownTask,200); //Not in use yet
@@ -87,8 +116,25 @@ public class SCTPImpl implements SCTP  {
      * @param connection interface to socket
      */
     public SCTPImpl(ConnectionInternalApi connection) {
+        this(connection, new SCTPOptions());
+    }
+
+    /**
+     *
+     * @param connection interface to socket
+     * @param options what to offer the peer, path MTU and stream scheduling
+     */
+    public SCTPImpl(ConnectionInternalApi connection, SCTPOptions options) {
         this.connection = connection;
-        logger.warn("Starting normal SCTP impl {}",this.getClass());
+        this.zeroChecksumAcceptable = options.isZeroChecksumAcceptable();
+        this.messageInterleavingAcceptable = options.isMessageInterleavingAcceptable();
+        this.pathMtu = options.getPathMtu();
+        this.pathMtuDiscovery = options.isDiscoverPathMtu() ? new PathMtuDiscovery(pathMtu) : null;
+        this.packetizer = new SCTPPacketizer(pathMtu);
+        this.sendBuffer = new SendBuffer(DEFAULT_SEND_BUFFER_SIZE, pathMtu.getMaxPacketSize());
+        this.streamScheduler = options.getStreamScheduler();
+        this.sendBuffer.setScheduler(streamScheduler.create(false));
+        logger.warn("Starting normal SCTP impl {} with {}",this.getClass(),options);
     }
 
     /**
@@ -109,6 +155,8 @@ public class SCTPImpl implements SCTP  {
         map.put(SCTPMessageType.DATA,new PayloadHandler());
         map.put(SCTPMessageType.SELECTIVE_ACK,new SelectiveAckHandler());
         map.put(SCTPMessageType.FORWARD_TSN,new ForwardTsnHandler());
+        map.put(SCTPMessageType.I_DATA,new IDataHandler());
+        map.put(SCTPMessageType.I_FORWARD_TSN,new ForwardTsnHandler());
 
         //Reconfig
         map.put(SCTPMessageType.RE_CONFIG,new ReconfigurationHandler());
@@ -129,57 +177,103 @@ public class SCTPImpl implements SCTP  {
         logger.debug("Received hearthBeatAck with data");
         lastHeartBeatAck.set(Instant.now());
         heartBeatService.receiveHeartBeatAck(data);
+
+        int probedMtu = HeartBeatService.probedMtu(data);
+        if(probedMtu != 0 && pathMtuDiscovery != null) {
+            pathMtuDiscovery.probeAcked(probedMtu, System.currentTimeMillis());
+            sendBuffer.setCongestionMtu(pathMtu.getMaxPacketSize());
+        }
     }
 
     public void establish() {
         SCTPState next = state.updateAndGet(SCTPState::moveToEstablished);
         logger.info("Moved to {}",next);
+        getConnection().associationEstablished();
     }
 
     public void setContext(SCTPContext context) {
         this.context = context;
+        if(context.isZeroChecksum()) {
+            logger.info("Zero checksum negotiated, outgoing packets are sent without checksum");
+        }
+        if(context.isMessageInterleaving()) {
+            logger.info("Message interleaving negotiated, user data is sent as I-DATA");
+            payloadCreator.setMessageInterleaving(true);
+            sendBuffer.setScheduler(streamScheduler.create(true));
+        }
     }
 
-    private void doRetransmission() {
+    /**
+     * @param control control chunks to bundle with the retransmission
+     */
+    private void doRetransmission(List<byte[]> control) {
         if(state.get() == SCTPState.ESTABLISHED) {
             logger.info("Retransmission started {}", Instant.now());
             retransmissionCalculator.updateAndGet((i)->i.restart(Instant.now()));
             RetransmitData toSend = sendBuffer.getDataToRetransmit();
-            performRetransmit(toSend);
+            performRetransmit(toSend, control);
+        }
+        else {
+            sendOnWire(control, Collections.emptyList());
         }
     }
 
-    private void performRetransmit(RetransmitData toSend) {
+    private void performRetransmit(RetransmitData toSend, List<byte[]> control) {
+        List<byte[]> chunks = new ArrayList<>(control);
         if(toSend.getFwdAckPoint().getAckPoint() > toSend.getRemoteCumulativeTSN()) {
-            SCTPChunk chunk = SackCreator.creatForwardTsnChunk(toSend.getFwdAckPoint());
-            SCTPMessage msg = new SCTPMessage(SCTPUtil.baseHeader(context), Collections.singletonList(chunk));
-
-            SCTPMessage withChecksum = SCTPUtil.addChecksum(msg);
-            getConnection().putDataOnWire(withChecksum.toBytes());
+            chunks.add(SackCreator.createForwardTsn(toSend.getFwdAckPoint(), isMessageInterleaving()));
 
             retransmissionCalculator.updateAndGet((i)->i.start(Instant.now()));
             logger.info("Sending advanced ack point {}", toSend.getFwdAckPoint());
         }
 
-        toSend.getBuffered().forEach(i -> {
-                    logger.info("Retransmit {}", i);
-                    getConnection().putDataOnWire(i.getData().getSctpPayload());
-                }
-        );
+        toSend.getBuffered().forEach(i -> logger.info("Retransmit {}", i));
+        sendOnWire(chunks, toSend.getBuffered());
+    }
+
+    /**
+     * Bundle control chunks first and then data into as few packets as possible.
+     * A pending SACK is added when it is due, or when there is data it can ride on.
+     *
+     * @param control encoded control chunks
+     * @param data data chunks to send
+     * @return packets for the wire
+     */
+    private List<byte[]> packetize(List<byte[]> control, List<BufferedSent> data) {
+        List<byte[]> chunks = control;
+        if(delayedAck.takeSack(!data.isEmpty(), System.currentTimeMillis())) {
+            chunks = new ArrayList<>(control.size() + 1);
+            chunks.add(createSackMessage(receiveBuffer.getSackDataToSend()));
+            chunks.addAll(control);
+        }
+        return packetizer.packetize(
+                SCTPUtil.baseHeader(context),
+                context.isZeroChecksum(),
+                chunks,
+                data.stream().map(BufferedSent::getData).collect(Collectors.toList()));
+    }
+
+    private void sendOnWire(List<byte[]> control, List<BufferedSent> data) {
+        packetize(control, data).forEach(getConnection()::putDataOnWire);
     }
 
     /**
      *
      * @param pt ack pt
+     * @param skipped last message the peer skipped on each stream
      */
-    public void updateAckPoint(long pt) {
-        logger.debug("Update ack point to " + pt);
-        ForwardAccResult result = receiveBuffer.receiveForwardAckPoint(pt);
-        getConnection().putDataOnWire(createSackMessage(result.getSackData()).getPayload());
+    public void updateAckPoint(long pt, List<SkippedMessage> skipped) {
+        logger.debug("Update ack point to {} skipping {}", pt, skipped);
+        ForwardAccResult result = receiveBuffer.receiveForwardAckPoint(pt, skipped, isMessageInterleaving());
+        delayedAck.sackImmediately();
+        sendOnWire(Collections.emptyList(), Collections.emptyList());
 
         result.getToDeliver().forEach(i->
                 getConnection().presentToUser(i)
         );
+        receiveBuffer.getMessagesForDelivery().forEach(i->
+                getConnection().presentToUser(i)
+        );
     }
 
     /**
@@ -196,6 +290,7 @@ public class SCTPImpl implements SCTP  {
             retransmissionCalculator.updateAndGet((i)->i.restart(Instant.now()));
         }
 
+        List<byte[]> control = new ArrayList<>(1);
         if(result.getAdvancedAckPoint().getAckPoint() > result.getRemoteCumulativeTSN()) {
 
             Instant time = Instant.now();
@@ -207,28 +302,19 @@ public class SCTPImpl implements SCTP  {
             });
 
             if(time.minusMillis(50).isAfter(old)) {
-                SCTPChunk chunk = SackCreator.creatForwardTsnChunk(result.getAdvancedAckPoint());
-                SCTPMessage msg = new SCTPMessage(SCTPUtil.baseHeader(context), Collections.singletonList(chunk));
-
-                SCTPMessage withChecksum = SCTPUtil.addChecksum(msg);
-                getConnection().putDataOnWire(withChecksum.toBytes());
+                control.add(SackCreator.createForwardTsn(result.getAdvancedAckPoint(), isMessageInterleaving()));
 
                 retransmissionCalculator.updateAndGet((i) -> i.start(Instant.now()));
                 logger.info("Sending advanced ack point {}", result.getAdvancedAckPoint());
             }
         }
 
-        result.getFastRetransmits().forEach(i -> {
-                    logger.info("Fast retransmit {}",i);
-                    getConnection().putDataOnWire(i.getData().getSctpPayload());
-                }
-        );
+        result.getFastRetransmits().forEach(i -> logger.info("Fast retransmit {}",i));
 
-        List<BufferedSent> toSend = sendBuffer.getDataToSend();
+        List<BufferedSent> toSend = new ArrayList<>(result.getFastRetransmits());
+        toSend.addAll(sendBuffer.getDataToSend(getConnection().getWireCapacity()));
 
-        toSend.forEach(i ->
-                getConnection().putDataOnWire(i.getData().getSctpPayload())
-        );
+        sendOnWire(control, toSend);
     }
 
     public void initializeRemote(int remoteReceiveBufferSize,long initialTSN) {
@@ -244,12 +330,14 @@ public class SCTPImpl implements SCTP  {
 
 
     public long getFirstTSN() {
-        return payloadCreator.getFirstTSN();
+        return sendBuffer.getNextTSN();
     }
 
     /**
+     * The payload is fragmented and numbered once it fits the send buffer,
+     * TSNs and DATA chunks are made when the window lets it out
      *
-     * @param data payload to send
+     * @param data payload to send, referenced until sent
      */
     public void bufferForSending(
             byte[] data,
@@ -261,13 +349,51 @@ public class SCTPImpl implements SCTP  {
             throw new IllegalStateException("Buffering should only happen in the established state");
         }
 
-        List<SendData> messages = payloadCreator.createPayloadMessage(
-                data,ppid,
-                SCTPUtil.baseHeader(context),
+        int maxFragmentSize = maxDataPayload();
+        sendBuffer.buffer(
+                payloadCreator.bufferedSize(data.length, maxFragmentSize),
+                () -> payloadCreator.createPayloadMessage(
+                        data,ppid,
+                        stream,
+                        reliability,
+                        maxFragmentSize));
+    }
+
+    /**
+     * Only the first fragment is read now, the rest is read on the reader as the window lets it out
+     */
+    @Override
+    public void bufferForSending(
+            ReadableByteChannel source,
+            long length,
+            SCTPPayloadProtocolId ppid,
+            Integer stream,
+            SCTPReliability reliability,
+            Executor reader,
+            Runnable onReady,
+            Consumer<IOException> onError) throws IOException {
+
+        if(!state.get().canSend()) {
+            throw new IllegalStateException("Buffering should only happen in the established state");
+        }
+
+        StreamingMessage message = payloadCreator.createStreamingMessage(
+                source,
+                length,
+                ppid,
                 stream,
-                reliability);
+                reliability,
+                this::maxDataPayload,
+                onError);
+        sendBuffer.buffer(message);
+        message.start(reader, onReady);
+    }
 
-        sendBuffer.buffer(messages);
+    /**
+     * @return most user data in one chunk, I-DATA has a larger header
+     */
+    private int maxDataPayload() {
+        return payloadCreator.isMessageInterleaving() ? pathMtu.getMaxIDataPayload() : pathMtu.getMaxDataPayload();
     }
 
 
@@ -277,51 +403,74 @@ public class SCTPImpl implements SCTP  {
      */
     public List<WireRepresentation> runPeriodicSCTPTasks() {
 
-        synchronized (sackLock) {
-            if((hasNonAcknowledgedData && packetCountSinceSack >= 2) || sackImmediately) {
-                hasNonAcknowledgedData = false;
-                sackImmediately = false;
-                packetCountSinceSack = 0;
-                SackData sackData = receiveBuffer.getSackDataToSend();
-                getConnection().putDataOnWire(createSackMessage(sackData).getPayload());
-            }
-        }
+        List<byte[]> control = Collections.emptyList();
 
-        if(sendBuffer.getCapacity() > sendBuffer.getInitialBufferCapacity()/2) {
-            this.getConnection().notifyDatachannelsBufferedAmountLow(
-                    new BufferState(sendBuffer.getInitialBufferCapacity(),sendBuffer.getCapacity())
+        /*
+         * Only channels that drained to their threshold, so producers refill one at a time
+         */
+        for (int stream : sendBuffer.pollBufferedAmountLow()) {
+            this.getConnection().notifyBufferedAmountLow(stream,
+                    new BufferState(sendBuffer.getInitialBufferCapacity(),sendBuffer.getCapacity(),sendBuffer.getBufferedAmount(stream))
             );
         }
 
         if(retransmissionCalculator.get().checkForTimeout(Instant.now())){
             logger.info("Timeout of t3 timer, running retransmission");
-            doRetransmission(); //Will send, so return empty
+            if(pathMtuDiscovery != null) {
+                pathMtuDiscovery.suspectBlackHole(System.currentTimeMillis());
+            }
+            doRetransmission(control); //Will send, so return empty
             return Collections.emptyList();
         }
         else {
-            List<BufferedSent> toSend = sendBuffer.getDataToSend();
+            List<BufferedSent> toSend = sendBuffer.getDataToSend(getConnection().getWireCapacity());
             if (!toSend.isEmpty()) {
                 retransmissionCalculator.updateAndGet((i)->i.start(Instant.now()));
             }
-            return toSend.stream()
-                    .map(i -> new WireRepresentation(i.getData().getSctpPayload()))
+            List<WireRepresentation> out = packetize(control, toSend).stream()
+                    .map(WireRepresentation::new)
                     .collect(Collectors.toList());
+            createPathMtuProbe().ifPresent(out::add);
+            return out;
         }
 
     }
 
+    /**
+     * A probe goes alone in its packet, so nothing rides on it if it is lost
+     *
+     * @return probe for path MTU discovery if one is due
+     */
+    private Optional<WireRepresentation> createPathMtuProbe() {
+        if(pathMtuDiscovery == null || state.get() != SCTPState.ESTABLISHED) {
+            return Optional.empty();
+        }
+        int probe = pathMtuDiscovery.nextProbe(System.currentTimeMillis());
+        sendBuffer.setCongestionMtu(pathMtu.getMaxPacketSize());
+        if(probe == 0) {
+            return Optional.empty();
+        }
+        logger.debug("Probing path MTU {}", probe);
+        byte[] chunk = heartBeatService.createProbe(probe, pathMtu.packetSizeAt(probe));
+        List<byte[]> packets = packetizer.packetize(
+                SCTPUtil.baseHeader(context),
+                context.isZeroChecksum(),
+                Collections.singletonList(chunk),
+                Collections.emptyList());
+        return Optional.of(new WireRepresentation(packets.get(0)));
+    }
+
     @Override
     public int sendBufferCapacity() {
         return sendBuffer.getCapacity();
     }
 
     /**
-     * @return message with acks
+     * @return SACK chunk with acks
      */
-    private WireRepresentation createSackMessage(SackData sackData) {
-        SCTPMessage message = SackCreator.createSack(SCTPUtil.baseHeader(context),sackData);
-        logger.debug("Created sack {} to send",message);
-        return new WireRepresentation(message.toBytes());
+    private byte[] createSackMessage(SackData sackData) {
+        logger.debug("Created sack {} to send",sackData);
+        return SackCreator.createSack(sackData);
     }
 
 
@@ -330,79 +479,103 @@ public class SCTPImpl implements SCTP  {
      */
     @Override
     public Optional<WireRepresentation> createHeartBeat() {
-        return Optional.of(new WireRepresentation(
-                heartBeatService.createHeartBeat(SCTPUtil.baseHeader(context)).toBytes()));
+        List<byte[]> packets = packetize(
+                Collections.singletonList(heartBeatService.createHeartBeat()),
+                Collections.emptyList());
+        return Optional.of(new WireRepresentation(packets.get(0)));
     }
 
 
     /**
      * Handle message and create a immediate response if needed
-     * @param input the incoming message
+     * @param input buffer holding the incoming message
+     * @param offset start of message
+     * @param length length of message
      * @return responses
      */
-    public List<WireRepresentation> handleRequest(byte[] input) {
-        logger.trace(Hex.encodeHexString(input));
-        SCTPMessage inFullMessage = SCTPMessage.fromBytes(input);
+    @Override
+    public List<WireRepresentation> handleRequest(byte[] input, int offset, int length) {
+        if (logger.isTraceEnabled()) {
+            logger.trace(Hex.encodeHexString(Arrays.copyOfRange(input, offset, offset + length)));
+        }
+        SCTPPacketView packet = new SCTPPacketView(input, offset, length);
 
-        logger.debug("Input Parsed: {}", inFullMessage);
+        /*
+         * https://tools.ietf.org/html/rfc4960#section-6.8
+         * Packets with an invalid checksum are silently discarded.
+         *
+         * https://tools.ietf.org/html/rfc9653#section-5.3
+         * Once zero checksum is negotiated a zero checksum is accepted too
+         */
+        boolean skipChecksum = isZeroChecksum() && packet.getChecksumValue() == 0;
+        if (!skipChecksum && !packet.hasValidChecksum()) {
+            long rejected = checksumRejected.incrementAndGet();
+            logger.debug("Dropped packet with bad checksum {}, rejected so far {}", packet, rejected);
+            return Collections.emptyList();
+        }
 
-        SCTPHeader inHdr = inFullMessage.getHeader();
-        List<SCTPChunk> inChunks = inFullMessage.getChunks();
+        logger.debug("Input Parsed: {}", packet);
 
         lastSctpMessage.set(Instant.now());
 
-        logger.debug("Chunks received {} {} {} {}",
-                inChunks.size(),
-                inChunks.stream().map(SCTPChunk::getType).collect(Collectors.toList()),
-                inFullMessage.getChunks().stream().map(i -> i.toBytes().length).collect(Collectors.toList()),
-                input.length);
-
-        List<WireRepresentation> result = inChunks.stream()
-                .map(i -> handleChunk(i,inHdr))
-                .flatMap(i -> i)
-                .map(i -> new WireRepresentation(SCTPUtil.addChecksum(i).toBytes()))
-                .collect(Collectors.toList());
-
-        List<SCTPMessageType> types = inChunks.stream().map(SCTPChunk::getType).collect(Collectors.toList());
-        boolean hasData = types.contains(SCTPMessageType.DATA) || types.contains(SCTPMessageType.FORWARD_TSN);
+        List<WireRepresentation> result = new ArrayList<>(1);
+        List<byte[]> replies = new ArrayList<>(1);
+        boolean hasData = false;
+        while (packet.nextChunk()) {
+            SCTPMessageType type = packet.getChunkType();
+            if (!hasData && isDataOrForwardTsn(type)) {
+                /*
+                 * Counted before handling, data sent by the user in a callback takes the SACK with it
+                 */
+                hasData = true;
+                delayedAck.packetReceived();
+            }
+            Optional<SCTPMessage> reply = handleChunk(packet);
+            if (!reply.isPresent()) {
+                continue;
+            }
+            if (type == SCTPMessageType.INITIATION) {
+                /*
+                 * The INIT ACK is never bundled and keeps its checksum,
+                 * the peer may not have processed our parameters yet
+                 */
+                result.add(new WireRepresentation(SCTPPacketWriter.encode(reply.get())));
+            } else {
+                reply.get().getChunks().forEach(i -> replies.add(SCTPPacketWriter.encodeChunk(i)));
+            }
+        }
 
         /*
          * https://tools.ietf.org/html/rfc4960#section-6.2
-         * Send sack if packet count with no sack is 2 or more
-         *
-         * TODO do simplest possible SACK
+         * The SACK goes now if it is due, otherwise it waits for data or the delayed ack timer
          */
-        if(hasData) {
-            synchronized (sackLock) {
-                packetCountSinceSack++;
-                if (packetCountSinceSack >= 2 || sackImmediately) {
-                    packetCountSinceSack = 0;
-                    sackImmediately = false;
-                    hasNonAcknowledgedData = false;
-                    SackData sackData = receiveBuffer.getSackDataToSend();
-                    getConnection().putDataOnWire(createSackMessage(sackData).getPayload());
-                }
-            }
+        if (hasData || !replies.isEmpty()) {
+            packetize(replies, Collections.emptyList())
+                    .forEach(i -> result.add(new WireRepresentation(i)));
         }
-
         return result;
     }
 
+    private static boolean isDataOrForwardTsn(SCTPMessageType type) {
+        return type == SCTPMessageType.DATA
+                || type == SCTPMessageType.I_DATA
+                || type == SCTPMessageType.FORWARD_TSN
+                || type == SCTPMessageType.I_FORWARD_TSN;
+    }
+
     /**
      *
-     * @param chunk chunk data
-     * @param hdr hdr of chunk
+     * @param packet packet positioned at the chunk to handle
      * @return handle chunk by finding correct processing in handlermap
      */
-    private Stream<SCTPMessage> handleChunk(SCTPChunk chunk, SCTPHeader hdr) {
-        MessageHandler handler = handlerMap.get(chunk.getType());
+    private Optional<SCTPMessage> handleChunk(SCTPPacketView packet) {
+        MessageHandler handler = handlerMap.get(packet.getChunkType());
         if (handler != null) {
-            logger.debug("Received: {} {}",hdr,chunk);
-            Optional<SCTPMessage> out = handler.handleMessage(this, context, hdr, chunk);
-            return out.map(Stream::of).orElse(Stream.empty());
+            logger.debug("Received: {} length {}",packet.getChunkType(),packet.getChunkLength());
+            return handler.handleMessage(this, context, packet);
         } else {
-            logger.warn("Not handled messagetype: " + chunk.getType());
-            return Stream.empty();
+            logger.warn("Not handled messagetype: {} ({})",packet.getChunkType(),packet.getChunkTypeValue());
+            return Optional.empty();
         }
     }
 
@@ -421,18 +594,14 @@ public class SCTPImpl implements SCTP  {
     public void handleSctpPayload(ReceivedData data) {
         Objects.requireNonNull(data);
 
-        logger.trace("Flags: " + data.getFlag() + " Stream: " + data.getStreamId() + " Stream seq: " + data.getStreamSequence());
-        logger.trace("Data as hex: " + Hex.encodeHexString(data.getPayload()));
-        logger.trace("Data as string: " + new String(data.getPayload()) + ":");
+        if (logger.isTraceEnabled()) {
+            logger.trace("Flags: " + data.getFlag() + " Stream: " + data.getStreamId() + " Stream seq: " + data.getStreamSequence());
+            logger.trace("Data as hex: " + Hex.encodeHexString(data.getPayload()));
+            logger.trace("Data as string: " + new String(data.getPayload()) + ":");
+        }
 
         StoreResult result = receiveBuffer.store(data);
-        synchronized (sackLock) {
-            if (result.isMustSackImmediately()) {
-                sackImmediately = true;
-            } else {
-                hasNonAcknowledgedData = true;
-            }
-        }
+        delayedAck.dataReceived(result.isMustSackImmediately(), System.currentTimeMillis());
 
         List<Deliverable> deliverables = receiveBuffer.getMessagesForDelivery();
         deliverables.forEach(
@@ -446,9 +615,10 @@ public class SCTPImpl implements SCTP  {
     @Override
     public void abort() {
         if( !SCTPState.CLOSED.equals(state.get()) ) {
-            SCTPState next = state.updateAndGet(SCTPState::close);
+            SCTPState next = state.updateAndGet(SCTPState::abort);
             logger.info("Moved to {}", next);
             shutdownAction.shutdown();
+            sendBuffer.close();
             getConnection().closeConnection();
         }
     }
@@ -465,6 +635,7 @@ public class SCTPImpl implements SCTP  {
             logger.info("Moved to {}", next);
             shutdownAction.stop();
             shutdownAction.shutdown();
+            sendBuffer.close();
             getConnection().closeConnection();
         }
     }
@@ -475,31 +646,31 @@ public class SCTPImpl implements SCTP  {
             if (SCTPState.SHUTDOWN_PENDING.equals(curr)) {
                 if (!sendBuffer.hasMessagesBuffered()) {
                     long received = receiveBuffer.getCumulativeTSN();
-                    SCTPMessage msg = ShutDownMessageCreator.createShutDown(SCTPUtil.baseHeader(context), received);
-                    getConnection().putDataOnWire(msg.toBytes());
+                    byte[] msg = ShutDownMessageCreator.createShutDown(SCTPUtil.baseHeader(context), received, context.isZeroChecksum());
+                    getConnection().putDataOnWire(msg);
                     SCTPState next = state.updateAndGet(SCTPState::sendShutdown);
                     logger.info("Moved to {}", next);
                 }
                 else {
                     RetransmitData toSend = sendBuffer.getDataToRetransmit();
-                    performRetransmit(toSend);
+                    performRetransmit(toSend, Collections.emptyList());
                 }
                 shutdownAction.restart();
             } else if (SCTPState.SHUTDOWN_SENT.equals(curr)) {
                 long received = receiveBuffer.getCumulativeTSN();
-                SCTPMessage msg = ShutDownMessageCreator.createShutDown(SCTPUtil.baseHeader(context), received);
-                getConnection().putDataOnWire(msg.toBytes());
+                byte[] msg = ShutDownMessageCreator.createShutDown(SCTPUtil.baseHeader(context), received, context.isZeroChecksum());
+                getConnection().putDataOnWire(msg);
                 shutdownAction.restart();
             } else if (SCTPState.SHUTDOWN_RECEIVED.equals(curr)) {
                 if (!sendBuffer.hasMessagesBuffered()) {
-                    SCTPMessage msg = ShutDownMessageCreator.createShutDownAck(SCTPUtil.baseHeader(context));
-                    getConnection().putDataOnWire(msg.toBytes());
+                    byte[] msg = ShutDownMessageCreator.createShutDownAck(SCTPUtil.baseHeader(context), context.isZeroChecksum());
+                    getConnection().putDataOnWire(msg);
                     SCTPState next = state.updateAndGet(SCTPState::sendShutdownAck);
                     logger.info("Moved to {}", next);
                 }
             } else if (SCTPState.SHUTDOWN_ACK_SENT.equals(curr)) {
-                SCTPMessage msg = ShutDownMessageCreator.createShutDownComp(SCTPUtil.baseHeader(context));
-                getConnection().putDataOnWire(msg.toBytes());
+                byte[] msg = ShutDownMessageCreator.createShutDownComp(SCTPUtil.baseHeader(context), context.isZeroChecksum());
+                getConnection().putDataOnWire(msg);
                 SCTPState next = state.updateAndGet(SCTPState::sendShutdownAck);
                 logger.info("Moved to {}", next);
             }
@@ -519,6 +690,26 @@ public class SCTPImpl implements SCTP  {
         shutdownAction.start();
     }
 
+    @Override
+    public void setStreamingReceive(int stream, boolean streaming) {
+        receiveBuffer.setStreaming(stream, streaming);
+    }
+
+    @Override
+    public void setStreamPriority(int stream, DataChannelPriority priority) {
+        sendBuffer.setStreamWeight(stream, priority.getWeight());
+    }
+
+    @Override
+    public long getBufferedAmount(int stream) {
+        return sendBuffer.getBufferedAmount(stream);
+    }
+
+    @Override
+    public void setBufferedAmountLowThreshold(int stream, long threshold) {
+        sendBuffer.setBufferedAmountLowThreshold(stream, threshold);
+    }
+
     /**
      * Print relevant monitoring and debugging data
      */
@@ -527,7 +718,7 @@ public class SCTPImpl implements SCTP  {
         monitoring.info("Connection: "+this.getConnection().getPeerConnection().getId());
         monitoring.info("Inflight: " + sendBuffer.getInflightSize());
         monitoring.info("CumulativeReceivedTSN: " + receiveBuffer.getCumulativeTSN());
-        monitoring.info("MyTsn: " + payloadCreator.currentTSN());
+        monitoring.info("MyTsn: " + sendBuffer.getNextTSN());
         monitoring.info("Total received bytes: " + receiveBuffer.getReceivedBytes());
         monitoring.info("Total delivered bytes to user: " + receiveBuffer.getDeliveredBytes());
         monitoring.info("Total sent bytes: " + sendBuffer.getBytesSent());
@@ -537,6 +728,17 @@ public class SCTPImpl implements SCTP  {
         monitoring.info("Local buffer: " + receiveBuffer.getCapacity());
         monitoring.info("Cwnd: " + sendBuffer.getCwnd());
         monitoring.info("State: " + state.get());
+        monitoring.info("Checksum rejected packets: " + checksumRejected.get());
+        monitoring.info("Zero checksum: " + isZeroChecksum());
+        monitoring.info("Message interleaving: " + isMessageInterleaving());
+        monitoring.info("Stream scheduler: " + streamScheduler);
+        monitoring.info("Path MTU: " + pathMtu);
+        monitoring.info("Path MTU discovery: " + pathMtuDiscovery);
+        monitoring.info("Packets sent: " + packetizer.getPackets());
+        monitoring.info("Packets per message: " + packetizer.getPacketsPerMessage());
+        monitoring.info("Overhead bytes: " + packetizer.getOverheadBytes());
+        monitoring.info("Sacks piggybacked on data: " + delayedAck.getPiggybacked());
+        monitoring.info("Sacks sent alone: " + delayedAck.getStandalone());
         monitoring.info("Current t3 timeout: " + retransmissionCalculator.get().getCurrentTimeoutMillis());
     }
 
@@ -554,4 +756,41 @@ public class SCTPImpl implements SCTP  {
     public Instant timeOfLastSCTPPacket() {
         return lastSctpMessage.get();
     }
+
+    @Override
+    public long getChecksumRejectedCount() {
+        return checksumRejected.get();
+    }
+
+    @Override
+    public boolean isZeroChecksumAcceptable() {
+        return zeroChecksumAcceptable;
+    }
+
+    @Override
+    public double getPacketsPerMessage() {
+        return packetizer.getPacketsPerMessage();
+    }
+
+    @Override
+    public long getOverheadBytes() {
+        return packetizer.getOverheadBytes();
+    }
+
+    @Override
+    public boolean isZeroChecksum() {
+        SCTPContext ctx = context;
+        return ctx != null && ctx.isZeroChecksum();
+    }
+
+    @Override
+    public boolean isMessageInterleavingAcceptable() {
+        return messageInterleavingAcceptable;
+    }
+
+    @Override
+    public boolean isMessageInterleaving() {
+        SCTPContext ctx = context;
+        return ctx != null && ctx.isMessageInterleaving();
+    }
 }
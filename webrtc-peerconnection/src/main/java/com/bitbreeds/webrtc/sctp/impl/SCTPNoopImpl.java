@@ -1,15 +1,21 @@
 package com.bitbreeds.webrtc.sctp.impl;
 
 import com.bitbreeds.webrtc.model.webrtc.ConnectionInternalApi;
+import com.bitbreeds.webrtc.model.webrtc.DataChannelPriority;
 import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
+import com.bitbreeds.webrtc.model.sctp.SkippedMessage;
 import com.bitbreeds.webrtc.sctp.impl.buffer.SackData;
 import com.bitbreeds.webrtc.sctp.impl.buffer.WireRepresentation;
 import com.bitbreeds.webrtc.sctp.impl.model.ReceivedData;
 
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 /*
  * Copyright (c) 29/06/16, Jonas Waage
@@ -39,7 +45,7 @@ public class SCTPNoopImpl implements SCTP {
     }
 
     @Override
-    public List<WireRepresentation> handleRequest(byte[] data) {
+    public List<WireRepresentation> handleRequest(byte[] data, int offset, int length) {
         return Collections.emptyList();
     }
 
@@ -51,6 +57,35 @@ public class SCTPNoopImpl implements SCTP {
             SCTPReliability partialReliability) {
     }
 
+    @Override
+    public void bufferForSending(
+            ReadableByteChannel source,
+            long length,
+            SCTPPayloadProtocolId id,
+            Integer stream,
+            SCTPReliability partialReliability,
+            Executor reader,
+            Runnable onReady,
+            Consumer<IOException> onError) {
+    }
+
+    @Override
+    public void setStreamingReceive(int stream, boolean streaming) {
+    }
+
+    @Override
+    public void setStreamPriority(int stream, DataChannelPriority priority) {
+    }
+
+    @Override
+    public long getBufferedAmount(int stream) {
+        return 0;
+    }
+
+    @Override
+    public void setBufferedAmountLowThreshold(int stream, long threshold) {
+    }
+
     @Override
     public void runMonitoring() {}
 
@@ -65,7 +100,7 @@ public class SCTPNoopImpl implements SCTP {
     }
 
     @Override
-    public void updateAckPoint(long ackPoint) {
+    public void updateAckPoint(long ackPoint, List<SkippedMessage> skipped) {
 
     }
 
@@ -146,4 +181,39 @@ public class SCTPNoopImpl implements SCTP {
     public Instant timeOfLastSCTPPacket() {
         return Instant.now();
     }
+
+    @Override
+    public long getChecksumRejectedCount() {
+        return 0;
+    }
+
+    @Override
+    public double getPacketsPerMessage() {
+        return 0;
+    }
+
+    @Override
+    public long getOverheadBytes() {
+        return 0;
+    }
+
+    @Override
+    public boolean isZeroChecksumAcceptable() {
+        return false;
+    }
+
+    @Override
+    public boolean isZeroChecksum() {
+        return false;
+    }
+
+    @Override
+    public boolean isMessageInterleavingAcceptable() {
+        return false;
+    }
+
+    @Override
+    public boolean isMessageInterleaving() {
+        return false;
+    }
 }
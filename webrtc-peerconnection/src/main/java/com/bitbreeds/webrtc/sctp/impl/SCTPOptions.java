@@ -0,0 +1,117 @@
+package com.bitbreeds.webrtc.sctp.impl;
+
+import com.bitbreeds.webrtc.sctp.impl.buffer.StreamSchedulerType;
+
+import java.util.Objects;
+
+/*
+ * Copyright (c) 17/10/26, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * What an {@link SCTPImpl} offers the peer and how it sends.
+ *
+ * Defaults to a fixed {@link SCTPPacketizer#DEFAULT_MAX_PACKET_SIZE} packet
+ * size, no zero checksum, no path MTU discovery, no I-DATA and weighted fair
+ * stream scheduling.
+ */
+public class SCTPOptions {
+
+    private boolean zeroChecksumAcceptable = false;
+
+    private PathMtu pathMtu = PathMtu.withMaxPacketSize(SCTPPacketizer.DEFAULT_MAX_PACKET_SIZE);
+
+    private boolean discoverPathMtu = false;
+
+    private boolean messageInterleavingAcceptable = false;
+
+    private StreamSchedulerType streamScheduler = StreamSchedulerType.WFQ;
+
+    /**
+     * @param zeroChecksumAcceptable accept packets without checksum if the peer offers it
+     * @return these options
+     */
+    public SCTPOptions setZeroChecksumAcceptable(boolean zeroChecksumAcceptable) {
+        this.zeroChecksumAcceptable = zeroChecksumAcceptable;
+        return this;
+    }
+
+    /**
+     * @param pathMtu largest path MTU the transport can send and the DTLS overhead
+     * @return these options
+     */
+    public SCTPOptions setPathMtu(PathMtu pathMtu) {
+        this.pathMtu = Objects.requireNonNull(pathMtu);
+        return this;
+    }
+
+    /**
+     * @param discoverPathMtu probe for the path MTU, starting from the base MTU
+     * @return these options
+     */
+    public SCTPOptions setDiscoverPathMtu(boolean discoverPathMtu) {
+        this.discoverPathMtu = discoverPathMtu;
+        return this;
+    }
+
+    /**
+     * @param messageInterleavingAcceptable use I-DATA if the peer supports it
+     * @return these options
+     */
+    public SCTPOptions setMessageInterleavingAcceptable(boolean messageInterleavingAcceptable) {
+        this.messageInterleavingAcceptable = messageInterleavingAcceptable;
+        return this;
+    }
+
+    /**
+     * @param streamScheduler how outbound streams share the link
+     * @return these options
+     */
+    public SCTPOptions setStreamScheduler(StreamSchedulerType streamScheduler) {
+        this.streamScheduler = Objects.requireNonNull(streamScheduler);
+        return this;
+    }
+
+    public boolean isZeroChecksumAcceptable() {
+        return zeroChecksumAcceptable;
+    }
+
+    public PathMtu getPathMtu() {
+        return pathMtu;
+    }
+
+    public boolean isDiscoverPathMtu() {
+        return discoverPathMtu;
+    }
+
+    public boolean isMessageInterleavingAcceptable() {
+        return messageInterleavingAcceptable;
+    }
+
+    public StreamSchedulerType getStreamScheduler() {
+        return streamScheduler;
+    }
+
+    @Override
+    public String toString() {
+        return "SCTPOptions{" +
+                "zeroChecksumAcceptable=" + zeroChecksumAcceptable +
+                ", pathMtu=" + pathMtu +
+                ", discoverPathMtu=" + discoverPathMtu +
+                ", messageInterleavingAcceptable=" + messageInterleavingAcceptable +
+                ", streamScheduler=" + streamScheduler +
+                '}';
+    }
+}
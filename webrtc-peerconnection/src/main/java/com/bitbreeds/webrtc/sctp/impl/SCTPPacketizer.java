@@ -0,0 +1,162 @@
+package com.bitbreeds.webrtc.sctp.impl;
+
+import com.bitbreeds.webrtc.sctp.impl.model.SendData;
+import com.bitbreeds.webrtc.sctp.model.SCTPHeader;
+import com.bitbreeds.webrtc.sctp.model.SCTPPacketWriter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Bundles encoded chunks into as few SCTP packets as possible.
+ *
+ * Control chunks (SACK, FORWARD TSN, HEARTBEAT, handler replies) go first,
+ * then as many DATA chunks as fit in the packet size, in the order given.
+ * A chunk larger than the packet size is sent alone in its own packet.
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc4960#section-6.10">bundling</a>
+ */
+public class SCTPPacketizer {
+
+    /**
+     * Leaves room for DTLS, UDP and IPv6 headers below the 1280 byte IPv6 minimum MTU
+     */
+    public final static int DEFAULT_MAX_PACKET_SIZE = 1200;
+
+    private final static int DATA_END_FLAG = 0x01;
+
+    private final PathMtu pathMtu;
+
+    private final AtomicLong packets = new AtomicLong(0);
+    private final AtomicLong dataPackets = new AtomicLong(0);
+    private final AtomicLong messages = new AtomicLong(0);
+    private final AtomicLong wireBytes = new AtomicLong(0);
+    private final AtomicLong userBytes = new AtomicLong(0);
+
+    public SCTPPacketizer() {
+        this(DEFAULT_MAX_PACKET_SIZE);
+    }
+
+    /**
+     * @param maxPacketSize largest SCTP packet to create, common header included
+     */
+    public SCTPPacketizer(int maxPacketSize) {
+        this(PathMtu.withMaxPacketSize(maxPacketSize));
+    }
+
+    /**
+     * @param pathMtu path giving the largest SCTP packet to create
+     */
+    public SCTPPacketizer(PathMtu pathMtu) {
+        this.pathMtu = pathMtu;
+    }
+
+    /**
+     * @param header common header of the association
+     * @param zeroChecksum send without checksum
+     * @param control encoded control chunks, sent before any data
+     * @param data DATA chunks in sending order
+     * @return packets ready for the wire
+     */
+    public List<byte[]> packetize(
+            SCTPHeader header,
+            boolean zeroChecksum,
+            List<byte[]> control,
+            List<SendData> data) {
+        if(control.isEmpty() && data.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        int maxPacketSize = pathMtu.getMaxPacketSize();
+        List<byte[]> out = new ArrayList<>(1);
+        byte[] buffer = new byte[maxPacketSize];
+        SCTPPacketWriter writer = new SCTPPacketWriter();
+        int packetLength = SCTPPacketWriter.HEADER_LENGTH;
+        boolean packetHasData = false;
+        writer.wrap(buffer, 0).header(header);
+
+        int total = control.size() + data.size();
+        for (int i = 0; i < total; i++) {
+            byte[] chunk = i < control.size() ? control.get(i) : data.get(i - control.size()).getSctpPayload();
+            if (packetLength > SCTPPacketWriter.HEADER_LENGTH && packetLength + chunk.length > maxPacketSize) {
+                out.add(finishPacket(writer, buffer, zeroChecksum, packetHasData));
+                writer.wrap(buffer, 0).header(header);
+                packetLength = SCTPPacketWriter.HEADER_LENGTH;
+                packetHasData = false;
+            }
+            if (packetLength + chunk.length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, packetLength + chunk.length);
+                writer.wrap(buffer, 0).header(header);
+            }
+            writer.encodedChunk(chunk, 0, chunk.length);
+            packetLength += chunk.length;
+
+            if (i >= control.size()) {
+                packetHasData = true;
+                int chunkLength = ((chunk[2] & 0xFF) << 8) | (chunk[3] & 0xFF);
+                userBytes.addAndGet(chunkLength - SCTPPacketWriter.DATA_HEADER_LENGTH);
+                if ((chunk[1] & DATA_END_FLAG) != 0) {
+                    messages.incrementAndGet();
+                }
+            }
+        }
+        out.add(finishPacket(writer, buffer, zeroChecksum, packetHasData));
+        return out;
+    }
+
+    private byte[] finishPacket(SCTPPacketWriter writer, byte[] buffer, boolean zeroChecksum, boolean hasData) {
+        int length = writer.finish(zeroChecksum);
+        packets.incrementAndGet();
+        if (hasData) {
+            dataPackets.incrementAndGet();
+        }
+        wireBytes.addAndGet(length);
+        return Arrays.copyOf(buffer, length);
+    }
+
+    public int getMaxPacketSize() {
+        return pathMtu.getMaxPacketSize();
+    }
+
+    /**
+     * @return packets created
+     */
+    public long getPackets() {
+        return packets.get();
+    }
+
+    /**
+     * @return packets carrying DATA per complete message sent, retransmissions included
+     */
+    public double getPacketsPerMessage() {
+        long count = messages.get();
+        return count == 0 ? 0 : (double) dataPackets.get() / count;
+    }
+
+    /**
+     * @return SCTP bytes that are not user data, headers, padding and control chunks
+     */
+    public long getOverheadBytes() {
+        return wireBytes.get() - userBytes.get();
+    }
+
+}
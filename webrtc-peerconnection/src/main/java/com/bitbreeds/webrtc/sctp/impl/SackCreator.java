@@ -4,7 +4,6 @@ import com.bitbreeds.webrtc.model.sctp.GapAck;
 import com.bitbreeds.webrtc.common.SignalUtil;
 import com.bitbreeds.webrtc.sctp.impl.buffer.FwdAckPoint;
 import com.bitbreeds.webrtc.sctp.impl.buffer.SackData;
-import com.bitbreeds.webrtc.sctp.impl.util.SCTPUtil;
 import com.bitbreeds.webrtc.sctp.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,73 +43,41 @@ public class SackCreator {
     private static final Logger logger = LoggerFactory.getLogger(SackCreator.class);
 
 
-    public static SCTPChunk createSackChunk(SackData sackData) {
-        //Calculate gap acks from only relevant data.
-        List<GapAck> acks = sackData.getTsns();
-
-        List<byte[]> varData = new ArrayList<>();
-
-        for(int i = 1; i<acks.size(); i++) {
-            GapAck ack = acks.get(i);
-            int start = (int)(ack.start);
-            int end = (int)(ack.end);
-            varData.add(twoBytesFromInt(start));
-            varData.add(twoBytesFromInt(end));
-        }
-
-        for (Long l : sackData.getDuplicates()) {
-            varData.add(longToFourBytes(l));
-        }
-
-        HashMap<SCTPFixedAttributeType,SCTPFixedAttribute> fixed = new HashMap<>();
-        SCTPFixedAttribute cum_tsn =
-                new SCTPFixedAttribute(SCTPFixedAttributeType.CUMULATIVE_TSN_ACK,
-                        longToFourBytes(sackData.getCumulativeTSN()));
-
-        SCTPFixedAttribute arcw =
-                new SCTPFixedAttribute(SCTPFixedAttributeType.ARWC,
-                        fourBytesFromInt(sackData.getBufferLeft()));
-
-        SCTPFixedAttribute num_gap =
-                new SCTPFixedAttribute(SCTPFixedAttributeType.NUM_GAP_BLOCKS,
-                        twoBytesFromInt(varData.size()));
-
-        SCTPFixedAttribute num_dupl =
-                new SCTPFixedAttribute(SCTPFixedAttributeType.NUM_DUPLICATE,
-                        twoBytesFromInt(sackData.getDuplicates().size()));
-
-
-        fixed.put(SCTPFixedAttributeType.CUMULATIVE_TSN_ACK,
-                cum_tsn);
-        fixed.put(SCTPFixedAttributeType.ARWC,arcw);
-        fixed.put(SCTPFixedAttributeType.NUM_GAP_BLOCKS,num_gap);
-        fixed.put(SCTPFixedAttributeType.NUM_DUPLICATE,num_dupl);
-
-        int sum = fixed.keySet().stream()
-                .map(SCTPFixedAttributeType::getLgt).reduce(0, Integer::sum);
-
-        byte[] data = joinBytesArrays(varData);
+    /**
+     * @param sackData data to add to sack
+     * @return encoded SACK chunk, bundled into a packet when sent
+     */
+    public static byte[] createSack(SackData sackData) {
+        List<GapAck> gaps = sackData.getTsns();
+        List<Long> duplicates = sackData.getDuplicates();
+
+        byte[] out = new byte[SCTPPacketWriter.sackLength(gaps,duplicates)];
+        new SCTPPacketWriter()
+                .wrapChunks(out,0)
+                .sack(sackData.getCumulativeTSN(),sackData.getBufferLeft(),gaps,duplicates);
+        return out;
+    }
 
-        SCTPChunk sack = new SCTPChunk(
-                SCTPMessageType.SELECTIVE_ACK,
-                SCTPOrderFlag.fromValue((byte)0),
-                4 + sum + data.length,
-                fixed,
-                new HashMap<>(),
-                SignalUtil.padToMultipleOfFour(data)
-        );
-        return sack;
+    /**
+     * @param forwardAckPt calculated forward tsn
+     * @return encoded FORWARD TSN chunk, bundled into a packet when sent
+     */
+    public static byte[] createForwardTsn(FwdAckPoint forwardAckPt) {
+        return createForwardTsn(forwardAckPt, false);
     }
 
     /**
-     * @param header header
-     * @param sackData data to add to sack
-     * @return attempt to create a SCTP SACK message.
+     * @param forwardAckPt calculated forward tsn
+     * @param messageInterleaving I-FORWARD-TSN replaces FORWARD TSN when I-DATA is used
+     * @return encoded chunk, bundled into a packet when sent
      */
-    public static SCTPMessage createSack(SCTPHeader header,SackData sackData) {
-        SCTPChunk sack = createSackChunk(sackData);
-        SCTPMessage msg = new SCTPMessage(header, Collections.singletonList(sack));
-        return SCTPUtil.addChecksum(msg);
+    public static byte[] createForwardTsn(FwdAckPoint forwardAckPt, boolean messageInterleaving) {
+        SCTPMessageType type = messageInterleaving ? SCTPMessageType.I_FORWARD_TSN : SCTPMessageType.FORWARD_TSN;
+        byte[] out = new byte[SCTPPacketWriter.forwardTsnLength(type, forwardAckPt.getSkipped())];
+        new SCTPPacketWriter()
+                .wrapChunks(out,0)
+                .forwardTsn(type, forwardAckPt.getAckPoint(), forwardAckPt.getSkipped());
+        return out;
     }
 
 
@@ -1,8 +1,6 @@
 package com.bitbreeds.webrtc.sctp.impl;
 
-import com.bitbreeds.webrtc.common.ByteRange;
 import com.bitbreeds.webrtc.model.sctp.GapAck;
-import com.bitbreeds.webrtc.common.SignalUtil;
 import com.bitbreeds.webrtc.sctp.impl.buffer.SackData;
 import com.bitbreeds.webrtc.sctp.model.*;
 import org.slf4j.Logger;
@@ -43,38 +41,23 @@ public class SelectiveAckHandler implements MessageHandler {
     public Optional<SCTPMessage> handleMessage(
             SCTP handler,
             SCTPContext ctx,
-            SCTPHeader header,
-            SCTPChunk data) {
+            SCTPPacketView packet) {
 
         logger.debug("Received SACK message");
 
-        SCTPFixedAttribute cum_tsn = data.getFixed().get(SCTPFixedAttributeType.CUMULATIVE_TSN_ACK);
-        SCTPFixedAttribute arcw = data.getFixed().get(SCTPFixedAttributeType.ARWC);
-        SCTPFixedAttribute num_gap = data.getFixed().get(SCTPFixedAttributeType.NUM_GAP_BLOCKS);
-        SCTPFixedAttribute num_dupl = data.getFixed().get(SCTPFixedAttributeType.NUM_DUPLICATE);
-
-        int remoteBuffer = SignalUtil.intFromFourBytes(arcw.getData());
-
-        long cumulativeTSN = SignalUtil.bytesToLong(cum_tsn.getData());
-        int gaps = SignalUtil.intFromTwoBytes(num_gap.getData());
-        int dupl = SignalUtil.intFromTwoBytes(num_dupl.getData());
+        int remoteBuffer = packet.getAdvertisedWindow();
+        long cumulativeTSN = packet.getCumulativeTsnAck();
+        int gaps = packet.getGapBlockCount();
+        int dupl = packet.getDuplicateCount();
 
         List<GapAck> gapAcks = new ArrayList<>(gaps);
-        ByteRange rng = new ByteRange(0,2);
         for(int i = 0; i < gaps; i++) {
-            int a = SignalUtil.intFromTwoBytes(SignalUtil.copyRange(data.getRest(),rng));
-            rng = rng.plus(2);
-            int b = SignalUtil.intFromTwoBytes(SignalUtil.copyRange(data.getRest(),rng));
-            rng = rng.plus(2);
-            gapAcks.add(new GapAck(a,b));
+            gapAcks.add(new GapAck(packet.getGapStart(i),packet.getGapEnd(i)));
         }
 
         List<Long> duplicates = new ArrayList<>(dupl);
-        rng = rng.lengthFromA(4);
         for(int i = 0; i<dupl; i++) {
-            long dpl = SignalUtil.bytesToLong(SignalUtil.copyRange(data.getRest(),rng));
-            rng = rng.plus(4);
-            duplicates.add(dpl);
+            duplicates.add(packet.getDuplicateTsn(i));
         }
 
         /*
@@ -1,12 +1,7 @@
 package com.bitbreeds.webrtc.sctp.impl;
 
-import com.bitbreeds.webrtc.common.SignalUtil;
-import com.bitbreeds.webrtc.sctp.impl.util.SCTPUtil;
 import com.bitbreeds.webrtc.sctp.model.*;
 
-import java.util.Collections;
-import java.util.HashMap;
-
 /**
  * Copyright (c) 03/04/2018, Jonas Waage
  * <p>
@@ -25,45 +20,34 @@ import java.util.HashMap;
 class ShutDownMessageCreator {
 
 
-    static SCTPMessage createShutDown(SCTPHeader header,long cumulativeTSN) {
-
-        byte[] data = SignalUtil.longToFourBytes(cumulativeTSN);
-
-        SCTPChunk sack = new SCTPChunk(
-                SCTPMessageType.SHUTDOWN,
-                SCTPOrderFlag.fromValue((byte)0),
-                4  + data.length,
-                Collections.emptyMap(),
-                new HashMap<>(),
-                SignalUtil.padToMultipleOfFour(data)
-        );
-
-        return SCTPUtil.addChecksum(new SCTPMessage(header, Collections.singletonList(sack)));
+    static byte[] createShutDown(SCTPHeader header,long cumulativeTSN,boolean zeroChecksum) {
+        byte[] out = new byte[SCTPPacketWriter.HEADER_LENGTH + 8];
+        new SCTPPacketWriter(out,0)
+                .header(header)
+                .shutdown(cumulativeTSN)
+                .finish(zeroChecksum);
+        return out;
     }
 
-    static SCTPMessage createShutDownAck(SCTPHeader header) {
-        return SCTPUtil.addChecksum(createEmpty(SCTPMessageType.SHUTDOWN_COMPLETE,header));
+    static byte[] createShutDownAck(SCTPHeader header,boolean zeroChecksum) {
+        return createEmpty(SCTPMessageType.SHUTDOWN_COMPLETE,header,zeroChecksum);
     }
 
-    static SCTPMessage createShutDownComp(SCTPHeader header) {
-        return SCTPUtil.addChecksum(createEmpty(SCTPMessageType.SHUTDOWN_ACK,header));
+    static byte[] createShutDownComp(SCTPHeader header,boolean zeroChecksum) {
+        return createEmpty(SCTPMessageType.SHUTDOWN_ACK,header,zeroChecksum);
     }
 
-    static SCTPMessage createAbort(SCTPHeader header) {
-        return SCTPUtil.addChecksum(createEmpty(SCTPMessageType.ABORT,header));
+    static byte[] createAbort(SCTPHeader header,boolean zeroChecksum) {
+        return createEmpty(SCTPMessageType.ABORT,header,zeroChecksum);
     }
 
-    static private SCTPMessage createEmpty(SCTPMessageType messageType,SCTPHeader header) {
-        SCTPChunk sack = new SCTPChunk(
-                messageType,
-                SCTPOrderFlag.fromValue((byte)0),
-                4,
-                Collections.emptyMap(),
-                Collections.emptyMap(),
-                new byte[0]
-        );
-
-        return new SCTPMessage(header, Collections.singletonList(sack));
+    static private byte[] createEmpty(SCTPMessageType messageType,SCTPHeader header,boolean zeroChecksum) {
+        byte[] out = new byte[SCTPPacketWriter.HEADER_LENGTH + SCTPPacketWriter.CHUNK_HEADER_LENGTH];
+        new SCTPPacketWriter(out,0)
+                .header(header)
+                .chunk(messageType,0)
+                .finish(zeroChecksum);
+        return out;
     }
 
 }
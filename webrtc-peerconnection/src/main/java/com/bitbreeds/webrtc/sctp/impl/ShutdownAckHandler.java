@@ -18,16 +18,15 @@ package com.bitbreeds.webrtc.sctp.impl;
  *
  */
 
-import com.bitbreeds.webrtc.sctp.model.SCTPChunk;
-import com.bitbreeds.webrtc.sctp.model.SCTPHeader;
 import com.bitbreeds.webrtc.sctp.model.SCTPMessage;
+import com.bitbreeds.webrtc.sctp.model.SCTPPacketView;
 
 import java.util.Optional;
 
 public class ShutdownAckHandler implements MessageHandler {
 
     @Override
-    public Optional<SCTPMessage> handleMessage(SCTP handler, SCTPContext ctx, SCTPHeader header, SCTPChunk data) {
+    public Optional<SCTPMessage> handleMessage(SCTP handler, SCTPContext ctx, SCTPPacketView packet) {
         handler.finalSctpShutdown();
         return Optional.empty();
     }
@@ -0,0 +1,342 @@
+package com.bitbreeds.webrtc.sctp.impl;
+
+import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
+import com.bitbreeds.webrtc.sctp.impl.model.OutgoingMessage;
+import com.bitbreeds.webrtc.sctp.impl.model.PendingData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * A message read from a channel one fragment at a time, as the send buffer takes them.
+ *
+ * The first fragment is read by the sender, so a source that is empty or fails at once
+ * is reported before the message gets a sequence number. The rest is read on an executor
+ * into a queue of at most two fragments, the send buffer only polls that queue and never
+ * waits for the source. A fragment is queued once the one after it is read, so the last
+ * fragment can be marked as the end of the message.
+ *
+ * A non blocking source with nothing to read is asked again after a short wait.
+ * If the source ends early or fails, the fragment read so far ends the message,
+ * failures are reported to the error handler. The source is closed when the
+ * message ends.
+ */
+public class StreamingMessage implements OutgoingMessage {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingMessage.class);
+
+    /**
+     * Fragments read and waiting for the send buffer
+     */
+    private static final int QUEUED_FRAGMENTS = 2;
+
+    /**
+     * Wait before reading again from a source that had nothing
+     */
+    private static final long EMPTY_READ_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * How often a reader waiting for room in the queue checks for cancel
+     */
+    private static final long QUEUE_WAIT_MILLIS = 100;
+
+    private final ReadableByteChannel source;
+    private final int streamId;
+    private final int streamSequence;
+    private final boolean interleaved;
+    private final SCTPPayloadProtocolId protocolId;
+    private final SCTPReliability reliability;
+    private final IntSupplier maxFragmentSize;
+    private final Consumer<IOException> onError;
+
+    private final BlockingQueue<PendingData> fragments = new ArrayBlockingQueue<>(QUEUED_FRAGMENTS);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    private volatile boolean cancelled = false;
+
+    /*
+     * Used by the reader only
+     */
+    private byte[] first;
+    private volatile long remaining;
+    private int fragmentSequence = 0;
+
+    /*
+     * Used by the send buffer only
+     */
+    private boolean lastTaken = false;
+
+    /**
+     * @param source channel with the rest of the message
+     * @param first first fragment, see {@link #readFirst(ReadableByteChannel, long, int)}
+     * @param remaining bytes to send after the first fragment, fewer if the source ends before
+     * @param streamSequence stream sequence number, or message identifier when interleaved
+     * @param interleaved send the fragments as I-DATA
+     * @param maxFragmentSize most user data in one DATA chunk, read for every fragment
+     * @param onError gets read failures
+     */
+    public StreamingMessage(
+            ReadableByteChannel source,
+            byte[] first,
+            long remaining,
+            int streamId,
+            int streamSequence,
+            boolean interleaved,
+            SCTPPayloadProtocolId protocolId,
+            SCTPReliability reliability,
+            IntSupplier maxFragmentSize,
+            Consumer<IOException> onError) {
+        this.source = source;
+        this.first = first;
+        this.remaining = remaining;
+        this.streamId = streamId;
+        this.streamSequence = streamSequence;
+        this.interleaved = interleaved;
+        this.protocolId = protocolId;
+        this.reliability = reliability;
+        this.maxFragmentSize = maxFragmentSize;
+        this.onError = onError;
+    }
+
+    /**
+     * Read the first fragment on the calling thread. The source is closed if this fails.
+     *
+     * @param source channel with the message
+     * @param length bytes to send
+     * @param maxFragmentSize most user data in one DATA chunk
+     * @return first fragment, shorter than a full one when the source ends or has nothing more yet
+     * @throws EOFException when the source is empty
+     * @throws IOException when the source fails
+     */
+    public static byte[] readFirst(ReadableByteChannel source, long length, int maxFragmentSize) throws IOException {
+        if (length <= 0) {
+            throw new IllegalArgumentException("Message length must be above 0, is " + length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(maxFragmentSize, length));
+        try {
+            fill(source, buffer);
+            if (buffer.position() == 0) {
+                throw new EOFException("Source ended before the message started");
+            }
+        } catch (IOException e) {
+            closeQuietly(source);
+            throw e;
+        }
+        return toArray(buffer);
+    }
+
+    /**
+     * Start reading the rest of the message
+     *
+     * @param reader executor to read the source on, a read may block the thread
+     * @param onReady run after each fragment is queued
+     */
+    public void start(Executor reader, Runnable onReady) {
+        reader.execute(() -> produce(onReady));
+    }
+
+    @Override
+    public PendingData peek() {
+        return fragments.peek();
+    }
+
+    @Override
+    public PendingData poll() {
+        PendingData fragment = fragments.poll();
+        if (fragment != null && (fragment.getFlags().isEnd() || fragment.getFlags().isUnFragmented())) {
+            lastTaken = true;
+        }
+        return fragment;
+    }
+
+    @Override
+    public boolean isDone() {
+        return lastTaken;
+    }
+
+    /**
+     * Stop reading and close the source, the message is not finished
+     */
+    @Override
+    public void cancel() {
+        cancelled = true;
+        close();
+        fragments.clear();
+    }
+
+    @Override
+    public boolean isReserved() {
+        return false;
+    }
+
+    @Override
+    public int getStreamId() {
+        return streamId;
+    }
+
+    /**
+     * @return bytes not yet read from the source
+     */
+    public long getRemaining() {
+        return remaining;
+    }
+
+    private void produce(Runnable onReady) {
+        byte[] current = first;
+        first = null;
+        try {
+            while (current != null && !cancelled) {
+                byte[] ahead = read();
+                if (cancelled) {
+                    return;
+                }
+                boolean last = ahead == null;
+                if (last) {
+                    close();
+                }
+                PendingData fragment = fragment(current, last);
+                while (!fragments.offer(fragment, QUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (cancelled) {
+                        return;
+                    }
+                }
+                onReady.run();
+                current = ahead;
+            }
+        } catch (InterruptedException e) {
+            logger.warn("Reading message for stream {} interrupted", streamId);
+            Thread.currentThread().interrupt();
+        } finally {
+            close();
+        }
+    }
+
+    private PendingData fragment(byte[] data, boolean last) {
+        PendingData fragment = new PendingData(
+                streamId,
+                streamSequence,
+                fragmentSequence,
+                interleaved,
+                PayloadCreator.fragmentFlag(reliability.isOrdered(), fragmentSequence == 0, last),
+                protocolId,
+                reliability,
+                data,
+                0,
+                data.length);
+        fragmentSequence++;
+        return fragment;
+    }
+
+    /**
+     * @return next fragment from the source, null when there is no more
+     */
+    private byte[] read() {
+        if (remaining <= 0) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(maxFragmentSize.getAsInt(), remaining));
+        try {
+            if (fill(source, buffer)) {
+                logger.warn("Source ended {} bytes early on stream {}", remaining - buffer.position(), streamId);
+                remaining = buffer.position();
+            }
+        } catch (IOException e) {
+            readFailed(buffer, e);
+        } catch (RuntimeException e) {
+            readFailed(buffer, new IOException(e));
+        }
+        remaining -= buffer.position();
+        if (buffer.position() == 0) {
+            return null;
+        }
+        return toArray(buffer);
+    }
+
+    private void readFailed(ByteBuffer buffer, IOException e) {
+        remaining = buffer.position();
+        if (!cancelled) {
+            logger.error("Reading message for stream {} failed, ending it early", streamId, e);
+            onError.accept(e);
+        }
+    }
+
+    /**
+     * Read until the buffer is full or the source ends. A source with nothing to read
+     * is asked again after a short wait, or ends the fragment if it gave some bytes.
+     *
+     * @return whether the source ended
+     */
+    private static boolean fill(ReadableByteChannel source, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = source.read(buffer);
+            if (read < 0) {
+                return true;
+            }
+            if (read == 0) {
+                if (buffer.position() > 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(EMPTY_READ_WAIT_NANOS);
+            }
+        }
+        return false;
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        return buffer.hasRemaining() ? Arrays.copyOf(buffer.array(), buffer.position()) : buffer.array();
+    }
+
+    private void close() {
+        if (closed.compareAndSet(false, true)) {
+            closeQuietly(source);
+        }
+    }
+
+    private static void closeQuietly(ReadableByteChannel source) {
+        try {
+            source.close();
+        } catch (IOException e) {
+            logger.debug("Closing message source failed", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StreamingMessage{" +
+                "streamId=" + streamId +
+                ", streamSequence=" + streamSequence +
+                ", remaining=" + remaining +
+                ", queued=" + fragments.size() +
+                ", lastTaken=" + lastTaken +
+                '}';
+    }
+}
@@ -55,6 +55,10 @@ public class Congestion {
     public int getCwnd() {
         return cwnd;
     }
+
+    public int getMTU() {
+        return MTU;
+    }
     /*---- Congestion rules */
 
     public Congestion retransmissionTimeout() {
@@ -86,5 +90,18 @@ public class Congestion {
         return new Congestion(Math.max(cwnd/2,MTU*4),ssThresh,MTU,0);
     }
 
+    /**
+     * The window is kept, it only grows by the new MTU from here on
+     *
+     * @param nuMTU path MTU found by path MTU discovery
+     * @return congestion state using the new MTU
+     */
+    public Congestion pathMtuChanged(int nuMTU) {
+        if (nuMTU == MTU) {
+            return this;
+        }
+        return new Congestion(cwnd,ssThresh,nuMTU,partialBytesAcked);
+    }
+
 
 }
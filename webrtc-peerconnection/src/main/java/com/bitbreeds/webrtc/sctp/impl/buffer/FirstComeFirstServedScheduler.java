@@ -0,0 +1,60 @@
+package com.bitbreeds.webrtc.sctp.impl.buffer;
+
+import com.bitbreeds.webrtc.sctp.impl.model.OutgoingMessage;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Sends messages whole in the order they were buffered, regardless of stream.
+ */
+public class FirstComeFirstServedScheduler implements StreamScheduler {
+
+    private final Queue<OutgoingMessage> queue = new ArrayDeque<>();
+
+    @Override
+    public void add(OutgoingMessage message) {
+        queue.add(message);
+    }
+
+    /**
+     * A message with no fragment ready holds back the ones after it
+     */
+    @Override
+    public OutgoingMessage next() {
+        while (!queue.isEmpty() && queue.element().isDone()) {
+            queue.remove();
+        }
+        OutgoingMessage head = queue.peek();
+        return head != null && head.peek() != null ? head : null;
+    }
+
+    @Override
+    public void taken(OutgoingMessage message, int length) {
+        if (message.isDone()) {
+            queue.remove();
+        }
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+}
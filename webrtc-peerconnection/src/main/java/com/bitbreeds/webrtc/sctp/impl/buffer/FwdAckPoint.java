@@ -16,34 +16,36 @@ package com.bitbreeds.webrtc.sctp.impl.buffer;/*
  *
  */
 
+import com.bitbreeds.webrtc.model.sctp.SkippedMessage;
+
 import java.util.List;
 
 /**
- * Represents an fwd tsn point and the streams which have abandoned messages
+ * Represents an fwd tsn point and the last abandoned message of each stream up to it
  */
 public class FwdAckPoint {
 
     private final long ackPoint;
-    private final List<Integer> stream;
+    private final List<SkippedMessage> skipped;
 
-    public FwdAckPoint(long ackPoint, List<Integer> stream) {
+    public FwdAckPoint(long ackPoint, List<SkippedMessage> skipped) {
         this.ackPoint = ackPoint;
-        this.stream = stream;
+        this.skipped = skipped;
     }
 
     public long getAckPoint() {
         return ackPoint;
     }
 
-    public List<Integer> getStream() {
-        return stream;
+    public List<SkippedMessage> getSkipped() {
+        return skipped;
     }
 
     @Override
     public String toString() {
         return "FwdAckPoint{" +
                 "ackPoint=" + ackPoint +
-                ", stream=" + stream +
+                ", skipped=" + skipped +
                 '}';
     }
 }
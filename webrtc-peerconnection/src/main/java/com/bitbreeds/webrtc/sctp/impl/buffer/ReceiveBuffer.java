@@ -1,11 +1,13 @@
 package com.bitbreeds.webrtc.sctp.impl.buffer;
 
 import com.bitbreeds.webrtc.model.sctp.SackUtil;
+import com.bitbreeds.webrtc.model.sctp.SkippedMessage;
 import com.bitbreeds.webrtc.common.SignalUtil;
 import com.bitbreeds.webrtc.model.webrtc.Deliverable;
 import com.bitbreeds.webrtc.sctp.error.DroppedDataException;
 import com.bitbreeds.webrtc.sctp.impl.SCTPReliability;
 import com.bitbreeds.webrtc.sctp.impl.model.ReceivedData;
+import com.bitbreeds.webrtc.sctp.impl.util.StreamSequenceTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,7 +62,15 @@ public class ReceiveBuffer {
 
     private boolean inititialDataReceived = false;
 
-    private Map<Integer,Integer> orderedStreams = new HashMap<>();
+    /**
+     * Next SSN expected on each stream, and next message identifier with I-DATA
+     */
+    private final StreamSequenceTable orderedStreams = new StreamSequenceTable(StreamSequenceTable.SSN_MASK);
+    private final StreamSequenceTable orderedMessageIds = new StreamSequenceTable(StreamSequenceTable.MESSAGE_ID_MASK);
+
+    private final Set<Integer> streamingStreams = new HashSet<>();
+
+    private final Map<Integer,ReceivedData> lastStreamed = new HashMap<>(); //Last fragment delivered of a streamed message
 
     public ReceiveBuffer(int bufferSize,int capacity) {
         if(bufferSize <= 0) {
@@ -100,6 +110,25 @@ public class ReceiveBuffer {
     }
 
 
+    /**
+     * Ordered fragmented messages on a streaming stream are delivered a fragment at a time
+     * as they become contiguous, so their space is released without waiting for the whole message.
+     * A message already being streamed is finished as a stream when streaming is turned off.
+     *
+     * @param streamId stream to change
+     * @param streaming whether to stream messages on the stream
+     */
+    public void setStreaming(int streamId,boolean streaming) {
+        synchronized (lock) {
+            if(streaming) {
+                streamingStreams.add(streamId);
+            }
+            else {
+                streamingStreams.remove(streamId);
+            }
+        }
+    }
+
     /**
      *
      * @param initialTSN first TSN of the connection
@@ -210,6 +239,23 @@ public class ReceiveBuffer {
 
 
     public ForwardAccResult receiveForwardAckPoint(long advancedAckPoint) {
+        return receiveForwardAckPoint(advancedAckPoint, Collections.emptyList(), false);
+    }
+
+    /**
+     * Ordered messages held back on a stream with a skipped message are delivered,
+     * and the stream then moves past the skipped message. Fragments of skipped
+     * messages past the ack point are dropped.
+     *
+     * @see <a href="https://tools.ietf.org/html/rfc3758#section-3.6">FORWARD TSN receiver</a>
+     * @see <a href="https://tools.ietf.org/html/rfc8260#section-2.3.1">I-FORWARD-TSN</a>
+     *
+     * @param advancedAckPoint the new cumulative TSN
+     * @param skipped last message skipped on each stream
+     * @param interleaved sent as I-FORWARD-TSN, the skipped messages are identified by MID
+     * @return SACK to send and messages delivered
+     */
+    public ForwardAccResult receiveForwardAckPoint(long advancedAckPoint, List<SkippedMessage> skipped, boolean interleaved) {
         synchronized (lock) {
             if (advancedAckPoint > cumulativeTSN) {
 
@@ -217,6 +263,12 @@ public class ReceiveBuffer {
                     throw new IllegalArgumentException("Bad ack");
                 }
 
+                Set<Integer> skippedStreams = skipped.stream()
+                        .filter(i -> !i.isUnordered())
+                        .map(SkippedMessage::getStreamId)
+                        .collect(Collectors.toSet());
+                dropSkippedFragments(advancedAckPoint, skipped, interleaved);
+
                 long diff = advancedAckPoint - cumulativeTSN;
                 List<BufferedReceived> toDeliver = new ArrayList<>();
                 for (int i = 1; i <= diff; i++) {
@@ -239,7 +291,7 @@ public class ReceiveBuffer {
                         .sorted()
                         .collect(Collectors.toList());
 
-                List<Deliverable> deliverables = new ArrayList<>();
+                List<Deliverable> deliverables = abandonStreamed(advancedAckPoint);
 
                 unfragmented.forEach(i-> {
                     if(i.getData().getFlag().isUnordered()) {
@@ -248,8 +300,8 @@ public class ReceiveBuffer {
                     }
                     else {
                         Deliverable dl = i.toDeliverable();
-                        if(nextInStream(i.getData())) {
-                            orderedStreams.put(i.getData().getStreamId(),i.getData().getStreamSequence()+1);
+                        if(nextInStream(i.getData()) || skippedStreams.contains(i.getData().getStreamId())) {
+                            expected(i.getData()).skipPast(i.getData().getStreamId(), i.getData().getStreamSequence());
                             deliverables.add(dl);
                         }
                         else {
@@ -258,6 +310,11 @@ public class ReceiveBuffer {
                     }
                 });
 
+                skipped.stream()
+                        .filter(i -> !i.isUnordered())
+                        .forEach(i -> (interleaved ? orderedMessageIds : orderedStreams)
+                                .skipPast(i.getStreamId(), i.getStreamSequence()));
+
                 cumulativeTSN = advancedAckPoint;
                 return new ForwardAccResult(getSackDataToSend(),deliverables);
             }
@@ -266,6 +323,33 @@ public class ReceiveBuffer {
         }
     }
 
+    /**
+     * Must be used in sync block.
+     * Fragments up to the ack point are finished by it, later ones would wait for
+     * the rest of their message forever.
+     *
+     * @param advancedAckPoint the new cumulative TSN
+     * @param skipped last message skipped on each stream
+     * @param interleaved skipped messages are identified by MID
+     */
+    private void dropSkippedFragments(long advancedAckPoint, List<SkippedMessage> skipped, boolean interleaved) {
+        for (long tsn = advancedAckPoint + 1; tsn <= maxReceivedTSN; tsn++) {
+            BufferedReceived bf = getBuffered(tsn);
+            if (bf == null || bf.isDelivered() || bf.getData().getTSN() != tsn) {
+                continue;
+            }
+            ReceivedData ds = bf.getData();
+            boolean dropped = ds.getFlag().isFragmented() && ds.isInterleaved() == interleaved && skipped.stream()
+                    .anyMatch(i -> i.getStreamId() == ds.getStreamId()
+                            && i.getStreamSequence() == ds.getStreamSequence()
+                            && i.isUnordered() == ds.getFlag().isUnordered());
+            if (dropped) {
+                setBuffered(tsn, bf.deliver());
+                capacity += ds.getPayload().length;
+            }
+        }
+    }
+
     /**
      * @return get messages for next layer
      */
@@ -289,7 +373,10 @@ public class ReceiveBuffer {
                             }
                         }
                     } else if (bf.readyForOrderedDelivery()) {
-                        if (bf.getData().getFlag().isUnFragmented()) {
+                        if (isStreamed(bf.getData())) {
+                            streamFragment(bf)
+                                    .ifPresent(dl::add);
+                        } else if (bf.getData().getFlag().isUnFragmented()) {
                             receiveUnfragmentedBuffered(bf)
                                     .ifPresent(deliverable -> {
                                         dl.add(deliverable);
@@ -299,14 +386,17 @@ public class ReceiveBuffer {
                             if (bf.getData().getFlag().isStart()) {
                                 if (nextInStream(bf.getData())) {
                                     finishFragment(bf)
-                                            .ifPresent(dl::add);
+                                            .ifPresent(deliverable -> {
+                                                dl.add(deliverable);
+                                                advanceStream(bf.getData());
+                                            });
                                 }
                             }
                         }
                     }
                 }
             }
-            updateLowestDelivered(dl);
+            updateLowestDelivered();
             int sum = dl.stream()
                     .map(i -> i.getData().length)
                     .reduce(0, Integer::sum);
@@ -324,8 +414,98 @@ public class ReceiveBuffer {
      * @return
      */
     private boolean nextInStream(ReceivedData ds) {
-        Integer sq = orderedStreams.get(ds.getStreamId());
-        return (sq == null && ds.getStreamSequence() == 0) || (sq != null && sq == ds.getStreamSequence());
+        return expected(ds).get(ds.getStreamId()) == ds.getStreamSequence();
+    }
+
+    /*
+     * Must be used in sync block, after the message of ds is delivered
+     */
+    private void advanceStream(ReceivedData ds) {
+        expected(ds).advancePast(ds.getStreamId(), ds.getStreamSequence());
+    }
+
+    private StreamSequenceTable expected(ReceivedData ds) {
+        return ds.isInterleaved() ? orderedMessageIds : orderedStreams;
+    }
+
+    /*
+     * Must be used in sync block
+     */
+    private boolean isStreamed(ReceivedData ds) {
+        return ds.getFlag().isFragmented() &&
+                (streamingStreams.contains(ds.getStreamId()) || lastStreamed.containsKey(ds.getStreamId()));
+    }
+
+    /**
+     * Must be used in sync block
+     *
+     * @param buffered fragment of a streamed message
+     * @return the fragment if it is the next of its message
+     */
+    private Optional<Deliverable> streamFragment(BufferedReceived buffered) {
+        ReceivedData ds = buffered.getData();
+        ReceivedData last = lastStreamed.get(ds.getStreamId());
+        Deliverable.Part part;
+        if(last == null) {
+            if(!ds.getFlag().isStart() || !nextInStream(ds)) {
+                return Optional.empty();
+            }
+            part = Deliverable.Part.FIRST;
+        }
+        else if(isNextFragment(last, ds)) {
+            part = ds.getFlag().isEnd() ? Deliverable.Part.LAST : Deliverable.Part.MIDDLE;
+        }
+        else {
+            return Optional.empty();
+        }
+
+        setBuffered(ds.getTSN(), buffered.deliver());
+        if(Deliverable.Part.LAST.equals(part)) {
+            lastStreamed.remove(ds.getStreamId());
+            advanceStream(ds);
+        }
+        else {
+            lastStreamed.put(ds.getStreamId(),ds);
+        }
+        return Optional.of(new Deliverable(ds.getPayload(),1,ds.getStreamId(),ds.getProtocolId(),part));
+    }
+
+    /**
+     * Fragments of one message are sent in order, so with I-DATA the fragment
+     * sequence follows the TSNs even when other messages are in between.
+     *
+     * @param last fragment delivered last
+     * @param ds fragment to check
+     * @return whether ds follows last in the same message
+     */
+    private boolean isNextFragment(ReceivedData last, ReceivedData ds) {
+        if(ds.getFlag().isStart()) {
+            return false;
+        }
+        if(ds.isInterleaved()) {
+            return last.isSameMessage(ds) && ds.getFragmentSequence() == last.getFragmentSequence() + 1;
+        }
+        return ds.getTSN() == last.getTSN() + 1;
+    }
+
+    /**
+     * Must be used in sync block
+     *
+     * @param advancedAckPoint the new ack point
+     * @return streamed messages the ack point skips the rest of
+     */
+    private List<Deliverable> abandonStreamed(long advancedAckPoint) {
+        List<Deliverable> abandoned = new ArrayList<>();
+        Iterator<ReceivedData> it = lastStreamed.values().iterator();
+        while (it.hasNext()) {
+            ReceivedData last = it.next();
+            if(last.getTSN() < advancedAckPoint) {
+                it.remove();
+                advanceStream(last);
+                abandoned.add(new Deliverable(new byte[0],0,last.getStreamId(),last.getProtocolId(),Deliverable.Part.ABANDONED));
+            }
+        }
+        return abandoned;
     }
 
     /*
@@ -336,7 +516,7 @@ public class ReceiveBuffer {
     private Optional<Deliverable> receiveUnfragmentedBuffered(BufferedReceived buffered) {
         if(nextInStream(buffered.getData())) {
             setBuffered(buffered.getData().getTSN(), buffered.deliver());
-            orderedStreams.put(buffered.getData().getStreamId(),buffered.getData().getStreamSequence()+1);
+            advanceStream(buffered.getData());
             return Optional.of(buffered.toDeliverable());
         }
         return Optional.empty();
@@ -344,17 +524,17 @@ public class ReceiveBuffer {
 
     /**
      *
-     * Update lowest deliverable, so we can use it for calc later
-     * @param deliverables current deliverables
+     * Update lowest deliverable, so we can use it for calc later.
+     * Interleaved messages are delivered out of TSN order, so this moves past
+     * everything delivered and not just what was delivered now.
+     * A TSN that is gone from the buffer below the cumulative TSN was skipped by a forward TSN.
      */
-    private void updateLowestDelivered(List<Deliverable> deliverables) {
-        int fragments = deliverables.stream()
-                .map(Deliverable::getOriginalFragmentNumber)
-                .reduce(0,Integer::sum);
-
-        for (int i = 1; i <= fragments; i++) {
-            BufferedReceived vf = getBuffered(lowestDelivered + i);
-            if (vf != null && vf.isDelivered()) {
+    private void updateLowestDelivered() {
+        while (lowestDelivered < maxReceivedTSN) {
+            long tsn = lowestDelivered + 1;
+            BufferedReceived vf = getBuffered(tsn);
+            boolean present = vf != null && vf.getData().getTSN() == tsn;
+            if (present ? vf.isDelivered() : tsn <= cumulativeTSN) {
                 lowestDelivered++;
             } else {
                 break;
@@ -479,6 +659,9 @@ public class ReceiveBuffer {
         if(!start.getData().getFlag().isStart()) {
             return Optional.empty();
         }
+        else if(start.getData().isInterleaved()) {
+            return finishInterleaved(start);
+        }
         else {
             long tsn = start.getData().getTSN();
             List<Long> good = new ArrayList<>();
@@ -504,7 +687,40 @@ public class ReceiveBuffer {
         }
     }
 
-
-
+    /**
+     * The fragments of an I-DATA message can have other messages between them,
+     * so look for the fragment sequence numbers in order past those.
+     *
+     * @param start the start fragment
+     * @return deliverable defragmented message
+     */
+    private Optional<Deliverable> finishInterleaved(BufferedReceived start) {
+        ReceivedData first = start.getData();
+        List<Long> good = new ArrayList<>();
+        good.add(first.getTSN());
+        long fsn = 1;
+
+        for (long i = first.getTSN() + 1; i <= maxReceivedTSN; i++) {
+            BufferedReceived next = getBuffered(i);
+            if (next == null || next.canBeOverwritten() || next.getData().getTSN() != i) {
+                continue;
+            }
+            ReceivedData ds = next.getData();
+            if(!first.isSameMessage(ds)) {
+                continue;
+            }
+            if(ds.getFragmentSequence() != fsn) {
+                return Optional.empty();
+            }
+            good.add(ds.getTSN());
+            fsn++;
+            if(ds.getFlag().isEnd()) {
+                Deliverable del = fromTsns(good);
+                setDelivered(good);
+                return Optional.of(del);
+            }
+        }
+        return Optional.empty();
+    }
 
 }
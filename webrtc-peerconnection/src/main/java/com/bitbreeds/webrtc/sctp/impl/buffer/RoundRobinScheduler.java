@@ -0,0 +1,131 @@
+package com.bitbreeds.webrtc.sctp.impl.buffer;
+
+import com.bitbreeds.webrtc.sctp.impl.model.OutgoingMessage;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Serves each stream with messages in turn.
+ * Messages on one stream are sent in order, so a busy stream only
+ * holds back later messages on its own stream.
+ *
+ * With message interleaving a turn is one fragment, so a large message does not
+ * hold back other streams either. Without it a turn is a whole message.
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc8260#section-3">RFC 8260 stream schedulers</a>
+ */
+public class RoundRobinScheduler implements StreamScheduler {
+
+    private final Map<Integer,ArrayDeque<OutgoingMessage>> streams = new HashMap<>();
+
+    /**
+     * Streams with messages, the first has its turn
+     */
+    private final ArrayDeque<Integer> turns = new ArrayDeque<>();
+
+    private int size = 0;
+
+    /**
+     * The stream with the turn is partly through a message that is sent whole
+     */
+    private boolean inMessage = false;
+
+    /**
+     * Move to the next stream after each fragment, not after each message
+     */
+    private final boolean perFragment;
+
+    /**
+     * @param perFragment give each stream one fragment per turn, only with message interleaving negotiated
+     */
+    public RoundRobinScheduler(boolean perFragment) {
+        this.perFragment = perFragment;
+    }
+
+    @Override
+    public void add(OutgoingMessage message) {
+        ArrayDeque<OutgoingMessage> queue = streams.get(message.getStreamId());
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            streams.put(message.getStreamId(), queue);
+            turns.add(message.getStreamId());
+        }
+        queue.add(message);
+        size++;
+    }
+
+    @Override
+    public OutgoingMessage next() {
+        int waiting = 0;
+        while (waiting < turns.size()) {
+            int stream = turns.element();
+            ArrayDeque<OutgoingMessage> queue = streams.get(stream);
+            OutgoingMessage head = queue.element();
+            if (head.peek() != null) {
+                return head;
+            }
+            if (head.isDone()) {
+                inMessage = false;
+                remove(stream, queue);
+                if (queue.isEmpty()) {
+                    turns.remove();
+                }
+            } else if (inMessage) {
+                return null;
+            } else {
+                turns.add(turns.remove());
+                waiting++;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void taken(OutgoingMessage message, int length) {
+        boolean finished = message.isDone();
+        inMessage = !finished && !perFragment;
+        if (inMessage) {
+            return;
+        }
+        int stream = turns.remove();
+        ArrayDeque<OutgoingMessage> queue = streams.get(stream);
+        if (finished) {
+            remove(stream, queue);
+        }
+        if (!queue.isEmpty()) {
+            turns.add(stream);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void remove(int stream, ArrayDeque<OutgoingMessage> queue) {
+        queue.remove();
+        size--;
+        if (queue.isEmpty()) {
+            streams.remove(stream);
+        }
+    }
+
+}
@@ -1,13 +1,16 @@
 package com.bitbreeds.webrtc.sctp.impl.buffer;
 
 import com.bitbreeds.webrtc.model.sctp.GapAck;
-import com.bitbreeds.webrtc.sctp.impl.model.SendData;
+import com.bitbreeds.webrtc.model.sctp.SkippedMessage;
+import com.bitbreeds.webrtc.sctp.impl.model.OutgoingMessage;
+import com.bitbreeds.webrtc.sctp.impl.model.PendingData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /*
@@ -33,7 +36,7 @@ import java.util.stream.Collectors;
  *
  * Buffer for sent messages
  * Responsibilities:
- * - Assigning TSN
+ * - Assigning TSN, when data leaves the queue so chunks are encoded only then
  * - Ensuring we have a finite send buffer
  * - Ensuring we overhold max inflight
  * - Ensure resend if message is never acked
@@ -45,7 +48,28 @@ public class SendBuffer {
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
-    private final Queue<BufferedSent> queue = new ArrayDeque<>();
+    private StreamScheduler scheduler = new FirstComeFirstServedScheduler();
+
+    /**
+     * Kept so they carry over when the scheduler is replaced
+     */
+    private final Map<Integer,Integer> streamWeights = new HashMap<>();
+
+    /**
+     * User data buffered and not yet sent, per stream
+     */
+    private final Map<Integer,StreamAmount> bufferedAmounts = new HashMap<>();
+
+    /**
+     * Streams whose buffered amount fell to their threshold since last polled
+     */
+    private final Set<Integer> bufferedAmountLow = new LinkedHashSet<>();
+
+    /**
+     * Messages still reading their source, stopped on close
+     */
+    private final List<OutgoingMessage> reading = new ArrayList<>();
+
     private Map<Long,BufferedSent> inFlight = new HashMap<>();
 
     /**
@@ -58,27 +82,46 @@ public class SendBuffer {
     private long remoteCumulativeTSN;
     private final int initialBufferCapacity;
 
-    private final int CONGESTION_MTU = 1500;
+    /**
+     * Next TSN to assign
+     */
+    private long localTSN = 1;
 
-    private AtomicReference<Congestion> congestionWindow = new AtomicReference<>(
-            Congestion.initial(CONGESTION_MTU)
-    );
+    private final static int DEFAULT_CONGESTION_MTU = 1500;
+
+    private final AtomicReference<Congestion> congestionWindow;
 
     /**
      * <a href="https://tools.ietf.org/html/rfc3758#section-3.5">Partial reliability</a>
      */
     private long advancedAckPoint;
+
+    /**
+     * Abandoned chunks by TSN, listed in forward TSNs until the peer acknowledges past them
+     */
+    private final NavigableMap<Long,SkippedMessage> abandoned = new TreeMap<>();
     private boolean remoteIsInitialized = false;
 
     private long bytesSent = 0;
 
     public SendBuffer(
             int capacity) {
+        this(capacity, DEFAULT_CONGESTION_MTU);
+    }
+
+    /**
+     * @param capacity bytes that can be buffered
+     * @param mtu largest SCTP packet, the unit the congestion window grows by
+     */
+    public SendBuffer(
+            int capacity,
+            int mtu) {
         if(capacity <= 0) {
             throw new IllegalArgumentException("Capacity must be above 0, is " + capacity);
         }
         this.capacity = new AtomicInteger(capacity);
         this.initialBufferCapacity = capacity;
+        this.congestionWindow = new AtomicReference<>(Congestion.initial(mtu));
     }
 
 
@@ -96,6 +139,85 @@ public class SendBuffer {
 
     }
 
+    /**
+     * Must be set before anything is buffered.
+     *
+     * @param scheduler decides the order fragments of buffered messages are sent in
+     */
+    public void setScheduler(StreamScheduler scheduler) {
+        synchronized (lock) {
+            if (!this.scheduler.isEmpty()) {
+                throw new IllegalStateException("Scheduler can not change with " + this.scheduler.size() + " messages buffered");
+            }
+            this.scheduler = scheduler;
+            streamWeights.forEach(scheduler::setWeight);
+        }
+    }
+
+    /**
+     * @param streamId stream to weigh
+     * @param weight relative share of the link for schedulers that use it
+     */
+    public void setStreamWeight(int streamId, int weight) {
+        synchronized (lock) {
+            streamWeights.put(streamId, weight);
+            scheduler.setWeight(streamId, weight);
+        }
+    }
+
+    /**
+     * Messages read while they are sent are not counted, only what is held in the buffer.
+     *
+     * @param streamId stream to look at
+     * @return bytes of user data buffered on the stream and not yet sent
+     */
+    public long getBufferedAmount(int streamId) {
+        synchronized (lock) {
+            StreamAmount stream = bufferedAmounts.get(streamId);
+            return stream != null ? stream.amount : 0;
+        }
+    }
+
+    /**
+     * @param streamId stream to change
+     * @param threshold the stream is reported by {@link #pollBufferedAmountLow()} when sending brings its buffered amount from above to at most this
+     */
+    public void setBufferedAmountLowThreshold(int streamId, long threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative, is " + threshold);
+        }
+        synchronized (lock) {
+            streamAmount(streamId).lowThreshold = threshold;
+        }
+    }
+
+    /**
+     * @return streams whose buffered amount fell to their threshold since the last call, each once
+     */
+    public List<Integer> pollBufferedAmountLow() {
+        synchronized (lock) {
+            if (bufferedAmountLow.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<Integer> low = new ArrayList<>(bufferedAmountLow);
+            bufferedAmountLow.clear();
+            return low;
+        }
+    }
+
+    private StreamAmount streamAmount(int streamId) {
+        return bufferedAmounts.computeIfAbsent(streamId, i -> new StreamAmount());
+    }
+
+    private void sentFromBuffer(PendingData pending) {
+        StreamAmount stream = bufferedAmounts.get(pending.getStreamId());
+        long before = stream.amount;
+        stream.amount -= pending.getLength();
+        if (before > stream.lowThreshold && stream.amount <= stream.lowThreshold) {
+            bufferedAmountLow.add(pending.getStreamId());
+        }
+    }
+
     public int getInitialBufferCapacity() {
         return initialBufferCapacity;
     }
@@ -112,31 +234,81 @@ public class SendBuffer {
         return bytesSent;
     }
 
+    /**
+     * @return TSN the next chunk sent gets, the first TSN before anything is sent
+     */
+    public long getNextTSN() {
+        synchronized (lock) {
+            return localTSN;
+        }
+    }
+
 
     /**
      *
-     * Buffer a message for sending and move as many messages to inflight as possible
+     * Buffer a message for sending, it gets TSNs when it is moved to inflight
+     *
+     * @param messages fragments to store
+     */
+    public void buffer(List<PendingData> messages) {
+        int size = messages.stream()
+                .mapToInt(PendingData::getChunkLength)
+                .sum();
+        buffer(size, () -> messages);
+    }
+
+    /**
+     * Buffer a message for sending, the fragments are only created once it is known to fit.
+     * A dropped message then takes no stream sequence number, which would leave a gap
+     * the peer waits for forever on an ordered stream.
      *
-     * @param messages data to store
+     * @param size buffer capacity the fragments take, see {@link PendingData#getChunkLength()}
+     * @param fragments creates the fragments, called under the buffer lock
      */
-    public void buffer(List<SendData> messages) {
+    public void buffer(int size, Supplier<List<PendingData>> fragments) {
         if(!remoteIsInitialized) {
             throw new InitialMessageNotReceived("Initial SCTP message not received yet, no initial TSN");
         }
         synchronized (lock) {
-            messages.forEach( data -> {
-                if (capacity.get() - data.getSctpPayload().length < 0) {
-                    throw new OutOfBufferSpaceError("Send buffer has capacity " + capacity +
-                            " message with size "+ data.getSctpPayload().length +" was dropped");
-                }
-                capacity.accumulateAndGet(data.getSctpPayload().length,(a,b)->a-b);
-                queue.add(BufferedSent.buffer(data, data.getTsn()));
-            });
-            logger.debug("After buffering inflight:" + inFlight + " queue: " + queue.size());
+            if (capacity.get() - size < 0) {
+                throw new OutOfBufferSpaceError("Send buffer has capacity " + capacity +
+                        " message with size "+ size +" was dropped");
+            }
+            List<PendingData> messages = fragments.get();
+            capacity.accumulateAndGet(size,(a,b)->a-b);
+            messages.forEach(data -> streamAmount(data.getStreamId()).amount += data.getLength());
+            scheduler.add(new BufferedMessage(messages));
+            logger.debug("After buffering inflight:" + inFlight + " queue: " + scheduler.size());
         }
     }
 
 
+    /**
+     * Buffer a message that reads its fragments when they are sent.
+     * It takes no buffer capacity, the window decides how much of it is in memory.
+     *
+     * @param message message read lazily
+     */
+    public void buffer(OutgoingMessage message) {
+        if(!remoteIsInitialized) {
+            throw new InitialMessageNotReceived("Initial SCTP message not received yet, no initial TSN");
+        }
+        synchronized (lock) {
+            scheduler.add(message);
+            reading.add(message);
+        }
+    }
+
+    /**
+     * Stop messages reading their source, the association is closed
+     */
+    public void close() {
+        synchronized (lock) {
+            reading.forEach(OutgoingMessage::cancel);
+            reading.clear();
+        }
+    }
+
     public int getInflightSize() {
         return inFlight.size();
     }
@@ -147,10 +319,17 @@ public class SendBuffer {
      */
     public boolean hasMessagesBuffered() {
         synchronized (lock) {
-            return getInflightSize() > 0 || queue.size() > 0;
+            return getInflightSize() > 0 || !scheduler.isEmpty();
         }
     }
 
+    /**
+     * @param mtu largest SCTP packet on the path now
+     */
+    public void setCongestionMtu(int mtu) {
+        congestionWindow.updateAndGet(i -> i.pathMtuChanged(mtu));
+    }
+
     public int getCwnd() {
         return this.congestionWindow.get().getCwnd();
     }
@@ -239,12 +418,12 @@ public class SendBuffer {
                     congestionWindow.updateAndGet(i -> i.increase(belowCumTsnSize, size));
                 }
 
-                logger.debug("After Sack inflight: {} queue: {}",inFlight,queue.size());
+                logger.debug("After Sack inflight: {} queue: {}",inFlight,scheduler.size());
                 logger.debug("Handled sack new inflight {} cum tsn {} ackpt {} ", inFlight,remoteCumulativeTSN,advancedAckPoint);
                 return new SackResult(
                         Collections.emptyList(),
                         updatedCumTSN,remoteCumulativeTSN,
-                        new FwdAckPoint(advancedAckPoint,Collections.emptyList()));
+                        forwardAckPoint());
             }
             else {
                 logger.info("Out of order sack {}", sack);
@@ -253,7 +432,7 @@ public class SendBuffer {
             return new SackResult(Collections.emptyList(),
                     false,
                     remoteCumulativeTSN,
-                    new FwdAckPoint(advancedAckPoint,Collections.emptyList()));
+                    forwardAckPoint());
         }
 
     }
@@ -272,10 +451,10 @@ public class SendBuffer {
             advancedAckPoint += 1;
         }
 
-        List<Integer> streams = toAbandon.stream()
-                .filter(i->i.getData().getReliability().isOrdered())
-                .map(i->i.getData().getStreamId())
-                .collect(Collectors.toList());
+        toAbandon.forEach(i -> abandoned.put(i.getTsn(), new SkippedMessage(
+                i.getData().getStreamId(),
+                i.getData().getStreamSequence(),
+                !i.getData().getReliability().isOrdered())));
 
         /*
         toAbandon.forEach(buff -> {
@@ -291,7 +470,22 @@ public class SendBuffer {
 
         inFlight.keySet().removeAll(ids); //Hmm, why does not chrome update based on chunk
 
-        return new FwdAckPoint(advancedAckPoint,streams);
+        return forwardAckPoint();
+    }
+
+    /**
+     * Must be used in sync block.
+     * Chunks are sent in stream order, so the abandoned chunk with the highest TSN
+     * on a stream holds the last message skipped on it.
+     *
+     * @return ack point and the last message skipped on each stream up to it
+     */
+    private FwdAckPoint forwardAckPoint() {
+        abandoned.headMap(remoteCumulativeTSN, true).clear();
+        Map<Integer,SkippedMessage> last = new LinkedHashMap<>();
+        abandoned.headMap(advancedAckPoint, true).values()
+                .forEach(i -> last.put(i.getStreamId() << 1 | (i.isUnordered() ? 1 : 0), i));
+        return new FwdAckPoint(advancedAckPoint, new ArrayList<>(last.values()));
     }
 
     private boolean acknowledged(SackData data,BufferedSent inFlight) {
@@ -314,6 +508,22 @@ public class SendBuffer {
      * @return messages to put on wire
      */
     public List<BufferedSent> getDataToSend() {
+        return getDataToSend(Integer.MAX_VALUE);
+    }
+
+    /**
+     *
+     * Move messages to inflight, at most wireCapacity bytes.
+     * The rest stays buffered until the wire has drained.
+     *
+     * TSNs are assigned here in the order the scheduler picks fragments in.
+     * Without interleaving it sends messages whole, so their fragments get consecutive TSNs.
+     * Streamed messages only give fragments already read, their source is not read here.
+     *
+     * @param wireCapacity bytes the outbound queue can take
+     * @return messages to put on wire
+     */
+    public List<BufferedSent> getDataToSend(int wireCapacity) {
         ArrayList<BufferedSent> toSend = new ArrayList<>();
         synchronized (lock) {
             //Make more efficient later
@@ -322,15 +532,28 @@ public class SendBuffer {
                     .reduce(0,Integer::sum);
 
             int cwndDiff = congestionWindow.get().getCwnd() - data;
-
-            while (!queue.isEmpty() &&
-                    cwndDiff > queue.element().getData().getSctpPayload().length &&
-                    remoteBufferSize > queue.element().getData().getSctpPayload().length) {
-                BufferedSent buff = queue.remove();
-                BufferedSent sent = buff.send();
-                cwndDiff -= buff.getData().getSctpPayload().length;
-                capacity.accumulateAndGet(buff.getData().getSctpPayload().length,(a,b)->a+b);
-                inFlight.put(buff.getTsn(), sent);
+            int wireLeft = wireCapacity;
+
+            OutgoingMessage message;
+            while ((message = scheduler.next()) != null) {
+                PendingData pending = message.peek();
+                int length = pending.getChunkLength();
+                if (cwndDiff <= length || remoteBufferSize <= length || wireLeft < length) {
+                    break;
+                }
+                message.poll();
+                scheduler.taken(message, length);
+                long tsn = localTSN++;
+                BufferedSent sent = BufferedSent.buffer(pending.bind(tsn), tsn).send();
+                cwndDiff -= length;
+                wireLeft -= length;
+                if (message.isReserved()) {
+                    capacity.accumulateAndGet(length,(a,b)->a+b);
+                    sentFromBuffer(pending);
+                } else if (message.isDone()) {
+                    reading.remove(message);
+                }
+                inFlight.put(tsn, sent);
                 toSend.add(sent);
             }
             bytesSent += toSend.stream()
@@ -373,6 +596,44 @@ public class SendBuffer {
         }
     }
 
+    /**
+     * Fragments made when the message was buffered, their capacity is taken already
+     */
+    private static class BufferedMessage implements OutgoingMessage {
+
+        private final List<PendingData> fragments;
+        private int next = 0;
+
+        private BufferedMessage(List<PendingData> fragments) {
+            this.fragments = fragments;
+        }
+
+        @Override
+        public PendingData peek() {
+            return next < fragments.size() ? fragments.get(next) : null;
+        }
+
+        @Override
+        public PendingData poll() {
+            return next < fragments.size() ? fragments.get(next++) : null;
+        }
+
+        @Override
+        public boolean isReserved() {
+            return true;
+        }
+
+        @Override
+        public int getStreamId() {
+            return fragments.get(0).getStreamId();
+        }
+    }
+
+    private static class StreamAmount {
+        private long amount = 0;
+        private long lowThreshold = 0;
+    }
+
 
 
 
@@ -0,0 +1,67 @@
+package com.bitbreeds.webrtc.sctp.impl.buffer;
+
+import com.bitbreeds.webrtc.sctp.impl.model.OutgoingMessage;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Decides which buffered message the send buffer takes the next fragment from.
+ *
+ * Unless message interleaving is negotiated a message must be sent to its last
+ * fragment before another one is started, the receiver reassembles by TSN.
+ * Not thread safe, the send buffer calls it under its lock.
+ */
+public interface StreamScheduler {
+
+    /**
+     * @param message message to schedule
+     */
+    void add(OutgoingMessage message);
+
+    /**
+     * Messages that have no fragments left are dropped here. A message with no fragment
+     * ready yet is passed over, unless it is partly sent and has to be sent whole.
+     *
+     * @return message to take the next fragment from, null when nothing can be sent now
+     */
+    OutgoingMessage next();
+
+    /**
+     * @param message message returned by {@link #next()} that a fragment was taken from
+     * @param length chunk length of the fragment
+     */
+    void taken(OutgoingMessage message, int length);
+
+    /**
+     * Schedulers that share the link by weight use it, the others ignore it.
+     *
+     * @param streamId stream to weigh
+     * @param weight relative share of the link, see {@link com.bitbreeds.webrtc.model.webrtc.DataChannelPriority#getWeight()}
+     */
+    default void setWeight(int streamId, int weight) {
+    }
+
+    /**
+     * @return messages scheduled
+     */
+    int size();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+}
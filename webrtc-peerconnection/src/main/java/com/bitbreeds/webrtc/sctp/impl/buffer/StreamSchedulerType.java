@@ -0,0 +1,60 @@
+package com.bitbreeds.webrtc.sctp.impl.buffer;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Outbound stream schedulers, decides how channels share the link.
+ */
+public enum StreamSchedulerType {
+
+    /**
+     * Messages in the order they were sent, a busy channel holds back all others
+     */
+    FCFS {
+        @Override
+        public StreamScheduler create(boolean messageInterleaving) {
+            return new FirstComeFirstServedScheduler();
+        }
+    },
+
+    /**
+     * Channels with messages take turns
+     */
+    ROUND_ROBIN {
+        @Override
+        public StreamScheduler create(boolean messageInterleaving) {
+            return new RoundRobinScheduler(messageInterleaving);
+        }
+    },
+
+    /**
+     * Channels share the link by their priority
+     */
+    WFQ {
+        @Override
+        public StreamScheduler create(boolean messageInterleaving) {
+            return new WeightedFairScheduler(messageInterleaving);
+        }
+    };
+
+    /**
+     * @param messageInterleaving whether I-DATA is negotiated, so streams can switch in the middle of a message
+     * @return new scheduler for one association
+     */
+    public abstract StreamScheduler create(boolean messageInterleaving);
+
+}
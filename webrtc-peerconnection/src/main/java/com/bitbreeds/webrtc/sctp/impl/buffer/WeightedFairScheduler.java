@@ -0,0 +1,192 @@
+package com.bitbreeds.webrtc.sctp.impl.buffer;
+
+import com.bitbreeds.webrtc.model.webrtc.DataChannelPriority;
+import com.bitbreeds.webrtc.sctp.impl.model.OutgoingMessage;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Shares the link between streams with messages by weight, counted in bytes.
+ * A stream of weight 2w gets twice the bytes of one with weight w while both have data,
+ * and an idle stream builds up no credit.
+ *
+ * Each stream has a virtual finish time that grows by the bytes it sends divided by its weight.
+ * The stream furthest behind is served next. Streams that become busy start at the
+ * virtual time of the last stream served.
+ *
+ * Messages on one stream are sent in order. With message interleaving the next stream
+ * is picked after each fragment, without it after each message.
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc8260#section-3.5">RFC 8260 weighted fair queueing scheduler</a>
+ */
+public class WeightedFairScheduler implements StreamScheduler {
+
+    /**
+     * Largest weight, so the cost of a byte is a whole number for all priorities
+     */
+    private final static long SCALE = DataChannelPriority.EXTRA_HIGH.getWeight();
+
+    private final Map<Integer,Integer> weights = new HashMap<>();
+
+    private final Map<Integer,Flow> flows = new HashMap<>();
+
+    /**
+     * Busy streams, first is served next
+     */
+    private final TreeSet<Flow> ready = new TreeSet<>(Comparator
+            .comparingLong((Flow i) -> i.finish)
+            .thenComparingLong(i -> i.order));
+
+    /**
+     * Stream in the middle of a message, when messages are not interleaved
+     */
+    private Flow current;
+
+    private long virtualTime = 0;
+
+    private long order = 0;
+
+    private int size = 0;
+
+    /**
+     * Move to the next stream after each fragment, not after each message
+     */
+    private final boolean perFragment;
+
+    /**
+     * @param perFragment pick a stream for each fragment, only with message interleaving negotiated
+     */
+    public WeightedFairScheduler(boolean perFragment) {
+        this.perFragment = perFragment;
+    }
+
+    @Override
+    public void add(OutgoingMessage message) {
+        int stream = message.getStreamId();
+        Flow flow = flows.get(stream);
+        if (flow == null) {
+            flow = new Flow(stream, weights.getOrDefault(stream, DataChannelPriority.NORMAL.getWeight()));
+            flow.finish = virtualTime;
+            flow.order = order++;
+            flows.put(stream, flow);
+            ready.add(flow);
+        }
+        flow.queue.add(message);
+        size++;
+    }
+
+    @Override
+    public OutgoingMessage next() {
+        if (current != null) {
+            OutgoingMessage head = current.queue.element();
+            if (head.peek() != null) {
+                return head;
+            }
+            if (!head.isDone()) {
+                return null;
+            }
+            ready.remove(current);
+            remove(current);
+        }
+        List<Flow> waiting = null;
+        OutgoingMessage next = null;
+        while (next == null && !ready.isEmpty()) {
+            Flow flow = ready.pollFirst();
+            OutgoingMessage head = flow.queue.element();
+            if (head.peek() != null) {
+                ready.add(flow);
+                next = head;
+            } else if (head.isDone()) {
+                remove(flow);
+            } else {
+                waiting = waiting == null ? new ArrayList<>() : waiting;
+                waiting.add(flow);
+            }
+        }
+        if (waiting != null) {
+            ready.addAll(waiting);
+        }
+        return next;
+    }
+
+    @Override
+    public void taken(OutgoingMessage message, int length) {
+        Flow flow = flows.get(message.getStreamId());
+        ready.remove(flow);
+        virtualTime = Math.max(virtualTime, flow.finish);
+        flow.finish += length * SCALE / flow.weight;
+        if (message.isDone()) {
+            remove(flow);
+        } else {
+            current = perFragment ? null : flow;
+            ready.add(flow);
+        }
+    }
+
+    @Override
+    public void setWeight(int streamId, int weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Weight must be positive, was " + weight);
+        }
+        weights.put(streamId, weight);
+        Flow flow = flows.get(streamId);
+        if (flow != null) {
+            flow.weight = weight;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Drop the head message of a stream that is not in the ready set
+     */
+    private void remove(Flow flow) {
+        flow.queue.remove();
+        size--;
+        current = null;
+        if (flow.queue.isEmpty()) {
+            flows.remove(flow.streamId);
+        } else {
+            ready.add(flow);
+        }
+    }
+
+    private static class Flow {
+        private final int streamId;
+        private final ArrayDeque<OutgoingMessage> queue = new ArrayDeque<>();
+        private int weight;
+        private long finish;
+        private long order;
+
+        private Flow(int streamId, int weight) {
+            this.streamId = streamId;
+            this.weight = weight;
+        }
+    }
+
+}
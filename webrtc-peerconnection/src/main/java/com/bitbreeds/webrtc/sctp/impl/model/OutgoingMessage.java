@@ -0,0 +1,59 @@
+package com.bitbreeds.webrtc.sctp.impl.model;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * A message waiting in the send buffer, handing out its fragments in order.
+ */
+public interface OutgoingMessage {
+
+    /**
+     * @return next fragment without taking it, null when none is ready
+     */
+    PendingData peek();
+
+    /**
+     * @return next fragment, null when none is ready
+     */
+    PendingData poll();
+
+    /**
+     * A message read from a source can have no fragment ready without being done.
+     *
+     * @return whether all fragments are taken
+     */
+    default boolean isDone() {
+        return peek() == null;
+    }
+
+    /**
+     * Stop making fragments, the association is closed
+     */
+    default void cancel() {
+    }
+
+    /**
+     * @return whether buffer capacity was taken for the fragments when the message was buffered
+     */
+    boolean isReserved();
+
+    /**
+     * @return stream the message is sent on
+     */
+    int getStreamId();
+
+}
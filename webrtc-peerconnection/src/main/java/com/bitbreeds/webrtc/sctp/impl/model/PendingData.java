@@ -0,0 +1,161 @@
+package com.bitbreeds.webrtc.sctp.impl.model;
+
+import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
+import com.bitbreeds.webrtc.sctp.impl.SCTPReliability;
+import com.bitbreeds.webrtc.sctp.model.SCTPOrderFlag;
+import com.bitbreeds.webrtc.sctp.model.SCTPPacketWriter;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * A fragment waiting in the send buffer.
+ *
+ * Holds a reference to the user payload and where the fragment is in it.
+ * The TSN is assigned and the DATA chunk encoded when the fragment is sent,
+ * see {@link #bind(long)}, so nothing is copied while it waits.
+ *
+ * With message interleaving the fragment is sent as I-DATA, the stream sequence is then
+ * the 32 bit message identifier and the fragment carries its fragment sequence number.
+ */
+public class PendingData {
+
+    private final int streamId;
+    private final int streamSequence;
+    private final int fragmentSequence;
+    private final boolean interleaved;
+    private final SCTPOrderFlag flags;
+    private final SCTPPayloadProtocolId protocolId;
+    private final SCTPReliability reliability;
+    private final byte[] payload;
+    private final int offset;
+    private final int length;
+
+    public PendingData(
+            int streamId,
+            int streamSequence,
+            SCTPOrderFlag flags,
+            SCTPPayloadProtocolId protocolId,
+            SCTPReliability reliability,
+            byte[] payload,
+            int offset,
+            int length) {
+        this(streamId, streamSequence, 0, false, flags, protocolId, reliability, payload, offset, length);
+    }
+
+    /**
+     * @param streamSequence stream sequence number, or message identifier when interleaved
+     * @param fragmentSequence position of the fragment in the message, only sent when interleaved
+     * @param interleaved send as I-DATA
+     */
+    public PendingData(
+            int streamId,
+            int streamSequence,
+            int fragmentSequence,
+            boolean interleaved,
+            SCTPOrderFlag flags,
+            SCTPPayloadProtocolId protocolId,
+            SCTPReliability reliability,
+            byte[] payload,
+            int offset,
+            int length) {
+        this.streamId = streamId;
+        this.streamSequence = streamSequence;
+        this.fragmentSequence = fragmentSequence;
+        this.interleaved = interleaved;
+        this.flags = flags;
+        this.protocolId = protocolId;
+        this.reliability = reliability;
+        this.payload = payload;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * @param tsn TSN of the chunk
+     * @return the encoded DATA or I-DATA chunk with its TSN
+     */
+    public SendData bind(long tsn) {
+        byte[] chunk = new byte[getChunkLength()];
+        SCTPPacketWriter writer = new SCTPPacketWriter().wrapChunks(chunk, 0);
+        if (interleaved) {
+            boolean first = flags.isStart() || flags.isUnFragmented();
+            writer.iData(
+                    flags,
+                    tsn,
+                    streamId,
+                    streamSequence & 0xFFFFFFFFL,
+                    first ? protocolId.getId() : fragmentSequence & 0xFFFFFFFFL,
+                    payload,
+                    offset,
+                    length);
+        } else {
+            writer.data(flags, tsn, streamId, streamSequence, protocolId.getId(), payload, offset, length);
+        }
+        return new SendData(tsn, streamId, streamSequence, flags, protocolId, reliability, chunk);
+    }
+
+    /**
+     * @return length of the DATA chunk once encoded, what it counts in the buffer and window
+     */
+    public int getChunkLength() {
+        return interleaved ? SCTPPacketWriter.iDataLength(length) : SCTPPacketWriter.dataLength(length);
+    }
+
+    public int getStreamId() {
+        return streamId;
+    }
+
+    public int getStreamSequence() {
+        return streamSequence;
+    }
+
+    public int getFragmentSequence() {
+        return fragmentSequence;
+    }
+
+    public boolean isInterleaved() {
+        return interleaved;
+    }
+
+    public SCTPOrderFlag getFlags() {
+        return flags;
+    }
+
+    public SCTPPayloadProtocolId getProtocolId() {
+        return protocolId;
+    }
+
+    public SCTPReliability getReliability() {
+        return reliability;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return "PendingData{" +
+                "streamId=" + streamId +
+                ", streamSequence=" + streamSequence +
+                ", fragmentSequence=" + fragmentSequence +
+                ", interleaved=" + interleaved +
+                ", flags=" + flags +
+                ", length=" + length +
+                '}';
+    }
+}
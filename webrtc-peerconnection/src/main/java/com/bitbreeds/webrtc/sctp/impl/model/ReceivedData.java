@@ -28,12 +28,17 @@ import java.util.Objects;
  * Stores data about a received message
  *
  * Needed for reassembly of fragmented messages and correct delivery to user.
+ *
+ * Data received as I-DATA has the message identifier as stream sequence, and
+ * a fragment sequence number. Its protocol id is only known on the first fragment.
  */
 public class ReceivedData implements Comparable<ReceivedData> {
 
     private final long TSN;
     private final int streamId;
     private final int streamSequence;
+    private final long fragmentSequence;
+    private final boolean interleaved;
     private final SCTPOrderFlag flags;
     private final SCTPPayloadProtocolId protocolId;
     private final SCTPReliability streamReliability;
@@ -46,9 +51,29 @@ public class ReceivedData implements Comparable<ReceivedData> {
                         SCTPPayloadProtocolId protocolId,
                         SCTPReliability streamReliability,
                         byte[] payload) {
+        this(TSN, streamId, streamSequence, 0, false, flags, protocolId, streamReliability, payload);
+    }
+
+    /**
+     * @param streamSequence stream sequence number, or message identifier when interleaved
+     * @param fragmentSequence position in the message when interleaved
+     * @param interleaved received as I-DATA
+     * @param protocolId null on I-DATA fragments after the first
+     */
+    public ReceivedData(long TSN,
+                        int streamId,
+                        int streamSequence,
+                        long fragmentSequence,
+                        boolean interleaved,
+                        SCTPOrderFlag flags,
+                        SCTPPayloadProtocolId protocolId,
+                        SCTPReliability streamReliability,
+                        byte[] payload) {
         this.TSN = TSN;
         this.streamId = streamId;
         this.streamSequence = streamSequence;
+        this.fragmentSequence = fragmentSequence;
+        this.interleaved = interleaved;
         this.flags = flags;
         this.protocolId = protocolId;
         this.streamReliability = streamReliability;
@@ -67,6 +92,25 @@ public class ReceivedData implements Comparable<ReceivedData> {
         return streamSequence;
     }
 
+    public long getFragmentSequence() {
+        return fragmentSequence;
+    }
+
+    public boolean isInterleaved() {
+        return interleaved;
+    }
+
+    /**
+     * @param other fragment to compare with
+     * @return whether both are I-DATA fragments of the same message
+     */
+    public boolean isSameMessage(ReceivedData other) {
+        return interleaved && other.interleaved
+                && streamId == other.streamId
+                && streamSequence == other.streamSequence
+                && flags.isOrdered() == other.flags.isOrdered();
+    }
+
     public SCTPOrderFlag getFlag() {
         return flags;
     }
@@ -115,6 +159,8 @@ public class ReceivedData implements Comparable<ReceivedData> {
                 "TSN=" + TSN +
                 ", streamId=" + streamId +
                 ", streamSequence=" + streamSequence +
+                ", fragmentSequence=" + fragmentSequence +
+                ", interleaved=" + interleaved +
                 ", flags=" + flags +
                 ", protocolId=" + protocolId +
                 ", streamReliability=" + streamReliability +
@@ -0,0 +1,111 @@
+package com.bitbreeds.webrtc.sctp.impl.util;
+
+import java.util.Arrays;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Next sequence number of each stream, in an array indexed by stream id.
+ * The array grows to the highest stream used, so a connection with a few
+ * channels keeps a small table and one with many does no hashing or boxing.
+ *
+ * Numbers wrap at the width given by the mask, 16 bits for the SSN of DATA
+ * and 32 bits for the message identifier of I-DATA. Not thread safe.
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc4960#section-6.5">RFC 4960 stream sequence number</a>
+ */
+public class StreamSequenceTable {
+
+    /**
+     * Stream identifiers are 16 bits
+     */
+    public static final int MAX_STREAMS = 65536;
+
+    public static final int SSN_MASK = 0xFFFF;
+
+    public static final int MESSAGE_ID_MASK = 0xFFFFFFFF;
+
+    private static final int INITIAL_STREAMS = 16;
+
+    private final int mask;
+
+    private int[] next = new int[INITIAL_STREAMS];
+
+    /**
+     * @param mask width sequence numbers wrap at, {@link #SSN_MASK} or {@link #MESSAGE_ID_MASK}
+     */
+    public StreamSequenceTable(int mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * @param stream stream id
+     * @return next sequence number of the stream, 0 for a stream not used yet
+     */
+    public int get(int stream) {
+        checkStream(stream);
+        return stream < next.length ? next[stream] : 0;
+    }
+
+    /**
+     * @param stream stream id
+     * @return next sequence number of the stream, the one after it is next from now
+     */
+    public int getAndIncrement(int stream) {
+        int[] table = tableFor(stream);
+        int current = table[stream];
+        table[stream] = (current + 1) & mask;
+        return current;
+    }
+
+    /**
+     * @param stream stream id
+     * @param sequence sequence number just used, the one after it is next
+     */
+    public void advancePast(int stream, int sequence) {
+        tableFor(stream)[stream] = (sequence + 1) & mask;
+    }
+
+    /**
+     * Moves the stream past a sequence number unless it is past it already.
+     * Serial number arithmetic decides which is ahead, so this works across the wrap.
+     *
+     * @param stream stream id
+     * @param sequence sequence number skipped by the peer
+     */
+    public void skipPast(int stream, int sequence) {
+        int distance = (sequence - get(stream)) & mask;
+        if (Integer.compareUnsigned(distance, mask >>> 1) <= 0) {
+            advancePast(stream, sequence);
+        }
+    }
+
+    private int[] tableFor(int stream) {
+        checkStream(stream);
+        if (stream >= next.length) {
+            next = Arrays.copyOf(next, Math.min(MAX_STREAMS, Integer.highestOneBit(stream) << 1));
+        }
+        return next;
+    }
+
+    private static void checkStream(int stream) {
+        if (stream < 0 || stream >= MAX_STREAMS) {
+            throw new IllegalArgumentException("Stream id must be between 0 and " + (MAX_STREAMS - 1) + ", is " + stream);
+        }
+    }
+
+}
@@ -35,6 +35,7 @@ public enum SCTPAttributeType {
     HMAC_ALGORITHM(0x8004),
     PADDING(0x8005),
     SUPPORTED_EXTENSIONS(0x8008),
+    ZERO_CHECKSUM_ACCEPTABLE(0x8001),
     ADD_IP(0xC001),
     DELETE_IP(0xC002),
     ERROR_CAUSE(0xC003),
@@ -34,7 +34,10 @@ public enum SCTPFixedAttributeType {
     TSN(4),
     CUMULATIVE_TSN_ACK(4),
     NUM_GAP_BLOCKS(2),
-    NUM_DUPLICATE(2);
+    NUM_DUPLICATE(2),
+    RESERVED(2),
+    MESSAGE_IDENTIFIER(4),
+    PROTOCOL_IDENTIFIER_OR_FSN(4);
 
     /**
      * Length in bytes
@@ -26,17 +26,30 @@ public class SCTPMessage {
     }
 
     public static SCTPMessage fromBytes(byte[] bytes) {
-        SCTPHeader hdr = SCTPHeader.fromBytes(Arrays.copyOfRange(bytes,0,12));
+        return fromBytes(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Parse a message from part of a buffer, without copying the whole message first
+     *
+     * @param bytes buffer holding the message
+     * @param offset start of message
+     * @param length length of message
+     * @return parsed message
+     */
+    public static SCTPMessage fromBytes(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        SCTPHeader hdr = SCTPHeader.fromBytes(Arrays.copyOfRange(bytes,offset,offset+12));
         List<SCTPChunk> chunks = new ArrayList<>();
 
-        int initial = 12;
+        int initial = offset + 12;
         //while(bytes.length > initial) {
-        SCTPChunk chunk = SCTPChunk.fromBytes(Arrays.copyOfRange(bytes,initial,bytes.length));
+        SCTPChunk chunk = SCTPChunk.fromBytes(Arrays.copyOfRange(bytes,initial,end));
         chunks.add(chunk);
 
         initial = initial + SignalUtil.multipleOfFour(chunk.getLength());
-        while(initial < bytes.length) {
-            chunk = SCTPChunk.fromBytes(Arrays.copyOfRange(bytes,initial,bytes.length));
+        while(initial < end) {
+            chunk = SCTPChunk.fromBytes(Arrays.copyOfRange(bytes,initial,end));
             if(chunk.getLength() < 1) {
                 break; //Must brake if
             }
@@ -65,9 +65,28 @@ public enum SCTPMessageType {
     CWR(13,new ArrayList<>(),true),
     SHUTDOWN_COMPLETE(14,new ArrayList<>(),true),
 
+    /**
+     * @see <a href="https://tools.ietf.org/html/rfc8260#section-2.1">I-DATA</a>
+     */
+    I_DATA(64,Arrays.asList(
+            SCTPFixedAttributeType.TSN,
+            SCTPFixedAttributeType.STREAM_IDENTIFIER_S,
+            SCTPFixedAttributeType.RESERVED,
+            SCTPFixedAttributeType.MESSAGE_IDENTIFIER,
+            SCTPFixedAttributeType.PROTOCOL_IDENTIFIER_OR_FSN),
+            true
+    ),
+
     FORWARD_TSN(192, Collections.singletonList(
             SCTPFixedAttributeType.CUMULATIVE_TSN_ACK)
             ,true),
+
+    /**
+     * @see <a href="https://tools.ietf.org/html/rfc8260#section-2.3.1">I-FORWARD-TSN</a>
+     */
+    I_FORWARD_TSN(194, Collections.singletonList(
+            SCTPFixedAttributeType.CUMULATIVE_TSN_ACK)
+            ,true),
     RE_CONFIG(130,Collections.singletonList(
             SCTPFixedAttributeType.CUMULATIVE_TSN_ACK),true);
 
@@ -92,6 +111,25 @@ public enum SCTPMessageType {
      */
     private final List<SCTPFixedAttributeType> fixedTypes;
 
+    /**
+     * Summed length of the fixed types
+     */
+    private final int fixedLength;
+
+    /**
+     * Lookup from the chunk type byte
+     */
+    private static final SCTPMessageType[] BY_NR = new SCTPMessageType[256];
+
+    static {
+        Arrays.fill(BY_NR, NOT_KNOWN);
+        for (SCTPMessageType type : values()) {
+            if (type.nr >= 0) {
+                BY_NR[type.nr] = type;
+            }
+        }
+    }
+
     SCTPMessageType(
             int nr,
             List<SCTPFixedAttributeType> fixedTypes,
@@ -99,12 +137,20 @@ public enum SCTPMessageType {
         this.nr = nr;
         this.fixedTypes = fixedTypes;
         this.noVarTypes = noVarTypes;
+        this.fixedLength = fixedTypes.stream().mapToInt(SCTPFixedAttributeType::getLgt).sum();
     }
 
     public int getNr() {
         return nr;
     }
 
+    /**
+     * @return bytes taken by the fixed fields following the chunk header
+     */
+    public int getFixedLength() {
+        return fixedLength;
+    }
+
     public boolean isNoVarTypes() {
         return noVarTypes;
     }
@@ -114,9 +160,7 @@ public enum SCTPMessageType {
     }
 
     public static SCTPMessageType fromByte(int bt) {
-        return Arrays.stream(values())
-                .filter(i-> i.getNr() == bt)
-                .findFirst().orElse(NOT_KNOWN);
+        return bt >= 0 && bt < BY_NR.length ? BY_NR[bt] : NOT_KNOWN;
     }
 
 }
@@ -19,8 +19,6 @@ package com.bitbreeds.webrtc.sctp.model;
 
 import com.bitbreeds.webrtc.common.SignalUtil;
 
-import java.util.Arrays;
-
 /**
  * Reserved: 5 bits
 
@@ -69,6 +67,14 @@ public enum SCTPOrderFlag {
 
     private int byteRep;
 
+    private static final SCTPOrderFlag[] BY_VALUE = new SCTPOrderFlag[8];
+
+    static {
+        for (SCTPOrderFlag flag : values()) {
+            BY_VALUE[flag.byteRep] = flag;
+        }
+    }
+
     SCTPOrderFlag(int byteRep) {
         this.byteRep = byteRep;
     }
@@ -79,10 +85,10 @@ public enum SCTPOrderFlag {
      * @return flagenum from bytes;
      */
     public static SCTPOrderFlag fromValue(int b) {
-        return Arrays.stream(values())
-                .filter(i->i.byteRep == b)
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("No flag combination has value: "+ b));
+        if (b < 0 || b >= BY_VALUE.length) {
+            throw new IllegalArgumentException("No flag combination has value: "+ b);
+        }
+        return BY_VALUE[b];
     }
 
     public boolean isOrdered() {
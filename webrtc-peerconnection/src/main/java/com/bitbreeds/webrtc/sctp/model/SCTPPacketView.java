@@ -0,0 +1,439 @@
+package com.bitbreeds.webrtc.sctp.model;
+
+import com.bitbreeds.webrtc.common.SignalUtil;
+import com.bitbreeds.webrtc.model.sctp.SkippedMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Read-only cursor over a received SCTP packet.
+ *
+ * Reads header and chunk fields directly from the receive buffer,
+ * so walking a packet does not allocate per chunk. The view is only valid
+ * while the underlying buffer is unchanged, so anything that must outlive
+ * the packet (payload, cookies) has to be copied out.
+ *
+ * <pre>
+ * SCTPPacketView packet = new SCTPPacketView(buf, offset, length);
+ * while (packet.nextChunk()) {
+ *     if (packet.getChunkType() == SCTPMessageType.DATA) { ... packet.getTsn() ... }
+ * }
+ * </pre>
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc4960#section-3">SCTP packet format</a>
+ */
+public class SCTPPacketView {
+
+    public final static int HEADER_LENGTH = 12;
+    private final static int CHUNK_HEADER_LENGTH = 4;
+
+    private byte[] buffer;
+    private int start;
+    private int end;
+
+    private int chunkOffset;
+    private int chunkLength;
+    private int nextOffset;
+    private SCTPMessageType chunkType;
+
+    public SCTPPacketView() {
+    }
+
+    public SCTPPacketView(byte[] buffer, int offset, int length) {
+        wrap(buffer, offset, length);
+    }
+
+    /**
+     * Point the view at a new packet, the cursor is placed before the first chunk.
+     * @param buffer buffer holding the packet
+     * @param offset start of packet
+     * @param length length of packet
+     * @return this view
+     */
+    public SCTPPacketView wrap(byte[] buffer, int offset, int length) {
+        if (offset < 0 || length < HEADER_LENGTH || offset + length > buffer.length) {
+            throw new IllegalArgumentException("Bytes given are to short to be an SCTP packet: "
+                    + " offset: " + offset + " length: " + length + " buffer: " + buffer.length);
+        }
+        this.buffer = buffer;
+        this.start = offset;
+        this.end = offset + length;
+        rewind();
+        return this;
+    }
+
+    /**
+     * Move the cursor back before the first chunk
+     */
+    public void rewind() {
+        this.chunkOffset = -1;
+        this.chunkLength = 0;
+        this.chunkType = null;
+        this.nextOffset = start + HEADER_LENGTH;
+    }
+
+    /**
+     * Advance to the next chunk.
+     * Like {@link SCTPMessage#fromBytes(byte[], int, int)} trailing bytes
+     * that can not hold a chunk end the packet.
+     *
+     * @return true if the cursor is on a chunk
+     */
+    public boolean nextChunk() {
+        if (end - nextOffset < CHUNK_HEADER_LENGTH) {
+            return false;
+        }
+        int length = readShort(nextOffset + 2);
+        if (length < CHUNK_HEADER_LENGTH) {
+            return false;
+        }
+        SCTPMessageType type = SCTPMessageType.fromByte(readByte(nextOffset));
+        if (nextOffset + length > end || length < CHUNK_HEADER_LENGTH + type.getFixedLength()) {
+            throw new IllegalArgumentException("Malformed " + type + " chunk at " + (nextOffset - start)
+                    + " length: " + length + " packet length: " + (end - start));
+        }
+        chunkOffset = nextOffset;
+        chunkLength = length;
+        chunkType = type;
+        nextOffset = nextOffset + SignalUtil.multipleOfFour(length);
+        return true;
+    }
+
+    public int getSourcePort() {
+        return readShort(start);
+    }
+
+    public int getDestinationPort() {
+        return readShort(start + 2);
+    }
+
+    public long getVerificationTag() {
+        return readUnsignedInt(start + 4);
+    }
+
+    public long getChecksum() {
+        return readUnsignedInt(start + 8);
+    }
+
+    /**
+     * @return checksum as computed by CRC32c, the field is stored least significant byte first
+     */
+    public long getChecksumValue() {
+        return Integer.reverseBytes(readInt(start + 8)) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * @return true if the checksum field matches the packet content
+     */
+    public boolean hasValidChecksum() {
+        return CRC32c.computeSctp(buffer, start, end - start) == getChecksumValue();
+    }
+
+    /**
+     * @return header as a model object
+     */
+    public SCTPHeader toHeader() {
+        return new SCTPHeader(getSourcePort(), getDestinationPort(), getVerificationTag(), getChecksum());
+    }
+
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    public int getPacketOffset() {
+        return start;
+    }
+
+    public int getPacketLength() {
+        return end - start;
+    }
+
+    public SCTPMessageType getChunkType() {
+        return chunkType;
+    }
+
+    /**
+     * @return raw chunk type, also for types not in {@link SCTPMessageType}
+     */
+    public int getChunkTypeValue() {
+        return readByte(chunkOffset);
+    }
+
+    public int getChunkFlags() {
+        return readByte(chunkOffset + 1);
+    }
+
+    /**
+     * @return flags of a DATA chunk
+     */
+    public SCTPOrderFlag getOrderFlag() {
+        return SCTPOrderFlag.fromValue(getChunkFlags() & 0x07);
+    }
+
+    /**
+     * @return chunk length without padding
+     */
+    public int getChunkLength() {
+        return chunkLength;
+    }
+
+    /**
+     * @return offset of chunk in buffer
+     */
+    public int getChunkOffset() {
+        return chunkOffset;
+    }
+
+    /**
+     * Materialize the current chunk, copies.
+     * @return chunk as a model object
+     */
+    public SCTPChunk toChunk() {
+        int to = Math.min(end, chunkOffset + SignalUtil.multipleOfFour(chunkLength));
+        return SCTPChunk.fromBytes(Arrays.copyOfRange(buffer, chunkOffset, to));
+    }
+
+    /*
+     * DATA
+     */
+    public long getTsn() {
+        return readUnsignedInt(chunkOffset + 4);
+    }
+
+    public int getStreamId() {
+        return readShort(chunkOffset + 8);
+    }
+
+    public int getStreamSequence() {
+        return readShort(chunkOffset + 10);
+    }
+
+    public int getProtocolId() {
+        return readInt(chunkOffset + 12);
+    }
+
+    public int getPayloadOffset() {
+        return chunkOffset + CHUNK_HEADER_LENGTH + chunkType.getFixedLength();
+    }
+
+    public int getPayloadLength() {
+        return chunkOffset + chunkLength - getPayloadOffset();
+    }
+
+    /**
+     * @return copy of the payload, user data for DATA chunks
+     */
+    public byte[] copyPayload() {
+        int from = getPayloadOffset();
+        return Arrays.copyOfRange(buffer, from, from + getPayloadLength());
+    }
+
+    /*
+     * I-DATA, TSN and stream identifier as in DATA
+     */
+    public long getMessageIdentifier() {
+        return readUnsignedInt(chunkOffset + 12);
+    }
+
+    /**
+     * @return payload protocol identifier on the first fragment, fragment sequence number on the rest
+     */
+    public long getProtocolIdOrFragmentSequence() {
+        return readUnsignedInt(chunkOffset + 16);
+    }
+
+    /*
+     * SACK and FORWARD TSN
+     */
+    public long getCumulativeTsnAck() {
+        return readUnsignedInt(chunkOffset + 4);
+    }
+
+    /**
+     * @return last message skipped on each stream listed in a FORWARD TSN or I-FORWARD-TSN,
+     * only ordered messages are listed in FORWARD TSN
+     */
+    public List<SkippedMessage> getSkippedMessages() {
+        boolean interleaved = getChunkTypeValue() == SCTPMessageType.I_FORWARD_TSN.getNr();
+        int entryLength = interleaved ? 8 : 4;
+        int count = Math.max(0, (getChunkLength() - CHUNK_HEADER_LENGTH - 4) / entryLength);
+        List<SkippedMessage> skipped = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int entry = chunkOffset + CHUNK_HEADER_LENGTH + 4 + entryLength * i;
+            skipped.add(interleaved
+                    ? new SkippedMessage(readShort(entry), (int) readUnsignedInt(entry + 4), (readShort(entry + 2) & 1) == 1)
+                    : new SkippedMessage(readShort(entry), readShort(entry + 2), false));
+        }
+        return skipped;
+    }
+
+    /**
+     * @return advertised receiver window of SACK, INIT and INIT ACK
+     */
+    public int getAdvertisedWindow() {
+        return readInt(chunkOffset + 8);
+    }
+
+    public int getGapBlockCount() {
+        return readShort(chunkOffset + 12);
+    }
+
+    public int getDuplicateCount() {
+        return readShort(chunkOffset + 14);
+    }
+
+    /**
+     * @param i gap block index
+     * @return start offset from the cumulative TSN ack
+     */
+    public int getGapStart(int i) {
+        return readShort(gapOffset(i));
+    }
+
+    /**
+     * @param i gap block index
+     * @return end offset from the cumulative TSN ack
+     */
+    public int getGapEnd(int i) {
+        return readShort(gapOffset(i) + 2);
+    }
+
+    public long getDuplicateTsn(int i) {
+        if (i < 0 || i >= getDuplicateCount()) {
+            throw new IndexOutOfBoundsException("Duplicate " + i + " of " + getDuplicateCount());
+        }
+        return readUnsignedInt(chunkOffset + 16 + 4 * getGapBlockCount() + 4 * i);
+    }
+
+    private int gapOffset(int i) {
+        if (i < 0 || i >= getGapBlockCount()) {
+            throw new IndexOutOfBoundsException("Gap block " + i + " of " + getGapBlockCount());
+        }
+        return chunkOffset + 16 + 4 * i;
+    }
+
+    /*
+     * INIT and INIT ACK
+     */
+    public long getInitiateTag() {
+        return readUnsignedInt(chunkOffset + 4);
+    }
+
+    public int getOutboundStreams() {
+        return readShort(chunkOffset + 12);
+    }
+
+    public int getInboundStreams() {
+        return readShort(chunkOffset + 14);
+    }
+
+    public long getInitialTsn() {
+        return readUnsignedInt(chunkOffset + 16);
+    }
+
+    /*
+     * Variable length parameters
+     */
+
+    /**
+     * @param type parameter to look for
+     * @return buffer offset of the parameter value, or -1 if not present
+     */
+    public int findParameter(SCTPAttributeType type) {
+        int chunkEnd = chunkOffset + chunkLength;
+        int pos = chunkOffset + CHUNK_HEADER_LENGTH + chunkType.getFixedLength();
+        while (chunkEnd - pos >= CHUNK_HEADER_LENGTH) {
+            int length = readShort(pos + 2);
+            if (length < CHUNK_HEADER_LENGTH || pos + length > chunkEnd) {
+                return -1;
+            }
+            if (readShort(pos) == type.getNr()) {
+                return pos + CHUNK_HEADER_LENGTH;
+            }
+            pos += SignalUtil.multipleOfFour(length);
+        }
+        return -1;
+    }
+
+    /**
+     * @param valueOffset offset returned by {@link #findParameter(SCTPAttributeType)}
+     * @return length of the parameter value
+     */
+    public int getParameterLength(int valueOffset) {
+        return readShort(valueOffset - 2) - CHUNK_HEADER_LENGTH;
+    }
+
+    /**
+     * @param type parameter to copy
+     * @return copy of the parameter value, or null if not present
+     */
+    public byte[] copyParameter(SCTPAttributeType type) {
+        int at = findParameter(type);
+        if (at < 0) {
+            return null;
+        }
+        return Arrays.copyOfRange(buffer, at, at + getParameterLength(at));
+    }
+
+    private int readByte(int pos) {
+        return buffer[pos] & 0xFF;
+    }
+
+    private int readShort(int pos) {
+        return (buffer[pos] & 0xFF) << 8 | (buffer[pos + 1] & 0xFF);
+    }
+
+    private int readInt(int pos) {
+        return (buffer[pos] & 0xFF) << 24
+                | (buffer[pos + 1] & 0xFF) << 16
+                | (buffer[pos + 2] & 0xFF) << 8
+                | (buffer[pos + 3] & 0xFF);
+    }
+
+    private long readUnsignedInt(int pos) {
+        return readInt(pos) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Lists header and chunk types without moving the cursor.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("SCTPPacketView{")
+                .append("srcPort=").append(getSourcePort())
+                .append(", dstPort=").append(getDestinationPort())
+                .append(", vtag=").append(getVerificationTag())
+                .append(", chunks=[");
+        int pos = start + HEADER_LENGTH;
+        String sep = "";
+        while (end - pos >= CHUNK_HEADER_LENGTH) {
+            int length = readShort(pos + 2);
+            if (length < CHUNK_HEADER_LENGTH) {
+                break;
+            }
+            sb.append(sep).append(SCTPMessageType.fromByte(readByte(pos))).append('(').append(length).append(')');
+            sep = ", ";
+            pos += SignalUtil.multipleOfFour(length);
+        }
+        return sb.append("]}").toString();
+    }
+
+}
@@ -0,0 +1,494 @@
+package com.bitbreeds.webrtc.sctp.model;
+
+import com.bitbreeds.webrtc.common.SignalUtil;
+import com.bitbreeds.webrtc.model.sctp.GapAck;
+import com.bitbreeds.webrtc.model.sctp.SkippedMessage;
+
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Single pass SCTP packet encoder, the write side of {@link SCTPPacketView}.
+ *
+ * Header and chunks are written once into a caller supplied buffer,
+ * chunk lengths and padding are filled in as chunks are added, and
+ * {@link #finish()} computes the CRC32c and patches it into the header in place.
+ *
+ * <pre>
+ * byte[] out = new byte[SCTPPacketWriter.HEADER_LENGTH + SCTPPacketWriter.sackLength(gaps, dups)];
+ * new SCTPPacketWriter(out, 0)
+ *         .header(src, dst, tag)
+ *         .sack(cumTsn, arwnd, gaps, duplicates)
+ *         .finish();
+ * </pre>
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc4960#section-6.8">CRC32c checksum</a>
+ */
+public class SCTPPacketWriter {
+
+    public final static int HEADER_LENGTH = 12;
+    public final static int CHUNK_HEADER_LENGTH = 4;
+    public final static int DATA_HEADER_LENGTH = CHUNK_HEADER_LENGTH + 12;
+    public final static int I_DATA_HEADER_LENGTH = CHUNK_HEADER_LENGTH + 16;
+
+    private byte[] buffer;
+    private int start;
+    private int position;
+    private boolean chunksOnly;
+
+    public SCTPPacketWriter() {
+    }
+
+    public SCTPPacketWriter(byte[] buffer, int offset) {
+        wrap(buffer, offset);
+    }
+
+    /**
+     * @param buffer buffer to write packet to
+     * @param offset where the packet starts
+     * @return this writer positioned at the header
+     */
+    public SCTPPacketWriter wrap(byte[] buffer, int offset) {
+        this.buffer = buffer;
+        this.start = offset;
+        this.position = offset;
+        this.chunksOnly = false;
+        return this;
+    }
+
+    /**
+     * Write chunks without a common header, to be bundled into a packet later.
+     *
+     * @param buffer buffer to write chunks to
+     * @param offset where the first chunk starts
+     * @return this writer positioned at the first chunk
+     */
+    public SCTPPacketWriter wrapChunks(byte[] buffer, int offset) {
+        wrap(buffer, offset);
+        this.chunksOnly = true;
+        return this;
+    }
+
+    /**
+     * Write common header with a zeroed checksum
+     */
+    public SCTPPacketWriter header(int sourcePort, int destinationPort, long verificationTag) {
+        if (position != start || chunksOnly) {
+            throw new IllegalStateException("Header must be written first");
+        }
+        ensure(HEADER_LENGTH);
+        writeShort(sourcePort);
+        writeShort(destinationPort);
+        writeInt(verificationTag);
+        writeInt(0);
+        return this;
+    }
+
+    public SCTPPacketWriter header(SCTPHeader header) {
+        return header(header.getSourcePort(), header.getDestinationPort(), header.getVerificationTag());
+    }
+
+    /**
+     * @param flag fragment and order flags
+     * @param tsn transmission sequence number
+     * @param streamId stream identifier
+     * @param ssn stream sequence number
+     * @param ppid payload protocol identifier
+     * @param payload buffer holding user data
+     * @param offset start of user data
+     * @param length length of user data
+     */
+    public SCTPPacketWriter data(
+            SCTPOrderFlag flag,
+            long tsn,
+            int streamId,
+            int ssn,
+            int ppid,
+            byte[] payload,
+            int offset,
+            int length) {
+        int chunk = beginChunk(SCTPMessageType.DATA, flag.getByteRep(), DATA_HEADER_LENGTH + length);
+        writeInt(tsn);
+        writeShort(streamId);
+        writeShort(ssn);
+        writeInt(ppid);
+        System.arraycopy(payload, offset, buffer, position, length);
+        position += length;
+        return endChunk(chunk);
+    }
+
+    /**
+     * @see <a href="https://tools.ietf.org/html/rfc8260#section-2.1">I-DATA</a>
+     *
+     * @param flag fragment and order flags
+     * @param tsn transmission sequence number
+     * @param streamId stream identifier
+     * @param mid message identifier
+     * @param ppidOrFsn payload protocol identifier on the first fragment, fragment sequence number on the rest
+     * @param payload buffer holding user data
+     * @param offset start of user data
+     * @param length length of user data
+     */
+    public SCTPPacketWriter iData(
+            SCTPOrderFlag flag,
+            long tsn,
+            int streamId,
+            long mid,
+            long ppidOrFsn,
+            byte[] payload,
+            int offset,
+            int length) {
+        int chunk = beginChunk(SCTPMessageType.I_DATA, flag.getByteRep(), I_DATA_HEADER_LENGTH + length);
+        writeInt(tsn);
+        writeShort(streamId);
+        writeShort(0);
+        writeInt(mid);
+        writeInt(ppidOrFsn);
+        System.arraycopy(payload, offset, buffer, position, length);
+        position += length;
+        return endChunk(chunk);
+    }
+
+    /**
+     * @param cumulativeTsn cumulative TSN ack
+     * @param arwnd advertised receiver window
+     * @param gaps gap ack blocks as offsets from the cumulative TSN
+     * @param duplicates duplicate TSNs received
+     */
+    public SCTPPacketWriter sack(long cumulativeTsn, int arwnd, List<GapAck> gaps, List<Long> duplicates) {
+        int chunk = beginChunk(SCTPMessageType.SELECTIVE_ACK, 0, sackLength(gaps, duplicates));
+        writeInt(cumulativeTsn);
+        writeInt(arwnd);
+        writeShort(gaps.size());
+        writeShort(duplicates.size());
+        for (GapAck gap : gaps) {
+            writeShort((int) gap.start);
+            writeShort((int) gap.end);
+        }
+        for (Long duplicate : duplicates) {
+            writeInt(duplicate);
+        }
+        return endChunk(chunk);
+    }
+
+    /**
+     * @param newCumulativeTsn advanced ack point
+     */
+    public SCTPPacketWriter forwardTsn(long newCumulativeTsn) {
+        return forwardTsn(SCTPMessageType.FORWARD_TSN, newCumulativeTsn);
+    }
+
+    /**
+     * Skipped streams are not listed, the receiver only moves its cumulative TSN
+     *
+     * @param type FORWARD_TSN or I_FORWARD_TSN
+     * @param newCumulativeTsn advanced ack point
+     */
+    public SCTPPacketWriter forwardTsn(SCTPMessageType type, long newCumulativeTsn) {
+        return forwardTsn(type, newCumulativeTsn, Collections.emptyList());
+    }
+
+    /**
+     * FORWARD TSN lists the stream and SSN of skipped ordered messages,
+     * I-FORWARD-TSN the stream, U flag and MID of all skipped messages.
+     *
+     * @see <a href="https://tools.ietf.org/html/rfc3758#section-3.2">FORWARD TSN</a>
+     * @see <a href="https://tools.ietf.org/html/rfc8260#section-2.3.1">I-FORWARD-TSN</a>
+     *
+     * @param type FORWARD_TSN or I_FORWARD_TSN
+     * @param newCumulativeTsn advanced ack point
+     * @param skipped last message skipped on each stream
+     */
+    public SCTPPacketWriter forwardTsn(SCTPMessageType type, long newCumulativeTsn, List<SkippedMessage> skipped) {
+        boolean interleaved = SCTPMessageType.I_FORWARD_TSN.equals(type);
+        int chunk = beginChunk(type, 0, forwardTsnLength(type, skipped));
+        writeInt(newCumulativeTsn);
+        for (SkippedMessage message : skipped) {
+            if (interleaved) {
+                writeShort(message.getStreamId());
+                writeShort(message.isUnordered() ? 1 : 0);
+                writeInt(message.getStreamSequence() & 0xFFFFFFFFL);
+            } else if (!message.isUnordered()) {
+                writeShort(message.getStreamId());
+                writeShort(message.getStreamSequence());
+            }
+        }
+        return endChunk(chunk);
+    }
+
+    /**
+     * @param type HEARTBEAT or HEARTBEAT_ACK
+     * @param info heartbeat information, echoed by the peer
+     */
+    public SCTPPacketWriter heartBeat(SCTPMessageType type, byte[] info) {
+        int chunk = beginChunk(type, 0, CHUNK_HEADER_LENGTH + parameterLength(info.length));
+        parameter(SCTPAttributeType.HERTBEAT_INFO, info, 0, info.length);
+        return endChunk(chunk);
+    }
+
+    /**
+     * @param cumulativeTsn last TSN received in sequence
+     */
+    public SCTPPacketWriter shutdown(long cumulativeTsn) {
+        int chunk = beginChunk(SCTPMessageType.SHUTDOWN, 0, CHUNK_HEADER_LENGTH + 4);
+        writeInt(cumulativeTsn);
+        return endChunk(chunk);
+    }
+
+    /**
+     * Chunk without a value, like SHUTDOWN ACK, SHUTDOWN COMPLETE, COOKIE ACK and ABORT.
+     * @param type chunk type
+     * @param flags chunk flags
+     */
+    public SCTPPacketWriter chunk(SCTPMessageType type, int flags) {
+        int chunk = beginChunk(type, flags, CHUNK_HEADER_LENGTH);
+        return endChunk(chunk);
+    }
+
+    /**
+     * Copy a chunk that is already encoded, padding it to a multiple of four.
+     * @param chunk buffer holding the chunk
+     * @param offset start of the chunk
+     * @param length length of the chunk
+     */
+    public SCTPPacketWriter encodedChunk(byte[] chunk, int offset, int length) {
+        int at = beginChunk(length);
+        System.arraycopy(chunk, offset, buffer, position, length);
+        position += length;
+        return endChunk(at);
+    }
+
+    /**
+     * Write a chunk built as a model object.
+     * The length field is taken from the chunk.
+     * @param chunk chunk to write
+     */
+    public SCTPPacketWriter chunk(SCTPChunk chunk) {
+        int size = encodedLength(chunk);
+        ensure(size);
+        int end = beginChunk(chunk.getType(), chunk.getFlags().getByteRep(), chunk.getLength()) + size;
+        for (SCTPFixedAttributeType type : chunk.getType().getFixedTypes()) {
+            byte[] value = chunk.getFixed().get(type).getData();
+            System.arraycopy(value, 0, buffer, position, value.length);
+            position += value.length;
+        }
+        for (SCTPAttribute attribute : chunk.getVariable().values()) {
+            parameter(attribute.getType(), attribute.getData(), 0, attribute.getData().length);
+        }
+        byte[] rest = chunk.getRest();
+        System.arraycopy(rest, 0, buffer, position, rest.length);
+        position += rest.length;
+        pad(end);
+        return this;
+    }
+
+    /**
+     * Compute the CRC32c over the packet and write it into the header.
+     * @return length of the packet
+     */
+    public int finish() {
+        return finish(false);
+    }
+
+    /**
+     * @param zeroChecksum leave the checksum as zero, only allowed when negotiated
+     * @see <a href="https://tools.ietf.org/html/rfc9653">RFC 9653</a>
+     * @return length of the packet
+     */
+    public int finish(boolean zeroChecksum) {
+        int length = position - start;
+        if (chunksOnly || length < HEADER_LENGTH) {
+            throw new IllegalStateException("No header written");
+        }
+        long sum = zeroChecksum ? 0 : CRC32c.compute(buffer, start, length);
+        /*
+         * The checksum is stored in network order of the reflected CRC,
+         * which means the least significant byte goes first.
+         */
+        buffer[start + 8] = (byte) sum;
+        buffer[start + 9] = (byte) (sum >>> 8);
+        buffer[start + 10] = (byte) (sum >>> 16);
+        buffer[start + 11] = (byte) (sum >>> 24);
+        return length;
+    }
+
+    /**
+     * @return bytes written since the start of the packet
+     */
+    public int length() {
+        return position - start;
+    }
+
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Encode a model message into an array of exactly the right size.
+     * @param message message to encode, the header checksum is ignored
+     * @return packet with checksum
+     */
+    public static byte[] encode(SCTPMessage message) {
+        return encode(message, false);
+    }
+
+    /**
+     * @param message message to encode, the header checksum is ignored
+     * @param zeroChecksum leave the checksum as zero
+     * @return encoded packet
+     */
+    public static byte[] encode(SCTPMessage message, boolean zeroChecksum) {
+        int length = HEADER_LENGTH;
+        for (SCTPChunk chunk : message.getChunks()) {
+            length += encodedLength(chunk);
+        }
+        byte[] out = new byte[length];
+        SCTPPacketWriter writer = new SCTPPacketWriter(out, 0).header(message.getHeader());
+        for (SCTPChunk chunk : message.getChunks()) {
+            writer.chunk(chunk);
+        }
+        writer.finish(zeroChecksum);
+        return out;
+    }
+
+    /**
+     * @param chunk model chunk
+     * @return the chunk encoded on its own, for bundling
+     */
+    public static byte[] encodeChunk(SCTPChunk chunk) {
+        byte[] out = new byte[encodedLength(chunk)];
+        new SCTPPacketWriter().wrapChunks(out, 0).chunk(chunk);
+        return out;
+    }
+
+    /**
+     * @param payloadLength user data length
+     * @return padded size of a DATA chunk
+     */
+    public static int dataLength(int payloadLength) {
+        return SignalUtil.multipleOfFour(DATA_HEADER_LENGTH + payloadLength);
+    }
+
+    /**
+     * @param payloadLength user data length
+     * @return padded size of an I-DATA chunk
+     */
+    public static int iDataLength(int payloadLength) {
+        return SignalUtil.multipleOfFour(I_DATA_HEADER_LENGTH + payloadLength);
+    }
+
+    public static int sackLength(List<GapAck> gaps, List<Long> duplicates) {
+        return CHUNK_HEADER_LENGTH + 12 + 4 * gaps.size() + 4 * duplicates.size();
+    }
+
+    /**
+     * @param type FORWARD_TSN or I_FORWARD_TSN
+     * @param skipped last message skipped on each stream, unordered ones are not listed in FORWARD TSN
+     * @return size of the chunk
+     */
+    public static int forwardTsnLength(SCTPMessageType type, List<SkippedMessage> skipped) {
+        if (SCTPMessageType.I_FORWARD_TSN.equals(type)) {
+            return CHUNK_HEADER_LENGTH + 4 + 8 * skipped.size();
+        }
+        int ordered = (int) skipped.stream().filter(i -> !i.isUnordered()).count();
+        return CHUNK_HEADER_LENGTH + 4 + 4 * ordered;
+    }
+
+    public static int heartBeatLength(int infoLength) {
+        return CHUNK_HEADER_LENGTH + parameterLength(infoLength);
+    }
+
+    /**
+     * @param chunk model chunk
+     * @return padded size the chunk is encoded to
+     */
+    public static int encodedLength(SCTPChunk chunk) {
+        int length = CHUNK_HEADER_LENGTH + chunk.getType().getFixedLength();
+        for (SCTPAttribute attribute : chunk.getVariable().values()) {
+            length += parameterLength(attribute.getData().length);
+        }
+        return SignalUtil.multipleOfFour(length + chunk.getRest().length);
+    }
+
+    private static int parameterLength(int valueLength) {
+        return SignalUtil.multipleOfFour(4 + valueLength);
+    }
+
+    private void parameter(SCTPAttributeType type, byte[] value, int offset, int length) {
+        writeShort(type.getNr());
+        writeShort(4 + length);
+        System.arraycopy(value, offset, buffer, position, length);
+        position += length;
+        pad(start + SignalUtil.multipleOfFour(position - start));
+    }
+
+    /**
+     * @return offset of the chunk
+     */
+    private int beginChunk(SCTPMessageType type, int flags, int length) {
+        int at = beginChunk(length);
+        buffer[position++] = (byte) type.getNr();
+        buffer[position++] = (byte) flags;
+        writeShort(length);
+        return at;
+    }
+
+    /**
+     * @return offset of the chunk
+     */
+    private int beginChunk(int length) {
+        if (position == start && !chunksOnly) {
+            throw new IllegalStateException("Header must be written before chunks");
+        }
+        ensure(SignalUtil.multipleOfFour(length));
+        return position;
+    }
+
+    private SCTPPacketWriter endChunk(int chunk) {
+        int length = position - chunk;
+        pad(chunk + SignalUtil.multipleOfFour(length));
+        return this;
+    }
+
+    private void pad(int to) {
+        while (position < to) {
+            buffer[position++] = 0;
+        }
+    }
+
+    private void ensure(int length) {
+        if (position + length > buffer.length) {
+            throw new IllegalArgumentException("Buffer of size " + buffer.length + " can not hold "
+                    + length + " more bytes at " + position);
+        }
+    }
+
+    private void writeShort(int value) {
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeInt(long value) {
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+}
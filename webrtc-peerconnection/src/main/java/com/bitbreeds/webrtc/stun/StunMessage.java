@@ -3,6 +3,7 @@ package com.bitbreeds.webrtc.stun;
 import com.bitbreeds.webrtc.common.SignalUtil;
 import org.apache.commons.codec.binary.Hex;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.zip.CRC32;
 
@@ -103,6 +104,35 @@ public class StunMessage {
         return new StunMessage(header, attributeMap, true, true, null, null);
     }
 
+    /**
+     * Find the local part of the USERNAME attribute (localUfrag:remoteUfrag)
+     * without parsing the whole message.
+     *
+     * @param data buffer holding a STUN message
+     * @param length length of the message in the buffer
+     * @return the ufrag the request was sent to, or null if there is no USERNAME
+     */
+    public static String findLocalUfrag(byte[] data, int length) {
+        int start = HEADER_LENGTH_BYTES;
+        while (start + 4 <= length) {
+            int type = ((data[start] & 0xFF) << 8) | (data[start + 1] & 0xFF);
+            int lgt = ((data[start + 2] & 0xFF) << 8) | (data[start + 3] & 0xFF);
+            start += 4;
+            if (start + lgt > length) {
+                return null;
+            }
+            if (type == StunAttributeTypeEnum.USERNAME.getNr()) {
+                int end = start;
+                while (end < start + lgt && data[end] != ':') {
+                    end++;
+                }
+                return new String(data, start, end - start, StandardCharsets.US_ASCII).trim();
+            }
+            start = SignalUtil.multipleOfFour(start + lgt);
+        }
+        return null;
+    }
+
     public void validate(String pass,byte[] data) {
         StunAttribute fingerprint = this.attributeSet.remove(StunAttributeTypeEnum.FINGERPRINT);
         String finger = new String(fingerprint.getData());
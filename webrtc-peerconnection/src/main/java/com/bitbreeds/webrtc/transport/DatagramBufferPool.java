@@ -0,0 +1,97 @@
+package com.bitbreeds.webrtc.transport;
+
+import java.net.SocketAddress;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Fixed size buffers for datagrams that have to be queued between threads,
+ * so the receive path does not allocate an array per datagram.
+ *
+ * Buffers are allocated on demand, and up to capacity of them are kept for reuse.
+ * A burst larger than that allocates, and the extra buffers are left to the GC.
+ *
+ * The free list is an array backed queue, which unlike linked queues does
+ * not allocate a node on every release.
+ */
+public class DatagramBufferPool {
+
+    private final int bufferSize;
+
+    private final BlockingQueue<PooledDatagram> free;
+
+    private final AtomicLong allocated = new AtomicLong(0);
+
+    /**
+     * @param bufferSize size of each buffer, the largest datagram that can be copied in
+     * @param capacity max buffers kept for reuse
+     */
+    public DatagramBufferPool(int bufferSize, int capacity) {
+        if (bufferSize <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Buffer size and capacity must be positive, was "
+                    + bufferSize + " and " + capacity);
+        }
+        this.bufferSize = bufferSize;
+        this.free = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * @param data buffer holding the datagram, may be reused after this returns
+     * @param offset start of datagram
+     * @param length length of datagram
+     * @param from sender, may be null
+     * @return pooled copy of the datagram
+     */
+    public PooledDatagram copyOf(byte[] data, int offset, int length, SocketAddress from) {
+        if (length > bufferSize) {
+            throw new IllegalArgumentException("Datagram of length " + length
+                    + " does not fit buffer of size " + bufferSize);
+        }
+        PooledDatagram datagram = free.poll();
+        if (datagram == null) {
+            allocated.incrementAndGet();
+            datagram = new PooledDatagram(this, bufferSize);
+        }
+        datagram.fill(data, offset, length, from);
+        return datagram;
+    }
+
+    void release(PooledDatagram datagram) {
+        free.offer(datagram);
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * @return buffers currently free for reuse
+     */
+    public int getFreeCount() {
+        return free.size();
+    }
+
+    /**
+     * @return buffers allocated since the pool was created
+     */
+    public long getAllocatedCount() {
+        return allocated.get();
+    }
+}
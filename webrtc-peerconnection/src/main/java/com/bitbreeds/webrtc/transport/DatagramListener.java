@@ -0,0 +1,37 @@
+package com.bitbreeds.webrtc.transport;
+
+import java.net.SocketAddress;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Receives datagrams from an event driven {@link UdpEndpoint}.
+ *
+ * Called on the event loop owning the endpoint, so calls for one endpoint never overlap.
+ * The implementation must not block, since other connections share the loop.
+ */
+@FunctionalInterface
+public interface DatagramListener {
+
+    /**
+     * @param data datagram, only valid during the call since the buffer is reused, copy what must be kept
+     * @param length length of the datagram
+     * @param from remote address
+     */
+    void onDatagram(byte[] data, int length, SocketAddress from);
+
+}
@@ -0,0 +1,97 @@
+package com.bitbreeds.webrtc.transport;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.SocketAddress;
+import java.net.SocketException;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * A connection owning its own ephemeral UDP socket.
+ */
+public class DedicatedUdpEndpoint implements UdpEndpoint {
+
+    private final static int SOCKET_BUFFER_SIZE = 200000;
+
+    private final DatagramSocket socket;
+
+    private int currentTimeout = -1;
+
+    public DedicatedUdpEndpoint(DatagramSocket socket) {
+        this.socket = socket;
+    }
+
+    /**
+     * @return endpoint bound to an ephemeral port
+     */
+    public static DedicatedUdpEndpoint open() {
+        try {
+            DatagramSocket socket = new DatagramSocket();
+            socket.setReceiveBufferSize(SOCKET_BUFFER_SIZE);
+            socket.setSendBufferSize(SOCKET_BUFFER_SIZE);
+            return new DedicatedUdpEndpoint(socket);
+        } catch (SocketException e) {
+            throw new IllegalStateException("Failed to open socket:", e);
+        }
+    }
+
+    @Override
+    public void receive(DatagramPacket packet, int waitMillis) throws IOException {
+        if (waitMillis != currentTimeout) {
+            socket.setSoTimeout(waitMillis);
+            currentTimeout = waitMillis;
+        }
+        socket.receive(packet);
+    }
+
+    @Override
+    public void send(DatagramPacket packet) throws IOException {
+        socket.send(packet);
+    }
+
+    @Override
+    public void connect(SocketAddress remote) throws IOException {
+        socket.connect(remote);
+    }
+
+    @Override
+    public boolean isConnected() {
+        return socket.isConnected();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return socket.isClosed();
+    }
+
+    @Override
+    public int getLocalPort() {
+        return socket.getLocalPort();
+    }
+
+    @Override
+    public SocketAddress getLocalSocketAddress() {
+        return socket.getLocalSocketAddress();
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+    }
+}
@@ -0,0 +1,153 @@
+package com.bitbreeds.webrtc.transport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * A single thread running a {@link Selector} over many datagram channels,
+ * and tasks submitted by other threads.
+ *
+ * Everything for a connection registered here runs on this thread,
+ * so connection state touched only from the loop needs no locking.
+ */
+public class EventLoop implements Executor {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventLoop.class);
+
+    private final static int RECEIVE_BUFFER_SIZE = 4000;
+
+    private final Selector selector;
+
+    private final Thread thread;
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean wakeupPending = new AtomicBoolean(false);
+
+    /**
+     * Channels read into this direct buffer, which is copied once into the array handed to listeners.
+     * Both are reused for every datagram on the loop.
+     */
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(RECEIVE_BUFFER_SIZE);
+
+    private final byte[] readArray = new byte[RECEIVE_BUFFER_SIZE];
+
+    private volatile boolean running = true;
+
+    EventLoop(String name) {
+        try {
+            this.selector = Selector.open();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to open selector", e);
+        }
+        this.thread = new Thread(this::loop, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    void register(DatagramChannel channel, ReactorUdpEndpoint endpoint) {
+        execute(() -> {
+            try {
+                channel.register(selector, SelectionKey.OP_READ, endpoint);
+            } catch (ClosedChannelException e) {
+                logger.debug("Channel closed before registration");
+            }
+        });
+    }
+
+    /**
+     * Run the task on the loop thread
+     */
+    @Override
+    public void execute(Runnable task) {
+        tasks.add(task);
+        if (!inEventLoop() && wakeupPending.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    public boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    private void loop() {
+        while (running) {
+            try {
+                selector.select();
+                wakeupPending.set(false);
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isReadable()) {
+                        ((ReactorUdpEndpoint) key.attachment()).read(readBuffer, readArray);
+                    }
+                }
+                runTasks();
+            } catch (IOException | RuntimeException e) {
+                logger.error("Event loop {} failed to process events", thread.getName(), e);
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close selector", e);
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.error("Task failed on event loop {}", thread.getName(), e);
+            }
+        }
+    }
+
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    public String getName() {
+        return thread.getName();
+    }
+
+    /**
+     * @return number of channels registered with this loop
+     */
+    public int getChannelCount() {
+        return selector.isOpen() ? selector.keys().size() : 0;
+    }
+}
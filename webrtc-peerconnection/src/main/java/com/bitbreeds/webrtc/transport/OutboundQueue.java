@@ -0,0 +1,239 @@
+package com.bitbreeds.webrtc.transport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Packets waiting to be written to the wire for one connection.
+ *
+ * Any thread may offer packets without taking a lock. One writer at a time drains the queue,
+ * so packets go out in the order they were queued. Without an executor the writer is the
+ * offering thread that finds no other writer active, other threads just queue and return.
+ * With an executor, typically the connections event loop, drains run there in batches,
+ * so one busy connection does not hold up the rest of the loop.
+ *
+ * The byte capacity is a signal, not a hard limit. Control packets are always accepted,
+ * and {@link #remainingCapacity()} tells the sender how much more DATA it should release.
+ */
+public class OutboundQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboundQueue.class);
+
+    /**
+     * Max packets written per drain on an executor before yielding to other tasks
+     */
+    final static int BATCH_SIZE = 64;
+
+    /**
+     * Writes one packet, only ever called by the current writer
+     */
+    @FunctionalInterface
+    public interface PacketWriter {
+        void write(byte[] packet) throws IOException;
+    }
+
+    private final Queue<byte[]> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger queuedBytes = new AtomicInteger(0);
+
+    private final AtomicBoolean writing = new AtomicBoolean(false);
+
+    private final AtomicLong written = new AtomicLong(0);
+
+    private final AtomicLong drains = new AtomicLong(0);
+
+    private final PacketWriter writer;
+
+    private final Executor executor;
+
+    private final Consumer<Exception> onFailure;
+
+    private final int capacity;
+
+    private final Runnable drainTask = this::drainOnExecutor;
+
+    private volatile boolean closing = false;
+
+    private volatile boolean closed = false;
+
+    /**
+     * @param writer writes packets to the wire
+     * @param executor runs the writer, null to write on the offering thread
+     * @param capacity bytes queued before {@link #remainingCapacity()} reaches 0
+     * @param onFailure called once if writing fails, the queue is closed after
+     */
+    public OutboundQueue(PacketWriter writer, Executor executor, int capacity, Consumer<Exception> onFailure) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be above 0, is " + capacity);
+        }
+        this.writer = writer;
+        this.executor = executor;
+        this.capacity = capacity;
+        this.onFailure = onFailure;
+    }
+
+    /**
+     * Queue a packet and make sure a writer drains it.
+     *
+     * @param packet packet to send, must not be modified after this call
+     */
+    public void offer(byte[] packet) {
+        if (closing) {
+            logger.debug("Queue closed, dropping packet of length {}", packet.length);
+            return;
+        }
+        queuedBytes.addAndGet(packet.length);
+        queue.offer(packet);
+        if (writing.compareAndSet(false, true)) {
+            if (executor == null) {
+                drainInline();
+            } else {
+                executor.execute(drainTask);
+            }
+        }
+    }
+
+    /**
+     * Drain until empty on the offering thread. The writer flag is released before
+     * the final checks, so a packet queued or a close requested meanwhile is either
+     * seen here or handled by the thread that made it.
+     */
+    private void drainInline() {
+        do {
+            try {
+                drain(Integer.MAX_VALUE);
+            } finally {
+                writing.set(false);
+            }
+        } while (!queue.isEmpty() && writing.compareAndSet(false, true));
+        if (closing) {
+            finishClose();
+        }
+    }
+
+    private void drainOnExecutor() {
+        try {
+            drain(closing ? Integer.MAX_VALUE : BATCH_SIZE);
+        } finally {
+            writing.set(false);
+        }
+        if (closing) {
+            finishClose();
+        } else if (!queue.isEmpty() && writing.compareAndSet(false, true)) {
+            executor.execute(drainTask);
+        }
+    }
+
+    /**
+     * Only called while holding the writer flag
+     */
+    private void drain(int max) {
+        int count = 0;
+        byte[] packet;
+        while (count < max && !closed && (packet = queue.poll()) != null) {
+            queuedBytes.addAndGet(-packet.length);
+            try {
+                writer.write(packet);
+            } catch (IOException | RuntimeException e) {
+                fail(e);
+                return;
+            }
+            count++;
+        }
+        if (count > 0) {
+            drains.incrementAndGet();
+            written.addAndGet(count);
+        }
+    }
+
+    private void fail(Exception e) {
+        if (!closed) {
+            closing = true;
+            finishClose();
+            onFailure.accept(e);
+        }
+    }
+
+    private void finishClose() {
+        closed = true;
+        queue.clear();
+        queuedBytes.set(0);
+    }
+
+    /**
+     * Stop taking packets. What is already queued is written first, here if no writer
+     * is active, otherwise by the active or scheduled writer.
+     *
+     * @return true if everything queued was written before returning
+     */
+    public boolean close() {
+        if (closing) {
+            return true;
+        }
+        closing = true;
+        if (writing.compareAndSet(false, true)) {
+            try {
+                drain(Integer.MAX_VALUE);
+            } finally {
+                writing.set(false);
+            }
+            finishClose();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return bytes that can be queued before the queue counts as full, 0 when full
+     */
+    public int remainingCapacity() {
+        return Math.max(0, capacity - queuedBytes.get());
+    }
+
+    public int getQueuedBytes() {
+        return queuedBytes.get();
+    }
+
+    /**
+     * @return packets written since creation
+     */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * @return drains that wrote at least one packet, written count / drains gives the average batch
+     */
+    public long getDrainCount() {
+        return drains.get();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,79 @@
+package com.bitbreeds.webrtc.transport;
+
+import java.net.SocketAddress;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * A datagram copied into a buffer from a {@link DatagramBufferPool}.
+ *
+ * Whoever takes it out of a queue must {@link #release()} it when done,
+ * after that the buffer is reused for another datagram.
+ */
+public final class PooledDatagram {
+
+    private final DatagramBufferPool pool;
+
+    private final byte[] data;
+
+    private int length;
+
+    private SocketAddress from;
+
+    PooledDatagram(DatagramBufferPool pool, int size) {
+        this.pool = pool;
+        this.data = new byte[size];
+    }
+
+    /**
+     * @return an empty datagram not belonging to any pool, for use as a queue marker
+     */
+    public static PooledDatagram empty() {
+        return new PooledDatagram(null, 0);
+    }
+
+    void fill(byte[] source, int offset, int length, SocketAddress from) {
+        System.arraycopy(source, offset, data, 0, length);
+        this.length = length;
+        this.from = from;
+    }
+
+    /**
+     * @return buffer, valid from 0 to {@link #getLength()}
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public SocketAddress getFrom() {
+        return from;
+    }
+
+    /**
+     * Return the buffer to its pool
+     */
+    public void release() {
+        if (pool != null) {
+            from = null;
+            pool.release(this);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.bitbreeds.webrtc.transport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * A non blocking {@link DatagramChannel} owned by one connection and
+ * read by an {@link EventLoop}.
+ */
+class ReactorUdpEndpoint implements UdpEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactorUdpEndpoint.class);
+
+    /**
+     * Max datagrams read per wakeup, so a busy channel does not starve the others on the loop
+     */
+    private final static int MAX_READS_PER_WAKEUP = 16;
+
+    private final DatagramChannel channel;
+
+    private final EventLoop loop;
+
+    private final AtomicLong sendDropped = new AtomicLong(0);
+
+    private volatile DatagramListener listener;
+
+    private volatile SocketAddress remote;
+
+    ReactorUdpEndpoint(DatagramChannel channel, EventLoop loop) {
+        this.channel = channel;
+        this.loop = loop;
+    }
+
+    /**
+     * Called on the event loop when the channel is readable
+     *
+     * @param buffer loop buffer to read into
+     * @param array loop array handed to the listener, reused for the next datagram
+     */
+    void read(ByteBuffer buffer, byte[] array) throws IOException {
+        for (int i = 0; i < MAX_READS_PER_WAKEUP; i++) {
+            buffer.clear();
+            SocketAddress from = channel.receive(buffer);
+            if (from == null) {
+                return;
+            }
+            buffer.flip();
+            int length = buffer.remaining();
+            buffer.get(array, 0, length);
+            try {
+                listener.onDatagram(array, length, from);
+            } catch (RuntimeException e) {
+                logger.error("Listener failed to handle datagram from {}", from, e);
+            }
+        }
+    }
+
+    @Override
+    public boolean isEventDriven() {
+        return true;
+    }
+
+    @Override
+    public void listen(DatagramListener listener) {
+        this.listener = listener;
+        loop.register(channel, this);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        loop.execute(task);
+    }
+
+    @Override
+    public void receive(DatagramPacket packet, int waitMillis) {
+        throw new UnsupportedOperationException("Reactor endpoints deliver datagrams through listen");
+    }
+
+    @Override
+    public void send(DatagramPacket packet) throws IOException {
+        SocketAddress target = packet.getAddress() != null ? packet.getSocketAddress() : remote;
+        if (target == null) {
+            throw new SocketException("No destination for unconnected endpoint");
+        }
+        int sent = channel.send(ByteBuffer.wrap(packet.getData(), packet.getOffset(), packet.getLength()), target);
+        if (sent == 0) {
+            long count = sendDropped.incrementAndGet();
+            logger.debug("Send buffer full on port {}, dropped {} datagrams", getLocalPort(), count);
+        }
+    }
+
+    @Override
+    public void connect(SocketAddress remote) throws IOException {
+        channel.connect(remote);
+        this.remote = remote;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return channel.isConnected();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return !channel.isOpen();
+    }
+
+    @Override
+    public int getLocalPort() {
+        return channel.socket().getLocalPort();
+    }
+
+    @Override
+    public SocketAddress getLocalSocketAddress() {
+        return channel.socket().getLocalSocketAddress();
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close channel", e);
+        }
+    }
+
+    long getSendDroppedCount() {
+        return sendDropped.get();
+    }
+}
@@ -0,0 +1,252 @@
+package com.bitbreeds.webrtc.transport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.DatagramPacket;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * The part of a {@link SharedUdpPort} belonging to one connection.
+ *
+ * Routed datagrams are queued here in pooled buffers until the connection reads them.
+ * If the connection falls behind the queue fills, and new datagrams are dropped,
+ * which is what a full socket receive buffer would do.
+ *
+ * When the port is served by a {@link UdpReactor} the endpoint is event driven,
+ * and queued datagrams are handed to the listener on the endpoints event loop.
+ * One drain task is scheduled for however many datagrams arrive before it runs.
+ */
+class SharedUdpEndpoint implements UdpEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedUdpEndpoint.class);
+
+    private final static int QUEUE_SIZE = 1000;
+
+    private final static PooledDatagram CLOSED_MARKER = PooledDatagram.empty();
+
+    private final SharedUdpPort port;
+
+    private final String localUfrag;
+
+    private final EventLoop loop;
+
+    private volatile DatagramListener listener;
+
+    private final BlockingQueue<PooledDatagram> inbound = new ArrayBlockingQueue<>(QUEUE_SIZE);
+
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+
+    private final Runnable drainTask = this::drain;
+
+    private final AtomicLong dropped = new AtomicLong(0);
+
+    private volatile SocketAddress remote;
+
+    private volatile boolean closed = false;
+
+    SharedUdpEndpoint(SharedUdpPort port, String localUfrag, EventLoop loop) {
+        this.port = port;
+        this.localUfrag = localUfrag;
+        this.loop = loop;
+    }
+
+    /**
+     * @param datagram pooled datagram, released by the endpoint if queued
+     * @return false if the datagram was not queued
+     */
+    boolean offer(PooledDatagram datagram) {
+        if (closed) {
+            return false;
+        }
+        boolean queued = inbound.offer(datagram);
+        if (!queued) {
+            long count = dropped.incrementAndGet();
+            logger.debug("Receive queue full for ufrag {}, dropped {} datagrams", localUfrag, count);
+        } else if (listener != null) {
+            scheduleDrain();
+        }
+        return queued;
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            loop.execute(drainTask);
+        }
+    }
+
+    /**
+     * Hand everything queued to the listener, on the event loop.
+     * The flag is cleared before polling, so a datagram queued meanwhile is either
+     * seen here or schedules a new drain.
+     */
+    private void drain() {
+        drainScheduled.set(false);
+        DatagramListener current = listener;
+        PooledDatagram next;
+        while ((next = inbound.poll()) != null && next != CLOSED_MARKER) {
+            try {
+                deliver(current, next);
+            } finally {
+                next.release();
+            }
+        }
+    }
+
+    private void deliver(DatagramListener current, PooledDatagram datagram) {
+        SocketAddress connected = remote;
+        SocketAddress from = datagram.getFrom();
+        if (closed || (connected != null && !connected.equals(from))) {
+            return;
+        }
+        try {
+            current.onDatagram(datagram.getData(), datagram.getLength(), from);
+        } catch (RuntimeException e) {
+            logger.error("Listener failed to handle datagram from {}", from, e);
+        }
+    }
+
+    @Override
+    public boolean isEventDriven() {
+        return loop != null;
+    }
+
+    @Override
+    public void listen(DatagramListener listener) {
+        if (loop == null) {
+            throw new UnsupportedOperationException("Shared port is not served by a reactor");
+        }
+        this.listener = listener;
+        scheduleDrain();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (loop == null) {
+            throw new UnsupportedOperationException("Shared port is not served by a reactor");
+        }
+        loop.execute(task);
+    }
+
+    @Override
+    public void receive(DatagramPacket packet, int waitMillis) throws IOException {
+        while (true) {
+            PooledDatagram next = take(waitMillis);
+            if (closed || next == CLOSED_MARKER) {
+                throw new SocketException("Socket closed");
+            }
+            if (next == null) {
+                throw new SocketTimeoutException("Receive timed out");
+            }
+            try {
+                SocketAddress connected = remote;
+                if (connected != null && !connected.equals(next.getFrom())) {
+                    continue; //Connected sockets only accept datagrams from the connected address
+                }
+                int length = Math.min(next.getLength(), packet.getLength());
+                System.arraycopy(next.getData(), 0, packet.getData(), packet.getOffset(), length);
+                packet.setLength(length);
+                packet.setSocketAddress(next.getFrom());
+                return;
+            } finally {
+                next.release();
+            }
+        }
+    }
+
+    private PooledDatagram take(int waitMillis) throws InterruptedIOException {
+        try {
+            return waitMillis == 0 ? inbound.take() : inbound.poll(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while receiving");
+        }
+    }
+
+    @Override
+    public void send(DatagramPacket packet) throws IOException {
+        if (closed) {
+            throw new SocketException("Socket closed");
+        }
+        if (packet.getAddress() == null) {
+            SocketAddress connected = remote;
+            if (connected == null) {
+                throw new SocketException("No destination for unconnected endpoint");
+            }
+            packet.setSocketAddress(connected);
+        }
+        port.send(packet);
+    }
+
+    @Override
+    public void connect(SocketAddress remote) {
+        this.remote = remote;
+        port.bind(remote, this);
+    }
+
+    @Override
+    public boolean isConnected() {
+        return remote != null;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public int getLocalPort() {
+        return port.getPort();
+    }
+
+    @Override
+    public SocketAddress getLocalSocketAddress() {
+        return port.getLocalSocketAddress();
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            port.unregister(this);
+            PooledDatagram pending;
+            while ((pending = inbound.poll()) != null) {
+                pending.release();
+            }
+            inbound.offer(CLOSED_MARKER);
+        }
+    }
+
+    String getLocalUfrag() {
+        return localUfrag;
+    }
+
+    long getDroppedCount() {
+        return dropped.get();
+    }
+}
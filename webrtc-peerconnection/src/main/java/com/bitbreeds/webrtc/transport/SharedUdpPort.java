@@ -0,0 +1,242 @@
+package com.bitbreeds.webrtc.transport;
+
+import com.bitbreeds.webrtc.stun.StunMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * A single bound UDP port serving many peer connections.
+ *
+ * Each connection registers with its local ICE ufrag and gets a {@link UdpEndpoint}
+ * that behaves like its own socket. Datagrams are demultiplexed like this:
+ *
+ * STUN requests are routed by the local part of their USERNAME attribute.
+ * The ufrag is public in the signaling, so routing a request binds nothing. The connection
+ * binds the remote address with {@link UdpEndpoint#connect} once the MESSAGE-INTEGRITY
+ * of a request from it is checked. Everything else (DTLS carrying SCTP) is routed by the remote address (the 5-tuple,
+ * since local address, port and protocol are the same for everything on this port).
+ *
+ * Datagrams that can not be routed are dropped and counted.
+ *
+ * Given a {@link UdpReactor} the endpoints are event driven, and each connection
+ * is handled on one of the reactors event loops. Only the receive thread of the port
+ * itself is added, regardless of how many connections use it.
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc7983">Multiplexing scheme</a>
+ */
+public class SharedUdpPort {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedUdpPort.class);
+
+    private final static int SOCKET_BUFFER_SIZE = 4000000;
+    private final static int RECEIVE_BUFFER_SIZE = 4000;
+    private final static int POOLED_BUFFERS = 1024;
+
+    private final static int STUN_HEADER_LENGTH = 20;
+    private final static int STUN_MAGIC_COOKIE = 0x2112A442;
+
+    private final DatagramSocket socket;
+
+    private final ConcurrentHashMap<String,SharedUdpEndpoint> byUfrag = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<SocketAddress,SharedUdpEndpoint> byAddress = new ConcurrentHashMap<>();
+
+    private final AtomicLong unroutable = new AtomicLong(0);
+
+    /**
+     * Buffers for routed datagrams, returned by the endpoint once the connection has read them
+     */
+    private final DatagramBufferPool pool = new DatagramBufferPool(RECEIVE_BUFFER_SIZE, POOLED_BUFFERS);
+
+    private final Thread receiver;
+
+    private final UdpReactor reactor;
+
+    private volatile boolean running = true;
+
+    /**
+     * @param port port to bind, 0 to pick an ephemeral port
+     */
+    public SharedUdpPort(int port) {
+        this(new InetSocketAddress(port));
+    }
+
+    public SharedUdpPort(InetSocketAddress bindAddress) {
+        this(bindAddress,null);
+    }
+
+    /**
+     * @param bindAddress address to bind
+     * @param reactor reactor to run connections on, null for blocking endpoints
+     */
+    public SharedUdpPort(InetSocketAddress bindAddress, UdpReactor reactor) {
+        this.reactor = reactor;
+        try {
+            this.socket = new DatagramSocket(bindAddress);
+            this.socket.setReceiveBufferSize(SOCKET_BUFFER_SIZE);
+            this.socket.setSendBufferSize(SOCKET_BUFFER_SIZE);
+        } catch (SocketException e) {
+            throw new IllegalStateException("Failed to bind shared port " + bindAddress, e);
+        }
+        this.receiver = new Thread(this::receiveLoop, "shared-udp-" + socket.getLocalPort());
+        this.receiver.setDaemon(true);
+        this.receiver.start();
+        logger.info("Shared UDP port listening on {}", socket.getLocalSocketAddress());
+    }
+
+    /**
+     * @param localUfrag the ICE username fragment the connection was given in the answer
+     * @return endpoint receiving all datagrams for that connection
+     */
+    public UdpEndpoint register(String localUfrag) {
+        SharedUdpEndpoint endpoint = new SharedUdpEndpoint(this, localUfrag,
+                reactor != null ? reactor.nextLoop() : null);
+        if (byUfrag.putIfAbsent(localUfrag, endpoint) != null) {
+            throw new IllegalArgumentException("Ufrag " + localUfrag + " already in use on port " + getPort());
+        }
+        return endpoint;
+    }
+
+    /**
+     * Route all datagrams from a remote address to the endpoint, only for addresses
+     * that sent a STUN request the endpoint's connection has validated.
+     * An address already bound to another connection is not taken over.
+     */
+    void bind(SocketAddress remote, SharedUdpEndpoint endpoint) {
+        SharedUdpEndpoint existing = byAddress.putIfAbsent(remote, endpoint);
+        if (existing != null && existing != endpoint) {
+            logger.warn("Address {} already bound to ufrag {}, not rebinding to {}",
+                    remote, existing.getLocalUfrag(), endpoint.getLocalUfrag());
+        }
+    }
+
+    void unregister(SharedUdpEndpoint endpoint) {
+        byUfrag.remove(endpoint.getLocalUfrag(), endpoint);
+        byAddress.values().removeIf(i -> i == endpoint);
+    }
+
+    void send(DatagramPacket packet) throws IOException {
+        socket.send(packet);
+    }
+
+    /**
+     * Find the connection a datagram belongs to and queue a pooled copy there.
+     *
+     * @param data buffer, may be reused after this returns
+     * @param length datagram length
+     * @param from remote address
+     * @return whether the datagram was routed to a connection
+     */
+    boolean route(byte[] data, int length, SocketAddress from) {
+        SharedUdpEndpoint target = null;
+        if (isStun(data, length)) {
+            String ufrag = StunMessage.findLocalUfrag(data, length);
+            target = ufrag != null ? byUfrag.get(ufrag) : null;
+        }
+        if (target == null) {
+            target = byAddress.get(from);
+        }
+        if (target == null) {
+            unroutable.incrementAndGet();
+            logger.debug("Dropping datagram of length {} from {}, no connection found", length, from);
+            return false;
+        }
+        PooledDatagram datagram = pool.copyOf(data, 0, length, from);
+        if (!target.offer(datagram)) {
+            datagram.release();
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isStun(byte[] data, int length) {
+        if (length < STUN_HEADER_LENGTH || (data[0] & 0xC0) != 0) {
+            return false;
+        }
+        int cookie = ((data[4] & 0xFF) << 24) | ((data[5] & 0xFF) << 16) | ((data[6] & 0xFF) << 8) | (data[7] & 0xFF);
+        return cookie == STUN_MAGIC_COOKIE;
+    }
+
+    private void receiveLoop() {
+        byte[] buf = new byte[RECEIVE_BUFFER_SIZE];
+        DatagramPacket packet = new DatagramPacket(buf, buf.length);
+        while (running) {
+            try {
+                packet.setLength(buf.length);
+                socket.receive(packet);
+                route(buf, packet.getLength(), packet.getSocketAddress());
+            } catch (IOException e) {
+                if (running) {
+                    logger.error("Receive failed on shared port {}", getPort(), e);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Routing failed on shared port {}", getPort(), e);
+            }
+        }
+        logger.info("Shared UDP port {} stopped", getPort());
+    }
+
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    SocketAddress getLocalSocketAddress() {
+        return socket.getLocalSocketAddress();
+    }
+
+    /**
+     * @return number of connections currently registered
+     */
+    public int getConnectionCount() {
+        return byUfrag.size();
+    }
+
+    /**
+     * @return number of datagrams dropped because no connection matched
+     */
+    public long getUnroutableCount() {
+        return unroutable.get();
+    }
+
+    DatagramBufferPool getPool() {
+        return pool;
+    }
+
+    public boolean isClosed() {
+        return socket.isClosed();
+    }
+
+    /**
+     * Close the port and all endpoints on it
+     */
+    public void close() {
+        running = false;
+        byUfrag.values().forEach(SharedUdpEndpoint::close);
+        socket.close();
+    }
+}
@@ -0,0 +1,98 @@
+package com.bitbreeds.webrtc.transport;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * The UDP endpoint a single peer connection sends and receives through.
+ *
+ * This is either a socket owned by the connection ({@link DedicatedUdpEndpoint}),
+ * or a view of a port shared with other connections ({@link SharedUdpPort}).
+ *
+ * The methods mirror {@link java.net.DatagramSocket}, so a connection behaves
+ * the same regardless of which one it is given.
+ *
+ * Endpoints served by a {@link UdpReactor} are event driven instead, and push
+ * datagrams to a {@link DatagramListener} on their event loop.
+ */
+public interface UdpEndpoint {
+
+    /**
+     * Receive a single datagram into the packet buffer
+     *
+     * @param packet packet to receive into, address is set to the sender
+     * @param waitMillis time to wait, 0 waits forever
+     * @throws SocketTimeoutException when nothing arrives in time
+     * @throws IOException when the endpoint is closed
+     */
+    void receive(DatagramPacket packet, int waitMillis) throws IOException;
+
+    /**
+     * @param packet data to send, sent to the connected address if the packet has none
+     * @throws IOException when sending fails
+     */
+    void send(DatagramPacket packet) throws IOException;
+
+    /**
+     * Only exchange datagrams with this remote from now on
+     *
+     * @param remote selected remote address
+     * @throws IOException when connecting fails
+     */
+    void connect(SocketAddress remote) throws IOException;
+
+    boolean isConnected();
+
+    boolean isClosed();
+
+    int getLocalPort();
+
+    SocketAddress getLocalSocketAddress();
+
+    void close();
+
+    /**
+     * @return true if datagrams are delivered through {@link #listen(DatagramListener)}
+     * instead of {@link #receive(DatagramPacket, int)}
+     */
+    default boolean isEventDriven() {
+        return false;
+    }
+
+    /**
+     * Start delivering datagrams to the listener on the endpoints event loop
+     *
+     * @param listener receiver of all datagrams from now on
+     */
+    default void listen(DatagramListener listener) {
+        throw new UnsupportedOperationException("Endpoint only supports blocking receive");
+    }
+
+    /**
+     * Run a task on the thread delivering datagrams to the listener
+     *
+     * @param task task to run
+     */
+    default void execute(Runnable task) {
+        throw new UnsupportedOperationException("Endpoint only supports blocking receive");
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.bitbreeds.webrtc.transport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.DatagramChannel;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * A fixed group of {@link EventLoop}s serving all connections.
+ *
+ * Each connection is pinned to one loop for its lifetime, picked round robin.
+ * The number of receive threads stays the same no matter how many connections there are.
+ */
+public class UdpReactor {
+
+    private static final Logger logger = LoggerFactory.getLogger(UdpReactor.class);
+
+    private final static int SOCKET_BUFFER_SIZE = 200000;
+
+    private final List<EventLoop> loops;
+
+    private final AtomicInteger next = new AtomicInteger(0);
+
+    /**
+     * One event loop per core
+     */
+    public UdpReactor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public UdpReactor(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Reactor needs at least one thread, got " + threads);
+        }
+        this.loops = IntStream.range(0, threads)
+                .mapToObj(i -> new EventLoop("udp-reactor-" + i))
+                .collect(Collectors.toList());
+        logger.info("Started UDP reactor with {} event loops", threads);
+    }
+
+    /**
+     * @return the loop the next connection should be pinned to
+     */
+    public EventLoop nextLoop() {
+        return loops.get(Math.floorMod(next.getAndIncrement(), loops.size()));
+    }
+
+    /**
+     * @return endpoint on a new ephemeral port, read by one of the event loops
+     */
+    public UdpEndpoint open() {
+        try {
+            DatagramChannel channel = DatagramChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, SOCKET_BUFFER_SIZE);
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, SOCKET_BUFFER_SIZE);
+            channel.bind(new InetSocketAddress(0));
+            return new ReactorUdpEndpoint(channel, nextLoop());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to open channel:", e);
+        }
+    }
+
+    public int getThreadCount() {
+        return loops.size();
+    }
+
+    public List<EventLoop> getLoops() {
+        return loops;
+    }
+
+    public void shutdown() {
+        loops.forEach(EventLoop::shutdown);
+    }
+}
@@ -16,6 +16,7 @@ package com.bitbreeds.webrtc;/*
  *
  */
 
+import com.bitbreeds.webrtc.model.sctp.SkippedMessage;
 import com.bitbreeds.webrtc.sctp.impl.ForwardTsnHandler;
 import com.bitbreeds.webrtc.sctp.impl.SackCreator;
 import com.bitbreeds.webrtc.sctp.impl.buffer.FwdAckPoint;
@@ -30,7 +31,7 @@ public class FwsAckPtTest {
 
     @Test
     public void testForwardTsn() {
-        SCTPChunk chunk = SackCreator.creatForwardTsnChunk(new FwdAckPoint(123L, Arrays.asList(1,2)));
+        SCTPChunk chunk = SackCreator.creatForwardTsnChunk(new FwdAckPoint(123L, Arrays.asList(new SkippedMessage(1,0,false), new SkippedMessage(2,0,false))));
 
         byte[] data = chunk.toBytes();
 
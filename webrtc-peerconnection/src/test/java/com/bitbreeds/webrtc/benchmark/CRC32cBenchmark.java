@@ -0,0 +1,135 @@
+package com.bitbreeds.webrtc.benchmark;
+
+import com.bitbreeds.webrtc.sctp.model.CRC32c;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Checksum;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * CRC32c over a packet sized range.
+ *
+ * table is the byte at a time table lookup previously used for SCTP checksums,
+ * slicing is the pure java fallback, jdk is what {@link CRC32c#create()} gives on this JVM.
+ *
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *   -Dexec.args="-cp %classpath com.bitbreeds.webrtc.benchmark.CRC32cBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CRC32cBenchmark {
+
+    @Param({"100", "1200"})
+    public int size;
+
+    private byte[] packet;
+
+    private final ByteTable table = new ByteTable();
+    private final CRC32c slicing = new CRC32c();
+    private Checksum jdk;
+
+    @Setup
+    public void setup() {
+        packet = new byte[size + 3];
+        new Random(1).nextBytes(packet);
+        jdk = CRC32c.create();
+    }
+
+    @Benchmark
+    public long table() {
+        table.reset();
+        table.update(packet, 3, size);
+        return table.getValue();
+    }
+
+    @Benchmark
+    public long slicing() {
+        slicing.reset();
+        slicing.update(packet, 3, size);
+        return slicing.getValue();
+    }
+
+    @Benchmark
+    public long jdk() {
+        jdk.reset();
+        jdk.update(packet, 3, size);
+        return jdk.getValue();
+    }
+
+    /**
+     * One table lookup per byte on long arithmetic, as the old implementation did
+     */
+    static class ByteTable {
+
+        private static final long[] TABLE = new long[256];
+
+        static {
+            for (int n = 0; n < 256; n++) {
+                long c = n;
+                for (int k = 0; k < 8; k++) {
+                    c = (c & 1) != 0 ? (c >>> 1) ^ 0x82F63B78L : c >>> 1;
+                }
+                TABLE[n] = c;
+            }
+        }
+
+        private long crc;
+
+        void reset() {
+            crc = 0;
+        }
+
+        void update(byte[] b, int off, int len) {
+            long newCrc = crc ^ 0xffffffffL;
+            for (int i = off; i < off + len; i++) {
+                int index = (int) ((newCrc ^ b[i]) & 0xff);
+                newCrc = (TABLE[index] ^ (newCrc >> 8)) & 0xffffffffL;
+            }
+            crc = newCrc ^ 0xffffffffL;
+        }
+
+        long getValue() {
+            return crc;
+        }
+    }
+
+    public static void main(String... args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(CRC32cBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
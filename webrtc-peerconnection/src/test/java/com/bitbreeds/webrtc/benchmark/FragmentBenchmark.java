@@ -0,0 +1,196 @@
+package com.bitbreeds.webrtc.benchmark;
+
+import com.bitbreeds.webrtc.dtls.CertificateGenerator;
+import com.bitbreeds.webrtc.dtls.CryptoBackend;
+import com.bitbreeds.webrtc.dtls.DtlsCredentials;
+import com.bitbreeds.webrtc.dtls.WebrtcDtlsServer;
+import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
+import com.bitbreeds.webrtc.model.webrtc.ConnectionInternalApi;
+import com.bitbreeds.webrtc.peerconnection.PeerDescription;
+import com.bitbreeds.webrtc.peerconnection.UserData;
+import com.bitbreeds.webrtc.sctp.impl.PathMtu;
+import com.bitbreeds.webrtc.sctp.impl.PayloadCreator;
+import com.bitbreeds.webrtc.sctp.impl.SCTPPacketizer;
+import com.bitbreeds.webrtc.sctp.impl.SCTPReliability;
+import com.bitbreeds.webrtc.sctp.impl.model.PendingData;
+import com.bitbreeds.webrtc.sctp.impl.model.SendData;
+import com.bitbreeds.webrtc.sctp.model.SCTPHeader;
+import org.bouncycastle.tls.CipherSuite;
+import org.bouncycastle.tls.DTLSClientProtocol;
+import org.bouncycastle.tls.DTLSServerProtocol;
+import org.bouncycastle.tls.DTLSTransport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Message throughput through fragmentation, packetizing and DTLS protect/unprotect,
+ * with the old fixed 1024 byte fragments against fragments sized from the path MTU.
+ *
+ * The server transport reserves IP and UDP headers like the UDP transports do,
+ * so the DTLS send limit is what a 1500 byte path leaves for SCTP with AES-GCM.
+ * Fragments per message is printed at setup.
+ *
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *   -Dexec.args="-cp %classpath com.bitbreeds.webrtc.benchmark.FragmentBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FragmentBenchmark {
+
+    private static final int MTU = 1500;
+
+    /**
+     * IP with options and UDP, as reserved by the UDP transports
+     */
+    private static final int IP_UDP_BYTES = 84 + 8;
+
+    private static final int FIXED_FRAGMENT = 1024;
+
+    @Param({"65536", "1048576"})
+    public int size;
+
+    @Param({"fixed1024", "pmtu"})
+    public String fragments;
+
+    private DTLSTransport server;
+
+    private DTLSTransport client;
+
+    private final PayloadCreator payloadCreator = new PayloadCreator();
+
+    private final SCTPHeader header = new SCTPHeader(5000, 5000, 1L, 0L);
+
+    private SCTPPacketizer packetizer;
+
+    private int maxFragment;
+
+    private long tsn = 1;
+
+    private byte[] message;
+
+    private byte[] received;
+
+    @Setup
+    public void setup() throws Exception {
+        CryptoBackend cryptoBackend = CryptoBackend.BC;
+        int suite = CipherSuite.TLS_ECDHE_ECDSA_WITH_AES_128_GCM_SHA256;
+
+        DtlsCredentials serverCredentials = CertificateGenerator.ecdsa();
+        DtlsCredentials clientCredentials = CertificateGenerator.ecdsa();
+        PeerDescription clientDescription =
+                new PeerDescription(new UserData("user", "pass"), "0", clientCredentials.getFingerprint());
+        ConnectionInternalApi connection = (ConnectionInternalApi) Proxy.newProxyInstance(
+                ConnectionInternalApi.class.getClassLoader(),
+                new Class<?>[]{ConnectionInternalApi.class},
+                (proxy, method, args) -> null);
+
+        BlockingQueue<byte[]> toServer = new LinkedBlockingQueue<>();
+        BlockingQueue<byte[]> toClient = new LinkedBlockingQueue<>();
+        ExecutorService serverThread = Executors.newSingleThreadExecutor();
+        try {
+            WebrtcDtlsServer dtlsServer =
+                    new WebrtcDtlsServer(connection, serverCredentials, clientDescription, cryptoBackend);
+            InMemoryDtls.QueueTransport serverTransport = new InMemoryDtls.QueueTransport(toServer, toClient) {
+                @Override
+                public int getSendLimit() {
+                    return MTU - IP_UDP_BYTES;
+                }
+            };
+            Future<DTLSTransport> accepted = serverThread.submit(() ->
+                    new DTLSServerProtocol().accept(dtlsServer, serverTransport));
+            client = new DTLSClientProtocol().connect(
+                    new InMemoryDtls.Client(clientCredentials, cryptoBackend.createCrypto(), new int[]{suite}),
+                    new InMemoryDtls.QueueTransport(toClient, toServer));
+            server = accepted.get(10, TimeUnit.SECONDS);
+        } finally {
+            serverThread.shutdown();
+        }
+
+        if ("pmtu".equals(fragments)) {
+            PathMtu pathMtu = PathMtu.fromSendLimit(MTU, server.getSendLimit());
+            packetizer = new SCTPPacketizer(pathMtu);
+            maxFragment = pathMtu.getMaxDataPayload();
+        } else {
+            packetizer = new SCTPPacketizer();
+            maxFragment = FIXED_FRAGMENT;
+        }
+
+        message = new byte[size];
+        received = new byte[client.getReceiveLimit()];
+        System.out.printf("%s: %d byte fragments, %d fragments per %d byte message%n",
+                fragments, maxFragment, (size + maxFragment - 1) / maxFragment, size);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    public int sendMessage() throws Exception {
+        List<PendingData> fragments = payloadCreator.createPayloadMessage(
+                message, SCTPPayloadProtocolId.WEBRTC_BINARY, 1, SCTPReliability.createOrdered(), maxFragment);
+        List<SendData> data = new ArrayList<>(fragments.size());
+        for (PendingData fragment : fragments) {
+            data.add(fragment.bind(tsn++));
+        }
+        List<byte[]> packets = packetizer.packetize(header, true, Collections.emptyList(), data);
+        int bytes = 0;
+        for (byte[] packet : packets) {
+            server.send(packet, 0, packet.length);
+            bytes += client.receive(received, 0, received.length, 1000);
+        }
+        return bytes;
+    }
+
+    public static void main(String... args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(FragmentBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.bitbreeds.webrtc.benchmark;
+
+import com.bitbreeds.webrtc.dtls.CertificateGenerator;
+import com.bitbreeds.webrtc.dtls.DtlsCredentials;
+import com.bitbreeds.webrtc.dtls.WebrtcDtlsServer;
+import com.bitbreeds.webrtc.model.webrtc.ConnectionInternalApi;
+import com.bitbreeds.webrtc.peerconnection.PeerDescription;
+import com.bitbreeds.webrtc.peerconnection.UserData;
+import org.bouncycastle.crypto.Signer;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.signers.DSADigestSigner;
+import org.bouncycastle.crypto.signers.ECDSASigner;
+import org.bouncycastle.crypto.signers.RSADigestSigner;
+import org.bouncycastle.tls.DTLSClientProtocol;
+import org.bouncycastle.tls.DTLSServerProtocol;
+import org.bouncycastle.tls.DTLSTransport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Proxy;
+import java.security.SecureRandom;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * DTLS handshakes per second with an RSA-2048 versus an ECDSA P-256 server certificate.
+ *
+ * The client and server run in this JVM over an in memory transport, the client always
+ * uses ECDSA, like browsers. {@link #serverSignature()} measures only the server side
+ * signature of the key exchange, which is where the certificate type matters.
+ *
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *   -Dexec.args="-cp %classpath com.bitbreeds.webrtc.benchmark.HandshakeBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HandshakeBenchmark {
+
+    @Param({"rsa", "ecdsa"})
+    public String certificate;
+
+    private DtlsCredentials server;
+
+    private DtlsCredentials client;
+
+    private PeerDescription clientDescription;
+
+    private Signer signer;
+
+    private final byte[] toSign = new byte[64];
+
+    private ExecutorService serverThread;
+
+    private final ConnectionInternalApi connection = (ConnectionInternalApi) Proxy.newProxyInstance(
+            ConnectionInternalApi.class.getClassLoader(),
+            new Class<?>[]{ConnectionInternalApi.class},
+            (proxy, method, args) -> null);
+
+    @Setup
+    public void setup() {
+        server = "rsa".equals(certificate) ? CertificateGenerator.rsa(2048) : CertificateGenerator.ecdsa();
+        client = CertificateGenerator.ecdsa();
+        clientDescription = new PeerDescription(new UserData("user", "pass"), "0", client.getFingerprint());
+        signer = server.isEcdsa() ?
+                new DSADigestSigner(new ECDSASigner(), new SHA256Digest()) :
+                new RSADigestSigner(new SHA256Digest());
+        signer.init(true, server.getPrivateKey());
+        new SecureRandom().nextBytes(toSign);
+        serverThread = Executors.newSingleThreadExecutor();
+    }
+
+    @TearDown
+    public void tearDown() {
+        serverThread.shutdownNow();
+    }
+
+    @Benchmark
+    public DTLSTransport handshake() throws Exception {
+        BlockingQueue<byte[]> toServer = new LinkedBlockingQueue<>();
+        BlockingQueue<byte[]> toClient = new LinkedBlockingQueue<>();
+        WebrtcDtlsServer dtlsServer = new WebrtcDtlsServer(connection, server, clientDescription);
+        Future<DTLSTransport> accepted = serverThread.submit(() ->
+                new DTLSServerProtocol().accept(dtlsServer, new InMemoryDtls.QueueTransport(toServer, toClient)));
+        DTLSTransport connected = new DTLSClientProtocol().connect(
+                new InMemoryDtls.Client(client), new InMemoryDtls.QueueTransport(toClient, toServer));
+        DTLSTransport serverSide = accepted.get(10, TimeUnit.SECONDS);
+        connected.close();
+        return serverSide;
+    }
+
+    @Benchmark
+    public byte[] serverSignature() throws Exception {
+        signer.update(toSign, 0, toSign.length);
+        return signer.generateSignature();
+    }
+
+    public static void main(String... args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(HandshakeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
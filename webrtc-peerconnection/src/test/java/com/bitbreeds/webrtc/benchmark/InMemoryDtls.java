@@ -0,0 +1,158 @@
+package com.bitbreeds.webrtc.benchmark;
+
+import com.bitbreeds.webrtc.dtls.DtlsCredentials;
+import org.bouncycastle.tls.CertificateRequest;
+import org.bouncycastle.tls.DatagramTransport;
+import org.bouncycastle.tls.DefaultTlsClient;
+import org.bouncycastle.tls.HashAlgorithm;
+import org.bouncycastle.tls.ProtocolVersion;
+import org.bouncycastle.tls.SignatureAlgorithm;
+import org.bouncycastle.tls.SignatureAndHashAlgorithm;
+import org.bouncycastle.tls.TlsAuthentication;
+import org.bouncycastle.tls.TlsCredentials;
+import org.bouncycastle.tls.TlsServerCertificate;
+import org.bouncycastle.tls.crypto.TlsCrypto;
+import org.bouncycastle.tls.crypto.TlsCryptoParameters;
+import org.bouncycastle.tls.crypto.impl.bc.BcDefaultTlsCredentialedSigner;
+import org.bouncycastle.tls.crypto.impl.bc.BcTlsCrypto;
+import org.bouncycastle.tls.crypto.impl.jcajce.JcaDefaultTlsCredentialedSigner;
+import org.bouncycastle.tls.crypto.impl.jcajce.JcaTlsCrypto;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * DTLS client and lossless transport for running handshakes and records within one JVM
+ */
+class InMemoryDtls {
+
+    static final int MTU = 1500;
+
+    private InMemoryDtls() {
+    }
+
+    /**
+     * One direction of a lossless in memory link
+     */
+    static class QueueTransport implements DatagramTransport {
+
+        private final BlockingQueue<byte[]> in;
+        private final BlockingQueue<byte[]> out;
+
+        QueueTransport(BlockingQueue<byte[]> in, BlockingQueue<byte[]> out) {
+            this.in = in;
+            this.out = out;
+        }
+
+        @Override
+        public int getReceiveLimit() {
+            return MTU;
+        }
+
+        @Override
+        public int getSendLimit() {
+            return MTU;
+        }
+
+        @Override
+        public int receive(byte[] buf, int off, int len, int waitMillis) throws IOException {
+            try {
+                byte[] data = in.poll(waitMillis, TimeUnit.MILLISECONDS);
+                if (data == null) {
+                    return -1;
+                }
+                int length = Math.min(len, data.length);
+                System.arraycopy(data, 0, buf, off, length);
+                return length;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void send(byte[] buf, int off, int len) {
+            out.add(Arrays.copyOfRange(buf, off, off + len));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Authenticates with an ECDSA certificate like a browser
+     */
+    static class Client extends DefaultTlsClient {
+
+        private final DtlsCredentials credentials;
+
+        private final int[] cipherSuites;
+
+        Client(DtlsCredentials credentials) {
+            this(credentials, new BcTlsCrypto(new SecureRandom()), null);
+        }
+
+        /**
+         * @param cipherSuites suites to offer, null for the defaults
+         */
+        Client(DtlsCredentials credentials, TlsCrypto crypto, int[] cipherSuites) {
+            super(crypto);
+            this.credentials = credentials;
+            this.cipherSuites = cipherSuites;
+        }
+
+        @Override
+        public int[] getCipherSuites() {
+            return cipherSuites != null ? cipherSuites : super.getCipherSuites();
+        }
+
+        @Override
+        public ProtocolVersion[] getProtocolVersions() {
+            return new ProtocolVersion[]{ProtocolVersion.DTLSv12};
+        }
+
+        @Override
+        public TlsAuthentication getAuthentication() {
+            return new TlsAuthentication() {
+                @Override
+                public void notifyServerCertificate(TlsServerCertificate serverCertificate) {
+                }
+
+                @Override
+                public TlsCredentials getClientCredentials(CertificateRequest certificateRequest) throws IOException {
+                    SignatureAndHashAlgorithm algorithm =
+                            new SignatureAndHashAlgorithm(HashAlgorithm.sha256, SignatureAlgorithm.ecdsa);
+                    if (getCrypto() instanceof JcaTlsCrypto) {
+                        return new JcaDefaultTlsCredentialedSigner(new TlsCryptoParameters(context),
+                                (JcaTlsCrypto) getCrypto(), credentials.getJcaPrivateKey(),
+                                credentials.createChain(getCrypto()), algorithm);
+                    }
+                    return new BcDefaultTlsCredentialedSigner(new TlsCryptoParameters(context),
+                            (BcTlsCrypto) getCrypto(), credentials.getPrivateKey(),
+                            credentials.createChain(getCrypto()), algorithm);
+                }
+            };
+        }
+    }
+
+}
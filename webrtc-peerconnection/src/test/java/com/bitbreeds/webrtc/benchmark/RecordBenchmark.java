@@ -0,0 +1,148 @@
+package com.bitbreeds.webrtc.benchmark;
+
+import com.bitbreeds.webrtc.dtls.CertificateGenerator;
+import com.bitbreeds.webrtc.dtls.CryptoBackend;
+import com.bitbreeds.webrtc.dtls.DtlsCredentials;
+import com.bitbreeds.webrtc.dtls.WebrtcDtlsServer;
+import com.bitbreeds.webrtc.model.webrtc.ConnectionInternalApi;
+import com.bitbreeds.webrtc.peerconnection.PeerDescription;
+import com.bitbreeds.webrtc.peerconnection.UserData;
+import org.bouncycastle.tls.CipherSuite;
+import org.bouncycastle.tls.DTLSClientProtocol;
+import org.bouncycastle.tls.DTLSServerProtocol;
+import org.bouncycastle.tls.DTLSTransport;
+import org.bouncycastle.tls.TlsUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Bulk DTLS record throughput per crypto backend and cipher.
+ *
+ * Each operation protects one record on the server side and unprotects it on the client,
+ * both with the same backend, so the score is records per second through encrypt and decrypt.
+ *
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *   -Dexec.args="-cp %classpath com.bitbreeds.webrtc.benchmark.RecordBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordBenchmark {
+
+    @Param({"BC", "JCA"})
+    public String backend;
+
+    @Param({"aes128gcm", "chacha20"})
+    public String cipher;
+
+    /**
+     * Record payload, BouncyCastle drops received records close to the MTU, so keep to WebRTC packet sizes
+     */
+    @Param({"1200"})
+    public int size;
+
+    private DTLSTransport server;
+
+    private DTLSTransport client;
+
+    private byte[] record;
+
+    private byte[] received;
+
+    @Setup
+    public void setup() throws Exception {
+        CryptoBackend cryptoBackend = CryptoBackend.valueOf(backend);
+        int suite = "chacha20".equals(cipher) ?
+                CipherSuite.TLS_ECDHE_ECDSA_WITH_CHACHA20_POLY1305_SHA256 :
+                CipherSuite.TLS_ECDHE_ECDSA_WITH_AES_128_GCM_SHA256;
+        if (!cryptoBackend.createCrypto().hasEncryptionAlgorithm(TlsUtils.getEncryptionAlgorithm(suite))) {
+            throw new IllegalStateException(backend + " does not support " + cipher);
+        }
+
+        DtlsCredentials serverCredentials = CertificateGenerator.ecdsa();
+        DtlsCredentials clientCredentials = CertificateGenerator.ecdsa();
+        PeerDescription clientDescription =
+                new PeerDescription(new UserData("user", "pass"), "0", clientCredentials.getFingerprint());
+        ConnectionInternalApi connection = (ConnectionInternalApi) Proxy.newProxyInstance(
+                ConnectionInternalApi.class.getClassLoader(),
+                new Class<?>[]{ConnectionInternalApi.class},
+                (proxy, method, args) -> null);
+
+        BlockingQueue<byte[]> toServer = new LinkedBlockingQueue<>();
+        BlockingQueue<byte[]> toClient = new LinkedBlockingQueue<>();
+        ExecutorService serverThread = Executors.newSingleThreadExecutor();
+        try {
+            WebrtcDtlsServer dtlsServer =
+                    new WebrtcDtlsServer(connection, serverCredentials, clientDescription, cryptoBackend);
+            Future<DTLSTransport> accepted = serverThread.submit(() ->
+                    new DTLSServerProtocol().accept(dtlsServer, new InMemoryDtls.QueueTransport(toServer, toClient)));
+            client = new DTLSClientProtocol().connect(
+                    new InMemoryDtls.Client(clientCredentials, cryptoBackend.createCrypto(), new int[]{suite}),
+                    new InMemoryDtls.QueueTransport(toClient, toServer));
+            server = accepted.get(10, TimeUnit.SECONDS);
+        } finally {
+            serverThread.shutdown();
+        }
+
+        record = new byte[size];
+        received = new byte[client.getReceiveLimit()];
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    public int protectUnprotect() throws Exception {
+        server.send(record, 0, record.length);
+        return client.receive(received, 0, received.length, 1000);
+    }
+
+    public static void main(String... args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(RecordBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
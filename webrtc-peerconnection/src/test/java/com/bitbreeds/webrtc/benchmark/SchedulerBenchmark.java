@@ -0,0 +1,179 @@
+package com.bitbreeds.webrtc.benchmark;
+
+import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
+import com.bitbreeds.webrtc.model.webrtc.DataChannelPriority;
+import com.bitbreeds.webrtc.sctp.impl.PayloadCreator;
+import com.bitbreeds.webrtc.sctp.impl.SCTPReliability;
+import com.bitbreeds.webrtc.sctp.impl.buffer.BufferedSent;
+import com.bitbreeds.webrtc.sctp.impl.buffer.SackData;
+import com.bitbreeds.webrtc.sctp.impl.buffer.SendBuffer;
+import com.bitbreeds.webrtc.sctp.impl.buffer.StreamSchedulerType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Latency of a small message on a high priority channel while a bulk channel keeps the link saturated.
+ *
+ * The link is simulated, each round it takes a few packets worth of fragments from the
+ * send buffer and acknowledges them. An invocation sends one small message and runs rounds
+ * until it is on the link, so the time is spent moving the bulk fragments scheduled ahead of it.
+ * Look at the percentiles, mean and worst rounds per message are printed after each iteration.
+ * Debug logging is turned off, the send buffer logs every message it buffers.
+ *
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *   -Dexec.args="-cp %classpath com.bitbreeds.webrtc.benchmark.SchedulerBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchedulerBenchmark {
+
+    private static final int BULK_STREAM = 1;
+
+    private static final int URGENT_STREAM = 2;
+
+    private static final int BULK_SIZE = 65536;
+
+    private static final int URGENT_SIZE = 100;
+
+    /**
+     * User data in one fragment, about what a 1500 byte path leaves
+     */
+    private static final int FRAGMENT = 1150;
+
+    /**
+     * Fragments the link takes per round
+     */
+    private static final int FRAGMENTS_PER_ROUND = 4;
+
+    private static final int REMOTE_WINDOW = 10000000;
+
+    @Param({"FCFS", "ROUND_ROBIN", "WFQ"})
+    public StreamSchedulerType scheduler;
+
+    @Param({"false", "true"})
+    public boolean interleaving;
+
+    private final PayloadCreator payloadCreator = new PayloadCreator();
+
+    private final byte[] bulk = new byte[BULK_SIZE];
+
+    private final byte[] urgent = new byte[URGENT_SIZE];
+
+    private SendBuffer buffer;
+
+    private int roundCapacity;
+
+    private int fragmentsPerBulk;
+
+    /**
+     * Bulk fragments buffered and not yet on the link
+     */
+    private int bulkQueued;
+
+    private long messages;
+
+    private long totalRounds;
+
+    private int maxRounds;
+
+    @Setup
+    public void setup() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.bitbreeds"))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+        payloadCreator.setMessageInterleaving(interleaving);
+        buffer = new SendBuffer(100000000);
+        buffer.initializeRemote(REMOTE_WINDOW, 0);
+        buffer.setScheduler(scheduler.create(interleaving));
+        buffer.setStreamWeight(BULK_STREAM, DataChannelPriority.NORMAL.getWeight());
+        buffer.setStreamWeight(URGENT_STREAM, DataChannelPriority.EXTRA_HIGH.getWeight());
+
+        fragmentsPerBulk = (BULK_SIZE + FRAGMENT - 1) / FRAGMENT;
+        roundCapacity = FRAGMENTS_PER_ROUND * payloadCreator.createPayloadMessage(
+                bulk, SCTPPayloadProtocolId.WEBRTC_BINARY, BULK_STREAM, SCTPReliability.createOrdered(), FRAGMENT)
+                .get(0).getChunkLength();
+    }
+
+    @Benchmark
+    public int urgentMessage() {
+        buffer.buffer(payloadCreator.createPayloadMessage(
+                urgent, SCTPPayloadProtocolId.WEBRTC_STRING, URGENT_STREAM, SCTPReliability.createOrdered(), FRAGMENT));
+        int rounds = 0;
+        boolean sent = false;
+        while (!sent) {
+            rounds++;
+            while (bulkQueued < 2 * fragmentsPerBulk) {
+                buffer.buffer(payloadCreator.createPayloadMessage(
+                        bulk, SCTPPayloadProtocolId.WEBRTC_BINARY, BULK_STREAM, SCTPReliability.createOrdered(), FRAGMENT));
+                bulkQueued += fragmentsPerBulk;
+            }
+            List<BufferedSent> onLink = buffer.getDataToSend(roundCapacity);
+            for (BufferedSent data : onLink) {
+                if (data.getData().getStreamId() == URGENT_STREAM) {
+                    sent = true;
+                } else {
+                    bulkQueued--;
+                }
+            }
+            buffer.receiveSack(new SackData(
+                    buffer.getNextTSN() - 1, Collections.emptyList(), Collections.emptyList(), REMOTE_WINDOW));
+        }
+        messages++;
+        totalRounds += rounds;
+        maxRounds = Math.max(maxRounds, rounds);
+        return rounds;
+    }
+
+    @TearDown(Level.Iteration)
+    public void printRounds() {
+        System.out.printf("%n%s interleaving=%s: %.1f rounds per message, worst %d%n",
+                scheduler, interleaving, (double) totalRounds / Math.max(1, messages), maxRounds);
+        messages = 0;
+        totalRounds = 0;
+        maxRounds = 0;
+    }
+
+    public static void main(String... args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(SchedulerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
@@ -0,0 +1,201 @@
+package com.bitbreeds.webrtc.benchmark;
+
+import com.bitbreeds.webrtc.common.ConnectionExecutors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Compares platform threads with virtual threads for the thread per connection model.
+ *
+ * Each connection is a task blocked on its own queue, like a connection waiting on a
+ * shared port endpoint. The benchmark hands a datagram to one connection and waits for
+ * its reply, which costs two wakeups (context switches for platform threads).
+ *
+ * {@link #main(String...)} first prints the memory used by parked connections, then runs
+ * the benchmark. The virtual variants fail on JVMs older than 21.
+ *
+ * Run from webrtc-peerconnection with:
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ *   -Dexec.args="-cp %classpath com.bitbreeds.webrtc.benchmark.ThreadModelBenchmark 10000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThreadModelBenchmark {
+
+    private static final byte[] STOP = new byte[0];
+
+    private static final byte[] DATAGRAM = new byte[1200];
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"1000"})
+    public int connections;
+
+    private BlockingQueue<byte[]>[] inbound;
+
+    private final BlockingQueue<byte[]> replies = new LinkedBlockingQueue<>();
+
+    private int next = 0;
+
+    static Executor executor(String threads) {
+        return "virtual".equals(threads) ?
+                ConnectionExecutors.virtualThreads() :
+                ConnectionExecutors.platformThreads();
+    }
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        Executor executor = executor(threads);
+        inbound = new BlockingQueue[connections];
+        for (int i = 0; i < connections; i++) {
+            BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(1000);
+            inbound[i] = queue;
+            executor.execute(() -> {
+                try {
+                    byte[] data;
+                    while ((data = queue.take()) != STOP) {
+                        replies.put(data);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (BlockingQueue<byte[]> queue : inbound) {
+            queue.offer(STOP);
+        }
+    }
+
+    @Benchmark
+    public byte[] wakeConnectionAndReply() throws InterruptedException {
+        inbound[next].put(DATAGRAM);
+        next = (next + 1) % connections;
+        return replies.take();
+    }
+
+    /**
+     * Park connections and report how much memory each costs
+     */
+    static void printFootprint(String threads, int connections) throws InterruptedException {
+        Executor executor;
+        try {
+            executor = executor(threads);
+        } catch (UnsupportedOperationException e) {
+            System.out.println(threads + ": " + e.getMessage());
+            return;
+        }
+        System.gc();
+        long rssBefore = residentBytes();
+        long heapBefore = usedHeap();
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        CountDownLatch started = new CountDownLatch(connections);
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < connections; i++) {
+            executor.execute(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        started.await();
+
+        long rss = residentBytes() - rssBefore;
+        long heap = usedHeap() - heapBefore;
+        int platformThreads = ManagementFactory.getThreadMXBean().getThreadCount() - threadsBefore;
+        System.out.printf("%s: %d connections, %d platform threads, rss +%d KB (%d bytes each), heap +%d KB%n",
+                threads, connections, platformThreads, rss / 1024, rss / connections, heap / 1024);
+        release.countDown();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * @return resident set size on linux, 0 elsewhere
+     */
+    private static long residentBytes() {
+        Path status = Paths.get("/proc/self/status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        try {
+            return Files.readAllLines(status).stream()
+                    .filter(i -> i.startsWith("VmRSS:"))
+                    .map(i -> i.replaceAll("[^0-9]", ""))
+                    .mapToLong(i -> Long.parseLong(i) * 1024)
+                    .findFirst()
+                    .orElse(0L);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    public static void main(String... args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        printFootprint("platform", connections);
+        Thread.sleep(1000);
+        printFootprint("virtual", connections);
+
+        new Runner(new OptionsBuilder()
+                .include(ThreadModelBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.bitbreeds.webrtc.common;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+public class ConnectionExecutorsTest {
+
+    private static Thread runOn(Executor executor) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        executor.execute(() -> {
+            thread.set(Thread.currentThread());
+            done.countDown();
+        });
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        return thread.get();
+    }
+
+    @Test
+    public void testPlatformThreadPerTask() throws Exception {
+        Executor executor = ConnectionExecutors.platformThreads();
+        Thread first = runOn(executor);
+        Thread second = runOn(executor);
+        assertNotSame(Thread.currentThread(), first);
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void testVirtualThreadsWhenSupported() throws Exception {
+        if (!ConnectionExecutors.isVirtualThreadsSupported()) {
+            try {
+                ConnectionExecutors.virtualThreads();
+            } catch (UnsupportedOperationException e) {
+                return;
+            }
+            throw new AssertionError("Expected virtual threads to be unsupported");
+        }
+        Thread thread = runOn(ConnectionExecutors.virtualThreads());
+        assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+        assertTrue(thread.getName().startsWith("connection-"));
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.bitbreeds.webrtc.dtls;
+
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.x509.Certificate;
+import org.bouncycastle.crypto.params.RSAKeyParameters;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+public class CertificateGeneratorTest {
+
+    private static X509Certificate toJca(Certificate certificate) throws Exception {
+        return (X509Certificate) CertificateFactory.getInstance("X.509")
+                .generateCertificate(new ByteArrayInputStream(certificate.getEncoded(ASN1Encoding.DER)));
+    }
+
+    @Test
+    public void testEcdsaSelfSigned() throws Exception {
+        DtlsCredentials credentials = CertificateGenerator.ecdsa();
+        X509Certificate cert = toJca(credentials.getCertificate());
+
+        assertTrue(credentials.isEcdsa());
+        assertEquals("EC", cert.getPublicKey().getAlgorithm());
+        assertEquals("SHA256withECDSA", cert.getSigAlgName());
+        cert.verify(cert.getPublicKey());
+        cert.checkValidity();
+        assertEquals(DtlsCredentials.fingerprint(credentials.getCertificate()), credentials.getFingerprint());
+    }
+
+    @Test
+    public void testRsaSelfSigned() throws Exception {
+        DtlsCredentials credentials = CertificateGenerator.rsa(2048);
+        X509Certificate cert = toJca(credentials.getCertificate());
+
+        assertFalse(credentials.isEcdsa());
+        assertTrue(credentials.getPrivateKey() instanceof RSAKeyParameters);
+        assertEquals("SHA256withRSA", cert.getSigAlgName());
+        cert.verify(cert.getPublicKey());
+    }
+
+    @Test
+    public void testNewKeyEachTime() {
+        assertNotEquals(CertificateGenerator.ecdsa().getFingerprint(), CertificateGenerator.ecdsa().getFingerprint());
+    }
+
+}
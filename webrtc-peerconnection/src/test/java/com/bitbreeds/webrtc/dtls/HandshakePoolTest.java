@@ -0,0 +1,120 @@
+package com.bitbreeds.webrtc.dtls;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+public class HandshakePoolTest {
+
+    @Test
+    public void testRejectWhenQueueFull() throws Exception {
+        HandshakePool pool = new HandshakePool(1, 1, 10000);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            assertTrue(pool.submit(() -> {
+                started.countDown();
+                await(release);
+            }, () -> { }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertTrue(pool.submit(() -> { }, () -> { }));
+            assertEquals(1, pool.getQueueDepth());
+            assertFalse(pool.hasCapacity());
+
+            assertFalse(pool.submit(() -> { }, () -> { }));
+            assertEquals(1, pool.getRejectedCount());
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testRejectAfterMaxWait() throws Exception {
+        HandshakePool pool = new HandshakePool(1, 4, 100);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch rejected = new CountDownLatch(1);
+        AtomicBoolean ran = new AtomicBoolean(false);
+        try {
+            pool.submit(() -> {
+                started.countDown();
+                await(release);
+            }, () -> { });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            pool.submit(() -> ran.set(true), rejected::countDown);
+            Thread.sleep(300);
+            release.countDown();
+
+            assertTrue(rejected.await(5, TimeUnit.SECONDS));
+            assertFalse(ran.get());
+            assertEquals(1, pool.getExpiredCount());
+            assertEquals(1, pool.getCompletedCount());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testHandshakeDurationMeasured() throws Exception {
+        HandshakePool pool = new HandshakePool(2, 4, 10000);
+        CountDownLatch done = new CountDownLatch(2);
+        try {
+            for (int i = 0; i < 2; i++) {
+                pool.submit(() -> {
+                    sleep(20);
+                    done.countDown();
+                }, () -> { });
+            }
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            Thread.sleep(20);
+
+            assertEquals(2, pool.getCompletedCount());
+            assertTrue(pool.getAverageHandshakeMillis() >= 15);
+            assertTrue(pool.getMaxHandshakeMillis() >= pool.getAverageHandshakeMillis());
+            assertTrue(pool.hasCapacity());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
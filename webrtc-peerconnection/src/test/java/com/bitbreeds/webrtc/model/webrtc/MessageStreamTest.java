@@ -0,0 +1,90 @@
+package com.bitbreeds.webrtc.model.webrtc;
+
+import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+public class MessageStreamTest {
+
+    @Test
+    public void readsAcrossFragments() throws IOException {
+        MessageStream stream = new MessageStream(SCTPPayloadProtocolId.WEBRTC_BINARY);
+        stream.append(new byte[]{0,1,2});
+        stream.append(new byte[]{3,4});
+        stream.finish();
+        assertEquals(5,stream.getBufferedAmount());
+
+        ByteBuffer dst = ByteBuffer.allocate(4);
+        assertEquals(4,stream.read(dst));
+        assertArrayEquals(new byte[]{0,1,2,3},dst.array());
+
+        dst.clear();
+        assertEquals(1,stream.read(dst));
+        assertEquals(4,dst.get(0));
+        assertEquals(0,stream.getBufferedAmount());
+        assertEquals(-1,stream.read(dst));
+    }
+
+    @Test
+    public void readWaitsForFragment() throws Exception {
+        MessageStream stream = new MessageStream(SCTPPayloadProtocolId.WEBRTC_BINARY);
+        CompletableFuture<Integer> read = CompletableFuture.supplyAsync(() -> {
+            try {
+                return stream.read(ByteBuffer.allocate(10));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(50);
+        assertFalse(read.isDone());
+
+        stream.append(new byte[]{1,2});
+        assertEquals(2,read.get(5, TimeUnit.SECONDS).intValue());
+    }
+
+    @Test(expected = IOException.class)
+    public void abandonedFailsAfterReceivedData() throws IOException {
+        MessageStream stream = new MessageStream(SCTPPayloadProtocolId.WEBRTC_BINARY);
+        stream.append(new byte[]{1});
+        stream.abandon();
+
+        assertEquals(1,stream.read(ByteBuffer.allocate(10)));
+        stream.read(ByteBuffer.allocate(10));
+    }
+
+    @Test(expected = ClosedChannelException.class)
+    public void closedDropsData() throws IOException {
+        MessageStream stream = new MessageStream(SCTPPayloadProtocolId.WEBRTC_BINARY);
+        stream.append(new byte[]{1});
+        stream.close();
+        stream.append(new byte[]{2});
+
+        assertEquals(0,stream.getBufferedAmount());
+        stream.read(ByteBuffer.allocate(10));
+    }
+
+}
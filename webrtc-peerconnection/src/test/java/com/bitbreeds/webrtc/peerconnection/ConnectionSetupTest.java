@@ -0,0 +1,60 @@
+package com.bitbreeds.webrtc.peerconnection;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+public class ConnectionSetupTest {
+
+    @Test
+    public void testAdvanceOnlyForward() {
+        ConnectionSetup setup = new ConnectionSetup();
+        assertEquals(ConnectionSetup.Phase.STUN_BINDING, setup.getPhase());
+        assertTrue(setup.advance(ConnectionSetup.Phase.DTLS_HANDSHAKE));
+        assertFalse(setup.advance(ConnectionSetup.Phase.DTLS_HANDSHAKE));
+        assertTrue(setup.advance(ConnectionSetup.Phase.SCTP_ASSOCIATION));
+        assertFalse(setup.advance(ConnectionSetup.Phase.STUN_BINDING));
+        assertFalse(setup.isAssociated());
+        assertTrue(setup.advance(ConnectionSetup.Phase.DATACHANNEL_OPEN));
+        assertTrue(setup.isAssociated());
+        assertTrue(setup.millisIn(ConnectionSetup.Phase.DTLS_HANDSHAKE) >= 0);
+        assertEquals(-1, setup.millisIn(ConnectionSetup.Phase.DATACHANNEL_OPEN));
+    }
+
+    @Test
+    public void testFailStopsSetup() {
+        ConnectionSetup setup = new ConnectionSetup();
+        setup.advance(ConnectionSetup.Phase.DTLS_HANDSHAKE);
+        assertTrue(setup.fail());
+        assertFalse(setup.fail());
+        assertFalse(setup.advance(ConnectionSetup.Phase.SCTP_ASSOCIATION));
+        assertEquals(ConnectionSetup.Phase.FAILED, setup.getPhase());
+    }
+
+    @Test
+    public void testOpenCanNotFail() {
+        ConnectionSetup setup = new ConnectionSetup();
+        setup.advance(ConnectionSetup.Phase.OPEN);
+        assertFalse(setup.fail());
+        assertEquals(ConnectionSetup.Phase.OPEN, setup.getPhase());
+    }
+
+}
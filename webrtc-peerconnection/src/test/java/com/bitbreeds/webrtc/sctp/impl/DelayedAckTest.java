@@ -0,0 +1,71 @@
+package com.bitbreeds.webrtc.sctp.impl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+public class DelayedAckTest {
+
+    @Test
+    public void testNothingPending() {
+        DelayedAck ack = new DelayedAck(100);
+        assertFalse(ack.takeSack(true, 0));
+        assertFalse(ack.takeSack(false, 1000));
+    }
+
+    @Test
+    public void testRidesOnData() {
+        DelayedAck ack = new DelayedAck(100);
+        ack.packetReceived();
+        ack.dataReceived(false, 0);
+        assertFalse(ack.takeSack(false, 50));
+        assertTrue(ack.takeSack(true, 50));
+        assertFalse(ack.takeSack(true, 60));
+        assertEquals(1, ack.getPiggybacked());
+        assertEquals(0, ack.getStandalone());
+    }
+
+    @Test
+    public void testDueAfterDelay() {
+        DelayedAck ack = new DelayedAck(100);
+        ack.packetReceived();
+        ack.dataReceived(false, 0);
+        ack.packetReceived();
+        ack.dataReceived(false, 0);
+        assertTrue(ack.takeSack(false, 10));
+        ack.packetReceived();
+        ack.dataReceived(false, 200);
+        assertFalse(ack.takeSack(false, 299));
+        assertTrue(ack.takeSack(false, 300));
+        assertEquals(2, ack.getStandalone());
+    }
+
+    @Test
+    public void testImmediately() {
+        DelayedAck ack = new DelayedAck(100);
+        ack.packetReceived();
+        ack.dataReceived(true, 0);
+        assertTrue(ack.takeSack(false, 0));
+
+        ack.sackImmediately();
+        assertTrue(ack.takeSack(false, 0));
+    }
+
+}
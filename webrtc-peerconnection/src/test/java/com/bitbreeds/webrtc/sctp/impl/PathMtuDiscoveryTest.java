@@ -0,0 +1,159 @@
+package com.bitbreeds.webrtc.sctp.impl;
+
+import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
+import com.bitbreeds.webrtc.sctp.impl.model.PendingData;
+import com.bitbreeds.webrtc.sctp.impl.model.SendData;
+import com.bitbreeds.webrtc.sctp.model.SCTPHeader;
+import com.bitbreeds.webrtc.sctp.model.SCTPPacketWriter;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+public class PathMtuDiscoveryTest {
+
+    private final PathMtu pathMtu = PathMtu.fromSendLimit(1500, 1371);
+
+    private final PathMtuDiscovery discovery = new PathMtuDiscovery(pathMtu, 1200, 1000);
+
+    private long now = 0;
+
+    /**
+     * Run the periodic task every 100ms for the given time, acking probes the path carries
+     */
+    private void run(int pathLimit, long millis) {
+        long end = now + millis;
+        for (; now < end; now += 100) {
+            int probe = discovery.nextProbe(now);
+            if (probe != 0 && probe <= pathLimit) {
+                discovery.probeAcked(probe, now + 20);
+            }
+        }
+    }
+
+    @Test
+    public void testStartsAtBase() {
+        assertEquals(1200, pathMtu.getMtu());
+        assertEquals(PathMtuDiscovery.State.BASE, discovery.getState());
+        assertEquals(1200, discovery.nextProbe(0));
+        assertEquals(0, discovery.nextProbe(500));
+    }
+
+    @Test
+    public void testFindsMaximum() {
+        run(1500, 1000);
+        assertEquals(PathMtuDiscovery.State.SEARCH_COMPLETE, discovery.getState());
+        assertEquals(1500, pathMtu.getMtu());
+        assertEquals(1371, pathMtu.getMaxPacketSize());
+    }
+
+    @Test
+    public void testSearchesBelowFailedSize() {
+        run(1400, 30_000);
+        assertEquals(PathMtuDiscovery.State.SEARCH_COMPLETE, discovery.getState());
+        assertTrue(pathMtu.getMtu() <= 1400);
+        assertTrue(pathMtu.getMtu() > 1400 - 16);
+    }
+
+    @Test
+    public void testBlackHoleFallsBackToBase() {
+        run(1500, 1000);
+        assertEquals(1500, pathMtu.getMtu());
+
+        run(1300, PathMtuDiscovery.CONFIRMATION_MILLIS + 3500);
+        assertEquals(1, discovery.getBlackHoles());
+        assertTrue(pathMtu.getMtu() >= 1200);
+        assertTrue(pathMtu.getMtu() <= 1300);
+
+        run(1300, 30_000);
+        assertEquals(PathMtuDiscovery.State.SEARCH_COMPLETE, discovery.getState());
+        assertTrue(pathMtu.getMtu() > 1300 - 16);
+    }
+
+    @Test
+    public void testFragmentsGrowWithConfirmedMtu() {
+        int basePayload = pathMtu.getMaxDataPayload();
+        run(1500, 1000);
+        assertEquals(1500, pathMtu.getMtu());
+        assertEquals(basePayload + 300, pathMtu.getMaxDataPayload());
+
+        List<PendingData> fragments = new PayloadCreator().createPayloadMessage(new byte[5000],
+                SCTPPayloadProtocolId.WEBRTC_BINARY, 1, SCTPReliability.createOrdered(), pathMtu.getMaxDataPayload());
+        assertEquals(4, fragments.size());
+        fragments.forEach(i -> assertTrue(
+                SCTPPacketWriter.HEADER_LENGTH + i.getChunkLength() <= pathMtu.getMaxPacketSize()));
+    }
+
+    @Test
+    public void testChunksInFlightKeepSizeAfterBlackHole() {
+        int basePayload = pathMtu.getMaxDataPayload();
+        run(1500, 1000);
+        int confirmedPacketSize = pathMtu.getMaxPacketSize();
+
+        List<SendData> inFlight = new ArrayList<>();
+        for (PendingData fragment : new PayloadCreator().createPayloadMessage(new byte[5000],
+                SCTPPayloadProtocolId.WEBRTC_BINARY, 1, SCTPReliability.createOrdered(), pathMtu.getMaxDataPayload())) {
+            inFlight.add(fragment.bind(inFlight.size() + 1));
+        }
+
+        run(0, PathMtuDiscovery.CONFIRMATION_MILLIS + 3500);
+        assertEquals(1, discovery.getBlackHoles());
+        assertEquals(1200, pathMtu.getMtu());
+        assertEquals(basePayload, pathMtu.getMaxDataPayload());
+
+        //Retransmissions go alone at the size they were cut for
+        List<byte[]> packets = new SCTPPacketizer(pathMtu).packetize(
+                new SCTPHeader(5000, 5000, 0xcafebabeL, 0L), false, Collections.emptyList(), inFlight);
+        assertEquals(inFlight.size(), packets.size());
+        packets.forEach(i -> assertTrue(i.length <= confirmedPacketSize));
+        assertTrue(packets.get(0).length > pathMtu.getMaxPacketSize());
+    }
+
+    @Test
+    public void testSuspectedBlackHoleProbesAtOnce() {
+        run(1500, 1000);
+        assertEquals(0, discovery.nextProbe(now));
+        discovery.suspectBlackHole(now);
+        assertEquals(1500, discovery.nextProbe(now));
+    }
+
+    @Test
+    public void testBaseNotConfirmed() {
+        run(0, 5000);
+        assertEquals(PathMtuDiscovery.State.ERROR, discovery.getState());
+        assertEquals(1200, pathMtu.getMtu());
+        assertEquals(PathMtuDiscovery.MAX_PROBES, discovery.getProbesSent());
+    }
+
+    @Test
+    public void testProbeFillsPacket() {
+        int packetSize = pathMtu.packetSizeAt(1400);
+        byte[] chunk = new HeartBeatService().createProbe(1400, packetSize);
+        assertEquals(packetSize, chunk.length + SCTPPacketWriter.HEADER_LENGTH);
+
+        byte[] info = Arrays.copyOfRange(chunk, 8, chunk.length);
+        assertEquals(1400, HeartBeatService.probedMtu(info));
+        assertEquals(0, HeartBeatService.probedMtu(new byte[16]));
+    }
+
+}
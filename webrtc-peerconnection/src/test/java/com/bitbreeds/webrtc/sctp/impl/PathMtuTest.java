@@ -0,0 +1,83 @@
+package com.bitbreeds.webrtc.sctp.impl;
+
+import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
+import com.bitbreeds.webrtc.sctp.impl.model.PendingData;
+import com.bitbreeds.webrtc.sctp.impl.model.SendData;
+import com.bitbreeds.webrtc.sctp.model.SCTPHeader;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+public class PathMtuTest {
+
+    @Test
+    public void testFromSendLimit() {
+        PathMtu mtu = PathMtu.fromSendLimit(1500, 1371);
+        assertEquals(129, mtu.getOverhead());
+        assertEquals(1371, mtu.getMaxPacketSize());
+        assertEquals(1340, mtu.getMaxDataPayload());
+    }
+
+    @Test
+    public void testDataPayloadKeepsChunkPadding() {
+        PathMtu mtu = PathMtu.withMaxPacketSize(1200);
+        assertEquals(1200 - 12 - 16, mtu.getMaxDataPayload());
+
+        PathMtu odd = PathMtu.withMaxPacketSize(1203);
+        assertEquals(1200 - 12 - 16, odd.getMaxDataPayload());
+    }
+
+    @Test
+    public void testFragmentsFitInOnePacket() {
+        PathMtu mtu = PathMtu.fromSendLimit(1500, 1371);
+        PayloadCreator creator = new PayloadCreator();
+        SCTPPacketizer packetizer = new SCTPPacketizer(mtu);
+        List<PendingData> fragments = creator.createPayloadMessage(
+                new byte[65536],
+                SCTPPayloadProtocolId.WEBRTC_BINARY,
+                1,
+                SCTPReliability.createOrdered(),
+                mtu.getMaxDataPayload());
+
+        assertEquals(49, fragments.size());
+        List<SendData> data = new ArrayList<>();
+        for (PendingData fragment : fragments) {
+            data.add(fragment.bind(data.size() + 1));
+        }
+        List<byte[]> packets = packetizer.packetize(
+                new SCTPHeader(5000, 5000, 1L, 0L),
+                false,
+                Collections.emptyList(),
+                data);
+        assertEquals(49, packets.size());
+        for (byte[] packet : packets) {
+            assertTrue(packet.length <= mtu.getMaxPacketSize());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoRoomForData() {
+        new PathMtu(100, 80);
+    }
+
+}
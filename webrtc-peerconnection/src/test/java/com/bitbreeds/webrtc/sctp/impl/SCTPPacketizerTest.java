@@ -0,0 +1,128 @@
+package com.bitbreeds.webrtc.sctp.impl;
+
+import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
+import com.bitbreeds.webrtc.sctp.impl.buffer.SackData;
+import com.bitbreeds.webrtc.sctp.impl.model.PendingData;
+import com.bitbreeds.webrtc.sctp.impl.model.SendData;
+import com.bitbreeds.webrtc.sctp.model.SCTPHeader;
+import com.bitbreeds.webrtc.sctp.model.SCTPMessageType;
+import com.bitbreeds.webrtc.sctp.model.SCTPPacketView;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+public class SCTPPacketizerTest {
+
+    private final SCTPHeader header = new SCTPHeader(5000, 5000, 0xcafebabeL, 0L);
+
+    private final PayloadCreator payloadCreator = new PayloadCreator();
+
+    private List<SendData> messages(int count, int size) {
+        List<SendData> data = new ArrayList<>();
+        long tsn = 1;
+        for (int i = 0; i < count; i++) {
+            for (PendingData fragment : payloadCreator.createPayloadMessage(
+                    new byte[size], SCTPPayloadProtocolId.WEBRTC_BINARY, 1, SCTPReliability.createOrdered(), 1024)) {
+                data.add(fragment.bind(tsn++));
+            }
+        }
+        return data;
+    }
+
+    private byte[] sack() {
+        return SackCreator.createSack(new SackData(10L, Collections.emptyList(), Collections.emptyList(), 1000));
+    }
+
+    @Test
+    public void testControlFirstThenData() {
+        SCTPPacketizer packetizer = new SCTPPacketizer(1200);
+        List<byte[]> packets = packetizer.packetize(
+                header, false, Collections.singletonList(sack()), messages(10, 50));
+
+        assertEquals(1, packets.size());
+        SCTPPacketView view = new SCTPPacketView(packets.get(0), 0, packets.get(0).length);
+        assertTrue(view.hasValidChecksum());
+        assertTrue(view.nextChunk());
+        assertEquals(SCTPMessageType.SELECTIVE_ACK, view.getChunkType());
+        int data = 0;
+        while (view.nextChunk()) {
+            assertEquals(SCTPMessageType.DATA, view.getChunkType());
+            data++;
+        }
+        assertEquals(10, data);
+        assertEquals(0.1, packetizer.getPacketsPerMessage(), 0.0001);
+    }
+
+    @Test
+    public void testSplitAtPacketSize() {
+        SCTPPacketizer packetizer = new SCTPPacketizer(300);
+        List<byte[]> packets = packetizer.packetize(
+                header, false, Collections.emptyList(), messages(10, 100));
+
+        assertEquals(5, packets.size());
+        long tsn = -1;
+        for (byte[] packet : packets) {
+            assertTrue(packet.length <= 300);
+            SCTPPacketView view = new SCTPPacketView(packet, 0, packet.length);
+            assertTrue(view.hasValidChecksum());
+            while (view.nextChunk()) {
+                assertTrue(tsn == -1 || view.getTsn() == tsn + 1);
+                tsn = view.getTsn();
+            }
+        }
+        assertEquals(5, packetizer.getPackets());
+        assertEquals(5 * 12 + 10 * 16, packetizer.getOverheadBytes());
+    }
+
+    @Test
+    public void testOversizedChunkGetsOwnPacket() {
+        SCTPPacketizer packetizer = new SCTPPacketizer(300);
+        List<byte[]> packets = packetizer.packetize(
+                header, false, Collections.singletonList(sack()), messages(1, 600));
+
+        assertEquals(2, packets.size());
+        SCTPPacketView view = new SCTPPacketView(packets.get(1), 0, packets.get(1).length);
+        assertTrue(view.hasValidChecksum());
+        assertTrue(view.nextChunk());
+        assertEquals(SCTPMessageType.DATA, view.getChunkType());
+        assertEquals(600, view.getPayloadLength());
+    }
+
+    @Test
+    public void testZeroChecksum() {
+        SCTPPacketizer packetizer = new SCTPPacketizer();
+        List<byte[]> packets = packetizer.packetize(
+                header, true, Collections.singletonList(sack()), Collections.emptyList());
+
+        SCTPPacketView view = new SCTPPacketView(packets.get(0), 0, packets.get(0).length);
+        assertEquals(0, view.getChecksumValue());
+    }
+
+    @Test
+    public void testNothingToSend() {
+        SCTPPacketizer packetizer = new SCTPPacketizer();
+        assertTrue(packetizer.packetize(
+                header, false, Collections.emptyList(), Collections.emptyList()).isEmpty());
+        assertEquals(0, packetizer.getPackets());
+    }
+
+}
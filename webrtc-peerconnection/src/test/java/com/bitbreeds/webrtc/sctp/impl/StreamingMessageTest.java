@@ -0,0 +1,310 @@
+package com.bitbreeds.webrtc.sctp.impl;
+
+import com.bitbreeds.webrtc.common.ConnectionExecutors;
+import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
+import com.bitbreeds.webrtc.sctp.impl.model.PendingData;
+import com.bitbreeds.webrtc.sctp.impl.model.SendData;
+import com.bitbreeds.webrtc.sctp.model.SCTPOrderFlag;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+public class StreamingMessageTest {
+
+    private final List<IOException> errors = new CopyOnWriteArrayList<>();
+
+    private final PayloadCreator creator = new PayloadCreator();
+
+    private byte[] message(int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) i;
+        }
+        return data;
+    }
+
+    private StreamingMessage streaming(ReadableByteChannel source, long length) throws IOException {
+        StreamingMessage message = creator.createStreamingMessage(
+                source, length, SCTPPayloadProtocolId.WEBRTC_BINARY, 1,
+                SCTPReliability.createOrdered(), () -> 1000, errors::add);
+        message.start(ConnectionExecutors.platformThreads(), () -> {});
+        return message;
+    }
+
+    private List<PendingData> drain(StreamingMessage message) {
+        return take(message, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Poll fragments as the reader queues them
+     */
+    private List<PendingData> take(StreamingMessage message, int count) {
+        List<PendingData> fragments = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (fragments.size() < count && !message.isDone()) {
+            assertTrue("Fragments not read in time", System.currentTimeMillis() < deadline);
+            PendingData fragment = message.poll();
+            if (fragment == null) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            } else {
+                fragments.add(fragment);
+            }
+        }
+        return fragments;
+    }
+
+    private int nextStreamSequence() {
+        return creator.createPayloadMessage(new byte[10], SCTPPayloadProtocolId.WEBRTC_BINARY, 1,
+                SCTPReliability.createOrdered(), 1000).get(0).getStreamSequence();
+    }
+
+    private byte[] payload(List<PendingData> fragments) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (PendingData fragment : fragments) {
+            SendData data = fragment.bind(1);
+            out.write(data.getSctpPayload(), 16, fragment.getLength());
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testFragmentsInOrder() throws IOException {
+        byte[] data = message(10_500);
+        List<PendingData> fragments = drain(streaming(Channels.newChannel(new ByteArrayInputStream(data)), data.length));
+
+        assertEquals(11, fragments.size());
+        assertEquals(SCTPOrderFlag.ORDERED_START_FRAGMENT, fragments.get(0).getFlags());
+        assertEquals(SCTPOrderFlag.ORDERED_MIDDLE_FRAGMENT, fragments.get(5).getFlags());
+        assertEquals(SCTPOrderFlag.ORDERED_END_FRAGMENT, fragments.get(10).getFlags());
+        assertEquals(500, fragments.get(10).getLength());
+        assertArrayEquals(data, payload(fragments));
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    public void testSingleFragment() throws IOException {
+        byte[] data = message(300);
+        List<PendingData> fragments = drain(streaming(Channels.newChannel(new ByteArrayInputStream(data)), data.length));
+
+        assertEquals(1, fragments.size());
+        assertEquals(SCTPOrderFlag.ORDERED_UNFRAGMENTED, fragments.get(0).getFlags());
+        assertArrayEquals(data, payload(fragments));
+    }
+
+    @Test
+    public void testStopsAtLength() throws IOException {
+        byte[] data = message(5000);
+        List<PendingData> fragments = drain(streaming(Channels.newChannel(new ByteArrayInputStream(data)), 2000));
+
+        assertEquals(2, fragments.size());
+        assertEquals(SCTPOrderFlag.ORDERED_END_FRAGMENT, fragments.get(1).getFlags());
+        assertArrayEquals(Arrays.copyOf(data, 2000), payload(fragments));
+    }
+
+    @Test
+    public void testSourceEndsEarly() throws IOException {
+        byte[] data = message(2500);
+        List<PendingData> fragments = drain(streaming(Channels.newChannel(new ByteArrayInputStream(data)), 5000));
+
+        assertEquals(3, fragments.size());
+        assertEquals(SCTPOrderFlag.ORDERED_END_FRAGMENT, fragments.get(2).getFlags());
+        assertArrayEquals(data, payload(fragments));
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    public void testReadFailureEndsMessage() throws IOException {
+        FailingChannel source = new FailingChannel(2000);
+        StreamingMessage message = streaming(source, 10_000);
+        List<PendingData> fragments = drain(message);
+
+        assertEquals(2, fragments.size());
+        assertEquals(SCTPOrderFlag.ORDERED_END_FRAGMENT, fragments.get(1).getFlags());
+        assertEquals(1, errors.size());
+        assertFalse(source.isOpen());
+        assertNull(message.peek());
+    }
+
+    @Test
+    public void testReadsAhead() throws IOException {
+        FailingChannel source = new FailingChannel(1_000_000);
+        StreamingMessage message = streaming(source, 1_000_000);
+        take(message, 2);
+
+        //Two queued, one waiting for room and the one after it read ahead
+        long deadline = System.currentTimeMillis() + 5000;
+        while (source.read < 6000 && System.currentTimeMillis() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(6000, source.read);
+        assertTrue(source.isOpen());
+
+        message.cancel();
+        assertFalse(source.isOpen());
+        assertNull(message.peek());
+    }
+
+    @Test
+    public void testEmptySourceFailsAtOnce() throws IOException {
+        ReadableByteChannel source = Channels.newChannel(new ByteArrayInputStream(new byte[0]));
+        boolean failed = false;
+        try {
+            streaming(source, 1000);
+        } catch (EOFException e) {
+            failed = true;
+        }
+        assertTrue(failed);
+        assertFalse(source.isOpen());
+        assertEquals(0, nextStreamSequence());
+    }
+
+    @Test
+    public void testFailingSourceFailsAtOnce() {
+        FailingChannel source = new FailingChannel(0);
+        boolean failed = false;
+        try {
+            streaming(source, 1000);
+        } catch (IOException e) {
+            failed = true;
+        }
+        assertTrue(failed);
+        assertFalse(source.isOpen());
+        assertTrue(errors.isEmpty());
+        assertEquals(0, nextStreamSequence());
+    }
+
+    @Test
+    public void testLaterMessageFollowsStreamed() throws IOException {
+        drain(streaming(Channels.newChannel(new ByteArrayInputStream(message(2500))), 2500));
+        assertEquals(1, nextStreamSequence());
+    }
+
+    @Test
+    public void testSourceWithNothingYet() throws IOException {
+        byte[] data = message(2500);
+        PausingChannel source = new PausingChannel(data, 500);
+        StreamingMessage message = streaming(source, data.length);
+
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+        assertNull(message.peek());
+        assertFalse(message.isDone());
+
+        source.paused = false;
+        List<PendingData> fragments = drain(message);
+
+        assertEquals(500, fragments.get(0).getLength());
+        assertArrayEquals(data, payload(fragments));
+        assertTrue(errors.isEmpty());
+    }
+
+    /**
+     * Gives zeros until a number of bytes is read, then fails
+     */
+    private static class FailingChannel implements ReadableByteChannel {
+
+        private final int failAfter;
+        private volatile int read = 0;
+        private volatile boolean open = true;
+
+        private FailingChannel(int failAfter) {
+            this.failAfter = failAfter;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            if (read >= failAfter) {
+                throw new IOException("Failed after " + read);
+            }
+            int length = Math.min(dst.remaining(), failAfter - read);
+            dst.position(dst.position() + length);
+            read += length;
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+
+    /**
+     * Non blocking source giving part of the data, then nothing until it is unpaused
+     */
+    private static class PausingChannel implements ReadableByteChannel {
+
+        private final ByteBuffer data;
+        private final int pauseAt;
+        private volatile boolean paused = true;
+
+        private PausingChannel(byte[] data, int pauseAt) {
+            this.data = ByteBuffer.wrap(data);
+            this.pauseAt = pauseAt;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) {
+            if (!data.hasRemaining()) {
+                return -1;
+            }
+            int limit = paused ? pauseAt : data.capacity();
+            int length = Math.min(dst.remaining(), limit - data.position());
+            if (length <= 0) {
+                return 0;
+            }
+            ByteBuffer slice = data.duplicate();
+            slice.limit(data.position() + length);
+            dst.put(slice);
+            data.position(data.position() + length);
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+}
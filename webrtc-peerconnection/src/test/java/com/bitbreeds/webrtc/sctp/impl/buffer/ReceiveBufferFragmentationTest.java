@@ -43,6 +43,16 @@ public class ReceiveBufferFragmentationTest {
                 data);
     }
 
+    private ReceivedData makeOrderedFrag(long tsn, int ssn, byte[] data, SCTPOrderFlag flag) {
+        return new ReceivedData(tsn,
+                0,
+                ssn,
+                flag,
+                SCTPPayloadProtocolId.WEBRTC_BINARY,
+                SCTPReliability.createOrdered(),
+                data);
+    }
+
     @Test
     public void testReceiveFragmented() {
         ReceiveBuffer buffer = new ReceiveBuffer(6,100);
@@ -84,6 +94,23 @@ public class ReceiveBufferFragmentationTest {
     }
 
 
+    @Test
+    public void testOrderedFragmentedAdvancesStream() {
+        ReceiveBuffer buffer = new ReceiveBuffer(6,100);
+
+        buffer.setInitialTSN(1);
+
+        buffer.store(makeOrderedFrag(1,0,new byte[]{0},SCTPOrderFlag.ORDERED_START_FRAGMENT));
+        buffer.store(makeOrderedFrag(2,0,new byte[]{1},SCTPOrderFlag.ORDERED_END_FRAGMENT));
+        buffer.store(makeOrderedFrag(3,1,new byte[]{2},SCTPOrderFlag.ORDERED_START_FRAGMENT));
+        buffer.store(makeOrderedFrag(4,1,new byte[]{3},SCTPOrderFlag.ORDERED_END_FRAGMENT));
+
+        List<Deliverable> del = buffer.getMessagesForDelivery();
+        assertEquals(2,del.size());
+        assertArrayEquals(new byte[]{0,1},del.get(0).getData());
+        assertArrayEquals(new byte[]{2,3},del.get(1).getData());
+    }
+
     @Test
     public void wrappedFragmedted() {
         ReceiveBuffer buffer = new ReceiveBuffer(6,100);
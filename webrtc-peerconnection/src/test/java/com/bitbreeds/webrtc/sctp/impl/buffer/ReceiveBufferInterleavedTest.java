@@ -0,0 +1,116 @@
+package com.bitbreeds.webrtc.sctp.impl.buffer;
+
+import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
+import com.bitbreeds.webrtc.model.sctp.SkippedMessage;
+import com.bitbreeds.webrtc.model.webrtc.Deliverable;
+import com.bitbreeds.webrtc.sctp.impl.SCTPReliability;
+import com.bitbreeds.webrtc.sctp.impl.model.ReceivedData;
+import com.bitbreeds.webrtc.sctp.model.SCTPOrderFlag;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+public class ReceiveBufferInterleavedTest {
+
+    private ReceivedData makeFrag(long tsn, int stream, int mid, long fsn, byte[] data, SCTPOrderFlag flag) {
+        return new ReceivedData(tsn,
+                stream,
+                mid,
+                fsn,
+                true,
+                flag,
+                fsn == 0 ? SCTPPayloadProtocolId.WEBRTC_BINARY : null,
+                SCTPReliability.createOrdered(),
+                data);
+    }
+
+    private ReceiveBuffer buffer() {
+        ReceiveBuffer buffer = new ReceiveBuffer(10,100);
+        buffer.setInitialTSN(1);
+        return buffer;
+    }
+
+    @Test
+    public void messagesReassembledAcrossInterleavedTsns() {
+        ReceiveBuffer buffer = buffer();
+
+        buffer.store(makeFrag(1,1,0,0,new byte[]{0,1},SCTPOrderFlag.ORDERED_START_FRAGMENT));
+        buffer.store(makeFrag(2,2,0,0,new byte[]{9},SCTPOrderFlag.ORDERED_START_FRAGMENT));
+        buffer.store(makeFrag(3,1,0,1,new byte[]{2},SCTPOrderFlag.ORDERED_END_FRAGMENT));
+        buffer.store(makeFrag(4,2,0,1,new byte[]{8},SCTPOrderFlag.ORDERED_END_FRAGMENT));
+
+        List<Deliverable> dl = buffer.getMessagesForDelivery();
+        assertEquals(2,dl.size());
+        assertEquals(1,dl.get(0).getStreamId());
+        assertArrayEquals(new byte[]{0,1,2},dl.get(0).getData());
+        assertEquals(2,dl.get(1).getStreamId());
+        assertArrayEquals(new byte[]{9,8},dl.get(1).getData());
+        assertEquals(4,buffer.getSackDataToSend().getCumulativeTSN());
+    }
+
+    @Test
+    public void smallMessageNotBlockedByLargeOnOtherStream() {
+        ReceiveBuffer buffer = buffer();
+
+        buffer.store(makeFrag(1,1,0,0,new byte[]{0},SCTPOrderFlag.ORDERED_START_FRAGMENT));
+        buffer.store(makeFrag(2,2,0,0,new byte[]{7},SCTPOrderFlag.ORDERED_UNFRAGMENTED));
+
+        List<Deliverable> dl = buffer.getMessagesForDelivery();
+        assertEquals(1,dl.size());
+        assertEquals(2,dl.get(0).getStreamId());
+        assertArrayEquals(new byte[]{7},dl.get(0).getData());
+    }
+
+    @Test
+    public void missingFragmentSequenceHoldsMessage() {
+        ReceiveBuffer buffer = buffer();
+
+        buffer.store(makeFrag(1,1,0,0,new byte[]{0},SCTPOrderFlag.ORDERED_START_FRAGMENT));
+        buffer.store(makeFrag(3,1,0,2,new byte[]{2},SCTPOrderFlag.ORDERED_END_FRAGMENT));
+        assertEquals(0,buffer.getMessagesForDelivery().size());
+
+        buffer.store(makeFrag(2,1,0,1,new byte[]{1},SCTPOrderFlag.ORDERED_MIDDLE_FRAGMENT));
+        List<Deliverable> dl = buffer.getMessagesForDelivery();
+        assertEquals(1,dl.size());
+        assertArrayEquals(new byte[]{0,1,2},dl.get(0).getData());
+    }
+
+    @Test
+    public void forwardTsnSkipsPartlyReceivedMessage() {
+        ReceiveBuffer buffer = buffer();
+
+        buffer.store(makeFrag(1,1,0,0,new byte[]{0},SCTPOrderFlag.ORDERED_START_FRAGMENT));
+        buffer.store(makeFrag(3,1,1,0,new byte[]{5},SCTPOrderFlag.ORDERED_UNFRAGMENTED));
+        buffer.store(makeFrag(4,1,0,2,new byte[]{2},SCTPOrderFlag.ORDERED_END_FRAGMENT));
+        assertEquals(0,buffer.getMessagesForDelivery().size());
+
+        ForwardAccResult result = buffer.receiveForwardAckPoint(2,
+                Collections.singletonList(new SkippedMessage(1,0,false)), true);
+        assertEquals(0,result.getToDeliver().size());
+
+        List<Deliverable> dl = buffer.getMessagesForDelivery();
+        assertEquals(1,dl.size());
+        assertArrayEquals(new byte[]{5},dl.get(0).getData());
+        assertEquals(4,buffer.getSackDataToSend().getCumulativeTSN());
+    }
+
+}
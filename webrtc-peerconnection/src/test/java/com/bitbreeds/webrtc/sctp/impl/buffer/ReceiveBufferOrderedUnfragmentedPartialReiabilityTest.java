@@ -2,6 +2,7 @@ package com.bitbreeds.webrtc.sctp.impl.buffer;
 
 import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
 import com.bitbreeds.webrtc.model.sctp.SackUtil;
+import com.bitbreeds.webrtc.model.sctp.SkippedMessage;
 import com.bitbreeds.webrtc.model.webrtc.Deliverable;
 import com.bitbreeds.webrtc.sctp.error.DroppedDataException;
 import com.bitbreeds.webrtc.sctp.impl.SCTPReliability;
@@ -81,6 +82,29 @@ public class ReceiveBufferOrderedUnfragmentedPartialReiabilityTest {
     }
 
 
+    @Test
+    public void testForwardTsnSkipsListedMessage() {
+        ReceiveBuffer buffer = new ReceiveBuffer(6,100);
+
+        buffer.setInitialTSN(1);
+
+        buffer.store(makeDsStream1(1,0,new byte[]{0,1,2}));
+        buffer.store(makeDsStream1(2,1,new byte[]{0,1,2}));
+
+        buffer.store(makeDsStream1(4,3,new byte[]{3}));
+
+        assertEquals(2,buffer.getMessagesForDelivery().size());
+        buffer.getSackDataToSend();
+
+        ForwardAccResult del = buffer.receiveForwardAckPoint(3,
+                Collections.singletonList(new SkippedMessage(1,2,false)), false);
+        assertEquals(0,del.getToDeliver().size());
+
+        List<Deliverable> dl = buffer.getMessagesForDelivery();
+        assertEquals(1,dl.size());
+        assertArrayEquals(new byte[]{3},dl.get(0).getData());
+    }
+
     @Test(expected = DroppedDataException.class)
     public void testReceiveOutOfOrderDroppingOrderedData() {
         ReceiveBuffer buffer = new ReceiveBuffer(6,100);
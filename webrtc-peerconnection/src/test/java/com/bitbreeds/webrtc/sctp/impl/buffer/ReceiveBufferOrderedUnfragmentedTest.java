@@ -212,6 +212,27 @@ public class ReceiveBufferOrderedUnfragmentedTest {
 
 
 
+    @Test
+    public void testStreamSequenceWrapsAt16Bits() {
+        ReceiveBuffer buffer = new ReceiveBuffer(6,100);
+
+        buffer.setInitialTSN(1);
+
+        for (int ssn = 0; ssn <= 0xFFFF; ssn++) {
+            buffer.store(makeDsStream1(ssn + 1, ssn, new byte[]{0}));
+            assertEquals(1, buffer.getMessagesForDelivery().size());
+            buffer.getSackDataToSend();
+        }
+
+        buffer.store(makeDsStream1(0x10001, 0, new byte[]{1}));
+        buffer.store(makeDsStream2(0x10002, 0, new byte[]{2}));
+
+        List<Deliverable> del = buffer.getMessagesForDelivery();
+        assertEquals(2,del.size());
+        assertArrayEquals(new byte[]{1},del.get(0).getData());
+        assertArrayEquals(new byte[]{2},del.get(1).getData());
+    }
+
     @Test(expected = OutOfBufferSpaceError.class)
     public void testWrapBufferNoClearFull() {
         ReceiveBuffer buffer = new ReceiveBuffer(6,100);
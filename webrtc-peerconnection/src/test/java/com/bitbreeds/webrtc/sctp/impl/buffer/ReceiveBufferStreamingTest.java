@@ -0,0 +1,150 @@
+package com.bitbreeds.webrtc.sctp.impl.buffer;
+
+import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
+import com.bitbreeds.webrtc.model.webrtc.Deliverable;
+import com.bitbreeds.webrtc.sctp.impl.SCTPReliability;
+import com.bitbreeds.webrtc.sctp.impl.model.ReceivedData;
+import com.bitbreeds.webrtc.sctp.model.SCTPOrderFlag;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+public class ReceiveBufferStreamingTest {
+
+    private ReceivedData makeFrag(long tsn, int ssn, byte[] data, SCTPOrderFlag flag) {
+        return new ReceivedData(tsn,
+                0,
+                ssn,
+                flag,
+                SCTPPayloadProtocolId.WEBRTC_BINARY,
+                SCTPReliability.createOrdered(),
+                data);
+    }
+
+    private ReceiveBuffer streamingBuffer() {
+        ReceiveBuffer buffer = new ReceiveBuffer(6,100);
+        buffer.setInitialTSN(1);
+        buffer.setStreaming(0,true);
+        return buffer;
+    }
+
+    @Test
+    public void fragmentsDeliveredAsTheyArrive() {
+        ReceiveBuffer buffer = streamingBuffer();
+
+        buffer.store(makeFrag(1,0,new byte[]{0,1},SCTPOrderFlag.ORDERED_START_FRAGMENT));
+        List<Deliverable> first = buffer.getMessagesForDelivery();
+        assertEquals(1,first.size());
+        assertEquals(Deliverable.Part.FIRST,first.get(0).getPart());
+        assertArrayEquals(new byte[]{0,1},first.get(0).getData());
+        assertEquals(100,buffer.getCapacity());
+
+        buffer.store(makeFrag(2,0,new byte[]{2,3},SCTPOrderFlag.ORDERED_MIDDLE_FRAGMENT));
+        List<Deliverable> middle = buffer.getMessagesForDelivery();
+        assertEquals(Deliverable.Part.MIDDLE,middle.get(0).getPart());
+
+        buffer.store(makeFrag(3,0,new byte[]{4},SCTPOrderFlag.ORDERED_END_FRAGMENT));
+        List<Deliverable> last = buffer.getMessagesForDelivery();
+        assertEquals(Deliverable.Part.LAST,last.get(0).getPart());
+        assertArrayEquals(new byte[]{4},last.get(0).getData());
+        assertEquals(100,buffer.getCapacity());
+        assertEquals(3,buffer.getSackDataToSend().getCumulativeTSN());
+    }
+
+    @Test
+    public void gapHoldsLaterFragments() {
+        ReceiveBuffer buffer = streamingBuffer();
+
+        buffer.store(makeFrag(1,0,new byte[]{0},SCTPOrderFlag.ORDERED_START_FRAGMENT));
+        buffer.store(makeFrag(3,0,new byte[]{2},SCTPOrderFlag.ORDERED_MIDDLE_FRAGMENT));
+        assertEquals(1,buffer.getMessagesForDelivery().size());
+        assertEquals(99,buffer.getCapacity());
+
+        buffer.store(makeFrag(2,0,new byte[]{1},SCTPOrderFlag.ORDERED_MIDDLE_FRAGMENT));
+        List<Deliverable> dl = buffer.getMessagesForDelivery();
+        assertEquals(2,dl.size());
+        assertArrayEquals(new byte[]{1},dl.get(0).getData());
+        assertArrayEquals(new byte[]{2},dl.get(1).getData());
+    }
+
+    @Test
+    public void ringSlotsReusedBeforeMessageEnds() {
+        ReceiveBuffer buffer = streamingBuffer();
+
+        buffer.store(makeFrag(1,0,new byte[]{0},SCTPOrderFlag.ORDERED_START_FRAGMENT));
+        buffer.getMessagesForDelivery();
+        buffer.getSackDataToSend();
+        for (int tsn = 2; tsn <= 12; tsn++) {
+            buffer.store(makeFrag(tsn,0,new byte[]{(byte)tsn},SCTPOrderFlag.ORDERED_MIDDLE_FRAGMENT));
+            assertEquals(1,buffer.getMessagesForDelivery().size());
+            buffer.getSackDataToSend();
+        }
+        buffer.store(makeFrag(13,0,new byte[]{13},SCTPOrderFlag.ORDERED_END_FRAGMENT));
+        assertEquals(Deliverable.Part.LAST,buffer.getMessagesForDelivery().get(0).getPart());
+    }
+
+    @Test
+    public void nextMessageWaitsForStreamedMessage() {
+        ReceiveBuffer buffer = streamingBuffer();
+
+        buffer.store(makeFrag(1,0,new byte[]{0},SCTPOrderFlag.ORDERED_START_FRAGMENT));
+        buffer.store(makeFrag(3,1,new byte[]{9},SCTPOrderFlag.ORDERED_UNFRAGMENTED));
+        assertEquals(1,buffer.getMessagesForDelivery().size());
+
+        buffer.store(makeFrag(2,0,new byte[]{1},SCTPOrderFlag.ORDERED_END_FRAGMENT));
+        List<Deliverable> dl = buffer.getMessagesForDelivery();
+        assertEquals(2,dl.size());
+        assertEquals(Deliverable.Part.LAST,dl.get(0).getPart());
+        assertEquals(Deliverable.Part.WHOLE,dl.get(1).getPart());
+    }
+
+    @Test
+    public void notStreamedWhenOff() {
+        ReceiveBuffer buffer = new ReceiveBuffer(6,100);
+        buffer.setInitialTSN(1);
+
+        buffer.store(makeFrag(1,0,new byte[]{0},SCTPOrderFlag.ORDERED_START_FRAGMENT));
+        assertEquals(Collections.emptyList(),buffer.getMessagesForDelivery());
+
+        buffer.store(makeFrag(2,0,new byte[]{1},SCTPOrderFlag.ORDERED_END_FRAGMENT));
+        List<Deliverable> dl = buffer.getMessagesForDelivery();
+        assertEquals(Deliverable.Part.WHOLE,dl.get(0).getPart());
+        assertArrayEquals(new byte[]{0,1},dl.get(0).getData());
+    }
+
+    @Test
+    public void forwardAckPointAbandonsStreamedMessage() {
+        ReceiveBuffer buffer = streamingBuffer();
+
+        buffer.store(makeFrag(1,0,new byte[]{0},SCTPOrderFlag.ORDERED_START_FRAGMENT));
+        buffer.getMessagesForDelivery();
+        buffer.getSackDataToSend();
+
+        List<Deliverable> dl = buffer.receiveForwardAckPoint(3).getToDeliver();
+        assertEquals(1,dl.size());
+        assertEquals(Deliverable.Part.ABANDONED,dl.get(0).getPart());
+
+        buffer.store(makeFrag(4,1,new byte[]{5},SCTPOrderFlag.ORDERED_UNFRAGMENTED));
+        assertEquals(1,buffer.getMessagesForDelivery().size());
+    }
+
+}
@@ -1,18 +1,33 @@
 package com.bitbreeds.webrtc.sctp.impl.buffer;
 
+import com.bitbreeds.webrtc.common.ConnectionExecutors;
 import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
 import com.bitbreeds.webrtc.model.sctp.SackUtil;
+import com.bitbreeds.webrtc.model.sctp.SkippedMessage;
+import com.bitbreeds.webrtc.sctp.impl.PayloadCreator;
 import com.bitbreeds.webrtc.sctp.impl.SCTPReliability;
+import com.bitbreeds.webrtc.sctp.impl.StreamingMessage;
+import com.bitbreeds.webrtc.sctp.impl.model.PendingData;
+import com.bitbreeds.webrtc.sctp.impl.model.ReceivedData;
 import com.bitbreeds.webrtc.sctp.impl.model.SendData;
 import com.bitbreeds.webrtc.sctp.model.SCTPOrderFlag;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Copyright (c) 26/02/2018, Jonas Waage
@@ -32,10 +47,10 @@ import static org.junit.Assert.assertEquals;
 public class SendBufferTest {
 
 
-    private List<SendData> makeData(long tsn) {
-        return Collections.singletonList(new SendData(tsn,0,0, SCTPOrderFlag.UNORDERED_UNFRAGMENTED, SCTPPayloadProtocolId.WEBRTC_BINARY,
+    private List<PendingData> makeData(long tsn) {
+        return Collections.singletonList(new PendingData(0,0, SCTPOrderFlag.UNORDERED_UNFRAGMENTED, SCTPPayloadProtocolId.WEBRTC_BINARY,
                 SCTPReliability.createUnordered(),
-                new byte[] {0,0,0,0,0,0,1,1,1,1,1}));
+                new byte[] {0,0,0,0,0,0,1,1,1,1,1},0,11));
     }
 
     @Test
@@ -86,6 +101,246 @@ public class SendBufferTest {
     }
 
 
+    @Test
+    public void holdBackWhenWireIsFull() {
+        SendBuffer buffer = new SendBuffer(1000);
+
+        buffer.initializeRemote(1000,1);
+
+        buffer.buffer(makeData(1));
+        buffer.buffer(makeData(2));
+        buffer.buffer(makeData(3));
+
+        assertEquals(0,buffer.getDataToSend(0).size());
+
+        int messageSize = makeData(1).get(0).getChunkLength();
+        List<BufferedSent> toSend = buffer.getDataToSend(messageSize);
+        assertEquals(1,toSend.size());
+        assertEquals(1,toSend.get(0).getTsn());
+
+        List<BufferedSent> rest = buffer.getDataToSend();
+        assertEquals(2,rest.size());
+        assertEquals(2,rest.get(0).getTsn());
+    }
+
+
+    @Test
+    public void tsnAssignedWhenSent() {
+        SendBuffer buffer = new SendBuffer(1000);
+        buffer.initializeRemote(1000,1);
+
+        buffer.buffer(makeData(1));
+        buffer.buffer(makeData(2));
+        assertEquals(1,buffer.getNextTSN());
+
+        int messageSize = makeData(1).get(0).getChunkLength();
+        List<BufferedSent> first = buffer.getDataToSend(messageSize);
+        assertEquals(1,first.get(0).getTsn());
+        assertEquals(1,first.get(0).getData().getTsn());
+        assertEquals(messageSize,first.get(0).getData().getSctpPayload().length);
+        assertEquals(2,buffer.getNextTSN());
+
+        buffer.buffer(makeData(3));
+        List<BufferedSent> rest = buffer.getDataToSend();
+        assertEquals(2,rest.size());
+        assertEquals(2,rest.get(0).getTsn());
+        assertEquals(3,rest.get(1).getTsn());
+        assertEquals(4,buffer.getNextTSN());
+    }
+
+
+    @Test
+    public void streamingReadAsWindowOpens() throws IOException {
+        SendBuffer buffer = new SendBuffer(1000);
+        buffer.initializeRemote(1000000,1);
+
+        long[] read = new long[1];
+        ReadableByteChannel source = new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer dst) {
+                int length = dst.remaining();
+                dst.position(dst.limit());
+                read[0] += length;
+                return length;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        StreamingMessage message = new PayloadCreator().createStreamingMessage(
+                source, 100_000_000L, SCTPPayloadProtocolId.WEBRTC_BINARY, 1,
+                SCTPReliability.createOrdered(), () -> 1000, e -> {});
+        buffer.buffer(message);
+        message.start(ConnectionExecutors.platformThreads(), () -> {});
+
+        List<BufferedSent> toSend = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (toSend.size() < 4 && System.currentTimeMillis() < deadline) {
+            toSend.addAll(buffer.getDataToSend());
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+        toSend.addAll(buffer.getDataToSend());
+
+        assertEquals(4,toSend.size());
+        assertEquals(1000,buffer.getCapacity());
+        //Sent, two queued, one waiting for room and one read ahead
+        assertTrue(read[0] <= 8000);
+        assertTrue(buffer.hasMessagesBuffered());
+        buffer.close();
+    }
+
+    @Test
+    public void slowSourceDoesNotHoldBackOtherStreams() throws IOException {
+        SendBuffer buffer = new SendBuffer(1000);
+        buffer.initializeRemote(1000000,1);
+        buffer.setScheduler(new RoundRobinScheduler(false));
+
+        CountDownLatch release = new CountDownLatch(1);
+        boolean[] closed = new boolean[1];
+        ReadableByteChannel source = new ReadableByteChannel() {
+            private int read = 0;
+
+            @Override
+            public int read(ByteBuffer dst) {
+                if (read > 0) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return -1;
+                }
+                read = dst.remaining();
+                dst.position(dst.limit());
+                return read;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return !closed[0];
+            }
+
+            @Override
+            public void close() {
+                closed[0] = true;
+                release.countDown();
+            }
+        };
+
+        PayloadCreator creator = new PayloadCreator();
+        StreamingMessage message = creator.createStreamingMessage(
+                source, 100_000L, SCTPPayloadProtocolId.WEBRTC_BINARY, 1,
+                SCTPReliability.createOrdered(), () -> 1000, e -> {});
+        buffer.buffer(message);
+        message.start(ConnectionExecutors.platformThreads(), () -> {});
+        buffer.buffer(creator.createPayloadMessage(new byte[30], SCTPPayloadProtocolId.WEBRTC_BINARY,
+                2, SCTPReliability.createOrdered(), 1000));
+
+        List<BufferedSent> toSend = buffer.getDataToSend();
+        assertEquals(1,toSend.size());
+        assertEquals(2,toSend.get(0).getData().getStreamId());
+        assertTrue(buffer.hasMessagesBuffered());
+
+        buffer.close();
+        assertTrue(closed[0]);
+    }
+
+    @Test
+    public void interleavingSchedulerAlternatesStreams() {
+        SendBuffer buffer = new SendBuffer(1000);
+        buffer.initializeRemote(1000,1);
+        buffer.setScheduler(new RoundRobinScheduler(true));
+
+        PayloadCreator creator = new PayloadCreator();
+        creator.setMessageInterleaving(true);
+        buffer.buffer(creator.createPayloadMessage(new byte[30], SCTPPayloadProtocolId.WEBRTC_BINARY,
+                1, SCTPReliability.createOrdered(), 10));
+        buffer.buffer(creator.createPayloadMessage(new byte[5], SCTPPayloadProtocolId.WEBRTC_BINARY,
+                2, SCTPReliability.createOrdered(), 10));
+
+        List<Integer> streams = buffer.getDataToSend().stream()
+                .map(i -> i.getData().getStreamId())
+                .collect(Collectors.toList());
+        assertEquals(Stream.of(1,2,1,1).collect(Collectors.toList()),streams);
+    }
+
+    @Test
+    public void firstComeFirstServedKeepsMessagesTogether() {
+        SendBuffer buffer = new SendBuffer(1000);
+        buffer.initializeRemote(1000,1);
+
+        PayloadCreator creator = new PayloadCreator();
+        buffer.buffer(creator.createPayloadMessage(new byte[30], SCTPPayloadProtocolId.WEBRTC_BINARY,
+                1, SCTPReliability.createOrdered(), 10));
+        buffer.buffer(creator.createPayloadMessage(new byte[5], SCTPPayloadProtocolId.WEBRTC_BINARY,
+                2, SCTPReliability.createOrdered(), 10));
+
+        List<Integer> streams = buffer.getDataToSend().stream()
+                .map(i -> i.getData().getStreamId())
+                .collect(Collectors.toList());
+        assertEquals(Stream.of(1,1,1,2).collect(Collectors.toList()),streams);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void schedulerNotReplacedWhileBuffered() {
+        SendBuffer buffer = new SendBuffer(1000);
+        buffer.initializeRemote(1000,1);
+        buffer.buffer(makeData(1));
+        buffer.setScheduler(new RoundRobinScheduler(true));
+    }
+
+    @Test
+    public void bufferedAmountPerStream() {
+        SendBuffer buffer = new SendBuffer(1000);
+        buffer.initializeRemote(1000,1);
+
+        PayloadCreator creator = new PayloadCreator();
+        buffer.buffer(creator.createPayloadMessage(new byte[30], SCTPPayloadProtocolId.WEBRTC_BINARY,
+                1, SCTPReliability.createOrdered(), 10));
+        buffer.buffer(makeData(1));
+        assertEquals(30,buffer.getBufferedAmount(1));
+        assertEquals(11,buffer.getBufferedAmount(0));
+        assertEquals(0,buffer.getBufferedAmount(2));
+
+        int chunk = makeData(1).get(0).getChunkLength();
+        buffer.getDataToSend(chunk);
+        assertEquals(20,buffer.getBufferedAmount(1));
+        assertEquals(Collections.emptyList(),buffer.pollBufferedAmountLow());
+
+        buffer.getDataToSend();
+        assertEquals(0,buffer.getBufferedAmount(1));
+        assertEquals(Stream.of(1,0).collect(Collectors.toList()),buffer.pollBufferedAmountLow());
+        assertEquals(Collections.emptyList(),buffer.pollBufferedAmountLow());
+    }
+
+    @Test
+    public void bufferedAmountLowOnlyWhenThresholdCrossed() {
+        SendBuffer buffer = new SendBuffer(1000);
+        buffer.initializeRemote(1000,1);
+        buffer.setBufferedAmountLowThreshold(0,15);
+
+        buffer.buffer(makeData(1));
+        buffer.getDataToSend();
+        assertEquals(Collections.emptyList(),buffer.pollBufferedAmountLow());
+
+        buffer.buffer(makeData(2));
+        buffer.buffer(makeData(3));
+        int chunk = makeData(1).get(0).getChunkLength();
+        buffer.getDataToSend(chunk);
+        assertEquals(Collections.singletonList(0),buffer.pollBufferedAmountLow());
+        buffer.getDataToSend();
+        assertEquals(Collections.emptyList(),buffer.pollBufferedAmountLow());
+    }
+
+
     @Test(expected = OutOfBufferSpaceError.class)
     public void outOfBufferTest() {
         SendBuffer buffer = new SendBuffer(200);
@@ -96,4 +351,107 @@ public class SendBufferTest {
         }
     }
 
+    @Test
+    public void rejectedMessageKeepsCapacity() {
+        SendBuffer buffer = new SendBuffer(200);
+        buffer.initializeRemote(1000,1);
+
+        List<PendingData> large = Stream.generate(() -> makeData(0).get(0))
+                .limit(10)
+                .collect(Collectors.toList());
+        boolean rejected = false;
+        try {
+            buffer.buffer(large);
+        } catch (OutOfBufferSpaceError e) {
+            rejected = true;
+        }
+
+        assertTrue(rejected);
+        assertEquals(200,buffer.getCapacity());
+        assertEquals(0,buffer.getBufferedAmount(0));
+
+        buffer.buffer(makeData(1));
+        assertEquals(1,buffer.getDataToSend().size());
+    }
+
+    @Test
+    public void bufferedSizeMatchesFragments() {
+        PayloadCreator creator = new PayloadCreator();
+        for (boolean interleaved : new boolean[]{false, true}) {
+            creator.setMessageInterleaving(interleaved);
+            for (int length : new int[]{0, 1, 999, 1000, 1001, 3003}) {
+                int size = creator.createPayloadMessage(new byte[length], SCTPPayloadProtocolId.WEBRTC_BINARY, 0,
+                        SCTPReliability.createOrdered(), 1000).stream()
+                        .mapToInt(PendingData::getChunkLength)
+                        .sum();
+                assertEquals(size, creator.bufferedSize(length, 1000));
+            }
+        }
+    }
+
+    @Test
+    public void forwardTsnListsAbandonedMessages() {
+        SendBuffer buffer = new SendBuffer(10000);
+        buffer.initializeRemote(10000,1);
+        PayloadCreator creator = new PayloadCreator();
+        creator.setMessageInterleaving(true);
+
+        SCTPReliability ordered = SCTPReliability.createMaxRetransmits(0, true);
+        SCTPReliability unordered = SCTPReliability.createMaxRetransmits(0, false);
+        buffer.buffer(creator.createPayloadMessage(new byte[10], SCTPPayloadProtocolId.WEBRTC_BINARY, 1, ordered, 1000));
+        buffer.buffer(creator.createPayloadMessage(new byte[10], SCTPPayloadProtocolId.WEBRTC_BINARY, 1, ordered, 1000));
+        buffer.buffer(creator.createPayloadMessage(new byte[10], SCTPPayloadProtocolId.WEBRTC_BINARY, 2, unordered, 1000));
+        assertEquals(3,buffer.getDataToSend().size());
+
+        FwdAckPoint fwd = buffer.getDataToRetransmit().getFwdAckPoint();
+        assertEquals(3,fwd.getAckPoint());
+        assertEquals(Arrays.asList(new SkippedMessage(1,1,false), new SkippedMessage(2,0,true)), fwd.getSkipped());
+
+        //Listed again in case the forward TSN is lost
+        assertEquals(fwd.getSkipped(), buffer.getDataToRetransmit().getFwdAckPoint().getSkipped());
+
+        buffer.receiveSack(new SackData(3L, Collections.emptyList(), Collections.emptyList(), 10000));
+        assertEquals(Collections.emptyList(), buffer.getDataToRetransmit().getFwdAckPoint().getSkipped());
+    }
+
+    private static int deliver(SendBuffer buffer, ReceiveBuffer receiver, byte[] data) {
+        for (BufferedSent sent : buffer.getDataToSend()) {
+            SendData chunk = sent.getData();
+            receiver.store(new ReceivedData(chunk.getTsn(), chunk.getStreamId(), chunk.getStreamSequence(),
+                    chunk.getFlags(), chunk.getProtocolId(), chunk.getReliability(), data));
+        }
+        buffer.receiveSack(receiver.getSackDataToSend());
+        return receiver.getMessagesForDelivery().size();
+    }
+
+    @Test
+    public void rejectedMessageTakesNoStreamSequence() {
+        SendBuffer buffer = new SendBuffer(1000);
+        buffer.initializeRemote(100000,1);
+        ReceiveBuffer receiver = new ReceiveBuffer(100,100000);
+        receiver.setInitialTSN(1);
+        PayloadCreator creator = new PayloadCreator();
+
+        byte[] data = new byte[100];
+        Runnable send = () -> buffer.buffer(
+                creator.bufferedSize(data.length, 1000),
+                () -> creator.createPayloadMessage(data, SCTPPayloadProtocolId.WEBRTC_BINARY, 0,
+                        SCTPReliability.createOrdered(), 1000));
+
+        int buffered = 0;
+        try {
+            while (true) {
+                send.run();
+                buffered++;
+            }
+        } catch (OutOfBufferSpaceError e) {
+            //Buffer full, the application retries later
+        }
+        assertTrue(buffered > 0);
+        assertEquals(buffered, deliver(buffer, receiver, data));
+
+        send.run();
+        assertEquals(1, deliver(buffer, receiver, data));
+    }
+
 }
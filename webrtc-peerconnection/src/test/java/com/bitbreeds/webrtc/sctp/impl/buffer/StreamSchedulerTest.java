@@ -0,0 +1,232 @@
+package com.bitbreeds.webrtc.sctp.impl.buffer;
+
+import com.bitbreeds.webrtc.model.sctp.SCTPPayloadProtocolId;
+import com.bitbreeds.webrtc.model.webrtc.DataChannelPriority;
+import com.bitbreeds.webrtc.sctp.impl.PayloadCreator;
+import com.bitbreeds.webrtc.sctp.impl.SCTPReliability;
+import com.bitbreeds.webrtc.sctp.impl.model.OutgoingMessage;
+import com.bitbreeds.webrtc.sctp.impl.model.PendingData;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+public class StreamSchedulerTest {
+
+    private final PayloadCreator creator = new PayloadCreator();
+
+    private SendBuffer buffer(StreamScheduler scheduler) {
+        SendBuffer buffer = new SendBuffer(100000);
+        buffer.initializeRemote(100000,1);
+        buffer.setScheduler(scheduler);
+        return buffer;
+    }
+
+    private void send(SendBuffer buffer, int stream, int length) {
+        buffer.buffer(creator.createPayloadMessage(new byte[length], SCTPPayloadProtocolId.WEBRTC_BINARY,
+                stream, SCTPReliability.createOrdered(), 10));
+    }
+
+    private List<Integer> sentStreams(SendBuffer buffer, int fragments) {
+        int chunk = creator.createPayloadMessage(new byte[10], SCTPPayloadProtocolId.WEBRTC_BINARY,
+                0, SCTPReliability.createOrdered(), 10).get(0).getChunkLength();
+        return buffer.getDataToSend(chunk * fragments).stream()
+                .map(i -> i.getData().getStreamId())
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void weightedFairSharesByPriority() {
+        SendBuffer buffer = buffer(new WeightedFairScheduler(false));
+        buffer.setStreamWeight(1, DataChannelPriority.BELOW_NORMAL.getWeight());
+        buffer.setStreamWeight(2, DataChannelPriority.EXTRA_HIGH.getWeight());
+        for (int i = 0; i < 20; i++) {
+            send(buffer, 1, 10);
+            send(buffer, 2, 10);
+        }
+
+        List<Integer> sent = sentStreams(buffer, 18);
+        assertEquals(2, sent.stream().filter(i -> i == 1).count());
+        assertEquals(16, sent.stream().filter(i -> i == 2).count());
+    }
+
+    @Test
+    public void weightedFairKeepsMessagesWholeWithoutInterleaving() {
+        SendBuffer buffer = buffer(new WeightedFairScheduler(false));
+        buffer.setStreamWeight(2, DataChannelPriority.EXTRA_HIGH.getWeight());
+        send(buffer, 1, 30);
+        send(buffer, 2, 10);
+
+        assertEquals(Arrays.asList(1,1,1,2), sentStreams(buffer, 4));
+    }
+
+    @Test
+    public void weightedFairSwitchesStreamPerFragment() {
+        SendBuffer buffer = buffer(new WeightedFairScheduler(true));
+        buffer.setStreamWeight(2, DataChannelPriority.EXTRA_HIGH.getWeight());
+        creator.setMessageInterleaving(true);
+        send(buffer, 1, 30);
+        send(buffer, 2, 30);
+
+        assertEquals(Arrays.asList(1,2,2,2,1,1), sentStreams(buffer, 6));
+    }
+
+    @Test
+    public void idleStreamBuildsNoCredit() {
+        SendBuffer buffer = buffer(new WeightedFairScheduler(false));
+        for (int i = 0; i < 5; i++) {
+            send(buffer, 1, 10);
+        }
+        assertEquals(3, sentStreams(buffer, 3).size());
+
+        for (int i = 0; i < 2; i++) {
+            send(buffer, 2, 10);
+        }
+        assertEquals(Arrays.asList(2,1,2,1), sentStreams(buffer, 4));
+    }
+
+    @Test
+    public void weightKeptWhenSchedulerReplaced() {
+        SendBuffer buffer = buffer(new WeightedFairScheduler(false));
+        buffer.setStreamWeight(2, DataChannelPriority.EXTRA_HIGH.getWeight());
+        buffer.setScheduler(new WeightedFairScheduler(true));
+        for (int i = 0; i < 4; i++) {
+            send(buffer, 1, 10);
+            send(buffer, 2, 10);
+        }
+
+        assertEquals(Arrays.asList(1,2,2,2,2,1), sentStreams(buffer, 6));
+    }
+
+    @Test
+    public void roundRobinTakesTurnsPerMessage() {
+        SendBuffer buffer = buffer(new RoundRobinScheduler(false));
+        send(buffer, 1, 30);
+        send(buffer, 1, 10);
+        send(buffer, 2, 10);
+
+        assertEquals(Arrays.asList(1,1,1,2,1), sentStreams(buffer, 5));
+    }
+
+    @Test
+    public void waitsForFragmentsOfPartlySentMessage() {
+        SendBuffer buffer = buffer(new WeightedFairScheduler(false));
+        ReadingMessage reading = new ReadingMessage(creator.createPayloadMessage(new byte[30],
+                SCTPPayloadProtocolId.WEBRTC_BINARY, 1, SCTPReliability.createOrdered(), 10));
+        buffer.buffer(reading);
+        send(buffer, 2, 10);
+
+        reading.ready = 1;
+        assertEquals(Collections.singletonList(1), sentStreams(buffer, 4));
+
+        reading.ready = 3;
+        assertEquals(Arrays.asList(1,1,2), sentStreams(buffer, 4));
+    }
+
+    @Test
+    public void passesStreamWithNothingReadWhenInterleaving() {
+        SendBuffer buffer = buffer(new WeightedFairScheduler(true));
+        creator.setMessageInterleaving(true);
+        ReadingMessage reading = new ReadingMessage(creator.createPayloadMessage(new byte[30],
+                SCTPPayloadProtocolId.WEBRTC_BINARY, 1, SCTPReliability.createOrdered(), 10));
+        buffer.buffer(reading);
+        send(buffer, 2, 10);
+
+        assertEquals(Collections.singletonList(2), sentStreams(buffer, 4));
+
+        reading.ready = 3;
+        assertEquals(Arrays.asList(1,1,1), sentStreams(buffer, 4));
+    }
+
+    @Test
+    public void roundRobinPassesStreamWithNothingRead() {
+        SendBuffer buffer = buffer(new RoundRobinScheduler(false));
+        ReadingMessage reading = new ReadingMessage(creator.createPayloadMessage(new byte[30],
+                SCTPPayloadProtocolId.WEBRTC_BINARY, 1, SCTPReliability.createOrdered(), 10));
+        buffer.buffer(reading);
+        send(buffer, 2, 10);
+        send(buffer, 3, 10);
+
+        assertEquals(Arrays.asList(2,3), sentStreams(buffer, 4));
+
+        reading.ready = 2;
+        send(buffer, 2, 10);
+        assertEquals(Arrays.asList(1,1), sentStreams(buffer, 4));
+
+        reading.ready = 3;
+        assertEquals(Arrays.asList(1,2), sentStreams(buffer, 4));
+    }
+
+    @Test
+    public void firstComeFirstServedWaitsForHead() {
+        SendBuffer buffer = buffer(new FirstComeFirstServedScheduler());
+        ReadingMessage reading = new ReadingMessage(creator.createPayloadMessage(new byte[10],
+                SCTPPayloadProtocolId.WEBRTC_BINARY, 1, SCTPReliability.createOrdered(), 10));
+        buffer.buffer(reading);
+        send(buffer, 2, 10);
+
+        assertEquals(Collections.emptyList(), sentStreams(buffer, 4));
+
+        reading.ready = 1;
+        assertEquals(Arrays.asList(1,2), sentStreams(buffer, 4));
+    }
+
+    /**
+     * Message whose fragments are made ready by the test, like one read from a slow source
+     */
+    private static class ReadingMessage implements OutgoingMessage {
+
+        private final List<PendingData> fragments;
+        private int ready = 0;
+        private int next = 0;
+
+        private ReadingMessage(List<PendingData> fragments) {
+            this.fragments = fragments;
+        }
+
+        @Override
+        public PendingData peek() {
+            return next < ready ? fragments.get(next) : null;
+        }
+
+        @Override
+        public PendingData poll() {
+            return next < ready ? fragments.get(next++) : null;
+        }
+
+        @Override
+        public boolean isDone() {
+            return next == fragments.size();
+        }
+
+        @Override
+        public boolean isReserved() {
+            return false;
+        }
+
+        @Override
+        public int getStreamId() {
+            return fragments.get(0).getStreamId();
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.bitbreeds.webrtc.sctp.impl.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+public class StreamSequenceTableTest {
+
+    @Test
+    public void testStreamsCountedSeparately() {
+        StreamSequenceTable table = new StreamSequenceTable(StreamSequenceTable.SSN_MASK);
+
+        assertEquals(0,table.getAndIncrement(1));
+        assertEquals(1,table.getAndIncrement(1));
+        assertEquals(0,table.getAndIncrement(2));
+        assertEquals(2,table.get(1));
+        assertEquals(1,table.get(2));
+        assertEquals(0,table.get(3));
+    }
+
+    @Test
+    public void testSsnWraps() {
+        StreamSequenceTable table = new StreamSequenceTable(StreamSequenceTable.SSN_MASK);
+
+        table.advancePast(5,0xFFFE);
+        assertEquals(0xFFFF,table.getAndIncrement(5));
+        assertEquals(0,table.getAndIncrement(5));
+
+        table.advancePast(6,0xFFFF);
+        assertEquals(0,table.get(6));
+    }
+
+    @Test
+    public void testMessageIdWraps() {
+        StreamSequenceTable table = new StreamSequenceTable(StreamSequenceTable.MESSAGE_ID_MASK);
+
+        table.advancePast(1,0xFFFFFFFE);
+        assertEquals(0xFFFFFFFF,table.getAndIncrement(1));
+        assertEquals(0,table.get(1));
+    }
+
+    @Test
+    public void testSkipPastOnlyMovesForward() {
+        StreamSequenceTable table = new StreamSequenceTable(StreamSequenceTable.SSN_MASK);
+
+        table.skipPast(1,3);
+        assertEquals(4,table.get(1));
+        table.skipPast(1,2);
+        assertEquals(4,table.get(1));
+
+        table.advancePast(2,0xFFFD);
+        table.skipPast(2,1);
+        assertEquals(2,table.get(2));
+        table.skipPast(2,0xFFFF);
+        assertEquals(2,table.get(2));
+    }
+
+    @Test
+    public void testHighestStream() {
+        StreamSequenceTable table = new StreamSequenceTable(StreamSequenceTable.SSN_MASK);
+
+        assertEquals(0,table.get(65535));
+        assertEquals(0,table.getAndIncrement(65535));
+        assertEquals(1,table.get(65535));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStreamTooHigh() {
+        new StreamSequenceTable(StreamSequenceTable.SSN_MASK).getAndIncrement(65536);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeStream() {
+        new StreamSequenceTable(StreamSequenceTable.SSN_MASK).get(-1);
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.bitbreeds.webrtc.sctp.model;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Checksum;
+
+import static org.junit.Assert.*;
+
+public class CRC32cTest {
+
+    /*
+     * Check value from rfc3720 / the CRC catalogue
+     */
+    @Test
+    public void testCheckValue() {
+        byte[] data = "123456789".getBytes(StandardCharsets.US_ASCII);
+        CRC32c crc = new CRC32c();
+        crc.update(data, 0, data.length);
+        assertEquals(0xE3069283L, crc.getValue());
+        assertEquals(0xE3069283L, CRC32c.compute(data, 0, data.length));
+    }
+
+    @Test
+    public void testSlicingMatchesByteWise() {
+        Random random = new Random(42);
+        byte[] data = new byte[2000];
+        random.nextBytes(data);
+        for (int i = 0; i < 200; i++) {
+            int off = random.nextInt(100);
+            int len = random.nextInt(data.length - off);
+
+            CRC32c sliced = new CRC32c();
+            sliced.update(data, off, len);
+
+            CRC32c byteWise = new CRC32c();
+            for (int j = off; j < off + len; j++) {
+                byteWise.update(data[j]);
+            }
+
+            Checksum best = CRC32c.create();
+            best.update(data, off, len);
+
+            assertEquals(byteWise.getValue(), sliced.getValue());
+            assertEquals(byteWise.getValue(), best.getValue());
+            assertEquals(byteWise.getValue(), CRC32c.compute(data, off, len));
+        }
+    }
+
+    @Test
+    public void testSctpZeroesChecksumField() {
+        Random random = new Random(7);
+        byte[] packet = new byte[120];
+        random.nextBytes(packet);
+
+        byte[] zeroed = Arrays.copyOfRange(packet, 10, 110);
+        Arrays.fill(zeroed, 8, 12, (byte) 0);
+
+        assertEquals(CRC32c.compute(zeroed, 0, zeroed.length), CRC32c.computeSctp(packet, 10, 100));
+    }
+
+    @Test
+    public void testJdkAvailability() {
+        boolean java9 = !System.getProperty("java.specification.version").startsWith("1.");
+        assertEquals(java9, CRC32c.isJdkCrc32c());
+    }
+
+}
@@ -0,0 +1,191 @@
+package com.bitbreeds.webrtc.sctp.model;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SCTPPacketViewTest {
+
+    /*
+     * SACK followed by a DATA chunk carrying CLIENT-MSG-49
+     */
+    private final static String SACK_AND_DATA = "1388138889f51731bf0cd891030000100000005200020000000000000007001d98a4e2c50000000000000033434c49454e542d4d53472d3439000000";
+
+    private final static String HEARTBEAT = "13881388295823fba2c6a0b60400002c00010028c2b34c57c3ca0d0000000000000000007b100000400a2410010000000000000000000000";
+
+    private final static String INIT = "1388138800000000a630caa40100005633c89cf5000200000100080037429a54c000000480080009c00fc1808200000080020024e9eac84358178100ae0c280e0598ed4bf2071c7314acc154aa20de77ec40026780040006000100008003000680c10000";
+
+    /*
+     * cum tsn 100, arwnd 4096, gaps [2,3] [5,5], duplicate 99
+     */
+    private final static String SACK_GAPS = "1388138800000001000000000300001c000000640000100000020001000200030005000500000063";
+
+    private static byte[] hex(String s) throws DecoderException {
+        return Hex.decodeHex(s.toCharArray());
+    }
+
+    @Test
+    public void testBundledChunks() throws DecoderException {
+        byte[] bytes = hex(SACK_AND_DATA);
+        SCTPPacketView packet = new SCTPPacketView(bytes, 0, bytes.length);
+
+        assertEquals(5000, packet.getSourcePort());
+        assertEquals(5000, packet.getDestinationPort());
+        assertEquals(0x89f51731L, packet.getVerificationTag());
+
+        assertTrue(packet.nextChunk());
+        assertEquals(SCTPMessageType.SELECTIVE_ACK, packet.getChunkType());
+        assertEquals(0x52, packet.getCumulativeTsnAck());
+        assertEquals(0x20000, packet.getAdvertisedWindow());
+        assertEquals(0, packet.getGapBlockCount());
+
+        assertTrue(packet.nextChunk());
+        assertEquals(SCTPMessageType.DATA, packet.getChunkType());
+        assertEquals(SCTPOrderFlag.UNORDERED_UNFRAGMENTED, packet.getOrderFlag());
+        assertEquals(0x98a4e2c5L, packet.getTsn());
+        assertEquals(0, packet.getStreamId());
+        assertEquals(0, packet.getStreamSequence());
+        assertEquals(0x33, packet.getProtocolId());
+        assertEquals(13, packet.getPayloadLength());
+        assertEquals("CLIENT-MSG-49", new String(bytes, packet.getPayloadOffset(), packet.getPayloadLength()));
+
+        assertFalse(packet.nextChunk());
+    }
+
+    @Test
+    public void testMatchesMessageParser() throws DecoderException {
+        byte[] bytes = hex(SACK_AND_DATA);
+        SCTPMessage msg = SCTPMessage.fromBytes(bytes);
+        SCTPPacketView packet = new SCTPPacketView(bytes, 0, bytes.length);
+
+        SCTPHeader header = packet.toHeader();
+        assertEquals(msg.getHeader().getVerificationTag(), header.getVerificationTag());
+        assertEquals(msg.getHeader().getChecksum(), header.getChecksum());
+        for (SCTPChunk chunk : msg.getChunks()) {
+            assertTrue(packet.nextChunk());
+            assertEquals(chunk.getType(), packet.getChunkType());
+            assertEquals(chunk.getLength(), packet.getChunkLength());
+        }
+        SCTPChunk data = msg.getChunks().get(1);
+        assertArrayEquals(data.getRest(), packet.copyPayload());
+        assertArrayEquals(data.toBytes(), packet.toChunk().toBytes());
+    }
+
+    @Test
+    public void testOffsetIntoLargerBuffer() throws DecoderException {
+        byte[] packetBytes = hex(SACK_AND_DATA);
+        byte[] buffer = new byte[packetBytes.length + 20];
+        Arrays.fill(buffer, (byte) 0x7f);
+        System.arraycopy(packetBytes, 0, buffer, 7, packetBytes.length);
+
+        SCTPPacketView packet = new SCTPPacketView(buffer, 7, packetBytes.length);
+        assertTrue(packet.nextChunk());
+        assertTrue(packet.nextChunk());
+        assertEquals(0x98a4e2c5L, packet.getTsn());
+        assertArrayEquals("CLIENT-MSG-49".getBytes(), packet.copyPayload());
+        assertFalse(packet.nextChunk());
+
+        packet.rewind();
+        assertTrue(packet.nextChunk());
+        assertEquals(SCTPMessageType.SELECTIVE_ACK, packet.getChunkType());
+    }
+
+    @Test
+    public void testSackGapBlocks() throws DecoderException {
+        byte[] bytes = hex(SACK_GAPS);
+        SCTPPacketView packet = new SCTPPacketView(bytes, 0, bytes.length);
+
+        assertTrue(packet.nextChunk());
+        assertEquals(100, packet.getCumulativeTsnAck());
+        assertEquals(4096, packet.getAdvertisedWindow());
+        assertEquals(2, packet.getGapBlockCount());
+        assertEquals(2, packet.getGapStart(0));
+        assertEquals(3, packet.getGapEnd(0));
+        assertEquals(5, packet.getGapStart(1));
+        assertEquals(5, packet.getGapEnd(1));
+        assertEquals(1, packet.getDuplicateCount());
+        assertEquals(99, packet.getDuplicateTsn(0));
+        assertFalse(packet.nextChunk());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGapOutOfRange() throws DecoderException {
+        byte[] bytes = hex(SACK_GAPS);
+        SCTPPacketView packet = new SCTPPacketView(bytes, 0, bytes.length);
+        packet.nextChunk();
+        packet.getGapStart(2);
+    }
+
+    @Test
+    public void testHeartBeatInfo() throws DecoderException {
+        byte[] bytes = hex(HEARTBEAT);
+        SCTPMessage msg = SCTPMessage.fromBytes(bytes);
+        SCTPPacketView packet = new SCTPPacketView(bytes, 0, bytes.length);
+
+        assertTrue(packet.nextChunk());
+        assertEquals(SCTPMessageType.HEARTBEAT, packet.getChunkType());
+        byte[] expected = msg.getChunks().get(0).getVariable().get(SCTPAttributeType.HERTBEAT_INFO).getData();
+        assertArrayEquals(expected, packet.copyParameter(SCTPAttributeType.HERTBEAT_INFO));
+        assertNull(packet.copyParameter(SCTPAttributeType.STATE_COOKIE));
+    }
+
+    @Test
+    public void testInit() throws DecoderException {
+        byte[] bytes = hex(INIT);
+        SCTPPacketView packet = new SCTPPacketView(bytes, 0, bytes.length);
+
+        assertTrue(packet.nextChunk());
+        assertEquals(SCTPMessageType.INITIATION, packet.getChunkType());
+        assertEquals(0x33c89cf5L, packet.getInitiateTag());
+        assertEquals(0x20000, packet.getAdvertisedWindow());
+        assertEquals(256, packet.getOutboundStreams());
+        assertEquals(2048, packet.getInboundStreams());
+        assertEquals(0x37429a54L, packet.getInitialTsn());
+        assertTrue(packet.findParameter(SCTPAttributeType.FORWARD_TSN) > 0);
+        assertEquals(0, packet.getParameterLength(packet.findParameter(SCTPAttributeType.FORWARD_TSN)));
+        assertFalse(packet.nextChunk());
+    }
+
+    @Test
+    public void testChecksum() throws DecoderException {
+        byte[] bytes = hex(HEARTBEAT);
+        assertTrue(new SCTPPacketView(bytes, 0, bytes.length).hasValidChecksum());
+
+        bytes[20] ^= 0x01;
+        assertFalse(new SCTPPacketView(bytes, 0, bytes.length).hasValidChecksum());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncatedChunk() throws DecoderException {
+        byte[] bytes = hex(SACK_AND_DATA);
+        SCTPPacketView packet = new SCTPPacketView(bytes, 0, bytes.length - 8);
+        packet.nextChunk();
+        packet.nextChunk();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooShortForHeader() {
+        new SCTPPacketView(new byte[8], 0, 8);
+    }
+
+}
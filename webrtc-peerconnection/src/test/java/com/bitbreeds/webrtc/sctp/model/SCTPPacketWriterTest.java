@@ -0,0 +1,208 @@
+package com.bitbreeds.webrtc.sctp.model;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+import com.bitbreeds.webrtc.common.SignalUtil;
+import com.bitbreeds.webrtc.model.sctp.GapAck;
+import com.bitbreeds.webrtc.model.sctp.SkippedMessage;
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.binary.Hex;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SCTPPacketWriterTest {
+
+    /*
+     * HEARTBEAT captured from a browser
+     */
+    private final static String HEARTBEAT = "13881388295823fba2c6a0b60400002c00010028c2b34c57c3ca0d0000000000000000007b100000400a2410010000000000000000000000";
+
+    private static long checksumOf(byte[] packet, int offset, int length) {
+        byte[] copy = Arrays.copyOfRange(packet, offset, offset + length);
+        Arrays.fill(copy, 8, 12, (byte) 0);
+        return SignalUtil.computeCRC32c(copy);
+    }
+
+    @Test
+    public void testEncodeMatchesCapturedPacket() throws DecoderException {
+        byte[] captured = Hex.decodeHex(HEARTBEAT.toCharArray());
+        byte[] encoded = SCTPPacketWriter.encode(SCTPMessage.fromBytes(captured));
+        assertArrayEquals(captured, encoded);
+    }
+
+    @Test
+    public void testDataRoundTrip() {
+        byte[] payload = "hello sctp".getBytes();
+        byte[] buffer = new byte[100];
+        SCTPPacketWriter writer = new SCTPPacketWriter(buffer, 5)
+                .header(5000, 5001, 0xcafebabeL)
+                .data(SCTPOrderFlag.ORDERED_START_FRAGMENT, 0xfffffffeL, 3, 7, 51, payload, 0, payload.length);
+        int length = writer.finish();
+
+        assertEquals(SCTPPacketWriter.HEADER_LENGTH + SCTPPacketWriter.dataLength(payload.length), length);
+
+        SCTPPacketView view = new SCTPPacketView(buffer, 5, length);
+        assertEquals(5000, view.getSourcePort());
+        assertEquals(5001, view.getDestinationPort());
+        assertEquals(0xcafebabeL, view.getVerificationTag());
+        assertEquals(checksumOf(buffer, 5, length), Long.reverseBytes(view.getChecksum()) >>> 32);
+
+        assertTrue(view.nextChunk());
+        assertEquals(SCTPMessageType.DATA, view.getChunkType());
+        assertEquals(SCTPOrderFlag.ORDERED_START_FRAGMENT, view.getOrderFlag());
+        assertEquals(0xfffffffeL, view.getTsn());
+        assertEquals(3, view.getStreamId());
+        assertEquals(7, view.getStreamSequence());
+        assertEquals(51, view.getProtocolId());
+        assertArrayEquals(payload, view.copyPayload());
+        assertFalse(view.nextChunk());
+    }
+
+    @Test
+    public void testIDataRoundTrip() {
+        byte[] payload = "interleaved".getBytes();
+        byte[] buffer = new byte[100];
+        int length = new SCTPPacketWriter(buffer, 0)
+                .header(5000, 5000, 0xcafebabeL)
+                .iData(SCTPOrderFlag.ORDERED_MIDDLE_FRAGMENT, 12L, 4, 0xfffffff0L, 3, payload, 0, payload.length)
+                .finish();
+
+        assertEquals(SCTPPacketWriter.HEADER_LENGTH + SCTPPacketWriter.iDataLength(payload.length), length);
+
+        SCTPPacketView view = new SCTPPacketView(buffer, 0, length);
+        assertTrue(view.nextChunk());
+        assertEquals(SCTPMessageType.I_DATA, view.getChunkType());
+        assertEquals(SCTPOrderFlag.ORDERED_MIDDLE_FRAGMENT, view.getOrderFlag());
+        assertEquals(12L, view.getTsn());
+        assertEquals(4, view.getStreamId());
+        assertEquals(0xfffffff0L, view.getMessageIdentifier());
+        assertEquals(3, view.getProtocolIdOrFragmentSequence());
+        assertArrayEquals(payload, view.copyPayload());
+        assertFalse(view.nextChunk());
+    }
+
+    @Test
+    public void testZeroChecksum() {
+        byte[] buffer = new byte[SCTPPacketWriter.HEADER_LENGTH + 8];
+        int length = new SCTPPacketWriter(buffer, 0)
+                .header(5000, 5000, 0xcafebabeL)
+                .shutdown(10L)
+                .finish(true);
+
+        SCTPPacketView view = new SCTPPacketView(buffer, 0, length);
+        assertEquals(0, view.getChecksumValue());
+        assertFalse(view.hasValidChecksum());
+
+        new SCTPPacketWriter(buffer, 0).header(5000, 5000, 0xcafebabeL).shutdown(10L).finish(false);
+        assertTrue(new SCTPPacketView(buffer, 0, length).hasValidChecksum());
+    }
+
+    @Test
+    public void testSackRoundTrip() {
+        List<GapAck> gaps = Arrays.asList(new GapAck(2, 3), new GapAck(5, 9));
+        List<Long> duplicates = Collections.singletonList(99L);
+        byte[] out = new byte[SCTPPacketWriter.HEADER_LENGTH + SCTPPacketWriter.sackLength(gaps, duplicates)];
+        new SCTPPacketWriter(out, 0)
+                .header(5000, 5000, 1)
+                .sack(100, 4096, gaps, duplicates)
+                .finish();
+
+        SCTPPacketView view = new SCTPPacketView(out, 0, out.length);
+        assertTrue(view.nextChunk());
+        assertEquals(SCTPMessageType.SELECTIVE_ACK, view.getChunkType());
+        assertEquals(100, view.getCumulativeTsnAck());
+        assertEquals(4096, view.getAdvertisedWindow());
+        assertEquals(2, view.getGapBlockCount());
+        assertEquals(2, view.getGapStart(0));
+        assertEquals(3, view.getGapEnd(0));
+        assertEquals(5, view.getGapStart(1));
+        assertEquals(9, view.getGapEnd(1));
+        assertEquals(1, view.getDuplicateCount());
+        assertEquals(99, view.getDuplicateTsn(0));
+        assertFalse(view.nextChunk());
+    }
+
+    @Test
+    public void testBundledControlChunks() {
+        byte[] info = new byte[]{1, 2, 3, 4, 5};
+        byte[] out = new byte[SCTPPacketWriter.HEADER_LENGTH
+                + SCTPPacketWriter.heartBeatLength(info.length) + 8 + 4];
+        int length = new SCTPPacketWriter(out, 0)
+                .header(5000, 5000, 1)
+                .heartBeat(SCTPMessageType.HEARTBEAT_ACK, info)
+                .forwardTsn(42)
+                .chunk(SCTPMessageType.COOKIE_ACK, 0)
+                .finish();
+        assertEquals(out.length, length);
+
+        SCTPPacketView view = new SCTPPacketView(out, 0, out.length);
+        assertTrue(view.nextChunk());
+        assertEquals(SCTPMessageType.HEARTBEAT_ACK, view.getChunkType());
+        assertArrayEquals(info, view.copyParameter(SCTPAttributeType.HERTBEAT_INFO));
+        assertTrue(view.nextChunk());
+        assertEquals(SCTPMessageType.FORWARD_TSN, view.getChunkType());
+        assertEquals(42, view.getCumulativeTsnAck());
+        assertTrue(view.nextChunk());
+        assertEquals(SCTPMessageType.COOKIE_ACK, view.getChunkType());
+        assertFalse(view.nextChunk());
+    }
+
+    @Test
+    public void testForwardTsnSkippedMessages() {
+        List<SkippedMessage> skipped = Arrays.asList(
+                new SkippedMessage(1, 7, false),
+                new SkippedMessage(2, 0x80000001, true));
+        for (SCTPMessageType type : new SCTPMessageType[]{SCTPMessageType.FORWARD_TSN, SCTPMessageType.I_FORWARD_TSN}) {
+            byte[] out = new byte[SCTPPacketWriter.HEADER_LENGTH + SCTPPacketWriter.forwardTsnLength(type, skipped)];
+            new SCTPPacketWriter(out, 0)
+                    .header(5000, 5000, 1)
+                    .forwardTsn(type, 42, skipped)
+                    .finish();
+
+            SCTPPacketView view = new SCTPPacketView(out, 0, out.length);
+            assertTrue(view.nextChunk());
+            assertEquals(type, view.getChunkType());
+            assertEquals(42, view.getCumulativeTsnAck());
+            if (SCTPMessageType.I_FORWARD_TSN.equals(type)) {
+                assertEquals(skipped, view.getSkippedMessages());
+            } else {
+                //FORWARD TSN only lists ordered streams
+                assertEquals(Collections.singletonList(skipped.get(0)), view.getSkippedMessages());
+            }
+            assertFalse(view.nextChunk());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBufferTooSmall() {
+        byte[] payload = new byte[100];
+        new SCTPPacketWriter(new byte[64], 0)
+                .header(5000, 5000, 1)
+                .data(SCTPOrderFlag.ORDERED_UNFRAGMENTED, 1, 0, 0, 51, payload, 0, payload.length);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testChunkBeforeHeader() {
+        new SCTPPacketWriter(new byte[64], 0).shutdown(1);
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.bitbreeds.webrtc.transport;
+
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertNull;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+public class DatagramBufferPoolTest {
+
+    private final SocketAddress from = new InetSocketAddress("127.0.0.1", 5000);
+
+    @Test
+    public void testCopyAndReuse() {
+        DatagramBufferPool pool = new DatagramBufferPool(100, 2);
+        byte[] data = new byte[]{9, 1, 2, 3, 9};
+
+        PooledDatagram first = pool.copyOf(data, 1, 3, from);
+        assertEquals(3, first.getLength());
+        assertSame(from, first.getFrom());
+        assertArrayEquals(new byte[]{1, 2, 3}, Arrays.copyOf(first.getData(), first.getLength()));
+
+        first.release();
+        assertNull(first.getFrom());
+        assertEquals(1, pool.getFreeCount());
+
+        PooledDatagram second = pool.copyOf(data, 0, 5, null);
+        assertSame(first, second);
+        assertEquals(5, second.getLength());
+        assertEquals(1, pool.getAllocatedCount());
+    }
+
+    @Test
+    public void testKeepsAtMostCapacity() {
+        DatagramBufferPool pool = new DatagramBufferPool(10, 2);
+        PooledDatagram a = pool.copyOf(new byte[1], 0, 1, from);
+        PooledDatagram b = pool.copyOf(new byte[1], 0, 1, from);
+        PooledDatagram c = pool.copyOf(new byte[1], 0, 1, from);
+        a.release();
+        b.release();
+        c.release();
+        assertEquals(2, pool.getFreeCount());
+        assertEquals(3, pool.getAllocatedCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooLarge() {
+        new DatagramBufferPool(10, 2).copyOf(new byte[11], 0, 11, from);
+    }
+
+    @Test
+    public void testEmptyNotPooled() {
+        PooledDatagram empty = PooledDatagram.empty();
+        empty.release();
+        assertEquals(0, empty.getLength());
+    }
+
+}
@@ -0,0 +1,179 @@
+package com.bitbreeds.webrtc.transport;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+public class OutboundQueueTest {
+
+    private static byte[] packet(int producer, int seq) {
+        return ByteBuffer.allocate(8).putInt(producer).putInt(seq).array();
+    }
+
+    @Test
+    public void testSingleWriterKeepsOrderPerProducer() throws Exception {
+        int producers = 8;
+        int perProducer = 5000;
+        AtomicBoolean inWrite = new AtomicBoolean(false);
+        AtomicBoolean overlapped = new AtomicBoolean(false);
+        int[] lastSeen = new int[producers];
+        Arrays.fill(lastSeen, -1);
+        AtomicBoolean reordered = new AtomicBoolean(false);
+
+        OutboundQueue queue = new OutboundQueue(p -> {
+            if (!inWrite.compareAndSet(false, true)) {
+                overlapped.set(true);
+            }
+            ByteBuffer buf = ByteBuffer.wrap(p);
+            int producer = buf.getInt();
+            int seq = buf.getInt();
+            if (seq != lastSeen[producer] + 1) {
+                reordered.set(true);
+            }
+            lastSeen[producer] = seq;
+            inWrite.set(false);
+        }, null, 1000000, e -> { });
+
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < producers; i++) {
+            int producer = i;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < perProducer; j++) {
+                    queue.offer(packet(producer, j));
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertFalse(overlapped.get());
+        assertFalse(reordered.get());
+        assertEquals((long) producers * perProducer, queue.getWrittenCount());
+        assertEquals(0, queue.getQueuedBytes());
+        for (int seen : lastSeen) {
+            assertEquals(perProducer - 1, seen);
+        }
+    }
+
+    @Test
+    public void testExecutorDrainsInBatches() {
+        List<Runnable> tasks = new ArrayList<>();
+        List<byte[]> written = new ArrayList<>();
+        OutboundQueue queue = new OutboundQueue(written::add, tasks::add, 100000, e -> { });
+
+        for (int i = 0; i < OutboundQueue.BATCH_SIZE + 10; i++) {
+            queue.offer(packet(0, i));
+        }
+        assertEquals(1, tasks.size());
+        assertEquals((OutboundQueue.BATCH_SIZE + 10) * 8, queue.getQueuedBytes());
+
+        tasks.remove(0).run();
+        assertEquals(OutboundQueue.BATCH_SIZE, written.size());
+        assertEquals(1, tasks.size());
+
+        tasks.remove(0).run();
+        assertEquals(OutboundQueue.BATCH_SIZE + 10, written.size());
+        assertTrue(tasks.isEmpty());
+        assertEquals(2, queue.getDrainCount());
+    }
+
+    @Test
+    public void testCapacitySignal() {
+        List<Runnable> tasks = new ArrayList<>();
+        OutboundQueue queue = new OutboundQueue(p -> { }, tasks::add, 20, e -> { });
+        assertEquals(20, queue.remainingCapacity());
+        queue.offer(new byte[15]);
+        assertEquals(5, queue.remainingCapacity());
+        queue.offer(new byte[15]);
+        assertEquals(0, queue.remainingCapacity());
+        tasks.remove(0).run();
+        assertEquals(20, queue.remainingCapacity());
+    }
+
+    @Test
+    public void testFailureClosesQueue() {
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        ConcurrentLinkedQueue<byte[]> written = new ConcurrentLinkedQueue<>();
+        OutboundQueue queue = new OutboundQueue(p -> {
+            if (p.length == 2) {
+                throw new IOException("Socket closed");
+            }
+            written.add(p);
+        }, null, 100, failure::set);
+
+        queue.offer(new byte[1]);
+        queue.offer(new byte[2]);
+        queue.offer(new byte[1]);
+        assertNotNull(failure.get());
+        assertTrue(queue.isClosed());
+        assertEquals(1, written.size());
+    }
+
+    @Test
+    public void testCloseFlushesQueued() {
+        List<byte[]> written = new ArrayList<>();
+        OutboundQueue queue = new OutboundQueue(written::add, null, 100, e -> { });
+        queue.offer(new byte[1]);
+        assertTrue(queue.close());
+        assertTrue(queue.isClosed());
+        queue.offer(new byte[1]);
+        assertEquals(1, written.size());
+    }
+
+    @Test
+    public void testCloseLeavesFlushToScheduledWriter() {
+        List<Runnable> tasks = new ArrayList<>();
+        List<byte[]> written = new ArrayList<>();
+        OutboundQueue queue = new OutboundQueue(written::add, tasks::add, 100000, e -> { });
+        for (int i = 0; i < OutboundQueue.BATCH_SIZE + 10; i++) {
+            queue.offer(packet(0, i));
+        }
+        assertFalse(queue.close());
+        queue.offer(new byte[1]);
+
+        tasks.remove(0).run();
+        assertEquals(OutboundQueue.BATCH_SIZE + 10, written.size());
+        assertTrue(queue.isClosed());
+        assertTrue(tasks.isEmpty());
+    }
+
+}
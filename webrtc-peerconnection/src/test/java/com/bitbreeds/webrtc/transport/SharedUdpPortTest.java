@@ -0,0 +1,236 @@
+package com.bitbreeds.webrtc.transport;
+
+import com.bitbreeds.webrtc.common.SignalUtil;
+import com.bitbreeds.webrtc.stun.StunMessage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+public class SharedUdpPortTest {
+
+    private SharedUdpPort port;
+
+    private final InetSocketAddress remoteA = new InetSocketAddress(InetAddress.getLoopbackAddress(), 40001);
+    private final InetSocketAddress remoteB = new InetSocketAddress(InetAddress.getLoopbackAddress(), 40002);
+
+    @Before
+    public void setup() {
+        port = new SharedUdpPort(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    @After
+    public void tearDown() {
+        port.close();
+    }
+
+    private static byte[] bindingRequest(String username) {
+        byte[] user = username.getBytes(StandardCharsets.US_ASCII);
+        int padded = SignalUtil.multipleOfFour(user.length);
+        byte[] out = new byte[20 + 4 + padded];
+        out[1] = 0x01;
+        out[3] = (byte) (4 + padded);
+        out[4] = 0x21; out[5] = 0x12; out[6] = (byte) 0xA4; out[7] = 0x42;
+        out[21] = 0x06;
+        out[23] = (byte) user.length;
+        System.arraycopy(user, 0, out, 24, user.length);
+        return out;
+    }
+
+    private static byte[] receive(UdpEndpoint endpoint) throws Exception {
+        byte[] buf = new byte[2000];
+        DatagramPacket packet = new DatagramPacket(buf, buf.length);
+        endpoint.receive(packet, 1000);
+        byte[] out = new byte[packet.getLength()];
+        System.arraycopy(buf, 0, out, 0, out.length);
+        return out;
+    }
+
+    @Test
+    public void testFindLocalUfrag() {
+        byte[] request = bindingRequest("abcd:remote");
+        assertEquals("abcd", StunMessage.findLocalUfrag(request, request.length));
+        assertEquals(null, StunMessage.findLocalUfrag(request, 20));
+    }
+
+    @Test
+    public void testStunRoutedByUfrag() throws Exception {
+        UdpEndpoint a = port.register("aaaa");
+        UdpEndpoint b = port.register("bbbb");
+
+        byte[] toB = bindingRequest("bbbb:x");
+        byte[] toA = bindingRequest("aaaa:y");
+        assertTrue(port.route(toB, toB.length, remoteB));
+        assertTrue(port.route(toA, toA.length, remoteA));
+
+        assertArrayEquals(toA, receive(a));
+        assertArrayEquals(toB, receive(b));
+        assertEquals(2, port.getConnectionCount());
+    }
+
+    @Test
+    public void testDtlsRoutedByAddress() throws Exception {
+        UdpEndpoint a = port.register("aaaa");
+        UdpEndpoint b = port.register("bbbb");
+
+        byte[] stunA = bindingRequest("aaaa:y");
+        byte[] stunB = bindingRequest("bbbb:x");
+        port.route(stunA, stunA.length, remoteA);
+        port.route(stunB, stunB.length, remoteB);
+        receive(a);
+        receive(b);
+        a.connect(remoteA);
+        b.connect(remoteB);
+
+        byte[] dtlsA = new byte[]{22, (byte) 0xfe, (byte) 0xfd, 1};
+        byte[] dtlsB = new byte[]{23, (byte) 0xfe, (byte) 0xfd, 2};
+        port.route(dtlsB, dtlsB.length, remoteB);
+        port.route(dtlsA, dtlsA.length, remoteA);
+
+        assertArrayEquals(dtlsA, receive(a));
+        assertArrayEquals(dtlsB, receive(b));
+    }
+
+    @Test
+    public void testRoutedBuffersReused() throws Exception {
+        UdpEndpoint a = port.register("aaaa");
+        byte[] stun = bindingRequest("aaaa:y");
+        port.route(stun, stun.length, remoteA);
+        receive(a);
+        a.connect(remoteA);
+
+        for (int i = 0; i < 100; i++) {
+            byte[] dtls = new byte[]{23, (byte) 0xfe, (byte) 0xfd, (byte) i};
+            port.route(dtls, dtls.length, remoteA);
+            assertArrayEquals(dtls, receive(a));
+        }
+        assertEquals(1, port.getPool().getAllocatedCount());
+    }
+
+    @Test
+    public void testUnknownDropped() {
+        port.register("aaaa");
+        byte[] dtls = new byte[]{22, (byte) 0xfe, (byte) 0xfd, 1};
+        byte[] stun = bindingRequest("cccc:y");
+        assertFalse(port.route(dtls, dtls.length, remoteA));
+        assertFalse(port.route(stun, stun.length, remoteA));
+        assertEquals(2, port.getUnroutableCount());
+    }
+
+    @Test
+    public void testAddressNotTakenOver() throws Exception {
+        UdpEndpoint a = port.register("aaaa");
+        UdpEndpoint b = port.register("bbbb");
+        byte[] stunA = bindingRequest("aaaa:y");
+        byte[] stunB = bindingRequest("bbbb:x");
+        port.route(stunA, stunA.length, remoteA);
+        port.route(stunB, stunB.length, remoteA);
+        receive(a);
+        receive(b);
+        a.connect(remoteA);
+        b.connect(remoteA);
+
+        byte[] dtls = new byte[]{22, (byte) 0xfe, (byte) 0xfd, 1};
+        port.route(dtls, dtls.length, remoteA);
+        assertArrayEquals(dtls, receive(a));
+    }
+
+    @Test
+    public void testStunDoesNotBindAddress() throws Exception {
+        UdpEndpoint a = port.register("aaaa");
+        UdpEndpoint b = port.register("bbbb");
+        a.connect(remoteA);
+
+        //Anyone who saw the signaling can send a request with the ufrag of b
+        byte[] spoofed = bindingRequest("bbbb:x");
+        assertTrue(port.route(spoofed, spoofed.length, remoteA));
+        assertTrue(port.route(spoofed, spoofed.length, remoteB));
+        assertArrayEquals(spoofed, receive(b));
+        assertArrayEquals(spoofed, receive(b));
+
+        byte[] dtls = new byte[]{22, (byte) 0xfe, (byte) 0xfd, 1};
+        assertTrue(port.route(dtls, dtls.length, remoteA));
+        assertArrayEquals(dtls, receive(a));
+        assertFalse(port.route(dtls, dtls.length, remoteB));
+    }
+
+    @Test
+    public void testCloseReleasesQueued() throws Exception {
+        UdpEndpoint a = port.register("aaaa");
+        byte[] stun = bindingRequest("aaaa:y");
+        port.route(stun, stun.length, remoteA);
+        port.route(stun, stun.length, remoteA);
+        assertEquals(0, port.getPool().getFreeCount());
+
+        a.close();
+        assertEquals(2, port.getPool().getFreeCount());
+        assertEquals(2, port.getPool().getAllocatedCount());
+    }
+
+    @Test(expected = SocketTimeoutException.class)
+    public void testClosedEndpointUnregistered() throws Exception {
+        UdpEndpoint a = port.register("aaaa");
+        UdpEndpoint b = port.register("bbbb");
+        a.close();
+        assertEquals(1, port.getConnectionCount());
+        byte[] stun = bindingRequest("aaaa:y");
+        assertFalse(port.route(stun, stun.length, remoteA));
+        b.receive(new DatagramPacket(new byte[100], 100), 10);
+    }
+
+    @Test
+    public void testOverSocket() throws Exception {
+        UdpEndpoint a = port.register("aaaa");
+        try (DatagramSocket client = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            InetSocketAddress server = new InetSocketAddress(InetAddress.getLoopbackAddress(), port.getPort());
+            byte[] stun = bindingRequest("aaaa:remote");
+            client.send(new DatagramPacket(stun, stun.length, server));
+
+            byte[] buf = new byte[2000];
+            DatagramPacket packet = new DatagramPacket(buf, buf.length);
+            a.receive(packet, 2000);
+            assertEquals(stun.length, packet.getLength());
+            assertEquals(client.getLocalSocketAddress(), packet.getSocketAddress());
+
+            a.connect(packet.getSocketAddress());
+            byte[] reply = new byte[]{23, 1, 2, 3};
+            a.send(new DatagramPacket(reply, reply.length));
+
+            DatagramPacket back = new DatagramPacket(new byte[100], 100);
+            client.setSoTimeout(2000);
+            client.receive(back);
+            assertEquals(reply.length, back.getLength());
+
+            byte[] dtls = new byte[]{22, 9, 9};
+            client.send(new DatagramPacket(dtls, dtls.length, server));
+            assertArrayEquals(dtls, receive(a));
+        }
+    }
+
+}
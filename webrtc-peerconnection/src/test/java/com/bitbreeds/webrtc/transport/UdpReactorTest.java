@@ -0,0 +1,148 @@
+package com.bitbreeds.webrtc.transport;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+public class UdpReactorTest {
+
+    private UdpReactor reactor;
+
+    private static class Received {
+        final byte[] data;
+        final String thread;
+
+        Received(byte[] data, int length) {
+            this.data = Arrays.copyOf(data, length);
+            this.thread = Thread.currentThread().getName();
+        }
+    }
+
+    @Before
+    public void setup() {
+        reactor = new UdpReactor(2);
+    }
+
+    @After
+    public void tearDown() {
+        reactor.shutdown();
+    }
+
+    private static InetSocketAddress local(UdpEndpoint endpoint) {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), endpoint.getLocalPort());
+    }
+
+    @Test
+    public void testFixedThreadCount() {
+        assertEquals(2, reactor.getThreadCount());
+        EventLoop first = reactor.nextLoop();
+        EventLoop second = reactor.nextLoop();
+        assertTrue(first != second);
+        assertTrue(first == reactor.nextLoop());
+    }
+
+    @Test
+    public void testReceiveOnLoopAndSend() throws Exception {
+        UdpEndpoint endpoint = reactor.open();
+        BlockingQueue<Received> received = new ArrayBlockingQueue<>(10);
+        endpoint.listen((data, length, from) -> received.add(new Received(data, length)));
+        assertTrue(endpoint.isEventDriven());
+
+        try (DatagramSocket client = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            byte[] msg = new byte[]{22, (byte) 0xfe, (byte) 0xfd, 1};
+            client.send(new DatagramPacket(msg, msg.length, local(endpoint)));
+
+            Received first = received.poll(2, TimeUnit.SECONDS);
+            assertNotNull(first);
+            assertArrayEquals(msg, first.data);
+            assertTrue(first.thread.startsWith("udp-reactor-"));
+
+            endpoint.connect(client.getLocalSocketAddress());
+            byte[] reply = new byte[]{23, 1, 2, 3};
+            endpoint.send(new DatagramPacket(reply, reply.length));
+
+            DatagramPacket back = new DatagramPacket(new byte[100], 100);
+            client.setSoTimeout(2000);
+            client.receive(back);
+            assertArrayEquals(reply, Arrays.copyOf(back.getData(), back.getLength()));
+        } finally {
+            endpoint.close();
+        }
+    }
+
+    @Test
+    public void testExecuteOnLoop() throws Exception {
+        UdpEndpoint endpoint = reactor.open();
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<String> thread = new AtomicReference<>();
+        endpoint.execute(() -> {
+            thread.set(Thread.currentThread().getName());
+            latch.countDown();
+        });
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertTrue(thread.get().startsWith("udp-reactor-"));
+        endpoint.close();
+    }
+
+    @Test
+    public void testSharedPortDeliversOnLoop() throws Exception {
+        SharedUdpPort port = new SharedUdpPort(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), reactor);
+        try {
+            UdpEndpoint endpoint = port.register("aaaa");
+            assertTrue(endpoint.isEventDriven());
+
+            byte[] dtls = new byte[]{22, 9, 9};
+            InetSocketAddress remote = new InetSocketAddress(InetAddress.getLoopbackAddress(), 40001);
+            endpoint.connect(remote);
+            port.route(dtls, dtls.length, remote);
+
+            BlockingQueue<Received> received = new ArrayBlockingQueue<>(10);
+            endpoint.listen((data, length, from) -> received.add(new Received(data, length)));
+
+            Received queuedBeforeListen = received.poll(2, TimeUnit.SECONDS);
+            assertNotNull(queuedBeforeListen);
+            assertArrayEquals(dtls, queuedBeforeListen.data);
+            assertTrue(queuedBeforeListen.thread.startsWith("udp-reactor-"));
+
+            byte[] next = new byte[]{23, 1};
+            port.route(next, next.length, remote);
+            Received afterListen = received.poll(2, TimeUnit.SECONDS);
+            assertNotNull(afterListen);
+            assertArrayEquals(next, afterListen.data);
+        } finally {
+            port.close();
+        }
+    }
+
+}
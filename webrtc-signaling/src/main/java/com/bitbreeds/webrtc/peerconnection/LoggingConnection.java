@@ -53,10 +53,10 @@ public class LoggingConnection extends ConnectionImplementation {
     }
 
     @Override
-    public void processReceivedMessage(byte[] buf) {
-        SCTPMessage msg = SCTPMessage.fromBytes(buf);
+    public void processReceivedMessage(byte[] buf, int offset, int length) {
+        SCTPMessage msg = SCTPMessage.fromBytes(buf, offset, length);
         msg.getChunks().forEach(i -> logSCTPChunk(i,"Incoming id:"+this.getPeerConnection().getId()));
-        super.processReceivedMessage(buf);
+        super.processReceivedMessage(buf, offset, length);
     }
 
     public void logSCTPChunk(SCTPChunk chunk,String prefix) {
@@ -18,10 +18,70 @@ package com.bitbreeds.webrtc.peerconnection;
 
 
 /**
- * Properties to set for keystore and its passwords
+ * Properties to set for keystore and its passwords, and server ports
  */
 public class ServerProperties {
     public final static String KEYSTORE = "com.bitbreeds.keystore";
     public final static String ALIAS = "com.bitbreeds.keystore.alias";
     public final static String PASS = "com.bitbreeds.keystore.pass";
+
+    /**
+     * Set to true to generate a self signed ECDSA certificate at startup instead of using the keystore
+     */
+    public final static String GENERATE_CERTIFICATE = "com.bitbreeds.certificate.generate";
+
+    /**
+     * DTLS crypto, BC (default) or JCA
+     */
+    public final static String CRYPTO_BACKEND = "com.bitbreeds.crypto";
+
+    /**
+     * Accept SCTP packets without checksum over DTLS (RFC 9653), true (default) or false
+     */
+    public final static String ZERO_CHECKSUM = "com.bitbreeds.sctp.zerochecksum";
+
+    /**
+     * Path MTU discovery with SCTP heartbeat probes (RFC 8899), true (default) or false
+     */
+    public final static String PATH_MTU_DISCOVERY = "com.bitbreeds.sctp.plpmtud";
+
+    /**
+     * Offer I-DATA message interleaving (RFC 8260), true (default) or false
+     */
+    public final static String MESSAGE_INTERLEAVING = "com.bitbreeds.sctp.interleaving";
+
+    /**
+     * How data channels share the link, WFQ by channel priority (default), ROUND_ROBIN or FCFS
+     */
+    public final static String STREAM_SCHEDULER = "com.bitbreeds.sctp.scheduler";
+
+    /**
+     * Comma separated UDP ports shared by all connections, unset gives each connection its own port
+     */
+    public final static String SHARED_PORTS = "com.bitbreeds.sharedports";
+
+    /**
+     * Number of event loop threads receiving for all connections, unset gives each connection its own thread
+     */
+    public final static String REACTOR_THREADS = "com.bitbreeds.reactorthreads";
+
+    /**
+     * Set to true to run connections on virtual threads, needs java 21 or later
+     */
+    public final static String VIRTUAL_THREADS = "com.bitbreeds.virtualthreads";
+
+    /**
+     * Number of DTLS handshake workers, unset runs each handshake on its connections thread
+     */
+    public final static String HANDSHAKE_THREADS = "com.bitbreeds.handshake.threads";
+
+    /**
+     * Number of DTLS handshakes that can wait for a worker
+     */
+    public final static String HANDSHAKE_QUEUE = "com.bitbreeds.handshake.queue";
+
+    /**
+     * Max milliseconds a DTLS handshake waits for a worker before the connection is rejected
+     */
+    public final static String HANDSHAKE_MAX_WAIT = "com.bitbreeds.handshake.maxwait";
 }
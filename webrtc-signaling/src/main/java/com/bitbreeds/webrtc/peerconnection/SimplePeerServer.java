@@ -1,19 +1,31 @@
 package com.bitbreeds.webrtc.peerconnection;
 
-import com.bitbreeds.webrtc.dtls.CertUtil;
+import com.bitbreeds.webrtc.common.ConnectionExecutors;
+import com.bitbreeds.webrtc.dtls.CertificateGenerator;
+import com.bitbreeds.webrtc.dtls.CredentialCache;
+import com.bitbreeds.webrtc.dtls.CryptoBackend;
+import com.bitbreeds.webrtc.dtls.DtlsCredentials;
+import com.bitbreeds.webrtc.dtls.HandshakePool;
 import com.bitbreeds.webrtc.dtls.KeyStoreInfo;
+import com.bitbreeds.webrtc.sctp.impl.buffer.StreamSchedulerType;
 import com.bitbreeds.webrtc.signaling.*;
+import com.bitbreeds.webrtc.transport.DedicatedUdpEndpoint;
+import com.bitbreeds.webrtc.transport.SharedUdpPort;
+import com.bitbreeds.webrtc.transport.UdpReactor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.sdp.MediaDescription;
 import javax.sdp.SessionDescription;
+import java.net.InetSocketAddress;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -60,18 +72,120 @@ public class SimplePeerServer {
      */
     private final Function<PeerDescription,ConnectionImplementation> connectionWrapper;
 
+    /**
+     * Ports shared by all connections, empty if each connection gets its own port
+     */
+    private final List<SharedUdpPort> sharedPorts;
+
+    /**
+     * Event loops receiving for all connections, null if each connection has its own receive thread
+     */
+    private final UdpReactor reactor;
+
+    private final AtomicInteger connectionCounter = new AtomicInteger(0);
+
+    /**
+     * Executor for the blocking work of each connection, null to run on platform threads like before
+     */
+    private volatile Executor connectionExecutor;
+
+    /**
+     * Workers for DTLS handshakes, null to run each handshake on its connections thread
+     */
+    private volatile HandshakePool handshakePool;
+
+    /**
+     * Crypto for DTLS of new connections
+     */
+    private volatile CryptoBackend cryptoBackend = CryptoBackend.BC;
+
+    /**
+     * Offer SCTP zero checksum on new connections
+     */
+    private volatile boolean zeroChecksum = true;
+
+    /**
+     * Probe for the path MTU on new connections
+     */
+    private volatile boolean pathMtuDiscovery = true;
+
+    /**
+     * Offer I-DATA to peers of new connections
+     */
+    private volatile boolean messageInterleaving = true;
+
+    /**
+     * How channels of new connections share the link
+     */
+    private volatile StreamSchedulerType streamScheduler = StreamSchedulerType.WFQ;
+
     public SimplePeerServer(
             KeyStoreInfo keyStoreInfo,
             Function<PeerDescription,ConnectionImplementation> connectionWrapper) {
+        this(keyStoreInfo,connectionWrapper,null,Collections.emptyList());
+    }
+
+    /**
+     * Serve all connections from the given UDP ports instead of one port per connection.
+     * Connections are spread over the ports, and demultiplexed by ICE ufrag and remote address.
+     *
+     * @param keyStoreInfo server keystore
+     * @param sharedPorts ports to bind
+     */
+    public SimplePeerServer(KeyStoreInfo keyStoreInfo, Collection<Integer> sharedPorts) {
+        this(keyStoreInfo,null,null,sharedPorts);
+    }
+
+    /**
+     * Receive for all connections on the event loops of the reactor,
+     * so the number of threads does not grow with the number of connections.
+     *
+     * @param keyStoreInfo server keystore
+     * @param reactor event loops to use
+     * @param sharedPorts ports to bind, or empty to give each connection its own port
+     */
+    public SimplePeerServer(KeyStoreInfo keyStoreInfo, UdpReactor reactor, Collection<Integer> sharedPorts) {
+        this(keyStoreInfo,null,reactor,sharedPorts);
+    }
+
+    /**
+     * Use the given credentials instead of a keystore,
+     * for instance a certificate from {@link CertificateGenerator#ecdsa()} generated at startup.
+     *
+     * @param credentials server certificate and key
+     * @param reactor event loops to use, or null to give each connection its own receive thread
+     * @param sharedPorts ports to bind, or empty to give each connection its own port
+     */
+    public SimplePeerServer(DtlsCredentials credentials, UdpReactor reactor, Collection<Integer> sharedPorts) {
+        this(null,credentials,null,reactor,sharedPorts);
+    }
+
+    private SimplePeerServer(
+            KeyStoreInfo keyStoreInfo,
+            Function<PeerDescription,ConnectionImplementation> connectionWrapper,
+            UdpReactor reactor,
+            Collection<Integer> sharedPorts) {
+        //Read the keystore now, so offers do not
+        this(keyStoreInfo,CredentialCache.get(keyStoreInfo),connectionWrapper,reactor,sharedPorts);
+    }
+
+    private SimplePeerServer(
+            KeyStoreInfo keyStoreInfo,
+            DtlsCredentials credentials,
+            Function<PeerDescription,ConnectionImplementation> connectionWrapper,
+            UdpReactor reactor,
+            Collection<Integer> sharedPorts) {
         this.connectionWrapper = connectionWrapper;
         this.keyStoreInfo = keyStoreInfo;
+        this.credentials = credentials;
+        this.reactor = reactor;
         address = AddressUtils.findAddress();
+        this.sharedPorts = sharedPorts.stream()
+                .map(port -> new SharedUdpPort(new InetSocketAddress(port),reactor))
+                .collect(Collectors.toList());
 
         //Run periodic tasks
-        sctpTasksPool.scheduleAtFixedRate(() ->
-                        connections.values().forEach(ConnectionImplementation::runPeriodicSctpTasks),
-                100, 100, TimeUnit.MILLISECONDS
-        );
+        sctpTasksPool.scheduleAtFixedRate(this::runPeriodicSctpTasks, 100, 100, TimeUnit.MILLISECONDS);
 
         //Schedule sending of heartbeat
         monitoring.scheduleAtFixedRate(() -> {
@@ -83,6 +197,14 @@ public class SimplePeerServer {
             connections.values().forEach(ConnectionImplementation::runConnectionStateLogging);
         }, 3000, 3000, TimeUnit.MILLISECONDS);
 
+        //Schedule handshake pool logging
+        monitoring.scheduleAtFixedRate(() -> {
+            HandshakePool pool = handshakePool;
+            if(pool != null) {
+                logger.info("Handshakes: {}", pool);
+            }
+        }, 10000, 10000, TimeUnit.MILLISECONDS);
+
         //Schedule reaping of unresponsive connections
         monitoring.scheduleAtFixedRate(() -> {
             List<Map.Entry<Integer,ConnectionImplementation>> toClose = connections.entrySet().stream()
@@ -119,7 +241,7 @@ public class SimplePeerServer {
     }
 
     public SimplePeerServer(KeyStoreInfo keyStoreInfo) {
-        this(keyStoreInfo,null);
+        this(keyStoreInfo,null,null,Collections.emptyList());
     }
 
 
@@ -127,9 +249,14 @@ public class SimplePeerServer {
     public Consumer<PeerConnection> onConnection = (i) -> {};
 
     /**
-     * Server keystore for encryption
+     * Server keystore for encryption, null when using generated credentials
      */
-    private KeyStoreInfo keyStoreInfo;
+    private final KeyStoreInfo keyStoreInfo;
+
+    /**
+     * Certificate and key of new connections
+     */
+    private volatile DtlsCredentials credentials;
 
 
     public Map<Integer, ConnectionImplementation> getConnections() {
@@ -143,6 +270,12 @@ public class SimplePeerServer {
      */
     public List<Object> handleOffer(Offer offer) throws Exception {
 
+        HandshakePool pool = handshakePool;
+        if(pool != null && !pool.hasCapacity()) {
+            logger.warn("Rejecting offer, no capacity for DTLS handshake: {}", pool);
+            return Collections.emptyList();
+        }
+
         SessionDescription sdp = offer.getSdp();
 
         MediaDescription med = (MediaDescription)sdp.getMediaDescriptions(true).get(0);
@@ -165,18 +298,27 @@ public class SimplePeerServer {
 
         PeerDescription remotePeer = new PeerDescription(new UserData(user,pwd),mid,signature);
 
-        String fingerPrint = CertUtil.getCertFingerPrint(
-                keyStoreInfo.getFilePath(),
-                keyStoreInfo.getAlias(),
-                keyStoreInfo.getPassword());
+        DtlsCredentials serverCredentials = credentials;
+        String fingerPrint = serverCredentials.getFingerprint();
 
+        int connectionNumber = connectionCounter.incrementAndGet();
         ConnectionImplementation ds = connectionWrapper != null ?
                 connectionWrapper.apply(remotePeer) :
-                new ConnectionImplementation(keyStoreInfo,remotePeer,address);
-
+                createConnection(serverCredentials,remotePeer,connectionNumber);
+
+        Executor executor = connectionExecutor;
+        if(executor != null) {
+            ds.setExecutor(executor);
+        }
+        ds.setHandshakePool(pool);
+        ds.setCryptoBackend(cryptoBackend);
+        ds.setZeroChecksum(zeroChecksum);
+        ds.setPathMtuDiscovery(pathMtuDiscovery);
+        ds.setMessageInterleaving(messageInterleaving);
+        ds.setStreamScheduler(streamScheduler);
         onConnection.accept(ds.getPeerConnection());
-        connections.put(ds.getPort(),ds);
-        new Thread(ds).start();
+        connections.put(connectionNumber,ds);
+        ds.start();
 
         SessionDescription answerSdp = SDPUtil.createSDP(
                 offerCandidates,
@@ -194,10 +336,127 @@ public class SimplePeerServer {
     }
 
 
+    private ConnectionImplementation createConnection(
+            DtlsCredentials serverCredentials,
+            PeerDescription remotePeer,
+            int connectionNumber) {
+        if(sharedPorts.isEmpty()) {
+            return reactor == null ?
+                    new ConnectionImplementation(serverCredentials,remotePeer,address,user -> DedicatedUdpEndpoint.open()) :
+                    new ConnectionImplementation(serverCredentials,remotePeer,address,user -> reactor.open());
+        }
+        SharedUdpPort port = sharedPorts.get(connectionNumber % sharedPorts.size());
+        return new ConnectionImplementation(serverCredentials,remotePeer,address,
+                user -> port.register(user.getUserName()));
+    }
+
+    /**
+     * Run SCTP tasks of all connections, each connection as its own task when there is a connection executor,
+     * so a slow connection does not hold up the others.
+     */
+    private void runPeriodicSctpTasks() {
+        Executor executor = connectionExecutor;
+        if(executor == null) {
+            connections.values().forEach(ConnectionImplementation::runPeriodicSctpTasks);
+        }
+        else {
+            connections.values().forEach(i -> executor.execute(i::runPeriodicSctpTasks));
+        }
+    }
+
+    /**
+     * Run receive loops, DTLS handshakes and periodic SCTP tasks of new connections on this executor.
+     * Use {@link ConnectionExecutors#virtualThreads()} to avoid a platform thread per connection.
+     *
+     * @param connectionExecutor executor to use, null for platform threads
+     */
+    public void setConnectionExecutor(Executor connectionExecutor) {
+        this.connectionExecutor = connectionExecutor;
+    }
+
+    /**
+     * Run DTLS handshakes of new connections on this pool, offers are rejected
+     * without an answer while it has no capacity. The pool is shut down with the server.
+     *
+     * @param handshakePool pool to use, null to run handshakes on the connections own threads
+     */
+    public void setHandshakePool(HandshakePool handshakePool) {
+        this.handshakePool = handshakePool;
+    }
+
+    public HandshakePool getHandshakePool() {
+        return handshakePool;
+    }
+
+    /**
+     * @param cryptoBackend crypto for DTLS of new connections, {@link CryptoBackend#JCA} to use AES-GCM intrinsics
+     */
+    public void setCryptoBackend(CryptoBackend cryptoBackend) {
+        this.cryptoBackend = Objects.requireNonNull(cryptoBackend);
+    }
+
+    /**
+     * @param zeroChecksum offer SCTP zero checksum to peers of new connections
+     */
+    public void setZeroChecksum(boolean zeroChecksum) {
+        this.zeroChecksum = zeroChecksum;
+    }
+
+    /**
+     * @param pathMtuDiscovery probe for the path MTU on new connections, otherwise the maximum is assumed
+     */
+    public void setPathMtuDiscovery(boolean pathMtuDiscovery) {
+        this.pathMtuDiscovery = pathMtuDiscovery;
+    }
+
+    /**
+     * @param messageInterleaving offer I-DATA message interleaving to peers of new connections
+     */
+    public void setMessageInterleaving(boolean messageInterleaving) {
+        this.messageInterleaving = messageInterleaving;
+    }
+
+    /**
+     * @param streamScheduler how channels of new connections share the link, {@link StreamSchedulerType#WFQ} by priority
+     */
+    public void setStreamScheduler(StreamSchedulerType streamScheduler) {
+        this.streamScheduler = Objects.requireNonNull(streamScheduler);
+    }
+
+    /**
+     * Read the keystore again, new connections use the new certificate
+     */
+    public void reloadCredentials() {
+        if(keyStoreInfo == null) {
+            throw new IllegalStateException("No keystore to reload, use setCredentials");
+        }
+        credentials = CredentialCache.reload(keyStoreInfo);
+    }
+
+    /**
+     * @param credentials certificate and key for new connections, the answer carries its fingerprint
+     */
+    public void setCredentials(DtlsCredentials credentials) {
+        this.credentials = Objects.requireNonNull(credentials);
+    }
+
+    public DtlsCredentials getCredentials() {
+        return credentials;
+    }
+
+    public List<SharedUdpPort> getSharedPorts() {
+        return sharedPorts;
+    }
+
     public void shutDown() {
         connections.values().forEach(ConnectionImplementation::close);
         monitoring.shutdownNow();
         sctpTasksPool.shutdownNow();
+        sharedPorts.forEach(SharedUdpPort::close);
+        HandshakePool pool = handshakePool;
+        if(pool != null) {
+            pool.shutdown();
+        }
     }
 
 
@@ -0,0 +1,53 @@
+package com.bitbreeds.webrtc.signaling;
+
+import com.bitbreeds.webrtc.dtls.CredentialCache;
+import com.bitbreeds.webrtc.dtls.DtlsCredentials;
+import com.bitbreeds.webrtc.dtls.KeyStoreInfo;
+import org.bouncycastle.crypto.params.RSAPrivateCrtKeyParameters;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+public class CredentialCacheTest {
+
+    @Test
+    public void testSharedForSameKeystore() {
+        DtlsCredentials first = CredentialCache.get(new KeyStoreInfo(LocalPeer.KEYSTORE, LocalPeer.ALIAS, LocalPeer.PASS));
+        DtlsCredentials second = CredentialCache.get(new KeyStoreInfo(LocalPeer.KEYSTORE, LocalPeer.ALIAS, LocalPeer.PASS));
+
+        assertSame(first, second);
+        assertTrue(first.getPrivateKey() instanceof RSAPrivateCrtKeyParameters);
+        assertTrue(first.getFingerprint().matches("sha-256 ([0-9A-F]{2}:){31}[0-9A-F]{2}"));
+    }
+
+    @Test
+    public void testReload() {
+        KeyStoreInfo info = new KeyStoreInfo(LocalPeer.KEYSTORE, LocalPeer.ALIAS, LocalPeer.PASS);
+        DtlsCredentials before = CredentialCache.get(info);
+        DtlsCredentials reloaded = CredentialCache.reload(info);
+
+        assertNotSame(before, reloaded);
+        assertSame(reloaded, CredentialCache.get(info));
+        assertEquals(before.getFingerprint(), reloaded.getFingerprint());
+    }
+
+}
@@ -0,0 +1,358 @@
+package com.bitbreeds.webrtc.signaling;
+
+import com.bitbreeds.webrtc.dtls.CertificateGenerator;
+import com.bitbreeds.webrtc.dtls.CryptoBackend;
+import com.bitbreeds.webrtc.dtls.HandshakePool;
+import com.bitbreeds.webrtc.dtls.KeyStoreInfo;
+import com.bitbreeds.webrtc.peerconnection.ConnectionImplementation;
+import com.bitbreeds.webrtc.peerconnection.UserData;
+import com.bitbreeds.webrtc.transport.DedicatedUdpEndpoint;
+import com.bitbreeds.webrtc.transport.SharedUdpPort;
+import com.bitbreeds.webrtc.transport.UdpEndpoint;
+import com.bitbreeds.webrtc.transport.UdpReactor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * Connects a {@link LocalPeer} to a connection over loopback,
+ * and echoes a message over a datachannel, for each kind of UDP endpoint.
+ */
+public class LocalConnectionTest {
+
+    private final KeyStoreInfo keyStoreInfo = new KeyStoreInfo(LocalPeer.KEYSTORE, LocalPeer.ALIAS, LocalPeer.PASS);
+
+    private LocalPeer peer;
+
+    private ConnectionImplementation connection;
+
+    @Before
+    public void setup() throws Exception {
+        peer = new LocalPeer();
+    }
+
+    @After
+    public void tearDown() {
+        peer.close();
+        if (connection != null) {
+            connection.closeConnection();
+        }
+    }
+
+    private void echo(Function<UserData,UdpEndpoint> endpointFactory, int port) throws Exception {
+        echo(endpointFactory, port, null);
+    }
+
+    private void echo(Function<UserData,UdpEndpoint> endpointFactory, int port, HandshakePool pool) throws Exception {
+        connection = new ConnectionImplementation(keyStoreInfo, peer.getDescription(), "127.0.0.1", endpointFactory);
+        connection.setHandshakePool(pool);
+        connection.getPeerConnection().onDataChannel = channel ->
+                channel.onMessage = message -> channel.send("echo:" + new String(message.getData()));
+        connection.start();
+
+        peer.connect(port > 0 ? port : connection.getPort(), connection.getLocal());
+        peer.associate();
+        peer.openChannel(1, "test");
+        peer.send(1, "hello");
+        assertEquals("echo:hello", peer.receive(1));
+        peer.send(1, "again");
+        assertEquals("echo:again", peer.receive(1));
+        assertTrue(connection.isAssociated());
+    }
+
+    @Test
+    public void testSetupTimeoutClosesConnection() throws Exception {
+        connection = new ConnectionImplementation(keyStoreInfo, peer.getDescription(), "127.0.0.1",
+                user -> DedicatedUdpEndpoint.open());
+        connection.setSetupTimeoutMillis(100);
+        connection.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!connection.isSocketClosed() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(connection.isSocketClosed());
+        assertFalse(connection.isAssociated());
+    }
+
+    @Test
+    public void testDedicatedSocket() throws Exception {
+        echo(user -> DedicatedUdpEndpoint.open(), 0);
+    }
+
+    @Test
+    public void testSharedPort() throws Exception {
+        SharedUdpPort port = new SharedUdpPort(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        try {
+            echo(user -> port.register(user.getUserName()), port.getPort());
+        } finally {
+            port.close();
+        }
+    }
+
+    @Test
+    public void testReactor() throws Exception {
+        UdpReactor reactor = new UdpReactor(1);
+        try {
+            echo(user -> reactor.open(), 0);
+        } finally {
+            reactor.shutdown();
+        }
+    }
+
+    @Test
+    public void testReactorSharedPort() throws Exception {
+        UdpReactor reactor = new UdpReactor(2);
+        SharedUdpPort port = new SharedUdpPort(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), reactor);
+        try {
+            echo(user -> port.register(user.getUserName()), port.getPort());
+        } finally {
+            port.close();
+            reactor.shutdown();
+        }
+    }
+
+    @Test
+    public void testHandshakePool() throws Exception {
+        HandshakePool pool = new HandshakePool(1, 1, 5000);
+        try {
+            echo(user -> DedicatedUdpEndpoint.open(), 0, pool);
+            assertEquals(1, pool.getCompletedCount());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testReactorHandshakePool() throws Exception {
+        UdpReactor reactor = new UdpReactor(1);
+        HandshakePool pool = new HandshakePool(1, 1, 5000);
+        try {
+            echo(user -> reactor.open(), 0, pool);
+            assertEquals(1, pool.getCompletedCount());
+        } finally {
+            pool.shutdown();
+            reactor.shutdown();
+        }
+    }
+
+    @Test
+    public void testJcaCrypto() throws Exception {
+        connection = new ConnectionImplementation(keyStoreInfo, peer.getDescription(), "127.0.0.1",
+                user -> DedicatedUdpEndpoint.open());
+        connection.setCryptoBackend(CryptoBackend.JCA);
+        echoOpened();
+    }
+
+    @Test
+    public void testGeneratedEcdsaCertificate() throws Exception {
+        connection = new ConnectionImplementation(CertificateGenerator.ecdsa(), peer.getDescription(), "127.0.0.1",
+                user -> DedicatedUdpEndpoint.open());
+        echoOpened();
+    }
+
+    @Test
+    public void testGeneratedEcdsaCertificateJcaCrypto() throws Exception {
+        connection = new ConnectionImplementation(CertificateGenerator.ecdsa(), peer.getDescription(), "127.0.0.1",
+                user -> DedicatedUdpEndpoint.open());
+        connection.setCryptoBackend(CryptoBackend.JCA);
+        echoOpened();
+    }
+
+    @Test
+    public void testZeroChecksum() throws Exception {
+        connection = new ConnectionImplementation(keyStoreInfo, peer.getDescription(), "127.0.0.1",
+                user -> DedicatedUdpEndpoint.open());
+        echoOpened(true);
+        assertTrue(peer.isZeroChecksum());
+        assertTrue(peer.getZeroChecksumReceived() > 0);
+    }
+
+    @Test
+    public void testZeroChecksumDisabled() throws Exception {
+        connection = new ConnectionImplementation(keyStoreInfo, peer.getDescription(), "127.0.0.1",
+                user -> DedicatedUdpEndpoint.open());
+        connection.setZeroChecksum(false);
+        echoOpened(true);
+        assertFalse(peer.isZeroChecksum());
+        assertEquals(0, peer.getZeroChecksumReceived());
+    }
+
+    @Test
+    public void testMessageInterleaving() throws Exception {
+        connection = new ConnectionImplementation(keyStoreInfo, peer.getDescription(), "127.0.0.1",
+                user -> DedicatedUdpEndpoint.open());
+        echoOpened(false, true);
+        assertTrue(peer.isMessageInterleaving());
+        peer.sendFragments(1, "split ", "over ", "i-data");
+        assertEquals("echo:split over i-data", peer.receive(1));
+    }
+
+    @Test
+    public void testMessageInterleavingDisabled() throws Exception {
+        connection = new ConnectionImplementation(keyStoreInfo, peer.getDescription(), "127.0.0.1",
+                user -> DedicatedUdpEndpoint.open());
+        connection.setMessageInterleaving(false);
+        echoOpened(false, true);
+        assertFalse(peer.isMessageInterleaving());
+    }
+
+    @Test
+    public void testSackRidesOnEcho() throws Exception {
+        connection = new ConnectionImplementation(keyStoreInfo, peer.getDescription(), "127.0.0.1",
+                user -> DedicatedUdpEndpoint.open());
+        echoOpened();
+        peer.send(1, "again");
+        assertEquals("echo:again", peer.receive(1));
+        assertTrue(peer.getSackWithDataReceived() > 0);
+    }
+
+    @Test
+    public void testPathMtuProbedAboveBase() throws Exception {
+        connection = new ConnectionImplementation(keyStoreInfo, peer.getDescription(), "127.0.0.1",
+                user -> DedicatedUdpEndpoint.open());
+        echoOpened();
+
+        /*
+         * Periodic tasks are run by the server, they send the probes
+         */
+        ScheduledExecutorService tasks = Executors.newSingleThreadScheduledExecutor();
+        try {
+            tasks.scheduleAtFixedRate(connection::runPeriodicSctpTasks, 100, 100, TimeUnit.MILLISECONDS);
+            int probe = peer.receiveHeartBeat(1200);
+            assertTrue("Probe chunk of " + probe + " bytes", probe > 1200);
+            peer.send(1, "after probe");
+            assertEquals("echo:after probe", peer.receive(1));
+        } finally {
+            tasks.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testStreamingReceive() throws Exception {
+        connection = new ConnectionImplementation(keyStoreInfo, peer.getDescription(), "127.0.0.1",
+                user -> DedicatedUdpEndpoint.open());
+        ExecutorService readers = Executors.newSingleThreadExecutor();
+        try {
+            connection.getPeerConnection().onDataChannel = channel -> {
+                channel.setStreamingReceive(true);
+                channel.onMessage = message -> channel.send("echo:" + new String(message.getData()));
+                channel.onMessageStream = stream -> readers.execute(() -> {
+                    try (InputStream in = Channels.newInputStream(stream)) {
+                        ByteArrayOutputStream out = new ByteArrayOutputStream();
+                        byte[] buf = new byte[16];
+                        int read;
+                        while ((read = in.read(buf)) != -1) {
+                            out.write(buf, 0, read);
+                        }
+                        channel.send("streamed:" + new String(out.toByteArray()));
+                    } catch (IOException e) {
+                        channel.send("failed:" + e.getMessage());
+                    }
+                });
+            };
+            connection.start();
+
+            peer.connect(connection.getPort(), connection.getLocal());
+            peer.associate();
+            peer.openChannel(1, "test");
+            peer.sendFragments(1, "first ", "middle ", "last");
+            assertEquals("streamed:first middle last", peer.receive(1));
+            peer.send(1, "whole");
+            assertEquals("echo:whole", peer.receive(1));
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBufferedAmountLowOnlyForDrainedChannel() throws Exception {
+        connection = new ConnectionImplementation(keyStoreInfo, peer.getDescription(), "127.0.0.1",
+                user -> DedicatedUdpEndpoint.open());
+        BlockingQueue<Integer> low = new LinkedBlockingQueue<>();
+        connection.getPeerConnection().onDataChannel = channel -> {
+            channel.onMessage = message -> channel.send("echo:" + new String(message.getData()));
+            channel.onBufferedAmountLow = state -> low.add(channel.getStreamId());
+        };
+        connection.start();
+
+        ScheduledExecutorService tasks = Executors.newSingleThreadScheduledExecutor();
+        try {
+            tasks.scheduleAtFixedRate(connection::runPeriodicSctpTasks, 50, 50, TimeUnit.MILLISECONDS);
+            peer.connect(connection.getPort(), connection.getLocal());
+            peer.associate();
+            peer.openChannel(1, "first");
+            peer.openChannel(3, "second");
+            peer.send(3, "first");
+            assertEquals("echo:first", peer.receive(3));
+
+            /*
+             * Let notifications from the DCEP ACKs and the first echo pass
+             */
+            Thread.sleep(300);
+            low.clear();
+
+            peer.send(1, "hello");
+            assertEquals("echo:hello", peer.receive(1));
+            assertEquals(Integer.valueOf(1), low.poll(2, TimeUnit.SECONDS));
+            assertNull(low.poll(300, TimeUnit.MILLISECONDS));
+        } finally {
+            tasks.shutdownNow();
+        }
+    }
+
+    private void echoOpened() throws Exception {
+        echoOpened(false);
+    }
+
+    private void echoOpened(boolean offerZeroChecksum) throws Exception {
+        echoOpened(offerZeroChecksum, false);
+    }
+
+    private void echoOpened(boolean offerZeroChecksum, boolean offerInterleaving) throws Exception {
+        connection.getPeerConnection().onDataChannel = channel ->
+                channel.onMessage = message -> channel.send("echo:" + new String(message.getData()));
+        connection.start();
+
+        peer.connect(connection.getPort(), connection.getLocal());
+        peer.associate(offerZeroChecksum, offerInterleaving);
+        peer.openChannel(1, "test");
+        peer.send(1, "hello");
+        assertEquals("echo:hello", peer.receive(1));
+    }
+
+}
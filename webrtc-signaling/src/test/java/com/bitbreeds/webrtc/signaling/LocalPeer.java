@@ -0,0 +1,583 @@
+package com.bitbreeds.webrtc.signaling;
+
+import com.bitbreeds.webrtc.common.SignalUtil;
+import com.bitbreeds.webrtc.dtls.CertUtil;
+import com.bitbreeds.webrtc.peerconnection.PeerDescription;
+import com.bitbreeds.webrtc.peerconnection.UserData;
+import org.apache.commons.codec.binary.Hex;
+import org.bouncycastle.crypto.params.AsymmetricKeyParameter;
+import org.bouncycastle.crypto.params.RSAPrivateCrtKeyParameters;
+import org.bouncycastle.tls.Certificate;
+import org.bouncycastle.tls.CertificateRequest;
+import org.bouncycastle.tls.DTLSClientProtocol;
+import org.bouncycastle.tls.DTLSTransport;
+import org.bouncycastle.tls.DefaultTlsClient;
+import org.bouncycastle.tls.HashAlgorithm;
+import org.bouncycastle.tls.ProtocolVersion;
+import org.bouncycastle.tls.SignatureAlgorithm;
+import org.bouncycastle.tls.SignatureAndHashAlgorithm;
+import org.bouncycastle.tls.TlsAuthentication;
+import org.bouncycastle.tls.TlsCredentials;
+import org.bouncycastle.tls.TlsServerCertificate;
+import org.bouncycastle.tls.UDPTransport;
+import org.bouncycastle.tls.crypto.TlsCertificate;
+import org.bouncycastle.tls.crypto.TlsCryptoParameters;
+import org.bouncycastle.tls.crypto.impl.bc.BcDefaultTlsCredentialedSigner;
+import org.bouncycastle.tls.crypto.impl.bc.BcTlsCertificate;
+import org.bouncycastle.tls.crypto.impl.bc.BcTlsCrypto;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/*
+ * Copyright (c) 17/10/2026, Jonas Waage
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+/**
+ * A bare bones remote peer doing what a browser does to open a datachannel,
+ * so connections can be tested without a browser.
+ *
+ * STUN binding request, DTLS handshake as client, SCTP association and a DCEP OPEN.
+ * Only what is needed to exchange a few small messages over loopback is implemented,
+ * there is no retransmission, fragmentation or reordering.
+ */
+public class LocalPeer implements AutoCloseable {
+
+    static final String KEYSTORE = "./src/test/resources/ws2.jks";
+    static final String ALIAS = "websocket";
+    static final String PASS = "websocket";
+
+    private final static int MTU = 1500;
+    private final static int SCTP_PORT = 5000;
+    private final static int STUN_COOKIE = 0x2112A442;
+
+    private final static int DATA = 0;
+    private final static int INIT = 1;
+    private final static int INIT_ACK = 2;
+    private final static int SACK = 3;
+    private final static int HEARTBEAT = 4;
+    private final static int HEARTBEAT_ACK = 5;
+    private final static int COOKIE_ECHO = 10;
+    private final static int COOKIE_ACK = 11;
+    private final static int I_DATA = 64;
+    private final static int I_FORWARD_TSN = 194;
+
+    private final static int STATE_COOKIE = 7;
+    private final static int ZERO_CHECKSUM_ACCEPTABLE = 0x8001;
+    private final static int SUPPORTED_EXTENSIONS = 0x8008;
+    private final static int EDMID_DTLS = 1;
+
+    private final static int PPID_DCEP = 50;
+    private final static int PPID_STRING = 51;
+
+    private final DatagramSocket socket;
+
+    private final UserData user = new UserData(
+            Hex.encodeHexString(SignalUtil.randomBytes(4)),
+            Hex.encodeHexString(SignalUtil.randomBytes(16)));
+
+    private final long localTag = 0x0A0B0C0DL;
+
+    private final Map<Integer,Integer> nextSsn = new HashMap<>();
+
+    private DTLSTransport dtls;
+
+    private long remoteTag;
+
+    private long nextTsn = 1000;
+
+    private long remoteCumulativeTsn;
+
+    private boolean zeroChecksum;
+
+    private boolean messageInterleaving;
+
+    private int zeroChecksumReceived;
+
+    private int sackWithDataReceived;
+
+    /**
+     * Chunks bundled after the one returned by {@link #receiveChunk(int)}
+     */
+    private final Deque<byte[]> pending = new ArrayDeque<>();
+
+    public LocalPeer() throws IOException {
+        socket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * @return what the server would have parsed from the offer of this peer
+     */
+    public PeerDescription getDescription() {
+        return new PeerDescription(user, "0", CertUtil.getCertFingerPrint(KEYSTORE, ALIAS, PASS));
+    }
+
+    /**
+     * Do a STUN binding and a DTLS handshake with the server
+     */
+    public void connect(int port, UserData server) throws IOException {
+        socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        socket.setSoTimeout(5000);
+
+        byte[] request = bindingRequest(server);
+        socket.send(new DatagramPacket(request, request.length));
+        DatagramPacket response = new DatagramPacket(new byte[MTU], MTU);
+        socket.receive(response);
+        if (response.getData()[0] != 0x01 || response.getData()[1] != 0x01) {
+            throw new IOException("Expected binding response, got " +
+                    Hex.encodeHexString(Arrays.copyOf(response.getData(), response.getLength())));
+        }
+
+        dtls = new DTLSClientProtocol().connect(new PeerDtlsClient(), new UDPTransport(socket, MTU));
+    }
+
+    /**
+     * Set up the SCTP association, INIT -> INIT ACK -> COOKIE ECHO -> COOKIE ACK
+     */
+    public void associate() throws IOException {
+        associate(false);
+    }
+
+    /**
+     * @param offerZeroChecksum add zero checksum acceptable for DTLS to the INIT
+     */
+    public void associate(boolean offerZeroChecksum) throws IOException {
+        associate(offerZeroChecksum, false);
+    }
+
+    /**
+     * @param offerZeroChecksum add zero checksum acceptable for DTLS to the INIT
+     * @param offerInterleaving list I-DATA and I-FORWARD-TSN as supported extensions in the INIT
+     */
+    public void associate(boolean offerZeroChecksum, boolean offerInterleaving) throws IOException {
+        ByteBuffer init = ByteBuffer.allocate(16 + (offerZeroChecksum ? 8 : 0) + (offerInterleaving ? 8 : 0));
+        init.putInt((int) localTag);
+        init.putInt(1000000);
+        init.putShort((short) 1024);
+        init.putShort((short) 1024);
+        init.putInt((int) nextTsn);
+        if (offerZeroChecksum) {
+            init.putShort((short) ZERO_CHECKSUM_ACCEPTABLE);
+            init.putShort((short) 8);
+            init.putInt(EDMID_DTLS);
+        }
+        if (offerInterleaving) {
+            init.putShort((short) SUPPORTED_EXTENSIONS);
+            init.putShort((short) 6);
+            init.put((byte) I_DATA);
+            init.put((byte) I_FORWARD_TSN);
+            init.putShort((short) 0);
+        }
+        send(0, chunk(INIT, 0, init.array()));
+
+        byte[] initAck = receiveChunk(INIT_ACK);
+        ByteBuffer ack = ByteBuffer.wrap(initAck);
+        remoteTag = ack.getInt(4) & 0xFFFFFFFFL;
+        remoteCumulativeTsn = (ack.getInt(16) & 0xFFFFFFFFL) - 1;
+        byte[] cookie = findParameter(initAck, 20, STATE_COOKIE);
+        byte[] edmid = findOptionalParameter(initAck, 20, ZERO_CHECKSUM_ACCEPTABLE);
+        boolean accepted = offerZeroChecksum
+                && edmid != null
+                && edmid.length == 4
+                && ByteBuffer.wrap(edmid).getInt() == EDMID_DTLS;
+        byte[] extensions = findOptionalParameter(initAck, 20, SUPPORTED_EXTENSIONS);
+        messageInterleaving = offerInterleaving
+                && extensions != null
+                && contains(extensions, I_DATA);
+
+        /*
+         * RFC 9653 requires a correct checksum on the COOKIE ECHO
+         */
+        send(remoteTag, chunk(COOKIE_ECHO, 0, cookie));
+        zeroChecksum = accepted;
+        receiveChunk(COOKIE_ACK);
+    }
+
+    /**
+     * Open a reliable ordered datachannel and wait for the DCEP ACK
+     */
+    public void openChannel(int stream, String label) throws IOException {
+        byte[] labelBytes = label.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer open = ByteBuffer.allocate(12 + labelBytes.length);
+        open.put((byte) 0x03);
+        open.put((byte) 0x00);
+        open.putShort((short) 256);
+        open.putInt(0);
+        open.putShort((short) labelBytes.length);
+        open.putShort((short) 0);
+        open.put(labelBytes);
+        sendData(stream, PPID_DCEP, open.array());
+
+        byte[] answer = receiveData(stream, PPID_DCEP);
+        if (answer[0] != 0x02) {
+            throw new IOException("Expected DCEP ACK, got " + Hex.encodeHexString(answer));
+        }
+    }
+
+    /**
+     * @return whether both sides accepted zero checksum in the INIT exchange
+     */
+    public boolean isZeroChecksum() {
+        return zeroChecksum;
+    }
+
+    /**
+     * @return whether both sides support I-DATA, user messages are then sent and expected as I-DATA
+     */
+    public boolean isMessageInterleaving() {
+        return messageInterleaving;
+    }
+
+    /**
+     * @return received packets where a SACK was bundled with DATA
+     */
+    public int getSackWithDataReceived() {
+        return sackWithDataReceived;
+    }
+
+    /**
+     * @return received packets with a zero checksum
+     */
+    /**
+     * Read until a heartbeat at least this long arrives, answering it and any before it.
+     *
+     * @param minLength smallest chunk length to wait for, larger than a plain heartbeat for a path MTU probe
+     * @return length of the heartbeat chunk
+     */
+    public int receiveHeartBeat(int minLength) throws IOException {
+        while (true) {
+            byte[] chunk = receiveChunk(HEARTBEAT);
+            if (chunk.length >= minLength) {
+                return chunk.length;
+            }
+        }
+    }
+
+    public int getZeroChecksumReceived() {
+        return zeroChecksumReceived;
+    }
+
+    public void send(int stream, String message) throws IOException {
+        sendData(stream, PPID_STRING, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String receive(int stream) throws IOException {
+        return new String(receiveData(stream, PPID_STRING), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Send one ordered message as a DATA chunk per fragment, without waiting in between.
+     */
+    public void sendFragments(int stream, String... fragments) throws IOException {
+        int ssn = nextSsn(stream);
+        for (int i = 0; i < fragments.length; i++) {
+            int flags = (i == 0 ? 0x02 : 0) | (i == fragments.length - 1 ? 0x01 : 0);
+            byte[] payload = fragments[i].getBytes(StandardCharsets.UTF_8);
+            if (messageInterleaving) {
+                sendIData(stream, ssn, flags, i == 0 ? PPID_STRING : i, payload);
+            } else {
+                sendData(stream, ssn, flags, PPID_STRING, payload);
+            }
+        }
+    }
+
+    private int nextSsn(int stream) {
+        int ssn = nextSsn.getOrDefault(stream, 0);
+        nextSsn.put(stream, (ssn + 1) & 0xFFFF);
+        return ssn;
+    }
+
+    private void sendData(int stream, int ppid, byte[] payload) throws IOException {
+        if (messageInterleaving) {
+            sendIData(stream, nextSsn(stream), 0x03, ppid, payload);
+        } else {
+            sendData(stream, nextSsn(stream), 0x03, ppid, payload);
+        }
+    }
+
+    /**
+     * @param mid message identifier, taken from the same counter as the SSN
+     * @param ppidOrFsn ppid on the first fragment, fragment sequence number on the rest
+     */
+    private void sendIData(int stream, int mid, int flags, int ppidOrFsn, byte[] payload) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(16 + payload.length);
+        data.putInt((int) nextTsn++);
+        data.putShort((short) stream);
+        data.putShort((short) 0);
+        data.putInt(mid);
+        data.putInt(ppidOrFsn);
+        data.put(payload);
+        send(remoteTag, chunk(I_DATA, flags, data.array()));
+    }
+
+    private void sendData(int stream, int ssn, int flags, int ppid, byte[] payload) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(12 + payload.length);
+        data.putInt((int) nextTsn++);
+        data.putShort((short) stream);
+        data.putShort((short) ssn);
+        data.putInt(ppid);
+        data.put(payload);
+        send(remoteTag, chunk(DATA, flags, data.array()));
+    }
+
+    /**
+     * @return payload of the next complete DATA or I-DATA chunk on the stream with the ppid
+     */
+    private byte[] receiveData(int stream, int ppid) throws IOException {
+        int header = messageInterleaving ? 20 : 16;
+        while (true) {
+            ByteBuffer data = ByteBuffer.wrap(receiveChunk(messageInterleaving ? I_DATA : DATA));
+            long tsn = data.getInt(4) & 0xFFFFFFFFL;
+            int chunkStream = data.getShort(8) & 0xFFFF;
+            int chunkPpid = data.getInt(header - 4);
+            int length = data.getShort(2) & 0xFFFF;
+            if (tsn == remoteCumulativeTsn + 1) {
+                remoteCumulativeTsn = tsn;
+            }
+            sack();
+            if (chunkStream == stream && chunkPpid == ppid) {
+                return Arrays.copyOfRange(data.array(), header, length);
+            }
+        }
+    }
+
+    private void sack() throws IOException {
+        ByteBuffer sack = ByteBuffer.allocate(12);
+        sack.putInt((int) remoteCumulativeTsn);
+        sack.putInt(1000000);
+        sack.putShort((short) 0);
+        sack.putShort((short) 0);
+        send(remoteTag, chunk(SACK, 0, sack.array()));
+    }
+
+    /**
+     * Read packets until one has a chunk of the type, answering heartbeats meanwhile.
+     *
+     * @return the whole chunk including its header
+     */
+    private byte[] receiveChunk(int type) throws IOException {
+        while (!pending.isEmpty()) {
+            byte[] chunk = pending.poll();
+            if ((chunk[0] & 0xFF) == type) {
+                return chunk;
+            }
+        }
+        byte[] buf = new byte[dtls.getReceiveLimit()];
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            int length = dtls.receive(buf, 0, buf.length, 500);
+            if (length >= 12 && buf[8] == 0 && buf[9] == 0 && buf[10] == 0 && buf[11] == 0) {
+                zeroChecksumReceived++;
+            }
+            int offset = 12;
+            byte[] found = null;
+            boolean hasSack = false;
+            boolean hasData = false;
+            while (offset + 4 <= length) {
+                int chunkType = buf[offset] & 0xFF;
+                hasSack |= chunkType == SACK;
+                hasData |= chunkType == DATA || chunkType == I_DATA;
+                int chunkLength = ((buf[offset + 2] & 0xFF) << 8) | (buf[offset + 3] & 0xFF);
+                if (chunkLength < 4) {
+                    break;
+                }
+                byte[] chunk = Arrays.copyOfRange(buf, offset, offset + chunkLength);
+                if (found != null) {
+                    pending.add(chunk);
+                } else if (chunkType == type) {
+                    found = chunk;
+                }
+                if (chunkType == HEARTBEAT) {
+                    send(remoteTag, chunk(HEARTBEAT_ACK, 0, Arrays.copyOfRange(chunk, 4, chunk.length)));
+                }
+                offset += SignalUtil.multipleOfFour(chunkLength);
+            }
+            if (hasSack && hasData) {
+                sackWithDataReceived++;
+            }
+            if (found != null) {
+                return found;
+            }
+        }
+        throw new IOException("No chunk of type " + type + " received");
+    }
+
+    private static byte[] findParameter(byte[] chunk, int offset, int type) throws IOException {
+        byte[] parameter = findOptionalParameter(chunk, offset, type);
+        if (parameter == null) {
+            throw new IOException("Parameter " + type + " not found");
+        }
+        return parameter;
+    }
+
+    private static byte[] findOptionalParameter(byte[] chunk, int offset, int type) {
+        ByteBuffer params = ByteBuffer.wrap(chunk);
+        while (offset + 4 <= chunk.length) {
+            int paramType = params.getShort(offset) & 0xFFFF;
+            int paramLength = params.getShort(offset + 2) & 0xFFFF;
+            if (paramType == type) {
+                return Arrays.copyOfRange(chunk, offset + 4, offset + paramLength);
+            }
+            if (paramLength < 4) {
+                break;
+            }
+            offset += SignalUtil.multipleOfFour(paramLength);
+        }
+        return null;
+    }
+
+    private static boolean contains(byte[] values, int value) {
+        for (byte b : values) {
+            if ((b & 0xFF) == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] chunk(int type, int flags, byte[] body) {
+        ByteBuffer chunk = ByteBuffer.allocate(SignalUtil.multipleOfFour(4 + body.length));
+        chunk.put((byte) type);
+        chunk.put((byte) flags);
+        chunk.putShort((short) (4 + body.length));
+        chunk.put(body);
+        return chunk.array();
+    }
+
+    private void send(long verificationTag, byte[] chunk) throws IOException {
+        ByteBuffer packet = ByteBuffer.allocate(12 + chunk.length);
+        packet.putShort((short) SCTP_PORT);
+        packet.putShort((short) SCTP_PORT);
+        packet.putInt((int) verificationTag);
+        packet.putInt(0);
+        packet.put(chunk);
+        byte[] out = packet.array();
+        if (!zeroChecksum) {
+            byte[] checksum = SignalUtil.flipBytes(SignalUtil.longToFourBytes(SignalUtil.computeCRC32c(out)));
+            System.arraycopy(checksum, 0, out, 8, 4);
+        }
+        dtls.send(out, 0, out.length);
+    }
+
+    /**
+     * @return binding request with USERNAME, MESSAGE-INTEGRITY and FINGERPRINT
+     */
+    private byte[] bindingRequest(UserData server) {
+        byte[] name = (server.getUserName() + ":" + user.getUserName()).getBytes(StandardCharsets.US_ASCII);
+        int nameAttribute = 4 + SignalUtil.multipleOfFour(name.length);
+        ByteBuffer msg = ByteBuffer.allocate(20 + nameAttribute + 24 + 8);
+        msg.putShort((short) 0x0001);
+        msg.putShort((short) (nameAttribute + 24));
+        msg.putInt(STUN_COOKIE);
+        msg.put(SignalUtil.randomBytes(12));
+        msg.putShort((short) 0x0006);
+        msg.putShort((short) name.length);
+        msg.put(name);
+        msg.position(20 + nameAttribute);
+
+        byte[] mac = SignalUtil.hmacSha1(Arrays.copyOf(msg.array(), 20 + nameAttribute),
+                server.getPassword().getBytes(StandardCharsets.US_ASCII));
+        msg.putShort((short) 0x0008);
+        msg.putShort((short) 20);
+        msg.put(mac);
+
+        msg.putShort(2, (short) (nameAttribute + 24 + 8));
+        CRC32 crc = new CRC32();
+        crc.update(msg.array(), 0, 20 + nameAttribute + 24);
+        msg.putShort((short) 0x8028);
+        msg.putShort((short) 4);
+        msg.putInt((int) crc.getValue() ^ 0x5354554e);
+        return msg.array();
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (dtls != null) {
+                dtls.close();
+            }
+        } catch (IOException e) {
+            //Closing anyway
+        }
+        socket.close();
+    }
+
+    /**
+     * DTLS 1.2 client authenticating with the test keystore, like a browser with its own certificate
+     */
+    private static class PeerDtlsClient extends DefaultTlsClient {
+
+        PeerDtlsClient() {
+            super(new BcTlsCrypto(new SecureRandom()));
+        }
+
+        @Override
+        public ProtocolVersion[] getProtocolVersions() {
+            return new ProtocolVersion[]{ProtocolVersion.DTLSv12};
+        }
+
+        @Override
+        public TlsAuthentication getAuthentication() {
+            return new TlsAuthentication() {
+                @Override
+                public void notifyServerCertificate(TlsServerCertificate serverCertificate) {
+                }
+
+                @Override
+                public TlsCredentials getClientCredentials(CertificateRequest certificateRequest) throws IOException {
+                    return credentials();
+                }
+            };
+        }
+
+        private TlsCredentials credentials() throws IOException {
+            try {
+                KeyStore ks = KeyStore.getInstance("JKS");
+                try (FileInputStream in = new FileInputStream(KEYSTORE)) {
+                    ks.load(in, PASS.toCharArray());
+                }
+                RSAPrivateCrtKey rsa = (RSAPrivateCrtKey) ks.getKey(ALIAS, PASS.toCharArray());
+                AsymmetricKeyParameter key = new RSAPrivateCrtKeyParameters(rsa.getModulus(), rsa.getPublicExponent(),
+                        rsa.getPrivateExponent(), rsa.getPrimeP(), rsa.getPrimeQ(), rsa.getPrimeExponentP(),
+                        rsa.getPrimeExponentQ(), rsa.getCrtCoefficient());
+                BcTlsCrypto crypto = (BcTlsCrypto) getCrypto();
+                Certificate chain = new Certificate(new TlsCertificate[]{
+                        new BcTlsCertificate(crypto, ks.getCertificate(ALIAS).getEncoded())});
+                return new BcDefaultTlsCredentialedSigner(new TlsCryptoParameters(context), crypto, key, chain,
+                        new SignatureAndHashAlgorithm(HashAlgorithm.sha256, SignatureAlgorithm.rsa));
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("Failed to load client credentials", e);
+            }
+        }
+    }
+
+}
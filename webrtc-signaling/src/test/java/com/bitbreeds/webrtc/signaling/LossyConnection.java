@@ -9,6 +9,7 @@ import org.apache.commons.codec.binary.Hex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -78,19 +79,22 @@ public class LossyConnection extends ConnectionImplementation {
      * for some percentage of messages, simulating a drop.
      *
      * @param buf with received bytes
+     * @param offset start of message
+     * @param length length of message
      */
     @Override
-    public void processReceivedMessage(byte[] buf) {
+    public void processReceivedMessage(byte[] buf, int offset, int length) {
         int cnt = inCount.incrementAndGet();
 
         int rd = random.nextInt(100);
         if(rd > packetlossPercentageIn || cnt < 5) {
-            super.processReceivedMessage(buf);
+            super.processReceivedMessage(buf, offset, length);
         }
         else {
-            SCTPMessage msg = SCTPMessage.fromBytes(buf);
+            byte[] data = Arrays.copyOfRange(buf, offset, offset + length);
+            SCTPMessage msg = SCTPMessage.fromBytes(data);
             logger.info("Parsed: {}",msg);
-            logger.info("Dropped received message with rd {} and data {}",rd, Hex.encodeHexString(buf));
+            logger.info("Dropped received message with rd {} and data {}",rd, Hex.encodeHexString(data));
         }
     }
 }
@@ -11,6 +11,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Random;
@@ -179,13 +180,18 @@ public class LossyDelayedJitteryConnection extends ConnectionImplementation {
      *
      * Once that delay + jitter is passed deliver the packet
      *
+     * The buffer is reused by the connection, so the delayed message is a copy.
+     *
      * @param buf with received bytes
+     * @param offset start of message
+     * @param length length of message
      */
     @Override
-    public void processReceivedMessage(byte[] buf) {
+    public void processReceivedMessage(byte[] buf, int offset, int length) {
         int cnt = inCount.incrementAndGet();
 
-        SCTPMessage msg = SCTPMessage.fromBytes(buf);
+        byte[] data = Arrays.copyOfRange(buf, offset, offset + length);
+        SCTPMessage msg = SCTPMessage.fromBytes(data);
         List<SCTPMessageType> types = msg.getChunks()
                 .stream()
                 .map(SCTPChunk::getType)
@@ -195,7 +201,7 @@ public class LossyDelayedJitteryConnection extends ConnectionImplementation {
             int jitter = random.nextInt(maxJitter);
             synchronized (received) {
                 logger.info("Received packet with type {}",types);
-                received.add(new DatedBytes(buf, System.currentTimeMillis(), fixedDelay + jitter));
+                received.add(new DatedBytes(data, System.currentTimeMillis(), fixedDelay + jitter));
             }
         }
         else {